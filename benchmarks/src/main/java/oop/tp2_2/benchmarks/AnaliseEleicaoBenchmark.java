@@ -0,0 +1,166 @@
+package oop.tp2_2.benchmarks;
+
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.utils.AnalisadorEleicao;
+import oop.tp2_2.utils.AplicadorRestricoes;
+import oop.tp2_2.utils.CalculadoraDHondt;
+import oop.tp2_2.utils.ValidadorEleicao;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks da validação de restrições e da análise comparativa, sobre os cenários de demonstração do Main.
+ * A saída na consola é desviada para um fluxo nulo, para medir o cálculo e a formatação sem o custo do terminal.
+ * Como a validação altera os votos, cada execução de {@link #validaEAplicaRestricoes} recebe uma lista nova (ver
+ * {@link EstadoValidacao}) e {@link #aplicaRestricoes} copia os votos de um modelo; caso contrário, só a primeira
+ * execução cortaria votos e as restantes mediriam o caso sem cortes.
+ * @author Luis Matos
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnaliseEleicaoBenchmark
+{
+    private static final int TOTAL_ASSENTOS = 230;
+    private static final int TOTAL_VOTOS = 6000000;
+    
+    private List<Partido> comColigacao;
+    private List<Partido> semColigacao;
+    private long[] modeloVotos;
+    private long[] votos;
+    private PrintStream saidaOriginal;
+    
+    /**
+     * Lista nova do cenário com coligação para cada execução da validação (a validação altera os votos).
+     */
+    @State(Scope.Thread)
+    public static class EstadoValidacao
+    {
+        private List<Partido> partidos;
+        
+        @Setup(Level.Invocation)
+        public void prepara()
+        {
+            partidos = criaPartidosComColigacao();
+        }
+    }
+    
+    /**
+     * Constrói os dois cenários (com e sem a coligação AD) uma única vez, aplica as restrições e aloca os assentos,
+     * tal como o Main, para que a análise use os votos com as restrições aplicadas.
+     */
+    @Setup(Level.Trial)
+    public void prepara()
+    {
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        semColigacao = criaPartidosIndividuais();
+        comColigacao = criaPartidosComColigacao();
+        modeloVotos = new long[comColigacao.size()];
+        for (int i = 0; i < modeloVotos.length; i++)
+        {
+            modeloVotos[i] = comColigacao.get(i).getVotos();
+        }
+        votos = new long[modeloVotos.length];
+        
+        int limiteVotosMin = ValidadorEleicao.calculaLimiteVotosMin(TOTAL_VOTOS);
+        ValidadorEleicao.aplicaRestricoes(comColigacao, TOTAL_VOTOS, limiteVotosMin,
+                AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+        ValidadorEleicao.aplicaRestricoes(semColigacao, TOTAL_VOTOS, limiteVotosMin,
+                AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+        CalculadoraDHondt.aplicaAlocacaoAssentos(
+                CalculadoraDHondt.calculaDistribuicaoAssentos(comColigacao, TOTAL_ASSENTOS, limiteVotosMin));
+        CalculadoraDHondt.aplicaAlocacaoAssentos(
+                CalculadoraDHondt.calculaDistribuicaoAssentos(semColigacao, TOTAL_ASSENTOS, limiteVotosMin));
+    }
+    
+    /**
+     * Repõe a saída original da consola.
+     */
+    @TearDown(Level.Trial)
+    public void termina()
+    {
+        System.setOut(saidaOriginal);
+    }
+    
+    @Benchmark
+    public void validaEAplicaRestricoes(EstadoValidacao estado)
+    {
+        ValidadorEleicao.validaEAplicaRestricoes(estado.partidos, TOTAL_VOTOS);
+    }
+    
+    @Benchmark
+    public long aplicaRestricoes()
+    {
+        System.arraycopy(modeloVotos, 0, votos, 0, votos.length);
+        return ValidadorEleicao.aplicaRestricoes(votos, votos.length, TOTAL_VOTOS,
+                AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+    }
+    
+    @Benchmark
+    public void realizaAnaliseComparativa()
+    {
+        AnalisadorEleicao.realizaAnaliseComparativa(comColigacao, semColigacao, TOTAL_ASSENTOS, TOTAL_VOTOS);
+    }
+    
+    /**
+     * Cria os partidos do cenário de demonstração, com o PSD e o CDS coligados na AD.
+     * @return Lista dos partidos, com a coligação na posição do PSD.
+     */
+    private static List<Partido> criaPartidosComColigacao()
+    {
+        List<Partido> membrosAD = new ArrayList<>();
+        List<Partido> partidos = new ArrayList<>();
+        for (Partido partido : criaPartidosIndividuais())
+        {
+            if (partido.getNome().equals("PSD") || partido.getNome().equals("CDS"))
+            {
+                membrosAD.add(partido);
+            }
+            else
+            {
+                partidos.add(partido);
+            }
+        }
+        partidos.add(1, new Partido("AD", membrosAD));
+        return partidos;
+    }
+    
+    /**
+     * Cria os partidos do cenário de demonstração, a concorrer individualmente.
+     * @return Lista dos partidos individuais.
+     */
+    private static List<Partido> criaPartidosIndividuais()
+    {
+        List<Partido> partidos = new ArrayList<>();
+        partidos.add(new Partido("PS", 1850000));
+        partidos.add(new Partido("PSD", 1820000));
+        partidos.add(new Partido("CH", 850000));
+        partidos.add(new Partido("IL", 420000));
+        partidos.add(new Partido("BE", 380000));
+        partidos.add(new Partido("PCP", 350000));
+        partidos.add(new Partido("L", 320000));
+        partidos.add(new Partido("PAN", 280000));
+        partidos.add(new Partido("CDS", 150000));
+        return partidos;
+    }
+}
@@ -0,0 +1,85 @@
+package oop.tp2_2.benchmarks;
+
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.utils.CalculadoraDHondt;
+import oop.tp2_2.utils.ValidadorEleicao;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks da distribuição de assentos D'Hondt para diferentes números de partidos e de assentos.
+ * Compara o adaptador baseado em mapas, o motor primitivo e o modo de pesquisa direta do divisor.
+ * @author Luis Matos
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculadoraDHondtBenchmark
+{
+    @Param({"10", "100", "1000", "10000"})
+    private int partidos;
+    
+    @Param({"230", "10000", "1000000"})
+    private int assentos;
+    
+    private List<Partido> listaPartidos;
+    private int[] votos;
+    private long[] votosLong;
+    private int votosMargemMin;
+    
+    /**
+     * Gera uma distribuição de votos reprodutível, com poucos partidos grandes e muitos pequenos.
+     */
+    @Setup
+    public void prepara()
+    {
+        SplittableRandom gerador = new SplittableRandom(42);
+        listaPartidos = new ArrayList<>();
+        votos = new int[partidos];
+        votosLong = new long[partidos];
+        int totalVotos = 0;
+        for (int i = 0; i < partidos; i++)
+        {
+            votos[i] = (int) (2000000.0 / (i + 1) * (0.5 + gerador.nextDouble())) + 1;
+            votosLong[i] = votos[i];
+            totalVotos += votos[i];
+            listaPartidos.add(new Partido("P" + i, votos[i]));
+        }
+        votosMargemMin = ValidadorEleicao.calculaLimiteVotosMin(totalVotos);
+    }
+    
+    @Benchmark
+    public Map<Partido, Integer> distribuicaoMapa()
+    {
+        return CalculadoraDHondt.calculaDistribuicaoAssentos(listaPartidos, assentos, votosMargemMin);
+    }
+    
+    @Benchmark
+    public int[] distribuicaoPrimitiva()
+    {
+        return CalculadoraDHondt.calculaDistribuicaoAssentos(votos, assentos, votosMargemMin);
+    }
+    
+    @Benchmark
+    public int[] distribuicaoPorDivisor()
+    {
+        return CalculadoraDHondt.calculaDistribuicaoAssentosPorDivisor(votosLong, assentos, votosMargemMin);
+    }
+}
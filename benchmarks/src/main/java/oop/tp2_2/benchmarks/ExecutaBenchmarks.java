@@ -0,0 +1,377 @@
+package oop.tp2_2.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada dos benchmarks: executa todos os benchmarks com o perfilador de memória (GC), grava os
+ * resultados em CSV e compara-os com a linha de base guardada, assinalando as regressões.
+ * Com a linha de base é gravado o ambiente em que foi medida (JDK, sistema, processador); se o ambiente atual for
+ * diferente, a comparação é feita na mesma, mas com um aviso, pois as variações podem não se dever ao código.
+ * Utilização: java -jar benchmarks.jar [--linha-base] [filtro]
+ * - --linha-base: grava os resultados desta execução como a nova linha de base;
+ * - filtro: expressão regular dos benchmarks a executar (por defeito, todos).
+ * O limite de regressão (por defeito 10%) pode ser alterado com -Dregressao.limite=percentagem.
+ * @author Luis Matos
+ */
+public class ExecutaBenchmarks
+{
+    private static final Path PASTA_RESULTADOS = Paths.get("resultados");
+    private static final Path LINHA_BASE = Paths.get("baseline", "linha-base.csv");
+    private static final Path AMBIENTE_LINHA_BASE = Paths.get("baseline", "ambiente.properties");
+    private static final double LIMITE_REGRESSAO = Double.parseDouble(System.getProperty("regressao.limite", "10"));
+    
+    /**
+     * Método principal - executa os benchmarks e compara os resultados com a linha de base.
+     * @param args Argumentos para a linha de comandos (--linha-base e/ou filtro dos benchmarks).
+     * @throws RunnerException Se a execução dos benchmarks falhar.
+     * @throws IOException Se não for possível ler ou gravar os ficheiros de resultados.
+     */
+    public static void main(String[] args) throws RunnerException, IOException
+    {
+        boolean gravaLinhaBase = false;
+        String filtro = ".*Benchmark.*";
+        for (String argumento : args)
+        {
+            if (argumento.equals("--linha-base"))
+            {
+                gravaLinhaBase = true;
+            }
+            else
+            {
+                filtro = argumento;
+            }
+        }
+        
+        Files.createDirectories(PASTA_RESULTADOS);
+        String carimbo = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path ficheiroResultados = PASTA_RESULTADOS.resolve("resultados-" + carimbo + ".csv");
+        
+        Options opcoes = new OptionsBuilder()
+                .include(filtro)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result(ficheiroResultados.toString())
+                .build();
+        new Runner(opcoes).run();
+        System.out.println("\nResultados gravados em " + ficheiroResultados.toAbsolutePath());
+        
+        if (gravaLinhaBase)
+        {
+            Files.createDirectories(LINHA_BASE.getParent());
+            Files.copy(ficheiroResultados, LINHA_BASE, StandardCopyOption.REPLACE_EXISTING);
+            gravaAmbiente(descreveAmbiente(), AMBIENTE_LINHA_BASE);
+            System.out.println("Linha de base atualizada em " + LINHA_BASE.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(LINHA_BASE))
+        {
+            System.out.println("Sem linha de base para comparação (execute com --linha-base para a criar).");
+            return;
+        }
+        comparaAmbientes(Files.exists(AMBIENTE_LINHA_BASE) ? leAmbiente(AMBIENTE_LINHA_BASE) : Map.of(),
+                descreveAmbiente());
+        
+        int regressoes = comparaComLinhaBase(leResultados(LINHA_BASE), leResultados(ficheiroResultados));
+        if (regressoes > 0)
+        {
+            System.out.printf("\n%d regressão(ões) acima de %.1f%% face à linha de base.\n", regressoes,
+                    LIMITE_REGRESSAO);
+            System.exit(1);
+        }
+        System.out.println("\nSem regressões face à linha de base.");
+    }
+    
+    /**
+     * Descreve o ambiente de execução: versão e fornecedor do JDK, sistema operativo, processador e memória.
+     * @return Mapa ordenado das propriedades do ambiente.
+     */
+    private static Map<String, String> descreveAmbiente()
+    {
+        Map<String, String> ambiente = new LinkedHashMap<>();
+        ambiente.put("java.version", System.getProperty("java.version"));
+        ambiente.put("java.vendor", System.getProperty("java.vendor"));
+        ambiente.put("java.vm.name", System.getProperty("java.vm.name"));
+        ambiente.put("os.name", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        ambiente.put("os.arch", System.getProperty("os.arch"));
+        ambiente.put("cpu.modelo", leModeloProcessador());
+        ambiente.put("cpu.processadores", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        ambiente.put("memoria.max.mb", String.valueOf(Runtime.getRuntime().maxMemory() >> 20));
+        return ambiente;
+    }
+    
+    /**
+     * Lê o modelo do processador (em Linux, de /proc/cpuinfo).
+     * @return O modelo do processador, ou "desconhecido" se não estiver disponível.
+     */
+    private static String leModeloProcessador()
+    {
+        Path cpuinfo = Paths.get("/proc/cpuinfo");
+        try
+        {
+            if (Files.isReadable(cpuinfo))
+            {
+                for (String linha : Files.readAllLines(cpuinfo, StandardCharsets.UTF_8))
+                {
+                    if (linha.startsWith("model name") && linha.indexOf(':') > 0)
+                    {
+                        return linha.substring(linha.indexOf(':') + 1).strip();
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            // Sem acesso ao modelo: fica como desconhecido
+        }
+        return "desconhecido";
+    }
+    
+    /**
+     * Grava a descrição do ambiente, uma propriedade por linha (chave=valor).
+     * @param ambiente Propriedades do ambiente.
+     * @param ficheiro Caminho do ficheiro.
+     * @throws IOException Se não for possível gravar o ficheiro.
+     */
+    private static void gravaAmbiente(Map<String, String> ambiente, Path ficheiro) throws IOException
+    {
+        List<String> linhas = new ArrayList<>();
+        for (Map.Entry<String, String> propriedade : ambiente.entrySet())
+        {
+            linhas.add(propriedade.getKey() + "=" + propriedade.getValue());
+        }
+        Files.write(ficheiro, linhas, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Lê a descrição do ambiente gravada com {@link #gravaAmbiente}.
+     * @param ficheiro Caminho do ficheiro.
+     * @return Mapa ordenado das propriedades do ambiente.
+     * @throws IOException Se não for possível ler o ficheiro.
+     */
+    private static Map<String, String> leAmbiente(Path ficheiro) throws IOException
+    {
+        Map<String, String> ambiente = new LinkedHashMap<>();
+        for (String linha : Files.readAllLines(ficheiro, StandardCharsets.UTF_8))
+        {
+            int separador = linha.indexOf('=');
+            if (separador > 0 && !linha.startsWith("#"))
+            {
+                ambiente.put(linha.substring(0, separador), linha.substring(separador + 1));
+            }
+        }
+        return ambiente;
+    }
+    
+    /**
+     * Mostra o ambiente da linha de base e avisa se o JDK ou o processador forem diferentes dos atuais.
+     * @param linhaBase Ambiente em que a linha de base foi medida (vazio se não foi gravado).
+     * @param atual Ambiente da execução atual.
+     */
+    private static void comparaAmbientes(Map<String, String> linhaBase, Map<String, String> atual)
+    {
+        System.out.println("\n=== AMBIENTE DA LINHA DE BASE ===");
+        if (linhaBase.isEmpty())
+        {
+            System.out.println("Desconhecido (linha de base gravada sem a descrição do ambiente).");
+            return;
+        }
+        boolean diferente = false;
+        for (Map.Entry<String, String> propriedade : linhaBase.entrySet())
+        {
+            String valorAtual = atual.get(propriedade.getKey());
+            boolean igual = Objects.equals(propriedade.getValue(), valorAtual);
+            if (!igual && !propriedade.getKey().startsWith("memoria."))
+            {
+                diferente = true;
+            }
+            System.out.printf("%-20s %s%s\n", propriedade.getKey(), propriedade.getValue(),
+                    igual ? "" : " (atual: " + valorAtual + ")");
+        }
+        if (diferente)
+        {
+            System.out.println("Atenção: o ambiente atual é diferente do da linha de base; as variações podem não"
+                    + " se dever ao código (grave uma nova linha de base neste ambiente com --linha-base).");
+        }
+    }
+    
+    /**
+     * Compara as métricas comparáveis das duas execuções e mostra as variações.
+     * São comparados o resultado principal (débito: maior é melhor; tempo médio: menor é melhor)
+     * e a memória alocada por operação (gc.alloc.rate.norm: menor é melhor).
+     * @param linhaBase Resultados da linha de base, por chave.
+     * @param atuais Resultados da execução atual, por chave.
+     * @return Número de regressões acima do limite.
+     */
+    private static int comparaComLinhaBase(Map<String, Resultado> linhaBase, Map<String, Resultado> atuais)
+    {
+        System.out.println("\n=== COMPARAÇÃO COM A LINHA DE BASE ===");
+        int regressoes = 0;
+        for (Map.Entry<String, Resultado> entrada : atuais.entrySet())
+        {
+            Resultado atual = entrada.getValue();
+            Resultado base = linhaBase.get(entrada.getKey());
+            if (base == null || !atual.isComparavel() || base.pontuacao == 0)
+            {
+                continue;
+            }
+            
+            // Variação positiva = melhoria, independentemente do sentido da métrica
+            double variacao = (atual.pontuacao - base.pontuacao) / base.pontuacao * 100;
+            if (!atual.isMaiorMelhor())
+            {
+                variacao = -variacao;
+            }
+            // Menos de um byte por operação é ruído do perfilador (p.ex. num benchmark sem alocações)
+            if (atual.isMemoria() && Math.abs(atual.pontuacao - base.pontuacao) < 1)
+            {
+                variacao = 0;
+            }
+            boolean regressao = variacao < -LIMITE_REGRESSAO;
+            if (regressao)
+            {
+                regressoes++;
+            }
+            System.out.printf("%-90s %14.3f -> %14.3f %-12s %+7.1f%% %s\n", entrada.getKey(), base.pontuacao,
+                    atual.pontuacao, atual.unidade, variacao, regressao ? "REGRESSÃO" : "");
+        }
+        return regressoes;
+    }
+    
+    /**
+     * Lê um ficheiro de resultados CSV do JMH.
+     * @param ficheiro Caminho do ficheiro.
+     * @return Mapa da chave (benchmark, modo e parâmetros) para o resultado, pela ordem do ficheiro.
+     * @throws IOException Se não for possível ler o ficheiro.
+     */
+    private static Map<String, Resultado> leResultados(Path ficheiro) throws IOException
+    {
+        List<String> linhas = Files.readAllLines(ficheiro, StandardCharsets.UTF_8);
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        if (linhas.isEmpty())
+        {
+            return resultados;
+        }
+        
+        List<String> cabecalho = separaCampos(linhas.get(0));
+        int colunaBenchmark = cabecalho.indexOf("Benchmark");
+        int colunaModo = cabecalho.indexOf("Mode");
+        int colunaPontuacao = cabecalho.indexOf("Score");
+        int colunaUnidade = cabecalho.indexOf("Unit");
+        for (String linha : linhas.subList(1, linhas.size()))
+        {
+            List<String> campos = separaCampos(linha);
+            if (campos.size() != cabecalho.size())
+            {
+                continue;
+            }
+            StringBuilder chave = new StringBuilder(campos.get(colunaBenchmark)).append(" [")
+                    .append(campos.get(colunaModo)).append(']');
+            for (int i = 0; i < cabecalho.size(); i++)
+            {
+                // Os parâmetros vazios (benchmarks sem esse parâmetro) não fazem parte da chave, para que a chave não
+                // dependa dos outros benchmarks incluídos na mesma execução
+                if (cabecalho.get(i).startsWith("Param: ") && !campos.get(i).isEmpty())
+                {
+                    chave.append(' ').append(cabecalho.get(i).substring(7)).append('=').append(campos.get(i));
+                }
+            }
+            try
+            {
+                resultados.put(chave.toString(), new Resultado(campos.get(colunaBenchmark), campos.get(colunaModo),
+                        Double.parseDouble(campos.get(colunaPontuacao)), campos.get(colunaUnidade)));
+            }
+            catch (NumberFormatException e)
+            {
+                // Pontuação indisponível (NaN ou vazia): a linha é ignorada
+            }
+        }
+        return resultados;
+    }
+    
+    /**
+     * Separa uma linha CSV nos seus campos, retirando as aspas.
+     * @param linha Linha do ficheiro.
+     * @return Lista dos campos.
+     */
+    private static List<String> separaCampos(String linha)
+    {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++)
+        {
+            char c = linha.charAt(i);
+            if (c == '"')
+            {
+                entreAspas = !entreAspas;
+            }
+            else if (c == ',' && !entreAspas)
+            {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            }
+            else
+            {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+    
+    /**
+     * Uma linha de resultados do JMH (resultado principal ou métrica secundária de um perfilador).
+     */
+    private static final class Resultado
+    {
+        private final String benchmark;
+        private final String modo;
+        private final double pontuacao;
+        private final String unidade;
+        
+        private Resultado(String benchmark, String modo, double pontuacao, String unidade)
+        {
+            this.benchmark = benchmark;
+            this.modo = modo;
+            this.pontuacao = pontuacao;
+            this.unidade = unidade;
+        }
+        
+        /**
+         * As restantes métricas do perfilador (taxas por segundo, contagens de recolhas) dependem do débito
+         * ou do acaso e não são comparadas.
+         */
+        private boolean isComparavel()
+        {
+            return !benchmark.contains(":") || benchmark.endsWith(":gc.alloc.rate.norm");
+        }
+        
+        private boolean isMemoria()
+        {
+            return benchmark.endsWith(":gc.alloc.rate.norm");
+        }
+        
+        private boolean isMaiorMelhor()
+        {
+            return !benchmark.contains(":") && modo.equals("thrpt");
+        }
+    }
+}
@@ -1,9 +1,21 @@
 package oop.tp2_2;
 
+import oop.tp2_2.models.EleicaoArquivada;
+import oop.tp2_2.models.FotografiaEleicao;
 import oop.tp2_2.models.Partido;
-import oop.tp2_2.utils.CalculadoraDHondt;
+import oop.tp2_2.models.ResultadoAlocacao;
+import oop.tp2_2.utils.CalculadoraMetodos;
 import oop.tp2_2.utils.AnalisadorEleicao;
 import oop.tp2_2.utils.ValidadorEleicao;
+import oop.tp2_2.utils.EscritorRelatorios;
+import oop.tp2_2.utils.ExecutorCenarios;
+import oop.tp2_2.utils.ServidorAlocacao;
+import oop.tp2_2.utils.ClienteCarga;
+import oop.tp2_2.utils.LeitorArquivoEleicoes;
+import oop.tp2_2.models.ResumoLote;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -19,14 +31,47 @@ public class Main
     // Constantes eleitorais - Baseadas nos paramêtros específicos do Parlamento Português
     private static final int TOTAL_ASSENTOS = 230; // Número total de assentos no Parlamento
     private static final int TOTAL_VOTOS = 6000000; // Número total de votos tendo por base uma partipação de 60%
+    // Cenário de demonstração enviado pelo teste de carga (os mesmos votos da análise comparativa)
+    private static final String CENARIO_DEMONSTRACAO = "{\"nome\":\"Demonstração\",\"assentos\":" + TOTAL_ASSENTOS
+            + ",\"partidos\":[{\"nome\":\"PS\",\"votos\":1850000},{\"nome\":\"PSD\",\"votos\":1820000},"
+            + "{\"nome\":\"CH\",\"votos\":850000},{\"nome\":\"IL\",\"votos\":420000},"
+            + "{\"nome\":\"BE\",\"votos\":380000},{\"nome\":\"PCP\",\"votos\":350000},"
+            + "{\"nome\":\"L\",\"votos\":320000},{\"nome\":\"PAN\",\"votos\":280000},"
+            + "{\"nome\":\"CDS\",\"votos\":150000}],\"coligacoes\":{\"AD\":[\"PSD\",\"CDS\"]}}";
     
     /**
      * Método principal - ponto de entrada na aplicação.
      * Executa uma análise comparativa detalhada por defeito.
-     * @param args Argumentos para a linha de comandos (não utilizado)
+     * Com "--lote entrada saida [formato] [concorrencia]" executa em lote os cenários de um ficheiro
+     * (ver {@link ExecutorCenarios}); com "--servidor [porta]" arranca o servidor HTTP (ver {@link ServidorAlocacao})
+     * e com "--carga endereco [pedidos] [concorrencia]" executa um teste de carga contra um servidor; com
+     * "--arquivo ficheiro" percorre um arquivo de eleições históricas (ver {@link LeitorArquivoEleicoes}).
+     * @param args Argumentos para a linha de comandos (opcionais, para os modos em lote, servidor, carga e
+     *             arquivo)
      */
     public static void main(String[] args) 
     {
+        if (args.length >= 3 && args[0].equals("--lote"))
+        {
+            executaLote(args);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--servidor"))
+        {
+            executaServidor(args);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--carga"))
+        {
+            executaCarga(args);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--arquivo"))
+        {
+            executaArquivo(args);
+            return;
+        }
+        
         System.out.println("\n=== SIMULAÇÃO DA ELEIÇÃO PARA O PARLAMENTO DA RÉPUBLICA PORTUGUESA ===");
         System.out.println("Método D'Hondt com Análise Comparativa de Coligações\n (Inclui Restrições Aplicadas ao Mundo Real)");
         System.out.println("=".repeat(70));
@@ -40,81 +85,169 @@ public class Main
     }
     
     /**
-     * Inicializa os partidos participantes com uma coligação formada para efeitos demonstrativos.
-     * Cria os partidos individuais e forma a coligação AD (PSD + CDS)
+     * Executa em lote os cenários de um ficheiro, escrevendo os relatórios num ficheiro de saída e o resumo
+     * do desempenho na consola.
+     * @param args Argumentos: --lote, ficheiro de entrada, ficheiro de saída, formato (texto, csv ou json,
+     *             por defeito json) e concorrência máxima (por defeito, o dobro dos processadores).
+     */
+    private static void executaLote(String[] args)
+    {
+        EscritorRelatorios.Formato formato = args.length > 3
+                ? EscritorRelatorios.Formato.valueOf(args[3].toUpperCase()) : EscritorRelatorios.Formato.JSON;
+        int concorrencia = args.length > 4
+                ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors() * 2;
+        try
+        {
+            ResumoLote resumo = ExecutorCenarios.executa(Paths.get(args[1]), Paths.get(args[2]), formato,
+                    concorrencia);
+            System.out.println("=== EXECUÇÃO EM LOTE CONCLUÍDA ===");
+            System.out.println(resumo);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Erro na execução em lote: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Arranca o servidor HTTP e mantém-no ativo até o processo terminar.
+     * @param args Argumentos: --servidor e a porta (por defeito 8080).
+     */
+    private static void executaServidor(String[] args)
+    {
+        int porta = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        try
+        {
+            ServidorAlocacao servidor = new ServidorAlocacao(porta);
+            Runtime.getRuntime().addShutdownHook(new Thread(servidor::para));
+            servidor.inicia();
+            System.out.printf("Servidor a escutar na porta %d (/distribuicao, /validacao, /analise, /metricas)%n",
+                    servidor.getPorta());
+        }
+        catch (IOException e)
+        {
+            System.err.println("Erro ao arrancar o servidor: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Executa um teste de carga com o cenário de demonstração contra um ponto de acesso do servidor.
+     * @param args Argumentos: --carga, endereço do ponto de acesso (p.ex. http://localhost:8080/distribuicao),
+     *             número de pedidos (por defeito 10000) e concorrência (por defeito 64).
+     */
+    private static void executaCarga(String[] args)
+    {
+        int pedidos = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int concorrencia = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        ClienteCarga.Resultado resultado = ClienteCarga.executa(URI.create(args[1]), CENARIO_DEMONSTRACAO, pedidos,
+                concorrencia);
+        System.out.println("=== TESTE DE CARGA CONCLUÍDO ===");
+        System.out.println(resultado);
+    }
+    
+    /**
+     * Percorre um arquivo de eleições históricas e mostra um resumo do seu conteúdo.
+     * @param args Argumentos: --arquivo e o caminho do arquivo.
+     */
+    private static void executaArquivo(String[] args)
+    {
+        long inicio = System.nanoTime();
+        try (LeitorArquivoEleicoes leitor = new LeitorArquivoEleicoes(Paths.get(args[1])))
+        {
+            long partidos = 0;
+            long votos = 0;
+            long resultados = 0;
+            for (EleicaoArquivada eleicao : leitor)
+            {
+                partidos += eleicao.getFotografia().getNumeroPartidos();
+                votos += eleicao.getFotografia().getTotalVotos();
+                resultados += eleicao.getResultados().size();
+            }
+            System.out.println("=== ARQUIVO DE ELEIÇÕES ===");
+            System.out.printf("Eleições: %,d (partidos: %,d, votos: %,d, resultados: %,d)%n",
+                    leitor.getNumeroEleicoes(), partidos, votos, resultados);
+            if (leitor.getNumeroEleicoes() > 0)
+            {
+                System.out.printf("Primeira: %s | Última: %s%n", leitor.getNome(0),
+                        leitor.getNome(leitor.getNumeroEleicoes() - 1));
+            }
+            System.out.printf("Tempo de leitura: %.1f ms%n", (System.nanoTime() - inicio) / 1e6);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Erro na leitura do arquivo: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Inicializa a fotografia da eleição para efeitos demonstrativos: os votos dos partidos individuais e a
+     * coligação AD (PSD + CDS). A mesma fotografia imutável dá origem aos cenários com e sem coligação, sem ser
+     * necessário criar os partidos duas vezes.
+     * @return Fotografia da eleição
+     */
+    private static FotografiaEleicao inicializaFotografia()
+    {
+        // Partidos individuais, pela ordem de apresentação
+        List<String> nomes = List.of(
+                "PS", // Partido Socialista
+                "PSD", // Partido Social Democrata
+                "CH", // Chega
+                "IL", // Iniciativa Liberal
+                "BE", // Bloco de Esquerda
+                "PCP", // Partido Comunista Português
+                "L", // Livre
+                "PAN", // Pessoas-Animais-Natureza
+                "CDS"); // CDS - Partido Popular
+        long[] votos = {1850000, 1820000, 850000, 420000, 380000, 350000, 320000, 280000, 150000};
+        
+        // Coligação AD (Aliança Democrática): no cenário com coligação ocupa a posição do PSD e os membros
+        // deixam de concorrer individualmente
+        Map<String, List<String>> coligacoes = new LinkedHashMap<>();
+        coligacoes.put("AD", List.of("PSD", "CDS"));
+        
+        return new FotografiaEleicao(nomes, votos, coligacoes);
+    }
+    
+    /**
+     * Cria os partidos participantes com a coligação formada, a partir da fotografia da eleição.
+     * @param fotografia Fotografia da eleição
      * @return Retorna a lista de objetos Partido incluindo a coligação 
      */
-    private static List<Partido> inicializaPartidosComColigacao()
+    private static List<Partido> inicializaPartidosComColigacao(FotografiaEleicao fotografia)
     {
-        // Criação dos partidos individualmente, em primeiro lugar
-        // Nota: Os partidos PSD e CDS são criados como objetos individuais para seguidamente criar a coligação
-        Partido ps = new Partido("PS", 1850000);
-        Partido psd = new Partido("PSD", 1820000);
-        Partido ch = new Partido("CH", 850000);
-        Partido il = new Partido("IL", 420000);
-        Partido be = new Partido("BE", 380000);
-        Partido pcp = new Partido("PCP", 350000);
-        Partido l = new Partido("L", 320000);
-        Partido pan = new Partido("PAN", 280000);
-        Partido cds = new Partido("CDS", 150000);
-        
-        // Criação da coligação recorrendo os objetos individuais previamente definidos
-        List<Partido> membrosColigacao = new ArrayList<>();
-        membrosColigacao.add(psd);
-        membrosColigacao.add(cds);
-        Partido coligacaoAD = new Partido("AD", membrosColigacao);
-        
-        // Debug: Verificação da criação da coligação 
+        List<Partido> partidos = fotografia.criaPartidos(true);
+        
+        // Debug: Verificação da criação das coligações
         System.out.println("=== INICIALIZAÇÃO DE PARTIDO ===");
-        System.out.printf("Coligação '%s' criada com os seguintes membros: %s\n", 
-            coligacaoAD.getNome(), String.join(" + ", coligacaoAD.getMembrosColigacao()));
-        System.out.printf("Total de votos da coligação: %,d\n", (int) coligacaoAD.getVotos());
+        for (Partido partido : partidos)
+        {
+            if (partido.eColigacao())
+            {
+                System.out.printf("Coligação '%s' criada com os seguintes membros: %s\n", 
+                    partido.getNome(), String.join(" + ", partido.getMembrosColigacao()));
+                System.out.printf("Total de votos da coligação: %,d\n", partido.getVotos());
+            }
+        }
         System.out.println();
-        
-        // Adicionar todos os partidos à lista final (incluindo a coligação, mas excluíndo os membros individuais
-        // que a compõem)
-        List<Partido> partidos = new ArrayList<>();
-        partidos.add(ps);
-        partidos.add(coligacaoAD); // Adicionamos a coligação AD (Aliança Democrática) em vez dos partidos individuais
-        partidos.add(ch);
-        partidos.add(il);
-        partidos.add(be);
-        partidos.add(pcp);
-        partidos.add(l);
-        partidos.add(pan);
-        // Nota: Os partidos membros da coligação não são adicionados individualmente pois já se encontram
-        // presentes no objeto coligação
                
         return partidos;
     }
     
     /**
-     * Inicializa os partidos participantes sem coligações para efeitos demonstrativos.
+     * Cria os partidos participantes sem coligações, a partir da fotografia da eleição.
      * Todos os partidos concorrem a título individual para providenciar uma base para comparação.
+     * @param fotografia Fotografia da eleição
      * @return Lista dos objetos Partido sem coligações criadas
      */
-    private static List<Partido> inicializaPartidosSemColigacao()
+    private static List<Partido> inicializaPartidosSemColigacao(FotografiaEleicao fotografia)
     {
-        List<Partido> partidos = new ArrayList();
-        
-        // Criação dos partidos individualmente, em primeiro lugar 
-        // Utilizamos a mesma alocação de votos presente no cenário de coligação para uma comparação justa.
-        partidos.add(new Partido("PS", 1850000)); // Partido Socialista
-        partidos.add(new Partido("PSD", 1820000)); // Partido Social Democrata
-        partidos.add(new Partido("CH", 850000)); // Chega
-        partidos.add(new Partido("IL", 420000)); // Iniciativa Liberal
-        partidos.add(new Partido("BE", 380000)); // Bloco de Esquerda
-        partidos.add(new Partido("PCP", 350000)); // Partido Comunista Português
-        partidos.add(new Partido("L", 320000)); // Livre
-        partidos.add(new Partido("PAN", 280000)); // Pessoas-Animais-Natureza
-        partidos.add(new Partido("CDS", 150000)); // CDS - Partido Popular
+        List<Partido> partidos = fotografia.criaPartidos(false);
         
         System.out.println("=== INICIALIZAÇÃO DE PARTIDOS SEM COLIGAÇÃO ===");
         System.out.println("Todos os partidos concorrem individualmente.");
         System.out.printf("Total de partidos: %d%n", partidos.size());
         System.out.println();
         
-        
         return partidos;
     }
     
@@ -134,23 +267,27 @@ public class Main
         System.out.println("\n>>> CENÁRIO 1: COM COLIGAÇÃO AD (PSD + CDS)");
         System.out.println("-".repeat(50));
         
-        List<Partido> comColigacao = inicializaPartidosComColigacao();
+        FotografiaEleicao fotografia = inicializaFotografia();
+        List<Partido> comColigacao = inicializaPartidosComColigacao(fotografia);
         ValidadorEleicao.validaEAplicaRestricoes(comColigacao, TOTAL_VOTOS);
         int limiteVotosMin = ValidadorEleicao.calculaLimiteVotosMin(TOTAL_VOTOS);
-        var alocacaoAssentosComColigacao = CalculadoraDHondt.calculaDistribuicaoAssentos(comColigacao,
-                TOTAL_ASSENTOS, limiteVotosMin);
-        CalculadoraDHondt.aplicaAlocacaoAssentos(alocacaoAssentosComColigacao);
+        // A distribuição usa os votos já ajustados pelas restrições
+        ResultadoAlocacao resultadoComColigacao = CalculadoraMetodos.calculaResultado(
+                FotografiaEleicao.de(comColigacao), true,
+                TOTAL_ASSENTOS, limiteVotosMin, CalculadoraMetodos.D_HONDT);
+        comColigacao = resultadoComColigacao.criaPartidos();
         AnalisadorEleicao.mostraResultadosEleicao(comColigacao, TOTAL_ASSENTOS, TOTAL_VOTOS);
         
         // CENÁRIO #2: SEM COLIGAÇÃO
         System.out.println("\n>>> CENÁRIO 2: SEM COLIGAÇÃO (TODOS OS PARTIDOS INDIVIDUAIS)");
         System.out.println("-".repeat(50));
         
-        List<Partido> semColigacao = inicializaPartidosSemColigacao();
+        List<Partido> semColigacao = inicializaPartidosSemColigacao(fotografia);
         ValidadorEleicao.validaEAplicaRestricoes(semColigacao, TOTAL_VOTOS);
-        var alocacaoAssentosSemColigacao = CalculadoraDHondt.calculaDistribuicaoAssentos(semColigacao,
-                TOTAL_ASSENTOS, limiteVotosMin);
-        CalculadoraDHondt.aplicaAlocacaoAssentos(alocacaoAssentosSemColigacao);
+        ResultadoAlocacao resultadoSemColigacao = CalculadoraMetodos.calculaResultado(
+                FotografiaEleicao.de(semColigacao), false,
+                TOTAL_ASSENTOS, limiteVotosMin, CalculadoraMetodos.D_HONDT);
+        semColigacao = resultadoSemColigacao.criaPartidos();
         AnalisadorEleicao.mostraResultadosEleicao(semColigacao, TOTAL_ASSENTOS, TOTAL_VOTOS);
         
         // ANÁLISE COMPARATIVA
@@ -167,5 +304,26 @@ public class Main
         System.out.println("\n--- CENÁRIO SEM COLIGAÇÃO ---");
         AnalisadorEleicao.demonstraVantagemPartidoGrande(semColigacao);
         System.out.println("(Não existem coligações para demonstrar a Afirmação #1!)");
+        
+        // EXPLORA TODAS AS COLIGAÇÕES POSSÍVEIS A PARTIR DO CENÁRIO SEM COLIGAÇÃO
+        AnalisadorEleicao.mostraExploracaoColigacoes(semColigacao, TOTAL_ASSENTOS, limiteVotosMin, 10);
+        
+        // COMPARA O MÉTODO D'HONDT COM OUTROS MÉTODOS PROPORCIONAIS
+        AnalisadorEleicao.mostraComparacaoMetodos(semColigacao, TOTAL_ASSENTOS, limiteVotosMin);
+        
+        // MOSTRA O EFEITO DE LIMITES MINÍMOS ALTERNATIVOS (0% A 10%) NO CENÁRIO SEM COLIGAÇÃO
+        AnalisadorEleicao.mostraVarrimentoLimites(semColigacao, TOTAL_ASSENTOS, TOTAL_VOTOS, 10);
+        
+        // MOSTRA O EFEITO DA DIMENSÃO DO PARLAMENTO (180 A 260 ASSENTOS) NO CENÁRIO COM COLIGAÇÃO
+        AnalisadorEleicao.mostraDimensoesParlamento(comColigacao, 180, 260, 10, limiteVotosMin);
+        
+        // MOSTRA O EFEITO DE TRANSFERÊNCIAS DE 5% E 10% DOS VOTOS ENTRE PARTIDOS NO CENÁRIO COM COLIGAÇÃO
+        AnalisadorEleicao.mostraTransferenciasVotos(comColigacao, TOTAL_ASSENTOS, limiteVotosMin, 5, 10);
+        
+        // MOSTRA AS MARGENS DE VOTOS DE CADA PARTIDO NO CENÁRIO COM COLIGAÇÃO
+        AnalisadorEleicao.mostraMargensAssentos(comColigacao, TOTAL_ASSENTOS, limiteVotosMin);
+        
+        // MOSTRA QUEM GANHOU OS ÚLTIMOS ASSENTOS NO CENÁRIO COM COLIGAÇÃO
+        AnalisadorEleicao.mostraOrdemAssentos(comColigacao, TOTAL_ASSENTOS, limiteVotosMin, 5);
     }
 }
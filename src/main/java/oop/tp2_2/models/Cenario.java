@@ -0,0 +1,167 @@
+package oop.tp2_2.models;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa a definição de um cenário eleitoral para execução em lote: votos dos partidos, coligações,
+ * número de assentos e limite minímo de votos.
+ * Os objetos são imutáveis; as listas de Partido são criadas de novo em cada chamada, pelo que o mesmo cenário
+ * pode ser executado várias vezes (ou em várias threads) sem partilhar estado.
+ * @author Luis Matos
+ */
+public class Cenario
+{
+    private final String nome;
+    private final int assentos;
+    private final double percentagemLimiteMin;
+    private final Map<String, Integer> votos;
+    private final Map<String, List<String>> coligacoes;
+    
+    /**
+     * Constructor de um cenário.
+     * @param nome Nome do cenário.
+     * @param assentos Número total de assentos.
+     * @param percentagemLimiteMin Percentagem mínima de votos para elegibilidade de alocação de assentos.
+     * @param votos Votos de cada partido individual, pela ordem de apresentação.
+     * @param coligacoes Coligações (nome da coligação para nomes dos membros).
+     * @throws IllegalArgumentException Se os valores forem inválidos ou uma coligação tiver membros desconhecidos,
+     *                                  repetidos ou nenhum membro.
+     */
+    public Cenario(String nome, int assentos, double percentagemLimiteMin, Map<String, Integer> votos,
+            Map<String, List<String>> coligacoes)
+    {
+        if (assentos < 0 || !(percentagemLimiteMin >= 0 && percentagemLimiteMin <= 100))
+        {
+            throw new IllegalArgumentException("Número de assentos ou percentagem inválidos");
+        }
+        for (Map.Entry<String, Integer> partido : votos.entrySet())
+        {
+            if (partido.getValue() < 0)
+            {
+                throw new IllegalArgumentException("Votos negativos: " + partido.getKey());
+            }
+        }
+        
+        this.nome = nome;
+        this.assentos = assentos;
+        this.percentagemLimiteMin = percentagemLimiteMin;
+        this.votos = new LinkedHashMap<>(votos);
+        this.coligacoes = new LinkedHashMap<>();
+        List<String> membrosColigados = new ArrayList<>();
+        for (Map.Entry<String, List<String>> coligacao : coligacoes.entrySet())
+        {
+            if (coligacao.getValue().isEmpty())
+            {
+                throw new IllegalArgumentException("Coligação sem membros: " + coligacao.getKey());
+            }
+            for (String membro : coligacao.getValue())
+            {
+                if (!votos.containsKey(membro) || membrosColigados.contains(membro))
+                {
+                    throw new IllegalArgumentException("Membro desconhecido ou repetido na coligação "
+                            + coligacao.getKey() + ": " + membro);
+                }
+                membrosColigados.add(membro);
+            }
+            this.coligacoes.put(coligacao.getKey(), List.copyOf(coligacao.getValue()));
+        }
+    }
+    
+    // Getters
+    public String getNome()
+    {
+        return nome;
+    }
+    
+    public int getAssentos()
+    {
+        return assentos;
+    }
+    
+    public double getPercentagemLimiteMin()
+    {
+        return percentagemLimiteMin;
+    }
+    
+    public boolean temColigacoes()
+    {
+        return !coligacoes.isEmpty();
+    }
+    
+    /**
+     * Calcula o total de votos do cenário.
+     * @return A soma dos votos de todos os partidos individuais.
+     */
+    public int getTotalVotos()
+    {
+        int total = 0;
+        for (int votosPartido : votos.values())
+        {
+            total = Math.addExact(total, votosPartido);
+        }
+        return total;
+    }
+    
+    /**
+     * Calcula o limite minímo de votos do cenário, a partir da sua percentagem.
+     * @return Limite minímo de votos em números absolutos.
+     */
+    public int getLimiteVotosMin()
+    {
+        return (int) (getTotalVotos() * percentagemLimiteMin / 100);
+    }
+    
+    /**
+     * Cria a lista de partidos do cenário sem coligações (todos os partidos concorrem individualmente).
+     * @return Lista nova de objetos Partido.
+     */
+    public List<Partido> criaPartidosSemColigacao()
+    {
+        List<Partido> partidos = new ArrayList<>();
+        for (Map.Entry<String, Integer> partido : votos.entrySet())
+        {
+            partidos.add(new Partido(partido.getKey(), partido.getValue()));
+        }
+        return partidos;
+    }
+    
+    /**
+     * Cria a lista de partidos do cenário com as coligações formadas: cada coligação ocupa a posição do seu
+     * primeiro membro e os membros deixam de surgir individualmente.
+     * @return Lista nova de objetos Partido.
+     */
+    public List<Partido> criaPartidosComColigacao()
+    {
+        Map<String, String> coligacaoDoMembro = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> coligacao : coligacoes.entrySet())
+        {
+            for (String membro : coligacao.getValue())
+            {
+                coligacaoDoMembro.put(membro, coligacao.getKey());
+            }
+        }
+        
+        List<Partido> partidos = new ArrayList<>();
+        for (Map.Entry<String, Integer> partido : votos.entrySet())
+        {
+            String nomeColigacao = coligacaoDoMembro.get(partido.getKey());
+            if (nomeColigacao == null)
+            {
+                partidos.add(new Partido(partido.getKey(), partido.getValue()));
+            }
+            else if (coligacoes.get(nomeColigacao).get(0).equals(partido.getKey()))
+            {
+                List<Partido> membros = new ArrayList<>();
+                for (String membro : coligacoes.get(nomeColigacao))
+                {
+                    membros.add(new Partido(membro, votos.get(membro)));
+                }
+                partidos.add(new Partido(nomeColigacao, membros));
+            }
+        }
+        return partidos;
+    }
+}
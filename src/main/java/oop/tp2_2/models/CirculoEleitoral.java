@@ -0,0 +1,98 @@
+package oop.tp2_2.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representa um círculo eleitoral (p.ex. um distrito), com a sua própria tabela de votos e número de assentos.
+ * No sistema português o método D'Hondt é aplicado separadamente em cada círculo eleitoral.
+ * Os objetos são imutáveis, pelo que podem ser partilhados entre threads e reutilizados em várias simulações:
+ * o círculo guarda apenas cópias dos nomes e dos votos dos partidos (sem a composição das coligações), e não os
+ * próprios objetos Partido, que são mutáveis.
+ * @author Luis Matos
+ */
+public class CirculoEleitoral
+{
+    private final String nome;
+    private final int assentos;
+    private final List<String> nomesPartidos;
+    private final int[] votos;
+    
+    /**
+     * Constructor de um círculo eleitoral.
+     * @param nome O nome do círculo eleitoral.
+     * @param assentos O número de assentos (magnitude) atribuídos ao círculo.
+     * @param partidos Lista dos partidos/coligações que concorrem no círculo, com os votos obtidos no mesmo.
+     */
+    public CirculoEleitoral(String nome, int assentos, List<Partido> partidos)
+    {
+        this.nome = nome;
+        this.assentos = assentos;
+        this.nomesPartidos = partidos.stream().map(Partido::getNome).toList();
+        this.votos = partidos.stream().mapToInt(Partido::getVotos).toArray();
+    }
+    
+    // Getters
+    public String getNome()
+    {
+        return nome;
+    }
+    
+    public int getAssentos()
+    {
+        return assentos;
+    }
+    
+    public List<String> getNomesPartidos()
+    {
+        return nomesPartidos;
+    }
+    
+    /**
+     * Retorna os votos de cada partido no círculo, pela ordem de {@link #getNomesPartidos()}.
+     * @return Uma cópia do vetor de votos.
+     */
+    public int[] getVotos()
+    {
+        return votos.clone();
+    }
+    
+    /**
+     * Constrói os partidos que concorrem no círculo, com os votos obtidos no mesmo.
+     * Cada chamada devolve objetos novos, pelo que alterá-los não afeta o círculo.
+     * @return Lista nova de partidos, pela ordem de {@link #getNomesPartidos()}.
+     */
+    public List<Partido> getPartidos()
+    {
+        List<Partido> partidos = new ArrayList<>(votos.length);
+        for (int i = 0; i < votos.length; i++)
+        {
+            partidos.add(new Partido(nomesPartidos.get(i), votos[i]));
+        }
+        return partidos;
+    }
+    
+    /**
+     * Calcula o total de votos lançados no círculo eleitoral.
+     * @return A soma dos votos de todos os partidos do círculo.
+     */
+    public long getTotalVotos()
+    {
+        long total = 0;
+        for (int votosPartido : votos)
+        {
+            total += votosPartido;
+        }
+        return total;
+    }
+    
+    /**
+     * Retorna a cadeia formatada que representa o círculo eleitoral.
+     * @return Cadeia com o nome e o número de assentos do círculo.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s (%d assentos)", nome, assentos);
+    }
+}
@@ -0,0 +1,114 @@
+package oop.tp2_2.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa o resultado agregado da leitura de um ficheiro de contagens (uma linha por mesa de voto e partido).
+ * Guarda os totais de votos por círculo eleitoral e por partido num único vetor primitivo.
+ * @author Luis Matos
+ */
+public class ContagemVotos
+{
+    private final List<String> circulos;
+    private final List<String> partidos;
+    private final long[] votos; // [circulo * numeroPartidos + partido]
+    private final long linhas;
+    
+    /**
+     * Constructor do resultado agregado.
+     * @param circulos Nomes dos círculos eleitorais, pela ordem em que surgem no ficheiro.
+     * @param partidos Nomes dos partidos, pela ordem em que surgem no ficheiro.
+     * @param votos Votos por círculo e partido, indexados por (circulo * numeroPartidos + partido).
+     * @param linhas Número de linhas de dados lidas.
+     */
+    public ContagemVotos(List<String> circulos, List<String> partidos, long[] votos, long linhas)
+    {
+        this.circulos = List.copyOf(circulos);
+        this.partidos = List.copyOf(partidos);
+        this.votos = votos;
+        this.linhas = linhas;
+    }
+    
+    // Getters
+    public List<String> getCirculos()
+    {
+        return circulos;
+    }
+    
+    public List<String> getNomesPartidos()
+    {
+        return partidos;
+    }
+    
+    public long getLinhas()
+    {
+        return linhas;
+    }
+    
+    /**
+     * Retorna os votos de um partido num círculo eleitoral.
+     * @param circulo Índice do círculo.
+     * @param partido Índice do partido.
+     * @return Total de votos do partido no círculo.
+     */
+    public long getVotos(int circulo, int partido)
+    {
+        return votos[circulo * partidos.size() + partido];
+    }
+    
+    /**
+     * Calcula o total nacional de votos de um partido.
+     * @param partido Índice do partido.
+     * @return Soma dos votos do partido em todos os círculos.
+     */
+    public long getVotosNacionais(int partido)
+    {
+        long total = 0;
+        for (int circulo = 0; circulo < circulos.size(); circulo++)
+        {
+            total += getVotos(circulo, partido);
+        }
+        return total;
+    }
+    
+    /**
+     * Constrói a lista de partidos com os totais nacionais de votos.
+     * @return Lista de objetos Partido, pela ordem em que surgem no ficheiro.
+     */
+    public List<Partido> getPartidos()
+    {
+        List<Partido> lista = new ArrayList<>();
+        for (int partido = 0; partido < partidos.size(); partido++)
+        {
+            lista.add(new Partido(partidos.get(partido), Math.toIntExact(getVotosNacionais(partido))));
+        }
+        return lista;
+    }
+    
+    /**
+     * Constrói os círculos eleitorais com os votos lidos e as magnitudes indicadas.
+     * @param assentosPorCirculo Mapa do nome do círculo para o número de assentos.
+     * @return Lista dos círculos eleitorais (os círculos sem magnitude definida são ignorados).
+     */
+    public List<CirculoEleitoral> getCirculosEleitorais(Map<String, Integer> assentosPorCirculo)
+    {
+        List<CirculoEleitoral> lista = new ArrayList<>();
+        for (int circulo = 0; circulo < circulos.size(); circulo++)
+        {
+            Integer assentos = assentosPorCirculo.get(circulos.get(circulo));
+            if (assentos != null)
+            {
+                List<Partido> partidosCirculo = new ArrayList<>();
+                for (int partido = 0; partido < partidos.size(); partido++)
+                {
+                    partidosCirculo.add(new Partido(partidos.get(partido),
+                            Math.toIntExact(getVotos(circulo, partido))));
+                }
+                lista.add(new CirculoEleitoral(circulos.get(circulo), assentos, partidosCirculo));
+            }
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,52 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Eleição guardada num arquivo de eleições históricas: um nome (p.ex. "Legislativas 2024 - Lisboa"), a fotografia
+ * dos votos e coligações e os resultados das alocações calculadas sobre ela.
+ * @author Luis Matos
+ */
+public final class EleicaoArquivada
+{
+    private final String nome;
+    private final FotografiaEleicao fotografia;
+    private final List<ResultadoAlocacao> resultados;
+    
+    /**
+     * Constructor da eleição arquivada.
+     * @param nome Nome da eleição.
+     * @param fotografia Fotografia da eleição.
+     * @param resultados Resultados das alocações (a lista é copiada).
+     * @throws IllegalArgumentException Se algum resultado não tiver sido calculado sobre a fotografia indicada.
+     */
+    public EleicaoArquivada(String nome, FotografiaEleicao fotografia, List<ResultadoAlocacao> resultados)
+    {
+        for (ResultadoAlocacao resultado : resultados)
+        {
+            if (resultado.getFotografia() != fotografia)
+            {
+                throw new IllegalArgumentException("Resultado calculado sobre outra fotografia: " + nome);
+            }
+        }
+        this.nome = nome;
+        this.fotografia = fotografia;
+        this.resultados = List.copyOf(resultados);
+    }
+    
+    // Getters
+    public String getNome()
+    {
+        return nome;
+    }
+    
+    public FotografiaEleicao getFotografia()
+    {
+        return fotografia;
+    }
+    
+    public List<ResultadoAlocacao> getResultados()
+    {
+        return resultados;
+    }
+}
@@ -0,0 +1,53 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Representa o resultado de uma exploração exaustiva de coligações: as melhores coligações encontradas e
+ * as contagens da pesquisa (coligações avaliadas e coligações descartadas pelo majorante do ganho).
+ * @author Luis Matos
+ */
+public class ExploracaoColigacoes
+{
+    private final List<ResultadoColigacao> resultados;
+    private final long avaliadas;
+    private final long descartadas;
+    
+    /**
+     * Constructor do resultado da exploração.
+     * @param resultados Melhores coligações, da mais vantajosa para a menos vantajosa.
+     * @param avaliadas Número de coligações cujos assentos foram calculados.
+     * @param descartadas Número de coligações descartadas pelo majorante do ganho, sem calcular os assentos.
+     */
+    public ExploracaoColigacoes(List<ResultadoColigacao> resultados, long avaliadas, long descartadas)
+    {
+        this.resultados = List.copyOf(resultados);
+        this.avaliadas = avaliadas;
+        this.descartadas = descartadas;
+    }
+    
+    // Getters
+    public List<ResultadoColigacao> getResultados()
+    {
+        return resultados;
+    }
+    
+    public long getAvaliadas()
+    {
+        return avaliadas;
+    }
+    
+    public long getDescartadas()
+    {
+        return descartadas;
+    }
+    
+    /**
+     * Calcula o número de coligações possíveis (subconjuntos de dois ou mais partidos).
+     * @return Soma das coligações avaliadas e descartadas.
+     */
+    public long getPossiveis()
+    {
+        return avaliadas + descartadas;
+    }
+}
@@ -0,0 +1,80 @@
+package oop.tp2_2.models;
+
+/**
+ * Representa um intervalo de limites minímos de votos em que a distribuição de assentos é sempre a mesma
+ * (uma linha da tabela limite -> assentos de um varrimento de limites).
+ * O intervalo inclui o limite inicial e exclui o final, em votos; as percentagens correspondentes são calculadas
+ * sobre o total de votos, com o limite em votos arredondado por defeito, tal como no {@code ValidadorEleicao}.
+ * @author Luis Matos
+ */
+public class FaixaLimite
+{
+    private final long limiteInicio;
+    private final long limiteFim;
+    private final long totalVotos;
+    private final int[] assentos;
+    
+    /**
+     * Constructor da faixa de limites.
+     * @param limiteInicio Menor limite minímo de votos da faixa (inclusivo).
+     * @param limiteFim Limite minímo de votos seguinte ao último da faixa (exclusivo).
+     * @param totalVotos Total de votos, para o cálculo das percentagens.
+     * @param assentos Assentos de cada partido em toda a faixa (o vetor é copiado).
+     */
+    public FaixaLimite(long limiteInicio, long limiteFim, long totalVotos, int[] assentos)
+    {
+        this.limiteInicio = limiteInicio;
+        this.limiteFim = limiteFim;
+        this.totalVotos = totalVotos;
+        this.assentos = assentos.clone();
+    }
+    
+    // Getters
+    public long getLimiteInicio()
+    {
+        return limiteInicio;
+    }
+    
+    public long getLimiteFim()
+    {
+        return limiteFim;
+    }
+    
+    public int getAssentos(int partido)
+    {
+        return assentos[partido];
+    }
+    
+    public int[] getAssentos()
+    {
+        return assentos.clone();
+    }
+    
+    /**
+     * Retorna a menor percentagem de limite minímo da faixa.
+     * @return Percentagem (entre 0 e 100) sobre o total de votos.
+     */
+    public double getPercentagemInicio()
+    {
+        return totalVotos > 0 ? limiteInicio * 100.0 / totalVotos : 0;
+    }
+    
+    /**
+     * Retorna a percentagem de limite minímo seguinte à faixa (exclusiva).
+     * @return Percentagem (entre 0 e 100) sobre o total de votos.
+     */
+    public double getPercentagemFim()
+    {
+        return totalVotos > 0 ? limiteFim * 100.0 / totalVotos : 0;
+    }
+    
+    /**
+     * Verifica se um limite minímo de votos pertence à faixa.
+     * @param limiteVotosMin Limite minímo de votos.
+     * @return true se limiteInicio <= limiteVotosMin < limiteFim.
+     */
+    public boolean contem(long limiteVotosMin)
+    {
+        return limiteVotosMin >= limiteInicio && limiteVotosMin < limiteFim;
+    }
+}
@@ -0,0 +1,267 @@
+package oop.tp2_2.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fotografia imutável de uma eleição: nomes e votos dos partidos individuais e composição das coligações,
+ * guardados em vetores paralelos (um por atributo) em vez de um objeto por partido.
+ * Ao contrário das listas de {@link Partido}, a fotografia não guarda assentos, pelo que uma única instância pode
+ * ser partilhada por várias threads e avaliada com regras diferentes (método, assentos, limite minímo, com ou sem
+ * coligações) sem cópias nem sincronização; cada avaliação produz um {@link ResultadoAlocacao} independente.
+ * A fotografia tem duas vistas de concorrentes:
+ * - sem coligações: cada partido individual concorre em separado;
+ * - com coligações: cada coligação ocupa a posição do seu primeiro membro e os membros deixam de concorrer
+ *   individualmente (a mesma convenção de {@link Cenario}).
+ * @author Luis Matos
+ */
+public final class FotografiaEleicao
+{
+    private final String[] nomes;
+    private final long[] votos;
+    private final String[] nomesColigacoes;
+    private final int[][] membrosColigacoes; // Índices dos membros de cada coligação
+    private final int[] coligacaoDoPartido; // Índice da coligação de cada partido, ou -1
+    private final long totalVotos;
+    
+    // Vista com coligações, calculada uma única vez
+    private final String[] nomesConcorrentes;
+    private final long[] votosConcorrentes;
+    private final int[] coligacaoDoConcorrente; // Índice da coligação de cada concorrente, ou -1
+    
+    /**
+     * Constructor da fotografia.
+     * @param nomes Nomes dos partidos individuais, pela ordem de apresentação.
+     * @param votos Votos de cada partido, pela mesma ordem (o vetor é copiado).
+     * @param coligacoes Coligações (nome da coligação para nomes dos membros), pela ordem de apresentação.
+     * @throws IllegalArgumentException Se houver nomes repetidos, votos negativos, ou coligações vazias ou com
+     *                                  membros desconhecidos ou repetidos.
+     */
+    public FotografiaEleicao(List<String> nomes, long[] votos, Map<String, List<String>> coligacoes)
+    {
+        if (nomes.size() != votos.length)
+        {
+            throw new IllegalArgumentException("O número de nomes e de votos tem de ser igual");
+        }
+        this.nomes = nomes.toArray(new String[0]);
+        this.votos = votos.clone();
+        Map<String, Integer> indices = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < this.nomes.length; i++)
+        {
+            if (this.votos[i] < 0 || indices.put(this.nomes[i], i) != null)
+            {
+                throw new IllegalArgumentException("Votos negativos ou partido repetido: " + this.nomes[i]);
+            }
+            total = Math.addExact(total, this.votos[i]);
+        }
+        this.totalVotos = total;
+        
+        this.nomesColigacoes = coligacoes.keySet().toArray(new String[0]);
+        this.membrosColigacoes = new int[nomesColigacoes.length][];
+        this.coligacaoDoPartido = new int[this.nomes.length];
+        Arrays.fill(coligacaoDoPartido, -1);
+        for (int c = 0; c < nomesColigacoes.length; c++)
+        {
+            List<String> membros = coligacoes.get(nomesColigacoes[c]);
+            if (membros.isEmpty())
+            {
+                throw new IllegalArgumentException("Coligação sem membros: " + nomesColigacoes[c]);
+            }
+            membrosColigacoes[c] = new int[membros.size()];
+            for (int m = 0; m < membros.size(); m++)
+            {
+                Integer indice = indices.get(membros.get(m));
+                if (indice == null || coligacaoDoPartido[indice] >= 0)
+                {
+                    throw new IllegalArgumentException("Membro desconhecido ou repetido na coligação "
+                            + nomesColigacoes[c] + ": " + membros.get(m));
+                }
+                membrosColigacoes[c][m] = indice;
+                coligacaoDoPartido[indice] = c;
+            }
+        }
+        
+        // Vista com coligações: a coligação ocupa a posição do seu primeiro membro
+        List<String> nomesVista = new ArrayList<>();
+        List<Long> votosVista = new ArrayList<>();
+        List<Integer> coligacoesVista = new ArrayList<>();
+        for (int i = 0; i < this.nomes.length; i++)
+        {
+            int c = coligacaoDoPartido[i];
+            if (c < 0)
+            {
+                nomesVista.add(this.nomes[i]);
+                votosVista.add(this.votos[i]);
+                coligacoesVista.add(-1);
+            }
+            else if (membrosColigacoes[c][0] == i)
+            {
+                long votosColigacao = 0;
+                for (int membro : membrosColigacoes[c])
+                {
+                    votosColigacao += this.votos[membro];
+                }
+                nomesVista.add(nomesColigacoes[c]);
+                votosVista.add(votosColigacao);
+                coligacoesVista.add(c);
+            }
+        }
+        this.nomesConcorrentes = nomesVista.toArray(new String[0]);
+        this.votosConcorrentes = votosVista.stream().mapToLong(Long::longValue).toArray();
+        this.coligacaoDoConcorrente = coligacoesVista.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    /**
+     * Cria a fotografia de uma lista de partidos: as coligações são decompostas nos seus membros (pela ordem da
+     * lista) e registadas como coligações da fotografia.
+     * @param partidos Lista de partidos e coligações.
+     * @return A fotografia correspondente.
+     */
+    public static FotografiaEleicao de(List<Partido> partidos)
+    {
+        List<String> nomes = new ArrayList<>();
+        List<Long> votos = new ArrayList<>();
+        Map<String, List<String>> coligacoes = new LinkedHashMap<>();
+        for (Partido partido : partidos)
+        {
+            for (int m = 0; m < partido.getMembrosColigacao().size(); m++)
+            {
+                nomes.add(partido.getMembrosColigacao().get(m));
+                votos.add((long) partido.getVotosMembros().get(m));
+            }
+            if (partido.eColigacao())
+            {
+                coligacoes.put(partido.getNome(), partido.getMembrosColigacao());
+            }
+        }
+        return new FotografiaEleicao(nomes, votos.stream().mapToLong(Long::longValue).toArray(), coligacoes);
+    }
+    
+    // Getters
+    public int getNumeroPartidos()
+    {
+        return nomes.length;
+    }
+    
+    public String getNome(int partido)
+    {
+        return nomes[partido];
+    }
+    
+    public long getVotos(int partido)
+    {
+        return votos[partido];
+    }
+    
+    public long getTotalVotos()
+    {
+        return totalVotos;
+    }
+    
+    public int getNumeroColigacoes()
+    {
+        return nomesColigacoes.length;
+    }
+    
+    public String getNomeColigacao(int coligacao)
+    {
+        return nomesColigacoes[coligacao];
+    }
+    
+    /**
+     * Retorna a coligação a que um partido pertence.
+     * @param partido Índice do partido.
+     * @return Índice da coligação, ou -1 se o partido concorre sozinho.
+     */
+    public int getColigacao(int partido)
+    {
+        return coligacaoDoPartido[partido];
+    }
+    
+    /**
+     * Retorna os membros de uma coligação.
+     * @param coligacao Índice da coligação.
+     * @return Cópia do vetor com os índices dos partidos membros.
+     */
+    public int[] getMembros(int coligacao)
+    {
+        return membrosColigacoes[coligacao].clone();
+    }
+    
+    /**
+     * Retorna o número de concorrentes de uma vista.
+     * @param comColigacoes true para a vista com as coligações formadas.
+     * @return Número de concorrentes.
+     */
+    public int getNumeroConcorrentes(boolean comColigacoes)
+    {
+        return comColigacoes ? nomesConcorrentes.length : nomes.length;
+    }
+    
+    /**
+     * Retorna o nome de um concorrente de uma vista.
+     * @param comColigacoes true para a vista com as coligações formadas.
+     * @param concorrente Índice do concorrente na vista.
+     * @return Nome do partido ou da coligação.
+     */
+    public String getNomeConcorrente(boolean comColigacoes, int concorrente)
+    {
+        return comColigacoes ? nomesConcorrentes[concorrente] : nomes[concorrente];
+    }
+    
+    /**
+     * Retorna os votos de um concorrente de uma vista.
+     * @param comColigacoes true para a vista com as coligações formadas.
+     * @param concorrente Índice do concorrente na vista.
+     * @return Votos do partido ou soma dos votos dos membros da coligação.
+     */
+    public long getVotosConcorrente(boolean comColigacoes, int concorrente)
+    {
+        return comColigacoes ? votosConcorrentes[concorrente] : votos[concorrente];
+    }
+    
+    /**
+     * Retorna os votos de todos os concorrentes de uma vista.
+     * @param comColigacoes true para a vista com as coligações formadas.
+     * @return Cópia do vetor de votos dos concorrentes.
+     */
+    public long[] getVotosConcorrentes(boolean comColigacoes)
+    {
+        return (comColigacoes ? votosConcorrentes : votos).clone();
+    }
+    
+    /**
+     * Cria uma lista nova de objetos Partido (sem assentos) para uma vista, compatível com os restantes
+     * componentes da aplicação.
+     * @param comColigacoes true para a vista com as coligações formadas.
+     * @return Lista de partidos e coligações, pela ordem da vista.
+     */
+    public List<Partido> criaPartidos(boolean comColigacoes)
+    {
+        List<Partido> partidos = new ArrayList<>();
+        for (int i = 0; i < getNumeroConcorrentes(comColigacoes); i++)
+        {
+            int c = comColigacoes ? coligacaoDoConcorrente[i] : -1;
+            if (c < 0)
+            {
+                partidos.add(new Partido(getNomeConcorrente(comColigacoes, i),
+                        Math.toIntExact(getVotosConcorrente(comColigacoes, i))));
+            }
+            else
+            {
+                List<Partido> membros = new ArrayList<>();
+                for (int membro : membrosColigacoes[c])
+                {
+                    membros.add(new Partido(nomes[membro], Math.toIntExact(votos[membro])));
+                }
+                partidos.add(new Partido(nomesColigacoes[c], membros));
+            }
+        }
+        return partidos;
+    }
+}
@@ -0,0 +1,170 @@
+package oop.tp2_2.models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências com baldes de largura logarítmica, partilhável entre threads sem bloqueios.
+ * Cada potência de 2 (em nanossegundos) é dividida em 8 baldes de igual largura, pelo que o erro relativo
+ * de qualquer percentil é inferior a 12,5%, com memória fixa (cerca de 4 KB) seja qual for o número de registos.
+ * O registo de uma latência é um incremento atómico num balde, sem alocações.
+ * Os valores registados não têm de ser latências (p.ex. número de partidos por pedido): os métodos sem sufixo
+ * devolvem os valores nas unidades registadas e os métodos ...Ms assumem valores em nanossegundos.
+ * @author Luis Matos
+ */
+public class HistogramaLatencias
+{
+    // Número de baldes por potência de 2 (2^BITS_SUBBALDE)
+    private static final int BITS_SUBBALDE = 3;
+    private static final int SUBBALDES = 1 << BITS_SUBBALDE;
+    // Valores abaixo de 2 * SUBBALDES têm um balde próprio
+    private static final int BALDES_LINEARES = 2 * SUBBALDES;
+    private static final int NUMERO_BALDES = BALDES_LINEARES + (63 - BITS_SUBBALDE - 1) * SUBBALDES;
+    
+    private final AtomicLongArray baldes = new AtomicLongArray(NUMERO_BALDES);
+    private final LongAdder contagem = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+    
+    /**
+     * Regista uma latência.
+     * @param nanos Latência em nanossegundos (valores negativos contam como 0).
+     */
+    public void regista(long nanos)
+    {
+        long valor = Math.max(0, nanos);
+        baldes.incrementAndGet(indiceBalde(valor));
+        contagem.increment();
+        soma.add(valor);
+        maximo.accumulate(valor);
+    }
+    
+    // Getters
+    public long getContagem()
+    {
+        return contagem.sum();
+    }
+    
+    public int getNumeroBaldes()
+    {
+        return NUMERO_BALDES;
+    }
+    
+    public long getMaximo()
+    {
+        return maximo.get();
+    }
+    
+    public double getMaximoMs()
+    {
+        return getMaximo() / 1e6;
+    }
+    
+    /**
+     * Calcula a média dos valores registados.
+     * @return A média (0 se não houve registos).
+     */
+    public double getMedia()
+    {
+        long registos = contagem.sum();
+        return registos > 0 ? (double) soma.sum() / registos : 0;
+    }
+    
+    public double getMediaMs()
+    {
+        return getMedia() / 1e6;
+    }
+    
+    /**
+     * Retorna o número de latências registadas num balde.
+     * @param balde Índice do balde, entre 0 e getNumeroBaldes() - 1.
+     * @return O número de registos do balde.
+     */
+    public long getContagemBalde(int balde)
+    {
+        return baldes.get(balde);
+    }
+    
+    /**
+     * Retorna o limite superior (inclusivo) de um balde.
+     * @param balde Índice do balde, entre 0 e getNumeroBaldes() - 1.
+     * @return O maior valor contado no balde.
+     */
+    public long getLimiteSuperior(int balde)
+    {
+        return limiteSuperior(balde);
+    }
+    
+    public double getLimiteSuperiorMs(int balde)
+    {
+        return limiteSuperior(balde) / 1e6;
+    }
+    
+    /**
+     * Estima um percentil dos valores registados, pelo limite superior do balde que o contém
+     * (limitado ao máximo registado).
+     * @param percentil Percentil pretendido, entre 0 e 1 (p.ex. 0.99).
+     * @return O valor correspondente (0 se não houve registos).
+     */
+    public long getPercentil(double percentil)
+    {
+        long registos = 0;
+        long[] copia = new long[NUMERO_BALDES];
+        for (int i = 0; i < NUMERO_BALDES; i++)
+        {
+            copia[i] = baldes.get(i);
+            registos += copia[i];
+        }
+        if (registos == 0)
+        {
+            return 0;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(percentil * registos));
+        long acumulado = 0;
+        for (int i = 0; i < NUMERO_BALDES; i++)
+        {
+            acumulado += copia[i];
+            if (acumulado >= posicao)
+            {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return getMaximo();
+    }
+    
+    public double getPercentilMs(double percentil)
+    {
+        return getPercentil(percentil) / 1e6;
+    }
+    
+    /**
+     * Calcula o balde de um valor: valores pequenos têm um balde cada; os restantes são agrupados pelo
+     * expoente (bit mais significativo) e pelos BITS_SUBBALDE bits seguintes.
+     */
+    private static int indiceBalde(long valor)
+    {
+        if (valor < BALDES_LINEARES)
+        {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subBalde = (int) (valor >>> (expoente - BITS_SUBBALDE)) & (SUBBALDES - 1);
+        return BALDES_LINEARES + (expoente - BITS_SUBBALDE - 1) * SUBBALDES + subBalde;
+    }
+    
+    /**
+     * Calcula o maior valor contado num balde.
+     */
+    private static long limiteSuperior(int balde)
+    {
+        if (balde < BALDES_LINEARES)
+        {
+            return balde;
+        }
+        int expoente = (balde - BALDES_LINEARES) / SUBBALDES + BITS_SUBBALDE + 1;
+        int subBalde = (balde - BALDES_LINEARES) % SUBBALDES;
+        long inicio = (long) (SUBBALDES + subBalde) << (expoente - BITS_SUBBALDE);
+        return inicio + (1L << (expoente - BITS_SUBBALDE)) - 1;
+    }
+}
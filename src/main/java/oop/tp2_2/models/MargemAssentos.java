@@ -0,0 +1,82 @@
+package oop.tp2_2.models;
+
+/**
+ * Representa a sensibilidade da distribuição de assentos de um partido a variações dos seus votos,
+ * mantendo os votos dos restantes partidos e o limite minímo de elegibilidade.
+ * @author Luis Matos
+ */
+public class MargemAssentos
+{
+    private final String nome;
+    private final long votos;
+    private final int assentos;
+    private final long votosParaGanhar;
+    private final long votosParaPerder;
+    
+    /**
+     * Constructor da margem de um partido.
+     * @param nome Nome do partido.
+     * @param votos Votos do partido.
+     * @param assentos Assentos obtidos pelo partido.
+     * @param votosParaGanhar Votos adicionais necessários para ganhar mais um assento (-1 se impossível).
+     * @param votosParaPerder Votos que o partido pode perder mantendo todos os seus assentos (-1 se não tem assentos).
+     */
+    public MargemAssentos(String nome, long votos, int assentos, long votosParaGanhar, long votosParaPerder)
+    {
+        this.nome = nome;
+        this.votos = votos;
+        this.assentos = assentos;
+        this.votosParaGanhar = votosParaGanhar;
+        this.votosParaPerder = votosParaPerder;
+    }
+    
+    // Getters
+    public String getNome()
+    {
+        return nome;
+    }
+    
+    public long getVotos()
+    {
+        return votos;
+    }
+    
+    public int getAssentos()
+    {
+        return assentos;
+    }
+    
+    public long getVotosParaGanhar()
+    {
+        return votosParaGanhar;
+    }
+    
+    public long getVotosParaPerder()
+    {
+        return votosParaPerder;
+    }
+    
+    /**
+     * Verifica se o partido pode ganhar mais um assento aumentando os seus votos.
+     * @return true se existe um número de votos que lhe atribui mais um assento.
+     */
+    public boolean isPodeGanhar()
+    {
+        return votosParaGanhar >= 0;
+    }
+    
+    /**
+     * Retorna a cadeia formatada que representa a margem do partido.
+     * As margens que não se aplicam (-1) são mostradas por extenso em vez do valor sentinela.
+     * @return Cadeia com o nome, os assentos e as margens de votos do partido.
+     */
+    @Override
+    public String toString()
+    {
+        String ganhar = isPodeGanhar() ? String.format("+%d votos para ganhar", votosParaGanhar)
+                : "impossível ganhar";
+        String perder = votosParaPerder >= 0 ? String.format("-%d votos para perder", votosParaPerder)
+                : "sem assentos a perder";
+        return String.format("%s: %d assentos (%s, %s)", nome, assentos, ganhar, perder);
+    }
+}
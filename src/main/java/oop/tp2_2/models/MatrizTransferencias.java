@@ -0,0 +1,91 @@
+package oop.tp2_2.models;
+
+/**
+ * Resultado imutável de uma análise de transferências de votos: para cada percentagem da grelha e cada par
+ * ordenado de partidos (origem → destino), a variação de assentos da origem, do destino e dos restantes partidos
+ * quando essa percentagem dos votos da origem passa para o destino.
+ * Os partidos são identificados pelo índice no vetor de votos analisado; a diagonal (origem = destino) é 0.
+ * @author Luis Matos
+ */
+public final class MatrizTransferencias
+{
+    private final double[] percentagens;
+    private final int[] assentosBase;
+    private final int[][][] variacoesOrigem;
+    private final int[][][] variacoesDestino;
+    
+    /**
+     * Constructor da matriz. Os vetores são copiados, pelo que alterá-los depois não afeta a matriz.
+     * @param percentagens Percentagens de transferência da grelha.
+     * @param assentosBase Assentos de cada partido na distribuição original.
+     * @param variacoesOrigem Variação de assentos da origem, por percentagem, origem e destino.
+     * @param variacoesDestino Variação de assentos do destino, por percentagem, origem e destino.
+     */
+    public MatrizTransferencias(double[] percentagens, int[] assentosBase, int[][][] variacoesOrigem,
+            int[][][] variacoesDestino)
+    {
+        this.percentagens = percentagens.clone();
+        this.assentosBase = assentosBase.clone();
+        this.variacoesOrigem = copia(variacoesOrigem);
+        this.variacoesDestino = copia(variacoesDestino);
+    }
+    
+    // Getters
+    public int getNumeroPercentagens()
+    {
+        return percentagens.length;
+    }
+    
+    public double getPercentagem(int indice)
+    {
+        return percentagens[indice];
+    }
+    
+    public int getNumeroPartidos()
+    {
+        return assentosBase.length;
+    }
+    
+    public int getAssentosBase(int partido)
+    {
+        return assentosBase[partido];
+    }
+    
+    public int getVariacaoOrigem(int percentagem, int origem, int destino)
+    {
+        return variacoesOrigem[percentagem][origem][destino];
+    }
+    
+    public int getVariacaoDestino(int percentagem, int origem, int destino)
+    {
+        return variacoesDestino[percentagem][origem][destino];
+    }
+    
+    /**
+     * Retorna a variação conjunta de assentos dos partidos que não participam na transferência: o número total
+     * de assentos não muda (enquanto houver partidos elegíveis), pelo que é o simétrico da soma das variações da
+     * origem e do destino.
+     * @param percentagem Índice da percentagem na grelha.
+     * @param origem Índice do partido de origem.
+     * @param destino Índice do partido de destino.
+     * @return Variação de assentos dos restantes partidos.
+     */
+    public int getVariacaoOutros(int percentagem, int origem, int destino)
+    {
+        return -(variacoesOrigem[percentagem][origem][destino] + variacoesDestino[percentagem][origem][destino]);
+    }
+    
+    private static int[][][] copia(int[][][] variacoes)
+    {
+        int[][][] copia = new int[variacoes.length][][];
+        for (int p = 0; p < variacoes.length; p++)
+        {
+            copia[p] = new int[variacoes[p].length][];
+            for (int origem = 0; origem < variacoes[p].length; origem++)
+            {
+                copia[p][origem] = variacoes[p][origem].clone();
+            }
+        }
+        return copia;
+    }
+}
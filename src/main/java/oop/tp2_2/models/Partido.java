@@ -15,6 +15,7 @@ public class Partido
     private int assentos;
     private boolean eColigacao;
     private List<String> membrosColigacao;
+    private List<Integer> votosMembros;
     
     /**
      * Constructor de partidos individuais.
@@ -29,6 +30,8 @@ public class Partido
         this.eColigacao = false;
         this.membrosColigacao = new ArrayList<>();
         this.membrosColigacao.add(nome);
+        this.votosMembros = new ArrayList<>();
+        this.votosMembros.add(votos);
     }
     
     /**
@@ -41,6 +44,7 @@ public class Partido
         this.nome = nomeColigacao;
         this.eColigacao = true;
         this.membrosColigacao = new ArrayList<>();
+        this.votosMembros = new ArrayList<>();
         this.votos = 0;
         this.assentos = 0;
         
@@ -49,6 +53,7 @@ public class Partido
         {
             this.votos += membro.getVotos();
             this.membrosColigacao.add(membro.getNome());
+            this.votosMembros.add(membro.getVotos());
         }
     }
     
@@ -73,6 +78,16 @@ public class Partido
         return membrosColigacao;
     }
     
+    /**
+     * Retorna os votos de cada membro da coligação, pela mesma ordem de {@link #getMembrosColigacao()}.
+     * Permite recalcular a distribuição de assentos como se os membros concorressem em separado.
+     * @return Lista com os votos de cada membro (apenas os votos do próprio partido, se não for coligação).
+     */
+    public List<Integer> getVotosMembros()
+    {
+        return votosMembros;
+    }
+    
     public boolean eColigacao()
     {
         return eColigacao;
@@ -84,6 +99,40 @@ public class Partido
         this.assentos = assentos;
     }
     
+    /**
+     * Altera a contagem de votos, p.ex. após a aplicação do limite máximo de votos.
+     * Numa coligação, os novos votos são repartidos pelos membros na proporção dos votos anteriores de cada um;
+     * as unidades que sobram da divisão são atribuídas ao membro mais votado.
+     * @param votos O novo número de votos.
+     */
+    public void setVotos(int votos)
+    {
+        if (votos < 0)
+        {
+            throw new IllegalArgumentException("O número de votos não pode ser negativo: " + votos);
+        }
+        int resto = votos;
+        int maisVotado = 0;
+        int votosMaisVotado = -1;
+        for (int m = 0; m < votosMembros.size(); m++)
+        {
+            int votosAnteriores = votosMembros.get(m);
+            int votosMembro = this.votos > 0 ? (int) ((long) votos * votosAnteriores / this.votos) : 0;
+            if (votosAnteriores > votosMaisVotado)
+            {
+                maisVotado = m;
+                votosMaisVotado = votosAnteriores;
+            }
+            votosMembros.set(m, votosMembro);
+            resto -= votosMembro;
+        }
+        if (!votosMembros.isEmpty())
+        {
+            votosMembros.set(maisVotado, votosMembros.get(maisVotado) + resto);
+        }
+        this.votos = votos;
+    }
+    
     /**
      * Incrementa a contagem do número de assentos para um dado partido por um.
      * Utilizada durante a alocação de assentos de acordo com o método D'Hondt.
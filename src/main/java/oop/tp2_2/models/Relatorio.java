@@ -0,0 +1,146 @@
+package oop.tp2_2.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa um relatório de resultados como dados, independente do formato de saída.
+ * Um relatório é composto por secções; cada secção pode ter valores (pares chave/valor), uma tabela
+ * (colunas e linhas) e notas de texto. Os valores e as células são números ou cadeias de caracteres,
+ * formatados apenas no momento da escrita (texto, CSV ou JSON).
+ * @author Luis Matos
+ */
+public class Relatorio
+{
+    /**
+     * Secção de um relatório.
+     */
+    public static final class Seccao
+    {
+        private final String titulo;
+        private final Map<String, Object> valores = new LinkedHashMap<>();
+        private final List<String> colunas = new ArrayList<>();
+        private final List<List<Object>> linhas = new ArrayList<>();
+        private final List<String> notas = new ArrayList<>();
+        
+        private Seccao(String titulo)
+        {
+            this.titulo = titulo;
+        }
+        
+        /**
+         * Adiciona um valor à secção.
+         * @param chave Nome do valor.
+         * @param valor Número ou texto.
+         * @return Esta secção, para encadear chamadas.
+         */
+        public Seccao adicionaValor(String chave, Object valor)
+        {
+            valores.put(chave, valor);
+            return this;
+        }
+        
+        /**
+         * Define as colunas da tabela da secção.
+         * @param nomesColunas Nomes das colunas.
+         * @return Esta secção, para encadear chamadas.
+         */
+        public Seccao defineColunas(String... nomesColunas)
+        {
+            colunas.clear();
+            Collections.addAll(colunas, nomesColunas);
+            return this;
+        }
+        
+        /**
+         * Adiciona uma linha à tabela da secção.
+         * @param celulas Células da linha, pela ordem das colunas.
+         * @return Esta secção, para encadear chamadas.
+         */
+        public Seccao adicionaLinha(Object... celulas)
+        {
+            if (celulas.length != colunas.size())
+            {
+                throw new IllegalArgumentException("A linha tem " + celulas.length + " células para "
+                        + colunas.size() + " colunas");
+            }
+            linhas.add(List.of(celulas));
+            return this;
+        }
+        
+        /**
+         * Adiciona uma nota de texto à secção.
+         * @param nota Texto da nota.
+         * @return Esta secção, para encadear chamadas.
+         */
+        public Seccao adicionaNota(String nota)
+        {
+            notas.add(nota);
+            return this;
+        }
+        
+        // Getters
+        public String getTitulo()
+        {
+            return titulo;
+        }
+        
+        public Map<String, Object> getValores()
+        {
+            return Collections.unmodifiableMap(valores);
+        }
+        
+        public List<String> getColunas()
+        {
+            return Collections.unmodifiableList(colunas);
+        }
+        
+        public List<List<Object>> getLinhas()
+        {
+            return Collections.unmodifiableList(linhas);
+        }
+        
+        public List<String> getNotas()
+        {
+            return Collections.unmodifiableList(notas);
+        }
+    }
+    
+    private final String titulo;
+    private final List<Seccao> seccoes = new ArrayList<>();
+    
+    /**
+     * Constructor do relatório.
+     * @param titulo Título do relatório.
+     */
+    public Relatorio(String titulo)
+    {
+        this.titulo = titulo;
+    }
+    
+    /**
+     * Adiciona uma nova secção ao relatório.
+     * @param tituloSeccao Título da secção.
+     * @return A secção criada, para ser preenchida.
+     */
+    public Seccao adicionaSeccao(String tituloSeccao)
+    {
+        Seccao seccao = new Seccao(tituloSeccao);
+        seccoes.add(seccao);
+        return seccao;
+    }
+    
+    // Getters
+    public String getTitulo()
+    {
+        return titulo;
+    }
+    
+    public List<Seccao> getSeccoes()
+    {
+        return Collections.unmodifiableList(seccoes);
+    }
+}
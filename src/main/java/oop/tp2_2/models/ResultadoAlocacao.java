@@ -0,0 +1,132 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Resultado imutável da avaliação de uma {@link FotografiaEleicao} com um conjunto de regras: vista (com ou sem
+ * coligações), método, número de assentos e limite minímo de votos, e os assentos de cada concorrente.
+ * O resultado referencia a fotografia (sem a copiar) e guarda apenas o vetor de assentos, pelo que vários
+ * resultados da mesma fotografia podem coexistir e ser lidos por várias threads.
+ * @author Luis Matos
+ */
+public final class ResultadoAlocacao
+{
+    private final FotografiaEleicao fotografia;
+    private final boolean comColigacoes;
+    private final String metodo;
+    private final int assentosTotal;
+    private final long votosMargemMin;
+    private final int[] assentos;
+    
+    /**
+     * Constructor do resultado.
+     * @param fotografia Fotografia avaliada.
+     * @param comColigacoes true se foi avaliada a vista com as coligações formadas.
+     * @param metodo Nome do método de distribuição.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param assentos Assentos de cada concorrente, pela ordem da vista (o vetor é copiado).
+     * @throws IllegalArgumentException Se o vetor de assentos não tiver um valor por concorrente.
+     */
+    public ResultadoAlocacao(FotografiaEleicao fotografia, boolean comColigacoes, String metodo, int assentosTotal,
+            long votosMargemMin, int[] assentos)
+    {
+        if (assentos.length != fotografia.getNumeroConcorrentes(comColigacoes))
+        {
+            throw new IllegalArgumentException("O vetor de assentos tem de ter um valor por concorrente");
+        }
+        this.fotografia = fotografia;
+        this.comColigacoes = comColigacoes;
+        this.metodo = metodo;
+        this.assentosTotal = assentosTotal;
+        this.votosMargemMin = votosMargemMin;
+        this.assentos = assentos.clone();
+    }
+    
+    // Getters
+    public FotografiaEleicao getFotografia()
+    {
+        return fotografia;
+    }
+    
+    public boolean eComColigacoes()
+    {
+        return comColigacoes;
+    }
+    
+    public String getMetodo()
+    {
+        return metodo;
+    }
+    
+    public int getAssentosTotal()
+    {
+        return assentosTotal;
+    }
+    
+    public long getVotosMargemMin()
+    {
+        return votosMargemMin;
+    }
+    
+    public int getNumeroConcorrentes()
+    {
+        return assentos.length;
+    }
+    
+    public String getNome(int concorrente)
+    {
+        return fotografia.getNomeConcorrente(comColigacoes, concorrente);
+    }
+    
+    public long getVotos(int concorrente)
+    {
+        return fotografia.getVotosConcorrente(comColigacoes, concorrente);
+    }
+    
+    public int getAssentos(int concorrente)
+    {
+        return assentos[concorrente];
+    }
+    
+    /**
+     * Retorna os assentos de um concorrente pelo nome.
+     * @param nome Nome do partido ou coligação.
+     * @return Assentos do concorrente, ou 0 se não existir na vista avaliada.
+     */
+    public int getAssentos(String nome)
+    {
+        for (int i = 0; i < assentos.length; i++)
+        {
+            if (getNome(i).equals(nome))
+            {
+                return assentos[i];
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Retorna os assentos de todos os concorrentes.
+     * @return Cópia do vetor de assentos, pela ordem da vista.
+     */
+    public int[] getAssentos()
+    {
+        return assentos.clone();
+    }
+    
+    /**
+     * Cria uma lista nova de objetos Partido com os assentos deste resultado, para os componentes da aplicação
+     * que trabalham com listas de partidos (p.ex. a análise eleitoral).
+     * @return Lista de partidos e coligações, pela ordem da vista, com os assentos atribuídos.
+     */
+    public List<Partido> criaPartidos()
+    {
+        List<Partido> partidos = fotografia.criaPartidos(comColigacoes);
+        for (int i = 0; i < assentos.length; i++)
+        {
+            partidos.get(i).setAssentos(assentos[i]);
+        }
+        return partidos;
+    }
+}
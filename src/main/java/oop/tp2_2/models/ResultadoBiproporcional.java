@@ -0,0 +1,105 @@
+package oop.tp2_2.models;
+
+/**
+ * Resultado imutável de uma distribuição biproporcional (círculo × partido): os assentos de cada partido em cada
+ * círculo e os divisores publicados do método, um por círculo e um por partido, tais que os assentos de uma
+ * célula são o arredondamento do método de votos / (divisor do círculo × divisor do partido).
+ * Os círculos e os partidos são identificados pelos índices das linhas e colunas da matriz de votos.
+ * @author Luis Matos
+ */
+public final class ResultadoBiproporcional
+{
+    private final int[][] assentos;
+    private final double[] divisoresCirculos;
+    private final double[] divisoresPartidos;
+    private final int iteracoes;
+    private final int transferencias;
+    
+    /**
+     * Constructor do resultado (os vetores são copiados).
+     * @param assentos Assentos de cada célula, por círculo e partido.
+     * @param divisoresCirculos Divisor de cada círculo.
+     * @param divisoresPartidos Divisor de cada partido.
+     * @param iteracoes Número de passagens (por linhas ou por colunas) do escalonamento alternado.
+     * @param transferencias Número de assentos transferidos entre partidos após o escalonamento.
+     */
+    public ResultadoBiproporcional(int[][] assentos, double[] divisoresCirculos, double[] divisoresPartidos,
+            int iteracoes, int transferencias)
+    {
+        this.assentos = new int[assentos.length][];
+        for (int i = 0; i < assentos.length; i++)
+        {
+            this.assentos[i] = assentos[i].clone();
+        }
+        this.divisoresCirculos = divisoresCirculos.clone();
+        this.divisoresPartidos = divisoresPartidos.clone();
+        this.iteracoes = iteracoes;
+        this.transferencias = transferencias;
+    }
+    
+    // Getters
+    public int getNumeroCirculos()
+    {
+        return divisoresCirculos.length;
+    }
+    
+    public int getNumeroPartidos()
+    {
+        return divisoresPartidos.length;
+    }
+    
+    public int getAssentos(int circulo, int partido)
+    {
+        return assentos[circulo][partido];
+    }
+    
+    public double getDivisorCirculo(int circulo)
+    {
+        return divisoresCirculos[circulo];
+    }
+    
+    public double getDivisorPartido(int partido)
+    {
+        return divisoresPartidos[partido];
+    }
+    
+    public int getIteracoes()
+    {
+        return iteracoes;
+    }
+    
+    public int getTransferencias()
+    {
+        return transferencias;
+    }
+    
+    /**
+     * Soma os assentos de um círculo.
+     * @param circulo Índice do círculo.
+     * @return Número de assentos do círculo.
+     */
+    public int getAssentosCirculo(int circulo)
+    {
+        int total = 0;
+        for (int assentosCelula : assentos[circulo])
+        {
+            total += assentosCelula;
+        }
+        return total;
+    }
+    
+    /**
+     * Soma os assentos de um partido em todos os círculos.
+     * @param partido Índice do partido.
+     * @return Número de assentos do partido.
+     */
+    public int getAssentosPartido(int partido)
+    {
+        int total = 0;
+        for (int[] circulo : assentos)
+        {
+            total += circulo[partido];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,73 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Representa o resultado da avaliação de uma coligação hipotética.
+ * Compara os assentos obtidos pela coligação com a soma dos assentos obtidos pelos seus membros
+ * quando concorrem em separado.
+ * @author Luis Matos
+ */
+public class ResultadoColigacao
+{
+    private final List<String> membros;
+    private final long votos;
+    private final int assentosColigacao;
+    private final int assentosSeparados;
+    
+    /**
+     * Constructor do resultado de uma coligação.
+     * @param membros Nomes dos partidos que formam a coligação.
+     * @param votos Total de votos da coligação.
+     * @param assentosColigacao Assentos obtidos pela coligação.
+     * @param assentosSeparados Soma dos assentos obtidos pelos membros a concorrer em separado.
+     */
+    public ResultadoColigacao(List<String> membros, long votos, int assentosColigacao, int assentosSeparados)
+    {
+        this.membros = List.copyOf(membros);
+        this.votos = votos;
+        this.assentosColigacao = assentosColigacao;
+        this.assentosSeparados = assentosSeparados;
+    }
+    
+    // Getters
+    public List<String> getMembros()
+    {
+        return membros;
+    }
+    
+    public long getVotos()
+    {
+        return votos;
+    }
+    
+    public int getAssentosColigacao()
+    {
+        return assentosColigacao;
+    }
+    
+    public int getAssentosSeparados()
+    {
+        return assentosSeparados;
+    }
+    
+    /**
+     * Calcula o ganho de assentos da coligação face aos membros a concorrer em separado.
+     * @return Diferença de assentos (positiva se a coligação é vantajosa).
+     */
+    public int getGanho()
+    {
+        return assentosColigacao - assentosSeparados;
+    }
+    
+    /**
+     * Retorna a cadeia formatada que representa a coligação e o seu ganho.
+     * @return Cadeia com os membros, assentos e ganho da coligação.
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s: %d assentos (separados: %d, ganho: %+d)", String.join("+", membros),
+                assentosColigacao, assentosSeparados, getGanho());
+    }
+}
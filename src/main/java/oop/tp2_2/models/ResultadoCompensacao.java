@@ -0,0 +1,135 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Resultado imutável de uma distribuição em dois níveis: os assentos de cada círculo eleitoral (primeiro nível,
+ * método D'Hondt em cada círculo) e os assentos de compensação que corrigem a desproporcionalidade nacional,
+ * atribuídos a partidos e círculos (segundo nível).
+ * Os partidos são identificados pelo índice na lista de nomes e os círculos pelo índice na lista de círculos.
+ * @author Luis Matos
+ */
+public final class ResultadoCompensacao
+{
+    private final List<String> nomesPartidos;
+    private final List<String> nomesCirculos;
+    private final int[][] assentosCirculo;
+    private final int[][] assentosCompensacao;
+    private final int[] direitoNacional;
+    private final boolean[] elegiveis;
+    private final int iteracoes;
+    
+    /**
+     * Constructor do resultado (os vetores são copiados).
+     * @param nomesPartidos Nomes dos partidos.
+     * @param nomesCirculos Nomes dos círculos eleitorais.
+     * @param assentosCirculo Assentos do primeiro nível, por círculo e partido.
+     * @param assentosCompensacao Assentos de compensação, por círculo e partido.
+     * @param direitoNacional Assentos a que cada partido tem direito a nível nacional.
+     * @param elegiveis Partidos que participaram no cálculo do direito nacional.
+     * @param iteracoes Número de cálculos do direito nacional (1 se nenhum partido foi excluído por excesso).
+     */
+    public ResultadoCompensacao(List<String> nomesPartidos, List<String> nomesCirculos, int[][] assentosCirculo,
+            int[][] assentosCompensacao, int[] direitoNacional, boolean[] elegiveis, int iteracoes)
+    {
+        this.nomesPartidos = List.copyOf(nomesPartidos);
+        this.nomesCirculos = List.copyOf(nomesCirculos);
+        this.assentosCirculo = copia(assentosCirculo);
+        this.assentosCompensacao = copia(assentosCompensacao);
+        this.direitoNacional = direitoNacional.clone();
+        this.elegiveis = elegiveis.clone();
+        this.iteracoes = iteracoes;
+    }
+    
+    // Getters
+    public List<String> getNomesPartidos()
+    {
+        return nomesPartidos;
+    }
+    
+    public List<String> getNomesCirculos()
+    {
+        return nomesCirculos;
+    }
+    
+    public int getIteracoes()
+    {
+        return iteracoes;
+    }
+    
+    public int getAssentosCirculo(int circulo, int partido)
+    {
+        return assentosCirculo[circulo][partido];
+    }
+    
+    public int getAssentosCompensacao(int circulo, int partido)
+    {
+        return assentosCompensacao[circulo][partido];
+    }
+    
+    public int getDireitoNacional(int partido)
+    {
+        return direitoNacional[partido];
+    }
+    
+    /**
+     * Indica se o partido participou no cálculo do direito nacional, ou seja, se cumpriu o limite nacional e não
+     * obteve nos círculos mais assentos do que o seu direito.
+     * @param partido Índice do partido.
+     * @return true se o partido foi elegível para assentos de compensação.
+     */
+    public boolean eElegivel(int partido)
+    {
+        return elegiveis[partido];
+    }
+    
+    /**
+     * Soma os assentos de um partido obtidos no primeiro nível, em todos os círculos.
+     * @param partido Índice do partido.
+     * @return Número de assentos dos círculos.
+     */
+    public int getAssentosCirculos(int partido)
+    {
+        int total = 0;
+        for (int[] circulo : assentosCirculo)
+        {
+            total += circulo[partido];
+        }
+        return total;
+    }
+    
+    /**
+     * Soma os assentos de compensação de um partido, em todos os círculos.
+     * @param partido Índice do partido.
+     * @return Número de assentos de compensação.
+     */
+    public int getAssentosCompensacao(int partido)
+    {
+        int total = 0;
+        for (int[] circulo : assentosCompensacao)
+        {
+            total += circulo[partido];
+        }
+        return total;
+    }
+    
+    /**
+     * Retorna o total de assentos de um partido, nos dois níveis.
+     * @param partido Índice do partido.
+     * @return Assentos dos círculos mais assentos de compensação.
+     */
+    public int getAssentosTotal(int partido)
+    {
+        return getAssentosCirculos(partido) + getAssentosCompensacao(partido);
+    }
+    
+    private static int[][] copia(int[][] matriz)
+    {
+        int[][] copia = new int[matriz.length][];
+        for (int i = 0; i < matriz.length; i++)
+        {
+            copia[i] = matriz[i].clone();
+        }
+        return copia;
+    }
+}
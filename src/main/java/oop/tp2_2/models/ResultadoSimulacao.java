@@ -0,0 +1,141 @@
+package oop.tp2_2.models;
+
+import java.util.List;
+
+/**
+ * Representa o resultado de uma simulação Monte Carlo da distribuição de assentos.
+ * Guarda, para cada partido, o histograma do número de assentos obtidos ao longo das iterações,
+ * bem como o número de iterações em que cada bloco de partidos atingiu a maioria absoluta.
+ * @author Luis Matos
+ */
+public class ResultadoSimulacao
+{
+    private final List<String> nomesPartidos;
+    private final List<String> nomesBlocos;
+    private final int assentosTotal;
+    private final long iteracoes;
+    private final long[][] histogramaAssentos; // [partido][assentos] -> número de iterações
+    private final long[] maioriasBlocos; // [bloco] -> número de iterações com maioria absoluta
+    
+    /**
+     * Constructor do resultado de uma simulação.
+     * @param nomesPartidos Nomes dos partidos, pela ordem dos histogramas.
+     * @param nomesBlocos Nomes dos blocos de partidos analisados, pela ordem das contagens de maiorias.
+     * @param assentosTotal Número total de assentos em disputa.
+     * @param iteracoes Número de iterações realizadas.
+     * @param histogramaAssentos Histograma de assentos por partido ([partido][assentos]).
+     * @param maioriasBlocos Número de iterações em que cada bloco obteve a maioria absoluta.
+     */
+    public ResultadoSimulacao(List<String> nomesPartidos, List<String> nomesBlocos, int assentosTotal,
+            long iteracoes, long[][] histogramaAssentos, long[] maioriasBlocos)
+    {
+        this.nomesPartidos = List.copyOf(nomesPartidos);
+        this.nomesBlocos = List.copyOf(nomesBlocos);
+        this.assentosTotal = assentosTotal;
+        this.iteracoes = iteracoes;
+        this.histogramaAssentos = histogramaAssentos;
+        this.maioriasBlocos = maioriasBlocos;
+    }
+    
+    // Getters
+    public List<String> getNomesPartidos()
+    {
+        return nomesPartidos;
+    }
+    
+    public List<String> getNomesBlocos()
+    {
+        return nomesBlocos;
+    }
+    
+    public int getAssentosTotal()
+    {
+        return assentosTotal;
+    }
+    
+    public long getIteracoes()
+    {
+        return iteracoes;
+    }
+    
+    /**
+     * Retorna o número de assentos necessário para a maioria absoluta (116 em 230).
+     * @return Metade dos assentos mais um.
+     */
+    public int getAssentosMaioria()
+    {
+        return assentosTotal / 2 + 1;
+    }
+    
+    /**
+     * Retorna a probabilidade de um partido obter exatamente um dado número de assentos.
+     * @param partido Índice do partido.
+     * @param assentos Número de assentos.
+     * @return Frequência relativa observada na simulação.
+     */
+    public double getProbabilidadeAssentos(int partido, int assentos)
+    {
+        return (double) histogramaAssentos[partido][assentos] / iteracoes;
+    }
+    
+    /**
+     * Calcula o número médio de assentos de um partido ao longo da simulação.
+     * @param partido Índice do partido.
+     * @return Média de assentos obtidos.
+     */
+    public double getMediaAssentos(int partido)
+    {
+        double soma = 0;
+        for (int assentos = 0; assentos <= assentosTotal; assentos++)
+        {
+            soma += (double) assentos * histogramaAssentos[partido][assentos];
+        }
+        return soma / iteracoes;
+    }
+    
+    /**
+     * Calcula o percentil do número de assentos de um partido (p.ex. 0.05 e 0.95 para um intervalo de 90%).
+     * @param partido Índice do partido.
+     * @param fracao Fração acumulada pretendida, entre 0 e 1.
+     * @return O menor número de assentos cuja frequência acumulada atinge a fração pedida.
+     */
+    public int getPercentilAssentos(int partido, double fracao)
+    {
+        long alvo = (long) Math.ceil(fracao * iteracoes);
+        long acumulado = 0;
+        for (int assentos = 0; assentos <= assentosTotal; assentos++)
+        {
+            acumulado += histogramaAssentos[partido][assentos];
+            if (acumulado >= alvo && acumulado > 0)
+            {
+                return assentos;
+            }
+        }
+        return assentosTotal;
+    }
+    
+    /**
+     * Calcula a probabilidade de um partido obter sozinho a maioria absoluta.
+     * @param partido Índice do partido.
+     * @return Frequência relativa das iterações com pelo menos {@link #getAssentosMaioria()} assentos.
+     */
+    public double getProbabilidadeMaioria(int partido)
+    {
+        long contagem = 0;
+        for (int assentos = getAssentosMaioria(); assentos <= assentosTotal; assentos++)
+        {
+            contagem += histogramaAssentos[partido][assentos];
+        }
+        return (double) contagem / iteracoes;
+    }
+    
+    /**
+     * Calcula a probabilidade de um bloco de partidos obter em conjunto a maioria absoluta.
+     * @param bloco Índice do bloco.
+     * @return Frequência relativa das iterações em que o bloco atingiu a maioria.
+     */
+    public double getProbabilidadeMaioriaBloco(int bloco)
+    {
+        return (double) maioriasBlocos[bloco] / iteracoes;
+    }
+}
@@ -0,0 +1,144 @@
+package oop.tp2_2.models;
+
+/**
+ * Resultado imutável da validação e aplicação das restrições eleitorais a uma lista de partidos: os limites em
+ * votos, os dois primeiros partidos antes das restrições e os votos de cada partido antes e depois do corte e da
+ * redistribuição dos votos excedentes.
+ * Os partidos são identificados pelo índice na lista validada.
+ * @author Luis Matos
+ */
+public final class ResultadoValidacao
+{
+    private final int totalVotos;
+    private final int limiteVotosMin;
+    private final int limiteVotosMax;
+    private final int diferencaMaxVotos;
+    private final int[] votosOriginais;
+    private final int[] votosAjustados;
+    private final int primeiro;
+    private final int segundo;
+    private final long votosCortados;
+    private final int rondas;
+    
+    /**
+     * Constructor do resultado (os vetores são copiados).
+     * @param totalVotos Número total de votos válidos lançados na eleição.
+     * @param limiteVotosMin Limite minímo de votos para elegibilidade.
+     * @param limiteVotosMax Número máximo de votos permitido a cada partido.
+     * @param diferencaMaxVotos Diferença máxima de votos permitida entre os dois primeiros partidos.
+     * @param votosOriginais Votos de cada partido antes das restrições.
+     * @param votosAjustados Votos de cada partido após as restrições.
+     * @param primeiro Índice do partido mais votado antes das restrições (-1 se não houver partidos).
+     * @param segundo Índice do segundo partido mais votado antes das restrições (-1 se houver menos de dois).
+     * @param votosCortados Total de votos cortados em todas as rondas.
+     * @param rondas Número de rondas de corte e redistribuição.
+     */
+    public ResultadoValidacao(int totalVotos, int limiteVotosMin, int limiteVotosMax, int diferencaMaxVotos,
+            int[] votosOriginais, int[] votosAjustados, int primeiro, int segundo, long votosCortados, int rondas)
+    {
+        this.totalVotos = totalVotos;
+        this.limiteVotosMin = limiteVotosMin;
+        this.limiteVotosMax = limiteVotosMax;
+        this.diferencaMaxVotos = diferencaMaxVotos;
+        this.votosOriginais = votosOriginais.clone();
+        this.votosAjustados = votosAjustados.clone();
+        this.primeiro = primeiro;
+        this.segundo = segundo;
+        this.votosCortados = votosCortados;
+        this.rondas = rondas;
+    }
+    
+    // Getters
+    public int getTotalVotos()
+    {
+        return totalVotos;
+    }
+    
+    public int getLimiteVotosMin()
+    {
+        return limiteVotosMin;
+    }
+    
+    public int getLimiteVotosMax()
+    {
+        return limiteVotosMax;
+    }
+    
+    public int getDiferencaMaxVotos()
+    {
+        return diferencaMaxVotos;
+    }
+    
+    public int getNumeroPartidos()
+    {
+        return votosOriginais.length;
+    }
+    
+    public int getVotosOriginais(int partido)
+    {
+        return votosOriginais[partido];
+    }
+    
+    public int getVotosAjustados(int partido)
+    {
+        return votosAjustados[partido];
+    }
+    
+    public int getPrimeiro()
+    {
+        return primeiro;
+    }
+    
+    public int getSegundo()
+    {
+        return segundo;
+    }
+    
+    public long getVotosCortados()
+    {
+        return votosCortados;
+    }
+    
+    public int getRondas()
+    {
+        return rondas;
+    }
+    
+    /**
+     * Calcula a diferença de votos entre os dois primeiros partidos antes das restrições.
+     * @return Diferença de votos (0 se houver menos de dois partidos).
+     */
+    public int getDiferencaDoisPrimeiros()
+    {
+        return segundo < 0 ? 0 : votosOriginais[primeiro] - votosOriginais[segundo];
+    }
+    
+    /**
+     * Verifica se os dois primeiros partidos excediam a diferença máxima de votos antes das restrições.
+     * @return true se a diferença máxima foi aplicada.
+     */
+    public boolean excedeDiferencaMax()
+    {
+        return getDiferencaDoisPrimeiros() > diferencaMaxVotos;
+    }
+    
+    /**
+     * Verifica se um partido excedia o limite máximo de votos antes das restrições.
+     * @param partido Índice do partido.
+     * @return true se os votos originais do partido excediam o limite máximo.
+     */
+    public boolean excedeLimiteMax(int partido)
+    {
+        return votosOriginais[partido] > limiteVotosMax;
+    }
+    
+    /**
+     * Verifica se um partido é elegível para a alocação de assentos, com os votos após as restrições.
+     * @param partido Índice do partido.
+     * @return true se os votos ajustados do partido cumprem o limite minímo.
+     */
+    public boolean eElegivel(int partido)
+    {
+        return votosAjustados[partido] >= limiteVotosMin;
+    }
+}
@@ -0,0 +1,80 @@
+package oop.tp2_2.models;
+
+import java.util.Arrays;
+
+/**
+ * Representa o resumo de uma execução em lote de cenários: número de cenários, erros, duração total
+ * e distribuição das latências individuais.
+ * @author Luis Matos
+ */
+public class ResumoLote
+{
+    private final int cenarios;
+    private final int erros;
+    private final long duracaoNanos;
+    private final long[] latenciasNanos; // Ordenadas
+    
+    /**
+     * Constructor do resumo.
+     * @param cenarios Número de cenários executados.
+     * @param erros Número de cenários com erro.
+     * @param duracaoNanos Duração total da execução, em nanossegundos.
+     * @param latenciasNanos Latência de cada cenário, em nanossegundos.
+     */
+    public ResumoLote(int cenarios, int erros, long duracaoNanos, long[] latenciasNanos)
+    {
+        this.cenarios = cenarios;
+        this.erros = erros;
+        this.duracaoNanos = duracaoNanos;
+        this.latenciasNanos = latenciasNanos.clone();
+        Arrays.sort(this.latenciasNanos);
+    }
+    
+    // Getters
+    public int getCenarios()
+    {
+        return cenarios;
+    }
+    
+    public int getErros()
+    {
+        return erros;
+    }
+    
+    public double getDuracaoSegundos()
+    {
+        return duracaoNanos / 1e9;
+    }
+    
+    /**
+     * Calcula o débito da execução.
+     * @return Número de cenários executados por segundo.
+     */
+    public double getDebito()
+    {
+        return duracaoNanos > 0 ? cenarios / getDuracaoSegundos() : 0;
+    }
+    
+    /**
+     * Retorna um percentil das latências dos cenários.
+     * @param percentil Percentil pretendido, entre 0 e 1 (p.ex. 0.99).
+     * @return A latência correspondente, em milissegundos (0 se não houve cenários).
+     */
+    public double getLatenciaPercentilMs(double percentil)
+    {
+        if (latenciasNanos.length == 0)
+        {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * latenciasNanos.length) - 1;
+        return latenciasNanos[Math.max(0, Math.min(indice, latenciasNanos.length - 1))] / 1e6;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.format("%d cenários (%d erros) em %.3f s: %.1f cenários/s, latência p50 %.3f ms, "
+                + "p99 %.3f ms, máx. %.3f ms", cenarios, erros, getDuracaoSegundos(), getDebito(),
+                getLatenciaPercentilMs(0.5), getLatenciaPercentilMs(0.99), getLatenciaPercentilMs(1));
+    }
+}
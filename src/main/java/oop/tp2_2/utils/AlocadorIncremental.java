@@ -0,0 +1,374 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Partido;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Alocador D'Hondt com estado, para atualizar a distribuição de assentos à medida que chegam os votos
+ * (p.ex. na noite eleitoral).
+ * Em vez de refazer o cálculo completo a cada atualização, mantém duas filas de prioridade indexadas:
+ * - a dos candidatos, com o próximo quociente de cada partido elegível (votos / (assentos + 1));
+ * - a dos detentores, com o último quociente vencedor de cada partido com assentos (votos / assentos).
+ * A distribuição é a do método D'Hondt enquanto o melhor candidato não preceder o pior detentor; após uma
+ * alteração de votos apenas os assentos na margem são trocados, um a um, até essa condição voltar a verificar-se.
+ * A elegibilidade é reavaliada em cada atualização com o limite minímo do {@link ValidadorEleicao}, calculado sobre
+ * o total de votos corrente. As alterações de distribuição são publicadas aos ouvintes registados.
+ * Os métodos públicos são sincronizados, pelo que uma instância pode ser partilhada entre threads.
+ * @author Luis Matos
+ */
+public class AlocadorIncremental
+{
+    /**
+     * Ouvinte notificado sempre que a distribuição de assentos se altera.
+     */
+    @FunctionalInterface
+    public interface OuvinteAlocacao
+    {
+        /**
+         * Invocado após uma atualização que alterou a distribuição de assentos.
+         * @param versao Número de sequência da distribuição (incrementado a cada alteração).
+         * @param assentos Cópia dos assentos de cada partido, pela ordem da lista inicial.
+         */
+        void alocacaoAlterada(long versao, int[] assentos);
+    }
+    
+    private final List<String> nomes;
+    private final long[] votos;
+    private final int[] assentos;
+    private final boolean[] elegivel;
+    private final int assentosTotal;
+    private final FilaIndexada candidatos;
+    private final FilaIndexada detentores;
+    private final List<OuvinteAlocacao> ouvintes = new CopyOnWriteArrayList<>();
+    
+    private long totalVotos;
+    private int assentosAtribuidos;
+    private long versao;
+    
+    /**
+     * Constructor do alocador, calculando a distribuição inicial com o motor D'Hondt.
+     * @param partidos Lista dos partidos participantes com os votos iniciais (podem ser 0).
+     * @param assentosTotal Número total de assentos para alocar.
+     */
+    public AlocadorIncremental(List<Partido> partidos, int assentosTotal)
+    {
+        int n = partidos.size();
+        this.assentosTotal = assentosTotal;
+        this.nomes = new ArrayList<>();
+        this.votos = new long[n];
+        this.elegivel = new boolean[n];
+        for (int i = 0; i < n; i++)
+        {
+            nomes.add(partidos.get(i).getNome());
+            votos[i] = partidos.get(i).getVotos();
+            totalVotos += votos[i];
+        }
+        
+        long votosMargemMin = ValidadorEleicao.calculaLimiteVotosMin(totalVotos);
+        this.assentos = MotorDHondt.instanciaLocal().distribui(votos, n, assentosTotal, votosMargemMin, new int[n]);
+        this.candidatos = new FilaIndexada(n, true);
+        this.detentores = new FilaIndexada(n, false);
+        for (int i = 0; i < n; i++)
+        {
+            assentosAtribuidos += assentos[i];
+            elegivel[i] = votos[i] >= votosMargemMin;
+            if (elegivel[i])
+            {
+                candidatos.insere(i);
+            }
+            if (assentos[i] > 0)
+            {
+                detentores.insere(i);
+            }
+        }
+    }
+    
+    /**
+     * Regista um ouvinte para as alterações da distribuição de assentos.
+     * @param ouvinte O ouvinte a registar.
+     */
+    public void adicionaOuvinte(OuvinteAlocacao ouvinte)
+    {
+        ouvintes.add(ouvinte);
+    }
+    
+    /**
+     * Adiciona (ou, se negativo, retira) votos a um partido e atualiza a distribuição de assentos.
+     * @param partido Índice do partido, pela ordem da lista inicial.
+     * @param deltaVotos Variação do número de votos.
+     * @return true se a distribuição de assentos se alterou.
+     */
+    public synchronized boolean adicionaVotos(int partido, long deltaVotos)
+    {
+        if (votos[partido] + deltaVotos < 0)
+        {
+            throw new IllegalArgumentException("O partido " + nomes.get(partido) + " ficaria com votos negativos");
+        }
+        if (deltaVotos == 0)
+        {
+            return false;
+        }
+        
+        votos[partido] += deltaVotos;
+        totalVotos += deltaVotos;
+        boolean alterada = false;
+        
+        // As chaves do partido alterado mudam em ambas as filas
+        candidatos.atualiza(partido);
+        detentores.atualiza(partido);
+        
+        // O limite minímo depende do total de votos: reavalia a elegibilidade de todos os partidos
+        long votosMargemMin = ValidadorEleicao.calculaLimiteVotosMin(totalVotos);
+        for (int i = 0; i < votos.length; i++)
+        {
+            boolean passaElegivel = votos[i] >= votosMargemMin;
+            if (passaElegivel != elegivel[i])
+            {
+                elegivel[i] = passaElegivel;
+                if (passaElegivel)
+                {
+                    candidatos.insere(i);
+                }
+                else
+                {
+                    // Um partido que deixa de cumprir o limite perde todos os seus assentos
+                    candidatos.remove(i);
+                    detentores.remove(i);
+                    alterada |= assentos[i] > 0;
+                    assentosAtribuidos -= assentos[i];
+                    assentos[i] = 0;
+                }
+            }
+        }
+        
+        alterada |= reequilibra();
+        if (alterada)
+        {
+            publica();
+        }
+        return alterada;
+    }
+    
+    /**
+     * Retorna uma cópia dos assentos atuais de cada partido.
+     * @return Vetor de assentos, pela ordem da lista inicial.
+     */
+    public synchronized int[] getAssentos()
+    {
+        return assentos.clone();
+    }
+    
+    /**
+     * Constrói uma lista de partidos com os votos e assentos atuais (objetos novos, independentes do alocador).
+     * @return Lista de partidos pela ordem da lista inicial.
+     */
+    public synchronized List<Partido> getPartidos()
+    {
+        List<Partido> partidos = new ArrayList<>();
+        for (int i = 0; i < votos.length; i++)
+        {
+            Partido partido = new Partido(nomes.get(i), Math.toIntExact(votos[i]));
+            partido.setAssentos(assentos[i]);
+            partidos.add(partido);
+        }
+        return partidos;
+    }
+    
+    /**
+     * Restaura a distribuição D'Hondt: atribui assentos livres e troca assentos na margem.
+     * @return true se algum assento mudou de partido.
+     */
+    private boolean reequilibra()
+    {
+        boolean alterada = false;
+        
+        // Assentos livres (p.ex. de partidos que deixaram de ser elegíveis) vão para os melhores candidatos
+        while (assentosAtribuidos < assentosTotal && candidatos.tamanho > 0)
+        {
+            int vencedor = candidatos.topo();
+            atribuiAssento(vencedor, 1);
+            assentosAtribuidos++;
+            alterada = true;
+        }
+        
+        // Enquanto o próximo quociente do melhor candidato preceder o último quociente do pior detentor,
+        // o assento passa do detentor para o candidato
+        while (candidatos.tamanho > 0 && detentores.tamanho > 0)
+        {
+            int candidato = candidatos.topo();
+            int detentor = detentores.topo();
+            int comparacao = MotorDHondt.comparaQuocientes(votos[candidato], assentos[candidato] + 1L,
+                    votos[detentor], assentos[detentor]);
+            if (comparacao > 0 || (comparacao == 0 && candidato >= detentor))
+            {
+                break;
+            }
+            atribuiAssento(detentor, -1);
+            atribuiAssento(candidato, 1);
+            alterada = true;
+        }
+        return alterada;
+    }
+    
+    /**
+     * Altera os assentos de um partido e atualiza as suas posições nas filas.
+     * @param partido Índice do partido.
+     * @param variacao +1 ou -1 assento.
+     */
+    private void atribuiAssento(int partido, int variacao)
+    {
+        assentos[partido] += variacao;
+        candidatos.atualiza(partido);
+        if (assentos[partido] == 0)
+        {
+            detentores.remove(partido);
+        }
+        else if (!detentores.contem(partido))
+        {
+            detentores.insere(partido);
+        }
+        else
+        {
+            detentores.atualiza(partido);
+        }
+    }
+    
+    /**
+     * Publica a nova distribuição a todos os ouvintes registados.
+     */
+    private void publica()
+    {
+        versao++;
+        for (OuvinteAlocacao ouvinte : ouvintes)
+        {
+            ouvinte.alocacaoAlterada(versao, assentos.clone());
+        }
+    }
+    
+    /**
+     * Fila de prioridade indexada sobre os índices dos partidos, com suporte a atualização de chaves.
+     * No modo candidatos, o topo é o partido cujo próximo quociente (votos / (assentos + 1)) recebe o próximo
+     * assento; no modo detentores, o topo é o partido cujo último quociente vencedor (votos / assentos) foi o
+     * último a receber um assento.
+     */
+    private final class FilaIndexada
+    {
+        private final int[] fila;
+        private final int[] posicoes; // Posição de cada partido na fila, ou -1 se ausente
+        private final boolean modoCandidatos;
+        private int tamanho;
+        
+        private FilaIndexada(int capacidade, boolean modoCandidatos)
+        {
+            this.fila = new int[capacidade];
+            this.posicoes = new int[capacidade];
+            this.modoCandidatos = modoCandidatos;
+            Arrays.fill(posicoes, -1);
+        }
+        
+        private int topo()
+        {
+            return fila[0];
+        }
+        
+        private boolean contem(int partido)
+        {
+            return posicoes[partido] >= 0;
+        }
+        
+        private void insere(int partido)
+        {
+            if (contem(partido))
+            {
+                atualiza(partido);
+                return;
+            }
+            fila[tamanho] = partido;
+            posicoes[partido] = tamanho;
+            sobe(tamanho++);
+        }
+        
+        private void remove(int partido)
+        {
+            int posicao = posicoes[partido];
+            if (posicao < 0)
+            {
+                return;
+            }
+            int ultimo = fila[--tamanho];
+            posicoes[partido] = -1;
+            if (posicao < tamanho)
+            {
+                fila[posicao] = ultimo;
+                posicoes[ultimo] = posicao;
+                desce(sobe(posicao));
+            }
+        }
+        
+        private void atualiza(int partido)
+        {
+            int posicao = posicoes[partido];
+            if (posicao >= 0)
+            {
+                desce(sobe(posicao));
+            }
+        }
+        
+        private int sobe(int posicao)
+        {
+            int partido = fila[posicao];
+            while (posicao > 0)
+            {
+                int pai = (posicao - 1) >>> 1;
+                if (!precede(partido, fila[pai]))
+                {
+                    break;
+                }
+                coloca(fila[pai], posicao);
+                posicao = pai;
+            }
+            coloca(partido, posicao);
+            return posicao;
+        }
+        
+        private void desce(int posicao)
+        {
+            int partido = fila[posicao];
+            while (2 * posicao + 1 < tamanho)
+            {
+                int filho = 2 * posicao + 1;
+                if (filho + 1 < tamanho && precede(fila[filho + 1], fila[filho]))
+                {
+                    filho++;
+                }
+                if (!precede(fila[filho], partido))
+                {
+                    break;
+                }
+                coloca(fila[filho], posicao);
+                posicao = filho;
+            }
+            coloca(partido, posicao);
+        }
+        
+        private void coloca(int partido, int posicao)
+        {
+            fila[posicao] = partido;
+            posicoes[partido] = posicao;
+        }
+        
+        private boolean precede(int i, int j)
+        {
+            if (modoCandidatos)
+            {
+                int comparacao = MotorDHondt.comparaQuocientes(votos[i], assentos[i] + 1L, votos[j], assentos[j] + 1L);
+                return comparacao < 0 || (comparacao == 0 && i < j);
+            }
+            int comparacao = MotorDHondt.comparaQuocientes(votos[i], assentos[i], votos[j], assentos[j]);
+            return comparacao > 0 || (comparacao == 0 && i > j);
+        }
+    }
+}
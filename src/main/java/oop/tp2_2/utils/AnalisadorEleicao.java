@@ -1,18 +1,25 @@
 package oop.tp2_2.utils;
 
 import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.Relatorio;
+import oop.tp2_2.models.ResultadoSimulacao;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.TreeSet;
 import java.util.Set;
-import java.util.Arrays;
 import java.util.ArrayList;
 
 /**
  * Providencia os métodos de análise e demonstração de forma a verificar a veracidade das afirmações-chave
  * sobre o método D'Hondt.
  * Contem métodos para demonstrar vantagem das coligações e favoritismo de partidos grandes.
+ * As análises complementares são construídas pelo {@link GeradorRelatorios} e mostradas no formato de texto do
+ * {@link EscritorRelatorios}.
+ * Cada secção emite um evento JFR ({@link EventosEleicao.SeccaoAnalise}) e regista o seu tempo nas
+ * {@link Metricas} ("analise.secção").
  * @author Luis Matos
  */
 public class AnalisadorEleicao
@@ -29,6 +36,8 @@ public class AnalisadorEleicao
      */
     public static void demonstraVantagemColigacao(List<Partido> partidos)
     {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
         System.out.println("\nAfirmaçao #1: 'É mais vantajoso para 2 partidos concorrerem coligados do que separados.'");
         
         // Encontra partidos coligados na lista
@@ -50,11 +59,12 @@ public class AnalisadorEleicao
             System.out.printf("Total de votos da coligação: %,d%n", coligacao.getVotos());
             System.out.printf("Assentos alocados à coligação: %d%n", coligacao.getAssentos());
             
-            // Estima quantos assentos os membros da coligação obteriam se concorressem em separado.
-            int estimaAssentosIndividual = estimativaAssentosIndividual(coligacao);
-            System.out.printf("Número de assentos estimado, se concorrem em separado: ~%d%n", estimaAssentosIndividual);
+            // Calcula quantos assentos os membros da coligação obteriam se concorressem em separado.
+            int estimaAssentosIndividual = estimativaAssentosIndividual(coligacao, partidos);
+            System.out.printf("Número de assentos, se concorrem em separado: %d%n", estimaAssentosIndividual);
             System.out.printf("Vantagem da coligação: +%d assentos%n", coligacao.getAssentos() - estimaAssentosIndividual);
         }
+        EventosEleicao.terminaSeccao(evento, "afirmacao1", inicio);
     }
     
     /**
@@ -65,6 +75,8 @@ public class AnalisadorEleicao
      */
     public static void demonstraVantagemPartidoGrande(List<Partido> partidos)
     {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
         System.out.println("\nAfirmação #2: 'O método D'Hondt favorece os partidos maiores'");
         System.out.println("Análise da eficiência de votos por assento:");
         
@@ -78,7 +90,7 @@ public class AnalisadorEleicao
             if (partido.getAssentos() > 0)
             {
                 double votosPorAssento = (double) partido.getVotos() / partido.getAssentos();
-                double eficiencia = calculaEficiencia(partido);
+                double eficiencia = calculaEficiencia(partido, TOTAL_ASSENTOS, TOTAL_VOTOS);
                 
                 System.out.printf("%-20s: %,d votos/assento (Taxa de eficiência: %.3f)%n",
                         partido.getNome(), (int) votosPorAssento, eficiencia);
@@ -90,6 +102,7 @@ public class AnalisadorEleicao
         System.out.println("- Menos votos/assento = maior eficiência de representação.");
         System.out.println("- Taxa de eficiência > 1.0 = Tratamento mais favorável.");
         System.out.println("- Partidos maiores tendem a ter uma taxa de eficiência mais alta.");
+        EventosEleicao.terminaSeccao(evento, "afirmacao2", inicio);
     }
     
     /**
@@ -101,6 +114,8 @@ public class AnalisadorEleicao
      */
     public static void mostraResultadosEleicao(List<Partido> partidos, int totalAssentos, int totalVotos)
     {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
         System.out.println("\n=== RESULTADOS FINAIS DA ELEIÇÃO ===");
         System.out.printf("Parlamento da República Portuguesa - %d Assentos%n", totalAssentos);
         System.out.printf("Total de votos lançados: %,d%n", totalVotos);
@@ -130,42 +145,269 @@ public class AnalisadorEleicao
                         partido.getAssentos(), percentagemAssento, votosPorAssento);
             }
         }
+        EventosEleicao.terminaSeccao(evento, "resultados", inicio);
     }
     
     /**
-     * Método para estimar o número de assentos que os membros da coligação
+     * Método para mostrar os resultados de uma simulação Monte Carlo numa tabela formatada.
+     * Mostra, para cada partido, a média de assentos, o intervalo de 90% e a probabilidade de maioria absoluta,
+     * seguidos das probabilidades de maioria de cada bloco de partidos.
+     * @param resultado O resultado da simulação.
+     */
+    public static void mostraResultadosSimulacao(ResultadoSimulacao resultado)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        System.out.println("\n=== PROJEÇÃO DE ASSENTOS (SIMULAÇÃO MONTE CARLO) ===");
+        System.out.printf("Iterações: %,d | Maioria absoluta: %d assentos%n%n", resultado.getIteracoes(),
+                resultado.getAssentosMaioria());
+        
+        System.out.println("Partido   |  Média  |  Intervalo 90%  |  P(Maioria)  |");
+        System.out.println("----------|---------|-----------------|--------------|");
+        
+        List<String> nomesPartidos = resultado.getNomesPartidos();
+        for (int i = 0; i < nomesPartidos.size(); i++)
+        {
+            System.out.printf("%-9s | %7.1f | %6d - %-6d | %11.2f%% |%n", nomesPartidos.get(i),
+                    resultado.getMediaAssentos(i), resultado.getPercentilAssentos(i, 0.05),
+                    resultado.getPercentilAssentos(i, 0.95), resultado.getProbabilidadeMaioria(i) * 100);
+        }
+        
+        List<String> nomesBlocos = resultado.getNomesBlocos();
+        if (!nomesBlocos.isEmpty())
+        {
+            System.out.println("\nProbabilidade de maioria absoluta por bloco:");
+            for (int bloco = 0; bloco < nomesBlocos.size(); bloco++)
+            {
+                System.out.printf("  - %s: %.2f%%%n", nomesBlocos.get(bloco),
+                        resultado.getProbabilidadeMaioriaBloco(bloco) * 100);
+            }
+        }
+        EventosEleicao.terminaSeccao(evento, "simulacao", inicio);
+    }
+    
+    /**
+     * Método para calcular o número de assentos que os membros da coligação
      * obteriam se concorressem individualmente.
-     * Método de estimativa simplificado para efeitos da demonstração.
+     * Substitui a coligação pelos seus membros (com os respetivos votos) e refaz a distribuição D'Hondt real.
+     * @param coligacao Coligacao a analisar
+     * @param partidos Lista de todos os partidos do cenário, inclusive a coligação.
+     * @return O número de assentos, se os membros da coligacao concorrem individualmente.
+     */
+    static int estimativaAssentosIndividual(Partido coligacao, List<Partido> partidos)
+    {
+        return estimativaAssentosIndividual(coligacao, partidos, TOTAL_ASSENTOS,
+                ValidadorEleicao.calculaLimiteVotosMin(TOTAL_VOTOS));
+    }
+    
+    /**
+     * Método para calcular o número de assentos que os membros da coligação obteriam se concorressem
+     * individualmente, para um número de assentos e um limite minímo arbitrários.
      * @param coligacao Coligacao a analisar
-     * @return O número de assentos estimado, se os membros da coligacao concorrem individualmente.
+     * @param partidos Lista de todos os partidos do cenário, inclusive a coligação.
+     * @param totalAssentos Número total de assentos do cenário.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return O número de assentos, se os membros da coligacao concorrem individualmente.
+     */
+    static int estimativaAssentosIndividual(Partido coligacao, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin)
+    {
+        List<Partido> partidosSeparados = new ArrayList<>();
+        for (Partido partido : partidos)
+        {
+            if (partido != coligacao)
+            {
+                partidosSeparados.add(new Partido(partido.getNome(), partido.getVotos()));
+            }
+        }
+        int primeiroMembro = partidosSeparados.size();
+        for (int i = 0; i < coligacao.getMembrosColigacao().size(); i++)
+        {
+            partidosSeparados.add(new Partido(coligacao.getMembrosColigacao().get(i),
+                    coligacao.getVotosMembros().get(i)));
+        }
+        
+        int[] assentos = CalculadoraDHondt.calculaDistribuicaoAssentos(
+                CalculadoraDHondt.extraiVotos(partidosSeparados), totalAssentos, votosMargemMin);
+        
+        int assentosMembros = 0;
+        for (int i = primeiroMembro; i < assentos.length; i++)
+        {
+            assentosMembros += assentos[i];
+        }
+        return assentosMembros;
+    }
+    
+    /**
+     * Método para mostrar as coligações mais vantajosas entre os partidos de um cenário.
+     * Enumera todas as coligações possíveis e mostra as que obtêm maior ganho de assentos face aos membros separados.
+     * @param partidos Lista de todos os partidos, a concorrer em separado.
+     * @param totalAssentos Total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param maxResultados Número máximo de coligações a mostrar.
+     */
+    public static void mostraExploracaoColigacoes(List<Partido> partidos, int totalAssentos, int votosMargemMin,
+            int maxResultados)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("EXPLORAÇÃO DE COLIGAÇÕES");
+        GeradorRelatorios.adicionaExploracaoColigacoes(relatorio, partidos, totalAssentos, votosMargemMin,
+                maxResultados);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "exploracaoColigacoes", inicio);
+    }
+    
+    /**
+     * Método para mostrar lado a lado a distribuição de assentos obtida com diferentes métodos proporcionais.
+     * Os métodos são calculados em lote sobre os mesmos votos; os objetos Partido não são alterados.
+     * @param partidos Lista de todos os partidos participantes.
+     * @param totalAssentos Total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     */
+    public static void mostraComparacaoMetodos(List<Partido> partidos, int totalAssentos, int votosMargemMin)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("COMPARAÇÃO DE MÉTODOS");
+        GeradorRelatorios.adicionaComparacaoMetodos(relatorio, partidos, totalAssentos, votosMargemMin);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "comparacaoMetodos", inicio);
+    }
+    
+    /**
+     * Método para mostrar a sensibilidade da distribuição D'Hondt: para cada partido, os votos que lhe faltam para
+     * ganhar mais um assento e os votos que pode perder sem perder nenhum assento.
+     * As margens são derivadas do último quociente vencedor e do primeiro quociente vencido, sem refazer o cálculo.
+     * @param partidos Lista de todos os partidos participantes.
+     * @param totalAssentos Total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     */
+    public static void mostraMargensAssentos(List<Partido> partidos, int totalAssentos, int votosMargemMin)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("MARGENS DE ASSENTOS");
+        GeradorRelatorios.adicionaMargensAssentos(relatorio, partidos, totalAssentos, votosMargemMin);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "margens", inicio);
+    }
+    
+    /**
+     * Mostra a ordem de atribuição dos últimos assentos de uma distribuição D'Hondt e o primeiro quociente
+     * vencido, a partir do traço da atribuição.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param ultimos Número de assentos finais a mostrar.
+     */
+    public static void mostraOrdemAssentos(List<Partido> partidos, int totalAssentos, int votosMargemMin,
+            int ultimos)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("ORDEM DE ATRIBUIÇÃO");
+        GeradorRelatorios.adicionaOrdemAssentos(relatorio, partidos, totalAssentos, votosMargemMin, ultimos);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "ordemAssentos", inicio);
+    }
+    
+    /**
+     * Mostra a distribuição de assentos D'Hondt para todos os limites minímos entre 0% e uma percentagem máxima
+     * (uma linha por faixa de limites com a mesma distribuição).
+     * Cada faixa termina nos votos de um partido (um limite igual aos votos de um partido ainda o admite), pelo que
+     * é mostrada como "> x a <= y" em percentagem e com os limites de votos inclusivos, para não haver dúvidas sobre
+     * a faixa a que pertence um limite igual à percentagem de votos de um partido.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados (base das percentagens).
+     * @param percentagemMax Maior percentagem de limite minímo a considerar.
+     */
+    public static void mostraVarrimentoLimites(List<Partido> partidos, int totalAssentos, int totalVotos,
+            double percentagemMax)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("VARRIMENTO DE LIMITES");
+        GeradorRelatorios.adicionaVarrimentoLimites(relatorio, partidos, totalAssentos, totalVotos, percentagemMax);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "varrimentoLimites", inicio);
+    }
+    
+    /**
+     * Mostra a distribuição de assentos D'Hondt para várias dimensões do parlamento, calculadas numa única execução
+     * do método (ver {@link CalculadoraDHondt#calculaTabelaDimensoes}).
+     * @param partidos Lista dos partidos.
+     * @param dimensaoMin Menor dimensão a mostrar.
+     * @param dimensaoMax Maior dimensão a mostrar.
+     * @param passo Intervalo entre as dimensões mostradas.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     */
+    public static void mostraDimensoesParlamento(List<Partido> partidos, int dimensaoMin, int dimensaoMax, int passo,
+            int votosMargemMin)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("DIMENSÕES DO PARLAMENTO");
+        GeradorRelatorios.adicionaDimensoesParlamento(relatorio, partidos, dimensaoMin, dimensaoMax, passo,
+                votosMargemMin);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "dimensoesParlamento", inicio);
+    }
+    
+    /**
+     * Mostra, para cada percentagem, a matriz de variações de assentos quando essa percentagem dos votos de um
+     * partido (linha) passa para outro (coluna), calculada de forma incremental (ver
+     * {@link CalculadoraTransferencias}). Cada célula mostra a variação da origem e do destino.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param percentagens Percentagens dos votos da origem a transferir.
+     */
+    public static void mostraTransferenciasVotos(List<Partido> partidos, int totalAssentos, int votosMargemMin,
+            double... percentagens)
+    {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
+        Relatorio relatorio = new Relatorio("TRANSFERÊNCIAS DE VOTOS");
+        GeradorRelatorios.adicionaTransferenciasVotos(relatorio, partidos, totalAssentos, votosMargemMin,
+                percentagens);
+        mostraSeccoes(relatorio);
+        EventosEleicao.terminaSeccao(evento, "transferenciasVotos", inicio);
+    }
+    
+    /**
+     * Mostra na consola as secções de um relatório, no formato de texto do {@link EscritorRelatorios}, para que
+     * a consola e os relatórios gravados partilhem o mesmo conteúdo.
+     * @param relatorio O relatório cujas secções são mostradas.
      */
-    private static int estimativaAssentosIndividual(Partido coligacao)
+    private static void mostraSeccoes(Relatorio relatorio)
     {
-        // Estimativa simplificada - numa análise real, utilizaríamos cálculos do método D'Hondt separados. 
-        // Utilizamos uma heurística baseada num padrão típico de distribuição de assentos.
-        int assentosEstimados = 0;
-        for (String membro : coligacao.getMembrosColigacao())
+        try
         {
-            // Estimativa: assume que partidos pequenos necessitam de mais votos por assento
-            // e contabiliza efeitos das restrições.
-            assentosEstimados += (int) (coligacao.getVotos() * 0.4 / coligacao.getMembrosColigacao()
-                    .size() / 25000);
+            EscritorRelatorios.escreveSeccoes(relatorio, System.out);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
         }
-        return Math.max(1, assentosEstimados); // Assegura pelo menos um lugar para efeitos da demonstração.
     }
     
     /**
      * Método para calcular o rácio de eficiência para um dado partido
      * (percentagem de assentos / percentagem de votos)
      * Valores acima de 1.0 indicam tratamento favorável por parte do sistema eleitoral.
+     * Partilhado com o {@link GeradorRelatorios}, para que a consola e os relatórios mostrem os mesmos valores.
      * @param partido O partido para o qual iremos calcular a eficiência
-     * @return Rácio de eficiência (maior = tratamento mais favorável)
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     * @return Rácio de eficiência (maior = tratamento mais favorável), ou 0 se o partido não tiver votos
      */
-    private static double calculaEficiencia(Partido partido)
+    static double calculaEficiencia(Partido partido, int totalAssentos, int totalVotos)
     {
-        double percentagemAssentos = (partido.getAssentos() * 100.0 / TOTAL_ASSENTOS);
-        double percentagemVotos = (partido.getVotos() * 100.0 / TOTAL_VOTOS);
-        return percentagemAssentos / percentagemVotos; //
+        double percentagemAssentos = (partido.getAssentos() * 100.0 / totalAssentos);
+        double percentagemVotos = (partido.getVotos() * 100.0 / totalVotos);
+        return percentagemVotos > 0 ? percentagemAssentos / percentagemVotos : 0;
     }
     
     /**
@@ -181,6 +423,8 @@ public class AnalisadorEleicao
     public static void realizaAnaliseComparativa(List<Partido> comPartidosColigados,
             List<Partido> semPartidosColigados, int totalAssentos, int totalVotos)
     {
+        long inicio = Metricas.inicio();
+        EventosEleicao.SeccaoAnalise evento = EventosEleicao.iniciaSeccao();
         System.out.println("\n" + "=".repeat(80));
         System.out.println("ANÁLISE COMPARATIVA: CENÁRIO COM COLIGAÇÃO VS. SEM COLIGAÇÃO");
         System.out.println("=".repeat(80));
@@ -193,7 +437,7 @@ public class AnalisadorEleicao
         Set<String> todosNomesPartidos = new TreeSet<>();
         todosNomesPartidos.addAll(assentosColigacao.keySet());
         todosNomesPartidos.addAll(semAssentosColigacao.keySet());
-
+        
         // Mostra o cabeçalho da tabela comparativa
         System.out.println("\nCOMPARAÇÃO DE RESULTADOS:");
         System.out.println("Partido   |    Com Coligação    |    Sem Coligação    |  Diferença  |  Vantagem  |");
@@ -226,11 +470,13 @@ public class AnalisadorEleicao
         
         // Mostra o sumário das estatísticas coletadas durante a execução de ambas as simulações
         mostraSumarioComparativo(totalAssentosColigacao, totalAssentosSemColigacao, comPartidosColigados,
-                                    semPartidosColigados, assentosColigacao, semAssentosColigacao);
+                                    semPartidosColigados, assentosColigacao, semAssentosColigacao,
+                                    totalAssentos, totalVotos);
         
         // Mostra as perceções chave da comparação
         mostraPercepcaoComparativa(comPartidosColigados, semPartidosColigados, assentosColigacao,
                                         semAssentosColigacao);
+        EventosEleicao.terminaSeccao(evento, "analiseComparativa", inicio);
     }
     
     /**
@@ -239,7 +485,7 @@ public class AnalisadorEleicao
      * @param partidos Lista dos partidos da qual vamos criar o mapa
      * @return O mapa contendo o nomes dos partidos como chaves e a contagem de assentos como valores
      */
-    private static Map<String, Integer> criaMapaAssentos(List<Partido> partidos)
+    static Map<String, Integer> criaMapaAssentos(List<Partido> partidos)
     {
         Map<String, Integer> mapaAssentos = new HashMap<>();
         for (Partido partido : partidos)
@@ -281,12 +527,15 @@ public class AnalisadorEleicao
      * @param semPartidosColigados Lista de partidos num cenário sem coligação
      * @param assentosColigacao Mapa de assentos para o cenário com coligação
      * @param assentosSemColigação Mapa de assentos para o cenário com coligação
+     * @param totalAssentos Número total de assentos parlamentares
+     * @param totalVotos Número total de votos lançados
      */
     private static void mostraSumarioComparativo(int totalColigacao, int totalSemColigacao,
                                                     List<Partido> comPartidosColigados,
                                                     List<Partido> semPartidosColigados,
                                                     Map<String, Integer> assentosColigacao,
-                                                    Map<String, Integer> assentosSemColigacao)
+                                                    Map<String, Integer> assentosSemColigacao,
+                                                    int totalAssentos, int totalVotos)
     {
         System.out.println("\n" + "-".repeat(80));
         System.out.println("RESUMO ESTATÍSTICO DA ANÁLISE COMPARATIVA:");
@@ -298,11 +547,11 @@ public class AnalisadorEleicao
         System.out.printf("Número de partidos (sem coligação): %d%n", semPartidosColigados.size());
         
         // Calcula e mostra as vantagens das coligações utilizando as contagems reais de assentos
-        mostraSumarioVantagemColigacao(assentosColigacao, assentosSemColigacao);
-
+        mostraSumarioVantagemColigacao(comPartidosColigados, assentosColigacao, assentosSemColigacao);
+        
         // Calcula e mostra as métricas de eficiência
-        double eficienciaComColigacao = calculaMediaEficiencia(comPartidosColigados);
-        double eficienciaSemColigacao = calculaMediaEficiencia(semPartidosColigados);
+        double eficienciaComColigacao = calculaMediaEficiencia(comPartidosColigados, totalAssentos, totalVotos);
+        double eficienciaSemColigacao = calculaMediaEficiencia(semPartidosColigados, totalAssentos, totalVotos);
         
         System.out.printf("Eficiência média (com coligação): %.3f%n", eficienciaComColigacao);
         System.out.printf("Eficiência média (sem coligação): %.3f%n", eficienciaSemColigacao);
@@ -313,25 +562,21 @@ public class AnalisadorEleicao
      * Rácio de eficiência = (% de assentos) / (% de votos)
      * 
      * @param partidos Lista de partidos para os quais vamos realizar o cálculo da eficiência média.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
      * @return Rácio de eficiência médio
      */
-    private static double calculaMediaEficiencia(List<Partido> partidos)
+    static double calculaMediaEficiencia(List<Partido> partidos, int totalAssentos, int totalVotos)
     {
         double totalEficiencia = 0;
         int contagem = 0;
         
         for (Partido partido : partidos)
         {
-            if (partido.getAssentos() > 0)
+            if (partido.getAssentos() > 0 && partido.getVotos() > 0)
             {
-                double percentagemAssentos = (partido.getAssentos() * 100.00 / TOTAL_ASSENTOS);
-                double percentagemVotos = (partido.getVotos() * 100.00 / TOTAL_VOTOS);
-                
-                if (percentagemVotos > 0) //
-                {
-                    totalEficiencia += (percentagemAssentos / percentagemVotos);
-                    contagem++;
-                }
+                totalEficiencia += calculaEficiencia(partido, totalAssentos, totalVotos);
+                contagem++;
             }
         }
         
@@ -356,7 +601,7 @@ public class AnalisadorEleicao
         System.out.println("~".repeat(80));
         
         // Utilização dos dados reais relativos aos assentos em lugar de estimativas
-        mostraImpactoRealColigacao(assentosColigacao, assentosSemColigacao);
+        mostraImpactoRealColigacao(partidosComColigacao, assentosColigacao, assentosSemColigacao);
         
         // Analisa o efeito das restrições definidas para ambos os cenários
         analisaEfeitoRestricoes(partidosComColigacao, partidosSemColigacao);
@@ -370,10 +615,12 @@ public class AnalisadorEleicao
      * Compara os assentos obtidos pela coligação à soma de assentos obtida pelos seus partidos-membro no cenário
      * sem coligação.
      * 
+     * @param partidosComColigacao Lista dos partidos no cenário com coligação
      * @param assentosColigacao Mapa de assentos para o cenário de coligação
      * @param assentosSemColigação Mapa de assentos para o cenário sem coligação
      */
-    private static void mostraSumarioVantagemColigacao(Map<String, Integer> assentosColigacao,
+    private static void mostraSumarioVantagemColigacao(List<Partido> partidosComColigacao,
+                                                        Map<String, Integer> assentosColigacao,
                                                         Map<String, Integer> assentosSemColigacao)
     {
         // Pesquisa por e encontra a coligação e calcula a vantagem real
@@ -383,8 +630,8 @@ public class AnalisadorEleicao
         {
             int contagemAssentosColigacao = assentosColigacao.getOrDefault(nomeColigacao, 0);
             
-            // Obter os membros individuais da coligação a partir dos dados disponíveis (AD = PSD + CDS)
-            List<String> membrosColigacao = obterMembrosColigacao(nomeColigacao);
+            // Obter os membros individuais da coligação a partir do próprio objeto coligação
+            List<String> membrosColigacao = obterMembrosColigacao(nomeColigacao, partidosComColigacao);
             
             // Calcula o número de assentos obtido pelos membros da coligação num cenário sem coligação
             int totalAssentosIndividuais = 0;
@@ -424,8 +671,8 @@ public class AnalisadorEleicao
      * @param assentosSemColigacao Mapa dos assentos no cenário sem coligação
      * @return Retorna o nome da coligação ou null se esta não existir
      */
-    private static String encontraNomeColigacao(Map<String, Integer> assentosColigacao,
-                                                Map<String, Integer> assentosSemColigacao)
+    static String encontraNomeColigacao(Map<String, Integer> assentosColigacao,
+                                        Map<String, Integer> assentosSemColigacao)
     {
         // Pesquisa por partidos que existem no cenário de coligação mas não no cenário sem coligação
         for (String partido : assentosColigacao.keySet())
@@ -441,17 +688,19 @@ public class AnalisadorEleicao
     /**
      * Este método auxilia a mostragem do impacto real da coligação.
      * 
+     * @param partidosComColigacao Lista dos partidos no cenário com coligação
      * @param assentosColigacao Mapa dos assentos no cenário com coligação
      * @param assentosSemColigacao Mapa dos assentos no cenário sem coligação
      */
-     private static void mostraImpactoRealColigacao(Map<String, Integer> assentosColigacao,
+     private static void mostraImpactoRealColigacao(List<Partido> partidosComColigacao,
+                                                    Map<String, Integer> assentosColigacao,
                                                     Map<String, Integer> assentosSemColigacao)
      {
          String nomeColigacao = encontraNomeColigacao(assentosColigacao, assentosSemColigacao);
          
          if(nomeColigacao != null)
          {
-             List<String> membrosColigacao = obterMembrosColigacao(nomeColigacao);
+             List<String> membrosColigacao = obterMembrosColigacao(nomeColigacao, partidosComColigacao);
              int contagemAssentosColigacao = assentosColigacao.getOrDefault(nomeColigacao, 0);
              int totalAssentosIndividuais = membrosColigacao.stream()
                      .mapToInt(membro -> assentosSemColigacao.getOrDefault(membro, 0)).sum();
@@ -484,17 +733,20 @@ public class AnalisadorEleicao
     
     /**
      * Este método retorna os membros de uma dada coligação.
-     * Como utilizamos valores pré-definidos sabemos qual a é a estrutura da nossa coligação.
+     * Os membros são obtidos a partir do objeto coligação presente na lista de partidos.
      * 
      * @param nomeColigacao O nome da coligacao para a qual queremos obter os membros individuais.
+     * @param partidos Lista dos partidos onde pesquisar a coligação.
      * @return Lista dos nomes dos partidos membros da coligação
      */
-    private static List<String> obterMembrosColigacao(String nomeColigacao)
+    static List<String> obterMembrosColigacao(String nomeColigacao, List<Partido> partidos)
     {
-        // Com base na implementação atual, sabemos que a coligação AD é composta pelos membros PSD e CDS
-        if("AD".equals(nomeColigacao))
+        for (Partido partido : partidos)
         {
-            return Arrays.asList("PSD","CDS");
+            if (partido.eColigacao() && partido.getNome().equals(nomeColigacao))
+            {
+                return partido.getMembrosColigacao();
+            }
         }
         return new ArrayList<>();
     }
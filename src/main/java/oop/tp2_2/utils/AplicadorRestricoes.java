@@ -0,0 +1,188 @@
+package oop.tp2_2.utils;
+
+import java.util.Arrays;
+
+/**
+ * Aplica efetivamente o limite máximo de votos por partido e a diferença máxima de votos entre os dois partidos
+ * mais votados (ver {@link ValidadorEleicao}), cortando o excedente e redistribuindo-o pelos restantes partidos
+ * segundo uma {@link RegraRedistribuicao}.
+ * A redistribuição pode levar outros partidos a violar as restrições (p.ex. o segundo partido a ultrapassar o
+ * limite máximo), pelo que o corte e a redistribuição são repetidos em rondas até nenhuma restrição ser violada.
+ * Um partido cortado deixa de receber votos redistribuídos; como os restantes só ganham votos e os cortados só os
+ * perdem, cada ronda corta um novo partido ou volta a cortar um partido já cortado pelo limite máximo, e o
+ * processo termina em O(P) rondas (na prática, duas ou três).
+ * Cada ronda percorre os votos uma única vez: os dois partidos mais votados são obtidos por seleção parcial, sem
+ * ordenar os votos, o que mantém o custo linear mesmo com milhares de partidos.
+ * Cada instância reutiliza o seu vetor interno entre execuções, sem alocar objetos por chamada, pelo que pode ser
+ * usada em ciclos de lotes e simulações Monte Carlo; não é thread-safe, utilize uma instância por thread
+ * (ver {@link #instanciaLocal()}).
+ * @author Luis Matos
+ */
+public final class AplicadorRestricoes
+{
+    /**
+     * Regras de redistribuição dos votos cortados.
+     */
+    public enum RegraRedistribuicao
+    {
+        /** Pelos partidos não cortados, na proporção dos seus votos. */
+        PROPORCIONAL,
+        /** Em partes iguais pelos partidos não cortados. */
+        IGUAL,
+        /** Os votos cortados são descartados (o total de votos diminui). */
+        DESCARTAR
+    }
+    
+    // Instância reutilizável por thread para os métodos estáticos de ValidadorEleicao
+    private static final ThreadLocal<AplicadorRestricoes> INSTANCIA_LOCAL =
+            ThreadLocal.withInitial(AplicadorRestricoes::new);
+    
+    private boolean[] cortados; // Partidos já cortados numa ronda (não recebem votos redistribuídos)
+    private int rondas;
+    
+    /**
+     * Constructor do aplicador, com o vetor interno de capacidade inicial reduzida.
+     */
+    public AplicadorRestricoes()
+    {
+        this.cortados = new boolean[16];
+    }
+    
+    /**
+     * Retorna a instância do aplicador associada à thread atual.
+     * @return Aplicador reutilizável exclusivo da thread que o invoca.
+     */
+    static AplicadorRestricoes instanciaLocal()
+    {
+        return INSTANCIA_LOCAL.get();
+    }
+    
+    /**
+     * Aplica as restrições aos votos, alterando o vetor no próprio local.
+     * Os votos redistribuídos são partes inteiras; as unidades que sobram da divisão são atribuídas, uma a uma,
+     * aos partidos que as recebem, por ordem de índice. Se nenhum partido puder receber votos o excedente é
+     * descartado. Na regra proporcional o cálculo é exato enquanto o excedente vezes os votos de um partido
+     * couber num long (totais até cerca de 3 mil milhões de votos).
+     * @param votos Votos de cada partido (o índice identifica o partido); são alterados.
+     * @param n Número de partidos a considerar (prefixo do vetor).
+     * @param limiteVotosMax Número máximo de votos permitido a cada partido.
+     * @param diferencaMaxVotos Diferença máxima de votos permitida entre os dois primeiros partidos.
+     * @param regra Regra de redistribuição dos votos cortados.
+     * @return Total de votos cortados em todas as rondas (0 se as restrições já eram cumpridas).
+     */
+    public long aplica(long[] votos, int n, long limiteVotosMax, long diferencaMaxVotos, RegraRedistribuicao regra)
+    {
+        if (limiteVotosMax < 0 || diferencaMaxVotos < 0)
+        {
+            throw new IllegalArgumentException("Os limites de votos não podem ser negativos");
+        }
+        if (cortados.length < n)
+        {
+            cortados = new boolean[Math.max(n, cortados.length * 2)];
+        }
+        Arrays.fill(cortados, 0, n, false);
+        
+        long cortadosTotal = 0;
+        int rondasMax = 2 * n + 2;
+        for (rondas = 0; rondas < rondasMax; rondas++)
+        {
+            long excedente = 0;
+            
+            // Limite máximo de votos por partido
+            for (int i = 0; i < n; i++)
+            {
+                if (votos[i] > limiteVotosMax)
+                {
+                    excedente += votos[i] - limiteVotosMax;
+                    votos[i] = limiteVotosMax;
+                    cortados[i] = true;
+                }
+            }
+            
+            // Diferença máxima entre os dois primeiros (seleção parcial; em empate precede o menor índice)
+            int primeiro = -1;
+            int segundo = -1;
+            for (int i = 0; i < n; i++)
+            {
+                if (primeiro < 0 || votos[i] > votos[primeiro])
+                {
+                    segundo = primeiro;
+                    primeiro = i;
+                }
+                else if (segundo < 0 || votos[i] > votos[segundo])
+                {
+                    segundo = i;
+                }
+            }
+            if (segundo >= 0 && votos[primeiro] - votos[segundo] > diferencaMaxVotos)
+            {
+                excedente += votos[primeiro] - votos[segundo] - diferencaMaxVotos;
+                votos[primeiro] = votos[segundo] + diferencaMaxVotos;
+                cortados[primeiro] = true;
+            }
+            
+            if (excedente == 0)
+            {
+                return cortadosTotal;
+            }
+            cortadosTotal += excedente;
+            redistribui(votos, n, excedente, regra);
+        }
+        throw new IllegalStateException("As restrições não convergiram em " + rondasMax + " rondas");
+    }
+    
+    /**
+     * Retorna o número de rondas de corte e redistribuição da última aplicação.
+     * @return Número de rondas com votos cortados (0 se as restrições já eram cumpridas).
+     */
+    public int getRondas()
+    {
+        return rondas;
+    }
+    
+    /**
+     * Redistribui o excedente de uma ronda pelos partidos não cortados.
+     */
+    private void redistribui(long[] votos, int n, long excedente, RegraRedistribuicao regra)
+    {
+        if (regra == RegraRedistribuicao.DESCARTAR)
+        {
+            return;
+        }
+        long soma = 0;
+        int recetores = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (!cortados[i])
+            {
+                soma += votos[i];
+                recetores++;
+            }
+        }
+        if (recetores == 0)
+        {
+            return;
+        }
+        
+        // Sem votos para ponderar, a regra proporcional reduz-se a partes iguais
+        boolean proporcional = regra == RegraRedistribuicao.PROPORCIONAL && soma > 0;
+        long resto = excedente;
+        for (int i = 0; i < n; i++)
+        {
+            if (!cortados[i])
+            {
+                long parte = proporcional ? excedente * votos[i] / soma : excedente / recetores;
+                votos[i] += parte;
+                resto -= parte;
+            }
+        }
+        for (int i = 0; i < n && resto > 0; i++)
+        {
+            if (!cortados[i] && (!proporcional || votos[i] > 0))
+            {
+                votos[i]++;
+                resto--;
+            }
+        }
+    }
+}
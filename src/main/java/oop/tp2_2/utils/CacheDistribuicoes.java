@@ -0,0 +1,219 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Partido;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache limitada de distribuições de assentos, para consultas repetidas sobre os mesmos votos
+ * (p.ex. ferramentas "e se" em que o utilizador move um controlo para trás e para a frente).
+ * A chave é a forma canónica do pedido (vetor de votos, assentos, limite minímo e método), com o código de hash
+ * calculado uma única vez. A cache guarda apenas vetores primitivos de assentos: cada consulta devolve uma cópia
+ * (ou um mapa novo), pelo que alterar o resultado ou aplicá-lo aos partidos (Partido.setAssentos) não afeta
+ * as entradas guardadas.
+ * A remoção segue a ordem LRU (menos recentemente utilizada), limitada pelo número de entradas e pelo número
+ * total de partidos guardados. A instância pode ser partilhada entre threads: o acesso ao mapa é sincronizado e
+ * o cálculo das falhas é feito fora do bloqueio (duas threads com a mesma falha podem calcular o mesmo resultado).
+ * @author Luis Matos
+ */
+public class CacheDistribuicoes
+{
+    /**
+     * Chave canónica de um pedido de distribuição.
+     */
+    private static final class Chave
+    {
+        private final long[] votos;
+        private final int assentosTotal;
+        private final long votosMargemMin;
+        private final MetodoDistribuicao metodo;
+        private final int hash;
+        
+        private Chave(long[] votos, int assentosTotal, long votosMargemMin, MetodoDistribuicao metodo)
+        {
+            this.votos = votos;
+            this.assentosTotal = assentosTotal;
+            this.votosMargemMin = votosMargemMin;
+            this.metodo = metodo;
+            int codigo = Arrays.hashCode(votos);
+            codigo = 31 * codigo + assentosTotal;
+            codigo = 31 * codigo + Long.hashCode(votosMargemMin);
+            this.hash = 31 * codigo + System.identityHashCode(metodo);
+        }
+        
+        @Override
+        public boolean equals(Object outro)
+        {
+            if (this == outro)
+            {
+                return true;
+            }
+            if (!(outro instanceof Chave chave))
+            {
+                return false;
+            }
+            return hash == chave.hash && assentosTotal == chave.assentosTotal
+                    && votosMargemMin == chave.votosMargemMin && metodo == chave.metodo
+                    && Arrays.equals(votos, chave.votos);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+    
+    private final int maxEntradas;
+    private final long maxPartidos;
+    private final LinkedHashMap<Chave, int[]> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private long partidosGuardados;
+    
+    /**
+     * Constructor da cache.
+     * @param maxEntradas Número máximo de distribuições guardadas.
+     * @param maxPartidos Número máximo de partidos guardados no total (soma das dimensões dos vetores de votos).
+     */
+    public CacheDistribuicoes(int maxEntradas, long maxPartidos)
+    {
+        if (maxEntradas <= 0 || maxPartidos <= 0)
+        {
+            throw new IllegalArgumentException("A capacidade da cache tem de ser positiva");
+        }
+        this.maxEntradas = maxEntradas;
+        this.maxPartidos = maxPartidos;
+    }
+    
+    /**
+     * Calcula (ou obtém da cache) a distribuição D'Hondt para uma lista de partidos.
+     * @param partidos Lista dos partidos participantes.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return Mapa novo com a alocação de assentos de cada partido.
+     */
+    public Map<Partido, Integer> calculaDistribuicaoAssentos(List<Partido> partidos, int assentosTotal,
+            int votosMargemMin)
+    {
+        return calculaDistribuicaoAssentos(partidos, assentosTotal, votosMargemMin, CalculadoraMetodos.D_HONDT);
+    }
+    
+    /**
+     * Calcula (ou obtém da cache) a distribuição de assentos de uma lista de partidos com o método indicado.
+     * @param partidos Lista dos partidos participantes.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de distribuição.
+     * @return Mapa novo com a alocação de assentos de cada partido.
+     */
+    public Map<Partido, Integer> calculaDistribuicaoAssentos(List<Partido> partidos, int assentosTotal,
+            int votosMargemMin, MetodoDistribuicao metodo)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        int[] assentos = obtem(new Chave(votos, assentosTotal, votosMargemMin, metodo));
+        return CalculadoraDHondt.criaMapaAlocacao(partidos, assentos);
+    }
+    
+    /**
+     * Calcula (ou obtém da cache) a distribuição de assentos de um vetor de votos com o método indicado.
+     * @param votos Votos de cada partido (o vetor é copiado, podendo ser reutilizado pelo chamador).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de distribuição.
+     * @return Cópia do vetor com os assentos de cada partido.
+     */
+    public int[] calculaDistribuicaoAssentos(long[] votos, int assentosTotal, long votosMargemMin,
+            MetodoDistribuicao metodo)
+    {
+        return obtem(new Chave(votos.clone(), assentosTotal, votosMargemMin, metodo)).clone();
+    }
+    
+    /**
+     * Obtém a distribuição de uma chave, calculando-a e guardando-a em caso de falha.
+     * @param chave A chave do pedido.
+     * @return O vetor de assentos guardado (não deve ser alterado nem exposto).
+     */
+    private int[] obtem(Chave chave)
+    {
+        synchronized (entradas)
+        {
+            int[] assentos = entradas.get(chave);
+            if (assentos != null)
+            {
+                acertos.increment();
+                return assentos;
+            }
+        }
+        
+        falhas.increment();
+        int[] assentos = CalculadoraMetodos.calculaDistribuicaoAssentos(chave.votos, chave.assentosTotal,
+                chave.votosMargemMin, chave.metodo);
+        
+        synchronized (entradas)
+        {
+            if (entradas.put(chave, assentos) == null)
+            {
+                partidosGuardados += chave.votos.length;
+            }
+            // Remove as entradas menos recentemente utilizadas até respeitar ambos os limites
+            Iterator<Map.Entry<Chave, int[]>> iterador = entradas.entrySet().iterator();
+            while ((entradas.size() > maxEntradas || partidosGuardados > maxPartidos) && entradas.size() > 1)
+            {
+                partidosGuardados -= iterador.next().getKey().votos.length;
+                iterador.remove();
+            }
+        }
+        return assentos;
+    }
+    
+    /**
+     * Remove todas as entradas da cache (os contadores de acertos e falhas são mantidos).
+     */
+    public void limpa()
+    {
+        synchronized (entradas)
+        {
+            entradas.clear();
+            partidosGuardados = 0;
+        }
+    }
+    
+    /**
+     * Retorna o número de distribuições guardadas.
+     * @return Número de entradas na cache.
+     */
+    public int getTamanho()
+    {
+        synchronized (entradas)
+        {
+            return entradas.size();
+        }
+    }
+    
+    // Contadores de utilização
+    public long getAcertos()
+    {
+        return acertos.sum();
+    }
+    
+    public long getFalhas()
+    {
+        return falhas.sum();
+    }
+    
+    /**
+     * Calcula a taxa de acertos da cache.
+     * @return Fração das consultas servidas pela cache (0 se não houve consultas).
+     */
+    public double getTaxaAcertos()
+    {
+        long acertosTotal = acertos.sum();
+        long consultas = acertosTotal + falhas.sum();
+        return consultas == 0 ? 0 : (double) acertosTotal / consultas;
+    }
+}
@@ -0,0 +1,510 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.ResultadoBiproporcional;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Implementa a distribuição biproporcional de assentos (círculo × partido, o "doppelter Pukelsheim" usado p.ex.
+ * em Zurique): dada a matriz de votos, o número de assentos de cada círculo e o número de assentos de cada partido
+ * (a distribuição nacional, ver {@link #calculaAssentosPartidos}), procura um divisor por círculo e um divisor por
+ * partido tais que os assentos de cada célula, obtidos pelo arredondamento de um método de divisores de
+ * votos / (divisor do círculo × divisor do partido), somam os totais de todas as linhas e de todas as colunas.
+ * O cálculo usa o escalonamento alternado: numa passagem por linhas cada círculo é distribuído como uma
+ * distribuição unidimensional, com os votos ponderados pelos multiplicadores atuais dos partidos, o que fixa o
+ * multiplicador do círculo; numa passagem por colunas faz-se o mesmo para cada partido. As passagens alternam até
+ * os totais da outra dimensão também estarem corretos. Se o escalonamento estagnar (o que pode acontecer com
+ * empates ou matrizes esparsas), os assentos em falta são transferidos entre partidos por caminhos de custo minímo,
+ * o que garante sempre uma solução quando ela existe.
+ * A matriz é guardada em formato esparso (apenas as células com votos, por linhas e com um índice por colunas
+ * sobre os mesmos vetores), e as linhas ou colunas de cada passagem são independentes e calculadas em paralelo.
+ * Cada linha ou coluna parte do seu multiplicador da passagem anterior, pelo que em cada passagem apenas alguns
+ * assentos mudam de célula.
+ * @author Luis Matos
+ */
+public class CalculadoraBiproporcional
+{
+    // Número máximo de passagens do escalonamento alternado antes da fase de transferência
+    private static final int ITERACOES_MAX = 200;
+    
+    // Passagens por linhas seguidas sem reduzir o erro nas colunas após as quais o escalonamento é interrompido
+    private static final int PASSAGENS_SEM_MELHORIA = 8;
+    
+    // Tolerância na comparação de custos da fase de transferência (evita ciclos de custo nulo por arredondamento)
+    private static final double TOLERANCIA = 1e-12;
+    
+    // Número minímo de células para executar as passagens em paralelo
+    private static final int CELULAS_PARALELO = 2048;
+    
+    /**
+     * Problema em formato esparso, com os assentos e multiplicadores correntes.
+     * O quociente de uma célula, na escala do método, é votos × multiplicador do círculo × multiplicador do
+     * partido, e os assentos da célula são os divisores da sequência que não o excedem.
+     */
+    private static final class Problema
+    {
+        private final MetodoDivisor metodo;
+        private final int[] inicioLinhas; // Células da linha i: [inicioLinhas[i], inicioLinhas[i + 1])
+        private final int[] colunas; // Partido de cada célula
+        private final int[] linhas; // Círculo de cada célula
+        private final int[] inicioColunas; // Células da coluna j: posicoesColunas[inicioColunas[j] ...]
+        private final int[] posicoesColunas; // Células ordenadas por coluna
+        private final int[] posicoesLinhas; // Células ordenadas por linha (identidade)
+        private final double[] votos;
+        private final int[] assentos;
+        private final double[] multiplicadoresCirculos;
+        private final double[] multiplicadoresPartidos;
+        
+        private Problema(long[][] matriz, int partidos, MetodoDivisor metodo)
+        {
+            this.metodo = metodo;
+            int circulos = matriz.length;
+            int celulas = 0;
+            int[] celulasColuna = new int[partidos];
+            for (long[] linha : matriz)
+            {
+                for (int j = 0; j < partidos; j++)
+                {
+                    if (linha[j] > 0)
+                    {
+                        celulas++;
+                        celulasColuna[j]++;
+                    }
+                }
+            }
+            this.inicioLinhas = new int[circulos + 1];
+            this.colunas = new int[celulas];
+            this.linhas = new int[celulas];
+            this.votos = new double[celulas];
+            this.assentos = new int[celulas];
+            this.posicoesLinhas = new int[celulas];
+            for (int i = 0, k = 0; i < circulos; i++)
+            {
+                inicioLinhas[i] = k;
+                for (int j = 0; j < partidos; j++)
+                {
+                    if (matriz[i][j] > 0)
+                    {
+                        colunas[k] = j;
+                        linhas[k] = i;
+                        votos[k] = matriz[i][j];
+                        posicoesLinhas[k] = k;
+                        k++;
+                    }
+                }
+                inicioLinhas[i + 1] = k;
+            }
+            this.inicioColunas = new int[partidos + 1];
+            for (int j = 0; j < partidos; j++)
+            {
+                inicioColunas[j + 1] = inicioColunas[j] + celulasColuna[j];
+            }
+            this.posicoesColunas = new int[celulas];
+            int[] proxima = inicioColunas.clone();
+            for (int k = 0; k < celulas; k++)
+            {
+                posicoesColunas[proxima[colunas[k]]++] = k;
+            }
+            this.multiplicadoresCirculos = new double[circulos];
+            this.multiplicadoresPartidos = new double[partidos];
+            Arrays.fill(multiplicadoresPartidos, 1);
+        }
+        
+        private void ajustaCirculo(int circulo, int alvo)
+        {
+            multiplicadoresCirculos[circulo] = ajusta(posicoesLinhas, inicioLinhas[circulo],
+                    inicioLinhas[circulo + 1], colunas, multiplicadoresPartidos, alvo,
+                    multiplicadoresCirculos[circulo]);
+        }
+        
+        private void ajustaPartido(int partido, int alvo)
+        {
+            multiplicadoresPartidos[partido] = ajusta(posicoesColunas, inicioColunas[partido],
+                    inicioColunas[partido + 1], linhas, multiplicadoresCirculos, alvo,
+                    multiplicadoresPartidos[partido]);
+        }
+        
+        /**
+         * Distribui os assentos de uma linha ou coluna com os votos ponderados pelos multiplicadores da outra
+         * dimensão, e retorna o multiplicador da linha ou coluna (o ponto médio do intervalo de multiplicadores
+         * que produz essa distribuição).
+         */
+        private double ajusta(int[] posicoes, int inicio, int fim, int[] outroIndice, double[] outrosMultiplicadores,
+                int alvo, double anterior)
+        {
+            // Ponto de partida: o multiplicador da passagem anterior, que já está próximo do alvo; na primeira
+            // passagem, o multiplicador comum alvo / soma dos pesos, que não o excede
+            double multiplicador = anterior;
+            if (multiplicador <= 0 || Double.isInfinite(multiplicador))
+            {
+                double somaPesos = 0;
+                for (int k = inicio; k < fim; k++)
+                {
+                    int celula = posicoes[k];
+                    somaPesos += votos[celula] * outrosMultiplicadores[outroIndice[celula]];
+                }
+                multiplicador = somaPesos > 0 ? alvo * metodo.getPasso() / somaPesos : 0;
+            }
+            int total = 0;
+            for (int k = inicio; k < fim; k++)
+            {
+                int celula = posicoes[k];
+                assentos[celula] = metodo.contaDivisores(
+                        votos[celula] * outrosMultiplicadores[outroIndice[celula]] * multiplicador);
+                total += assentos[celula];
+            }
+            
+            // Acerto assento a assento: o próximo assento é o da célula que o obtém com o menor multiplicador,
+            // e o assento retirado é o da célula que o perde com o maior
+            for (; total < alvo; total++)
+            {
+                int melhor = -1;
+                double melhorMultiplicador = Double.POSITIVE_INFINITY;
+                for (int k = inicio; k < fim; k++)
+                {
+                    int celula = posicoes[k];
+                    double peso = votos[celula] * outrosMultiplicadores[outroIndice[celula]];
+                    if (peso > 0 && metodo.divisor(assentos[celula]) / peso < melhorMultiplicador)
+                    {
+                        melhorMultiplicador = metodo.divisor(assentos[celula]) / peso;
+                        melhor = celula;
+                    }
+                }
+                if (melhor < 0)
+                {
+                    break; // Sem células com peso: o alvo é inatingível nesta passagem
+                }
+                assentos[melhor]++;
+            }
+            for (; total > alvo; total--)
+            {
+                int melhor = -1;
+                double melhorMultiplicador = -1;
+                for (int k = inicio; k < fim; k++)
+                {
+                    int celula = posicoes[k];
+                    double peso = votos[celula] * outrosMultiplicadores[outroIndice[celula]];
+                    if (assentos[celula] > 0 && metodo.divisor(assentos[celula] - 1) / peso > melhorMultiplicador)
+                    {
+                        melhorMultiplicador = metodo.divisor(assentos[celula] - 1) / peso;
+                        melhor = celula;
+                    }
+                }
+                assentos[melhor]--;
+            }
+            
+            // Intervalo dos multiplicadores que produzem esta distribuição
+            double inferior = 0;
+            double superior = Double.POSITIVE_INFINITY;
+            for (int k = inicio; k < fim; k++)
+            {
+                int celula = posicoes[k];
+                double peso = votos[celula] * outrosMultiplicadores[outroIndice[celula]];
+                if (peso <= 0)
+                {
+                    continue;
+                }
+                if (assentos[celula] > 0)
+                {
+                    inferior = Math.max(inferior, metodo.divisor(assentos[celula] - 1) / peso);
+                }
+                superior = Math.min(superior, metodo.divisor(assentos[celula]) / peso);
+            }
+            return superior == Double.POSITIVE_INFINITY ? inferior : (inferior + superior) / 2;
+        }
+        
+        /**
+         * Soma as diferenças, em valor absoluto, entre os assentos de cada linha (ou coluna) e o respetivo alvo.
+         */
+        private int erro(int[] inicios, int[] posicoes, int[] alvos)
+        {
+            int erro = 0;
+            for (int linha = 0; linha < alvos.length; linha++)
+            {
+                int total = 0;
+                for (int k = inicios[linha]; k < inicios[linha + 1]; k++)
+                {
+                    total += assentos[posicoes[k]];
+                }
+                erro += Math.abs(total - alvos[linha]);
+            }
+            return erro;
+        }
+        
+        /**
+         * Fase de transferência, para quando o escalonamento alternado estagna: com os totais das linhas corretos,
+         * move um assento de cada vez de um partido com assentos a mais para um partido com assentos a menos, pelo
+         * caminho de menor custo (alternadamente retira e acrescenta um assento a um partido num círculo, o que
+         * mantém os totais dos círculos). O custo do assento k de uma célula é log(divisor(k - 1) / votos), pelo
+         * que a distribuição continua a ser um arredondamento do método com um divisor por círculo e por partido
+         * (a formulação da distribuição biproporcional como fluxo de custo minímo).
+         * @return Número de assentos transferidos.
+         */
+        private int transfere(int[] alvosPartidos)
+        {
+            int partidos = multiplicadoresPartidos.length;
+            int[] excesso = new int[partidos];
+            for (int k = 0; k < assentos.length; k++)
+            {
+                excesso[colunas[k]] += assentos[k];
+            }
+            for (int j = 0; j < partidos; j++)
+            {
+                excesso[j] -= alvosPartidos[j];
+            }
+            
+            // Nós: os partidos (0 a P - 1) e os círculos (P a P + C - 1)
+            double[] distancias = new double[partidos + multiplicadoresCirculos.length];
+            int[] anteriores = new int[distancias.length];
+            int transferencias = 0;
+            while (Arrays.stream(excesso).anyMatch(valor -> valor > 0))
+            {
+                calculaDistancias(distancias, anteriores, excesso);
+                int destino = -1;
+                for (int j = 0; j < partidos; j++)
+                {
+                    if (excesso[j] < 0 && distancias[j] < Double.POSITIVE_INFINITY
+                            && (destino < 0 || distancias[j] < distancias[destino]))
+                    {
+                        destino = j;
+                    }
+                }
+                if (destino < 0)
+                {
+                    throw new IllegalStateException("A distribuição biproporcional não tem solução: os partidos com"
+                            + " assentos em falta não concorrem nos círculos necessários");
+                }
+                
+                // Percorre o caminho desde o destino até ao partido de origem
+                int no = destino;
+                while (anteriores[no] >= 0)
+                {
+                    int celula = anteriores[no];
+                    if (no < partidos)
+                    {
+                        assentos[celula]++;
+                        no = partidos + linhas[celula];
+                    }
+                    else
+                    {
+                        assentos[celula]--;
+                        no = colunas[celula];
+                    }
+                }
+                excesso[no]--;
+                excesso[destino]++;
+                transferencias++;
+            }
+            
+            // Multiplicadores a partir dos potenciais (distâncias desde todos os nós): para cada célula,
+            // divisor(x - 1) <= votos * exp(d(partido) - d(círculo)) <= divisor(x)
+            calculaDistancias(distancias, anteriores, null);
+            for (int j = 0; j < partidos; j++)
+            {
+                multiplicadoresPartidos[j] = Math.exp(distancias[j]);
+            }
+            for (int i = 0; i < multiplicadoresCirculos.length; i++)
+            {
+                multiplicadoresCirculos[i] = Math.exp(-distancias[partidos + i]);
+            }
+            return transferencias;
+        }
+        
+        /**
+         * Calcula as distâncias mínimas (Bellman-Ford) no grafo residual, a partir dos partidos com assentos a mais
+         * (ou de todos os nós, se excesso for null). Não há ciclos de custo negativo porque a distribuição corrente
+         * é sempre um arredondamento do método.
+         */
+        private void calculaDistancias(double[] distancias, int[] anteriores, int[] excesso)
+        {
+            int partidos = multiplicadoresPartidos.length;
+            Arrays.fill(distancias, excesso == null ? 0 : Double.POSITIVE_INFINITY);
+            Arrays.fill(anteriores, -1);
+            for (int j = 0; excesso != null && j < partidos; j++)
+            {
+                if (excesso[j] > 0)
+                {
+                    distancias[j] = 0;
+                }
+            }
+            boolean alterou = true;
+            for (int ronda = 0; alterou && ronda < distancias.length; ronda++)
+            {
+                alterou = false;
+                for (int k = 0; k < assentos.length; k++)
+                {
+                    int partido = colunas[k];
+                    int circulo = partidos + linhas[k];
+                    double logVotos = Math.log(votos[k]);
+                    // Partido -> círculo: retira o último assento da célula
+                    if (assentos[k] > 0 && distancias[partido] < Double.POSITIVE_INFINITY)
+                    {
+                        double distancia = distancias[partido] + logVotos
+                                - Math.log(metodo.divisor(assentos[k] - 1));
+                        if (distancia < distancias[circulo] - TOLERANCIA)
+                        {
+                            distancias[circulo] = distancia;
+                            anteriores[circulo] = k;
+                            alterou = true;
+                        }
+                    }
+                    // Círculo -> partido: acrescenta um assento à célula
+                    if (distancias[circulo] < Double.POSITIVE_INFINITY)
+                    {
+                        double distancia = distancias[circulo] + Math.log(metodo.divisor(assentos[k])) - logVotos;
+                        if (distancia < distancias[partido] - TOLERANCIA)
+                        {
+                            distancias[partido] = distancia;
+                            anteriores[partido] = k;
+                            alterou = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Calcula a distribuição nacional dos assentos pelos partidos (os totais das colunas), sobre a soma dos votos
+     * de cada partido em todos os círculos. Nos sistemas em que cada eleitor tem tantos votos como os assentos do
+     * seu círculo (como em Zurique), os votos de cada círculo devem ser previamente divididos pelos seus assentos.
+     * @param votos Matriz de votos, por círculo (linhas) e partido (colunas).
+     * @param assentosTotal Número total de assentos.
+     * @param metodo Método de divisores.
+     * @return Assentos de cada partido.
+     */
+    public static int[] calculaAssentosPartidos(long[][] votos, int assentosTotal, MetodoDivisor metodo)
+    {
+        long[] votosPartidos = new long[votos.length == 0 ? 0 : votos[0].length];
+        for (long[] linha : votos)
+        {
+            for (int j = 0; j < votosPartidos.length; j++)
+            {
+                votosPartidos[j] += linha[j];
+            }
+        }
+        return CalculadoraMetodos.calculaDistribuicaoAssentos(votosPartidos, assentosTotal, 1, metodo);
+    }
+    
+    /**
+     * Calcula a distribuição biproporcional.
+     * @param votos Matriz de votos, por círculo (linhas) e partido (colunas); 0 se o partido não concorre no
+     *              círculo.
+     * @param assentosCirculos Número de assentos de cada círculo (totais das linhas).
+     * @param assentosPartidos Número de assentos de cada partido (totais das colunas).
+     * @param metodo Método de divisores (Sainte-Laguë em Zurique).
+     * @return O resultado com os assentos de cada célula e os divisores dos círculos e dos partidos.
+     * @throws IllegalArgumentException Se as dimensões não coincidirem, houver votos negativos, os totais das
+     *                                  linhas e das colunas forem diferentes ou uma linha ou coluna com assentos
+     *                                  não tiver votos.
+     * @throws IllegalStateException Se não existir uma distribuição com estes totais (p.ex. um partido com
+     *                               assentos a mais do que os dos círculos em que concorre).
+     */
+    public static ResultadoBiproporcional calcula(long[][] votos, int[] assentosCirculos, int[] assentosPartidos,
+            MetodoDivisor metodo)
+    {
+        int circulos = assentosCirculos.length;
+        int partidos = assentosPartidos.length;
+        valida(votos, assentosCirculos, assentosPartidos);
+        
+        Problema problema = new Problema(votos, partidos, metodo);
+        boolean paralelo = problema.votos.length >= CELULAS_PARALELO;
+        int iteracoes = 0;
+        int melhorErro = Integer.MAX_VALUE;
+        int passagensSemMelhoria = 0;
+        boolean convergiu = false;
+        while (!convergiu)
+        {
+            // Passagem por linhas: os totais dos círculos ficam corretos
+            iteracoes++;
+            intervalo(circulos, paralelo).forEach(i -> problema.ajustaCirculo(i, assentosCirculos[i]));
+            int erro = problema.erro(problema.inicioColunas, problema.posicoesColunas, assentosPartidos);
+            convergiu = erro == 0;
+            passagensSemMelhoria = erro < melhorErro ? 0 : passagensSemMelhoria + 1;
+            melhorErro = Math.min(melhorErro, erro);
+            if (convergiu || passagensSemMelhoria >= PASSAGENS_SEM_MELHORIA || iteracoes >= ITERACOES_MAX)
+            {
+                break;
+            }
+            
+            // Passagem por colunas: os totais dos partidos ficam corretos
+            iteracoes++;
+            intervalo(partidos, paralelo).forEach(j -> problema.ajustaPartido(j, assentosPartidos[j]));
+            convergiu = problema.erro(problema.inicioLinhas, problema.posicoesLinhas, assentosCirculos) == 0;
+        }
+        // O escalonamento estagnou (p.ex. por empates) com os totais dos círculos corretos: transfere os assentos
+        // que faltam entre partidos
+        int transferencias = convergiu ? 0 : problema.transfere(assentosPartidos);
+        
+        int[][] assentos = new int[circulos][partidos];
+        for (int k = 0; k < problema.assentos.length; k++)
+        {
+            assentos[problema.linhas[k]][problema.colunas[k]] = problema.assentos[k];
+        }
+        // Divisores publicados: votos / (divisor do círculo × divisor do partido), com divisores de passo unitário
+        double[] divisoresCirculos = new double[circulos];
+        for (int i = 0; i < circulos; i++)
+        {
+            divisoresCirculos[i] = 1 / problema.multiplicadoresCirculos[i];
+        }
+        double[] divisoresPartidos = new double[partidos];
+        for (int j = 0; j < partidos; j++)
+        {
+            divisoresPartidos[j] = metodo.getPasso() / problema.multiplicadoresPartidos[j];
+        }
+        return new ResultadoBiproporcional(assentos, divisoresCirculos, divisoresPartidos, iteracoes,
+                transferencias);
+    }
+    
+    private static IntStream intervalo(int fim, boolean paralelo)
+    {
+        IntStream intervalo = IntStream.range(0, fim);
+        return paralelo ? intervalo.parallel() : intervalo;
+    }
+    
+    private static void valida(long[][] votos, int[] assentosCirculos, int[] assentosPartidos)
+    {
+        if (votos.length != assentosCirculos.length)
+        {
+            throw new IllegalArgumentException("A matriz de votos tem de ter uma linha por círculo");
+        }
+        long totalCirculos = 0;
+        long totalPartidos = 0;
+        boolean[] partidoComVotos = new boolean[assentosPartidos.length];
+        for (int i = 0; i < votos.length; i++)
+        {
+            if (votos[i].length != assentosPartidos.length)
+            {
+                throw new IllegalArgumentException("A matriz de votos tem de ter uma coluna por partido");
+            }
+            boolean circuloComVotos = false;
+            for (int j = 0; j < votos[i].length; j++)
+            {
+                if (votos[i][j] < 0)
+                {
+                    throw new IllegalArgumentException("Votos negativos no círculo " + i + ", partido " + j);
+                }
+                circuloComVotos |= votos[i][j] > 0;
+                partidoComVotos[j] |= votos[i][j] > 0;
+            }
+            if (assentosCirculos[i] < 0 || (assentosCirculos[i] > 0 && !circuloComVotos))
+            {
+                throw new IllegalArgumentException("Assentos inválidos no círculo " + i);
+            }
+            totalCirculos += assentosCirculos[i];
+        }
+        for (int j = 0; j < assentosPartidos.length; j++)
+        {
+            if (assentosPartidos[j] < 0 || (assentosPartidos[j] > 0 && !partidoComVotos[j]))
+            {
+                throw new IllegalArgumentException("Assentos inválidos no partido " + j);
+            }
+            totalPartidos += assentosPartidos[j];
+        }
+        if (totalCirculos != totalPartidos)
+        {
+            throw new IllegalArgumentException("Os assentos dos círculos (" + totalCirculos
+                    + ") e dos partidos (" + totalPartidos + ") são diferentes");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.CirculoEleitoral;
+import oop.tp2_2.models.Partido;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Implementa a distribuição de assentos com vários círculos eleitorais (p.ex. os 22 círculos portugueses).
+ * O método D'Hondt é executado de forma independente em cada círculo, em paralelo, e os resultados
+ * são agregados em totais nacionais por partido sem estado mutável partilhado entre threads.
+ * @author Luis Matos
+ */
+public class CalculadoraCirculos
+{
+    /**
+     * Resultado imutável da alocação num único círculo eleitoral.
+     * Os vetores são indexados pela posição do partido na lista do círculo.
+     */
+    private static final class ResultadoCirculo
+    {
+        private final CirculoEleitoral circulo;
+        private final int[] assentos;
+        
+        private ResultadoCirculo(CirculoEleitoral circulo, int[] assentos)
+        {
+            this.circulo = circulo;
+            this.assentos = assentos;
+        }
+    }
+    
+    /**
+     * Calcula a distribuição nacional de assentos, somando os resultados de todos os círculos eleitorais.
+     * Os círculos são calculados em paralelo no ForkJoinPool comum.
+     * @param circulos Lista dos círculos eleitorais.
+     * @param percentagemLimiteMin Percentagem mínima de votos no círculo para elegibilidade (0 para nenhuma).
+     * @return Lista de partidos com os votos e assentos nacionais, pela ordem em que surgem nos círculos.
+     */
+    public static List<Partido> calculaDistribuicaoNacional(List<CirculoEleitoral> circulos,
+            double percentagemLimiteMin)
+    {
+        // Cada círculo produz o seu próprio resultado; a agregação é feita pelo coletor (sem partilha de estado).
+        Map<String, long[]> totaisNacionais = circulos.parallelStream()
+                .map(circulo -> calculaCirculo(circulo, percentagemLimiteMin))
+                .flatMap(resultado -> totaisCirculo(resultado).entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (total1, total2) -> new long[] {total1[0] + total2[0], total1[1] + total2[1]},
+                        LinkedHashMap::new));
+        
+        List<Partido> partidosNacionais = new ArrayList<>();
+        for (Map.Entry<String, long[]> entrada : totaisNacionais.entrySet())
+        {
+            Partido partido = new Partido(entrada.getKey(), Math.toIntExact(entrada.getValue()[0]));
+            partido.setAssentos(Math.toIntExact(entrada.getValue()[1]));
+            partidosNacionais.add(partido);
+        }
+        return partidosNacionais;
+    }
+    
+    /**
+     * Calcula a distribuição nacional de assentos num ForkJoinPool específico.
+     * Útil para limitar o paralelismo quando se executam muitas variantes em simultâneo.
+     * @param circulos Lista dos círculos eleitorais.
+     * @param percentagemLimiteMin Percentagem mínima de votos no círculo para elegibilidade (0 para nenhuma).
+     * @param executor O ForkJoinPool onde executar os cálculos de cada círculo.
+     * @return Lista de partidos com os votos e assentos nacionais.
+     */
+    public static List<Partido> calculaDistribuicaoNacional(List<CirculoEleitoral> circulos,
+            double percentagemLimiteMin, ForkJoinPool executor)
+    {
+        return executor.submit(() -> calculaDistribuicaoNacional(circulos, percentagemLimiteMin)).join();
+    }
+    
+    /**
+     * Calcula os assentos obtidos por cada partido em cada círculo eleitoral.
+     * @param circulos Lista dos círculos eleitorais.
+     * @param percentagemLimiteMin Percentagem mínima de votos no círculo para elegibilidade (0 para nenhuma).
+     * @return Mapa (ordenado como a lista de círculos) do nome do círculo para o mapa partido → assentos.
+     */
+    public static Map<String, Map<String, Integer>> calculaDistribuicaoPorCirculo(List<CirculoEleitoral> circulos,
+            double percentagemLimiteMin)
+    {
+        return circulos.parallelStream()
+                .map(circulo -> calculaCirculo(circulo, percentagemLimiteMin))
+                .collect(Collectors.toMap(resultado -> resultado.circulo.getNome(),
+                        CalculadoraCirculos::assentosCirculo,
+                        (mapa1, mapa2) -> { throw new IllegalArgumentException("Círculo eleitoral duplicado"); },
+                        LinkedHashMap::new));
+    }
+    
+    /**
+     * Executa o método D'Hondt num único círculo eleitoral.
+     * @param circulo O círculo eleitoral a calcular.
+     * @param percentagemLimiteMin Percentagem mínima de votos no círculo para elegibilidade.
+     * @return O resultado imutável do círculo.
+     */
+    private static ResultadoCirculo calculaCirculo(CirculoEleitoral circulo, double percentagemLimiteMin)
+    {
+        int votosMargemMin = (int) (circulo.getTotalVotos() * percentagemLimiteMin / 100);
+        int[] assentos = CalculadoraDHondt.calculaDistribuicaoAssentos(circulo.getVotos(), circulo.getAssentos(),
+                votosMargemMin);
+        return new ResultadoCirculo(circulo, assentos);
+    }
+    
+    /**
+     * Converte o resultado de um círculo num mapa nome do partido → {votos, assentos}.
+     * @param resultado O resultado do círculo.
+     * @return Mapa com os totais de cada partido no círculo.
+     */
+    private static Map<String, long[]> totaisCirculo(ResultadoCirculo resultado)
+    {
+        List<String> nomes = resultado.circulo.getNomesPartidos();
+        int[] votos = resultado.circulo.getVotos();
+        Map<String, long[]> totais = new LinkedHashMap<>();
+        for (int i = 0; i < nomes.size(); i++)
+        {
+            totais.put(nomes.get(i), new long[] {votos[i], resultado.assentos[i]});
+        }
+        return totais;
+    }
+    
+    /**
+     * Converte o resultado de um círculo num mapa nome do partido → assentos.
+     * @param resultado O resultado do círculo.
+     * @return Mapa com os assentos de cada partido no círculo.
+     */
+    private static Map<String, Integer> assentosCirculo(ResultadoCirculo resultado)
+    {
+        List<String> nomes = resultado.circulo.getNomesPartidos();
+        Map<String, Integer> assentos = new LinkedHashMap<>();
+        for (int i = 0; i < nomes.size(); i++)
+        {
+            assentos.put(nomes.get(i), resultado.assentos[i]);
+        }
+        return assentos;
+    }
+}
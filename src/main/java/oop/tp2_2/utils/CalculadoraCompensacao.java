@@ -0,0 +1,267 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.CirculoEleitoral;
+import oop.tp2_2.models.ResultadoCompensacao;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Implementa a distribuição de assentos em dois níveis, com assentos de compensação nacionais (como nos sistemas
+ * nórdicos): os assentos de cada círculo são distribuídos pelo método D'Hondt e um conjunto adicional de assentos
+ * de compensação corrige a desproporcionalidade do resultado nacional. O cálculo segue o procedimento iterativo
+ * habitual:
+ * 1. os círculos são calculados de forma independente, em paralelo (ver {@link CalculadoraCirculos});
+ * 2. o direito nacional de cada partido é calculado sobre os votos nacionais e o total de assentos (círculos mais
+ *    compensação), apenas com os partidos que cumprem o limite nacional; um partido que obteve nos círculos mais
+ *    assentos do que o seu direito fica com esses assentos e é excluído, e o direito dos restantes é recalculado
+ *    com os assentos que sobram, até nenhum partido exceder o seu direito;
+ * 3. cada partido recebe a diferença entre o direito e os assentos dos círculos, e esses assentos são atribuídos
+ *    aos círculos um a um, ao maior número de comparação: o próximo quociente do partido no círculo (continuando
+ *    a sequência de divisores a partir dos assentos já obtidos) dividido pela média de votos por assento do
+ *    círculo, respeitando o número de assentos de compensação de cada círculo.
+ * O primeiro nível é calculado uma única vez: as exclusões do passo 2 só recalculam o direito nacional e o passo 3
+ * continua os quocientes de cada círculo a partir dos assentos do primeiro nível.
+ * @author Luis Matos
+ */
+public class CalculadoraCompensacao
+{
+    /**
+     * Calcula a distribuição em dois níveis com o método D'Hondt também no direito nacional e na compensação.
+     * @param circulos Lista dos círculos eleitorais (primeiro nível).
+     * @param assentosCompensacao Número de assentos de compensação de cada círculo, pelo nome do círculo
+     *                            (os círculos ausentes não recebem assentos de compensação).
+     * @param percentagemLimiteNacional Percentagem mínima de votos nacionais para os assentos de compensação.
+     * @return O resultado com os assentos dos dois níveis.
+     */
+    public static ResultadoCompensacao calcula(List<CirculoEleitoral> circulos,
+            Map<String, Integer> assentosCompensacao, double percentagemLimiteNacional)
+    {
+        return calcula(circulos, assentosCompensacao, percentagemLimiteNacional, CalculadoraMetodos.D_HONDT);
+    }
+    
+    /**
+     * Calcula a distribuição em dois níveis num ForkJoinPool específico.
+     * @param circulos Lista dos círculos eleitorais (primeiro nível).
+     * @param assentosCompensacao Número de assentos de compensação de cada círculo, pelo nome do círculo.
+     * @param percentagemLimiteNacional Percentagem mínima de votos nacionais para os assentos de compensação.
+     * @param metodo Método de divisores do direito nacional e da atribuição da compensação aos círculos.
+     * @param executor O ForkJoinPool onde executar os cálculos de cada círculo.
+     * @return O resultado com os assentos dos dois níveis.
+     */
+    public static ResultadoCompensacao calcula(List<CirculoEleitoral> circulos,
+            Map<String, Integer> assentosCompensacao, double percentagemLimiteNacional, MetodoDivisor metodo,
+            ForkJoinPool executor)
+    {
+        return executor.submit(() -> calcula(circulos, assentosCompensacao, percentagemLimiteNacional, metodo))
+                .join();
+    }
+    
+    /**
+     * Calcula a distribuição em dois níveis.
+     * Os círculos do primeiro nível usam sempre o método D'Hondt, sem limite minímo; o método indicado é usado no
+     * direito nacional e na atribuição da compensação aos círculos (p.ex. Sainte-Laguë modificado, na Noruega).
+     * @param circulos Lista dos círculos eleitorais (primeiro nível).
+     * @param assentosCompensacao Número de assentos de compensação de cada círculo, pelo nome do círculo
+     *                            (os círculos ausentes não recebem assentos de compensação).
+     * @param percentagemLimiteNacional Percentagem mínima de votos nacionais para os assentos de compensação.
+     * @param metodo Método de divisores do direito nacional e da atribuição da compensação aos círculos.
+     * @return O resultado com os assentos dos dois níveis.
+     * @throws IllegalArgumentException Se um círculo estiver duplicado ou a compensação indicar um círculo
+     *                                  desconhecido ou um número de assentos negativo.
+     * @throws IllegalStateException Se houver assentos de compensação mas nenhum partido elegível.
+     */
+    public static ResultadoCompensacao calcula(List<CirculoEleitoral> circulos,
+            Map<String, Integer> assentosCompensacao, double percentagemLimiteNacional, MetodoDivisor metodo)
+    {
+        // Índices dos partidos (pela ordem em que surgem nos círculos) e dos círculos
+        Map<String, Integer> indicesPartidos = new LinkedHashMap<>();
+        Map<String, Integer> indicesCirculos = new LinkedHashMap<>();
+        for (CirculoEleitoral circulo : circulos)
+        {
+            if (indicesCirculos.putIfAbsent(circulo.getNome(), indicesCirculos.size()) != null)
+            {
+                throw new IllegalArgumentException("Círculo eleitoral duplicado: " + circulo.getNome());
+            }
+            for (String nome : circulo.getNomesPartidos())
+            {
+                indicesPartidos.putIfAbsent(nome, indicesPartidos.size());
+            }
+        }
+        int numeroCirculos = circulos.size();
+        int numeroPartidos = indicesPartidos.size();
+        
+        int[] capacidade = new int[numeroCirculos];
+        int assentosCompensacaoCirculos = 0;
+        for (Map.Entry<String, Integer> entrada : assentosCompensacao.entrySet())
+        {
+            Integer circulo = indicesCirculos.get(entrada.getKey());
+            if (circulo == null || entrada.getValue() < 0)
+            {
+                throw new IllegalArgumentException("Assentos de compensação inválidos: " + entrada.getKey() + " = "
+                        + entrada.getValue());
+            }
+            capacidade[circulo] = entrada.getValue();
+            assentosCompensacaoCirculos += entrada.getValue();
+        }
+        
+        // 1. Primeiro nível: D'Hondt em cada círculo, em paralelo (a ordem dos círculos é preservada)
+        int[][] primeiroNivel = circulos.parallelStream()
+                .map(circulo -> CalculadoraDHondt.calculaDistribuicaoAssentos(circulo.getVotos(),
+                        circulo.getAssentos(), 0))
+                .toArray(int[][]::new);
+        
+        long[][] votos = new long[numeroCirculos][numeroPartidos];
+        int[][] assentosCirculo = new int[numeroCirculos][numeroPartidos];
+        long[] votosNacionais = new long[numeroPartidos];
+        int[] assentosCirculos = new int[numeroPartidos];
+        int assentosTotal = assentosCompensacaoCirculos;
+        for (int c = 0; c < numeroCirculos; c++)
+        {
+            List<String> nomes = circulos.get(c).getNomesPartidos();
+            int[] votosCirculo = circulos.get(c).getVotos();
+            for (int i = 0; i < nomes.size(); i++)
+            {
+                int p = indicesPartidos.get(nomes.get(i));
+                votos[c][p] += votosCirculo[i];
+                assentosCirculo[c][p] += primeiroNivel[c][i];
+                votosNacionais[p] += votosCirculo[i];
+                assentosCirculos[p] += primeiroNivel[c][i];
+            }
+            assentosTotal += circulos.get(c).getAssentos();
+        }
+        
+        // 2. Direito nacional, excluindo iterativamente os partidos com mais assentos nos círculos do que o direito
+        long totalVotos = 0;
+        for (long votosPartido : votosNacionais)
+        {
+            totalVotos += votosPartido;
+        }
+        long limiteVotos = Math.max(1, (long) (totalVotos * percentagemLimiteNacional / 100));
+        boolean[] elegiveis = new boolean[numeroPartidos];
+        for (int p = 0; p < numeroPartidos; p++)
+        {
+            elegiveis[p] = votosNacionais[p] >= limiteVotos;
+        }
+        int[] direito;
+        int iteracoes = 0;
+        boolean excluido;
+        do
+        {
+            iteracoes++;
+            long[] votosElegiveis = new long[numeroPartidos];
+            int assentosDisponiveis = assentosTotal;
+            for (int p = 0; p < numeroPartidos; p++)
+            {
+                if (elegiveis[p])
+                {
+                    votosElegiveis[p] = votosNacionais[p];
+                }
+                else
+                {
+                    assentosDisponiveis -= assentosCirculos[p];
+                }
+            }
+            direito = CalculadoraMetodos.calculaDistribuicaoAssentos(votosElegiveis, assentosDisponiveis, 1, metodo);
+            excluido = false;
+            for (int p = 0; p < numeroPartidos; p++)
+            {
+                if (elegiveis[p] && assentosCirculos[p] > direito[p])
+                {
+                    elegiveis[p] = false;
+                    excluido = true;
+                }
+            }
+        }
+        while (excluido);
+        
+        int[] porAtribuir = new int[numeroPartidos];
+        int assentosCompensacaoTotal = 0;
+        for (int p = 0; p < numeroPartidos; p++)
+        {
+            if (elegiveis[p])
+            {
+                porAtribuir[p] = direito[p] - assentosCirculos[p];
+                assentosCompensacaoTotal += porAtribuir[p];
+            }
+            else
+            {
+                direito[p] = assentosCirculos[p];
+            }
+        }
+        // Com pelo menos um partido elegível, a soma das diferenças é igual ao número de assentos de compensação
+        if (assentosCompensacaoTotal != assentosCompensacaoCirculos)
+        {
+            throw new IllegalStateException("Nenhum partido elegível para os assentos de compensação");
+        }
+        
+        // 3. Atribuição da compensação aos círculos, continuando os quocientes do primeiro nível
+        int[][] compensacao = new int[numeroCirculos][numeroPartidos];
+        double[] votosPorAssento = new double[numeroCirculos];
+        for (int c = 0; c < numeroCirculos; c++)
+        {
+            long votosCirculo = 0;
+            for (long votosPartido : votos[c])
+            {
+                votosCirculo += votosPartido;
+            }
+            int assentos = circulos.get(c).getAssentos();
+            votosPorAssento[c] = votosCirculo > 0 && assentos > 0 ? (double) votosCirculo / assentos : 0;
+        }
+        for (int assento = 0; assento < assentosCompensacaoTotal; assento++)
+        {
+            int melhorCirculo = -1;
+            int melhorPartido = -1;
+            double melhorNumero = -1;
+            for (int c = 0; c < numeroCirculos; c++)
+            {
+                if (capacidade[c] == 0)
+                {
+                    continue;
+                }
+                for (int p = 0; p < numeroPartidos; p++)
+                {
+                    if (porAtribuir[p] == 0)
+                    {
+                        continue;
+                    }
+                    double numero = numeroComparacao(votos[c][p], assentosCirculo[c][p] + compensacao[c][p],
+                            votosPorAssento[c], metodo);
+                    if (numero > melhorNumero)
+                    {
+                        melhorNumero = numero;
+                        melhorCirculo = c;
+                        melhorPartido = p;
+                    }
+                }
+            }
+            compensacao[melhorCirculo][melhorPartido]++;
+            capacidade[melhorCirculo]--;
+            porAtribuir[melhorPartido]--;
+        }
+        
+        return new ResultadoCompensacao(new ArrayList<>(indicesPartidos.keySet()),
+                new ArrayList<>(indicesCirculos.keySet()), assentosCirculo, compensacao, direito, elegiveis,
+                iteracoes);
+    }
+    
+    /**
+     * Calcula o número de comparação de um partido num círculo: o próximo quociente do partido no círculo,
+     * relativo à média de votos por assento do círculo (para comparar círculos de dimensões diferentes).
+     * @param votos Votos do partido no círculo.
+     * @param assentos Assentos já obtidos pelo partido no círculo (nos dois níveis).
+     * @param votosPorAssento Média de votos por assento do círculo (0 se o círculo não tem votos ou assentos).
+     * @param metodo Método de divisores.
+     * @return O número de comparação (0 se o partido não tem votos no círculo).
+     */
+    private static double numeroComparacao(long votos, int assentos, double votosPorAssento, MetodoDivisor metodo)
+    {
+        if (votos == 0 || votosPorAssento == 0)
+        {
+            return 0;
+        }
+        return votos / (metodo.divisor(assentos) * votosPorAssento);
+    }
+}
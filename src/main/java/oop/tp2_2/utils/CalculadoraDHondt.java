@@ -1,90 +1,239 @@
 package oop.tp2_2.utils;
 
 import oop.tp2_2.models.Partido;
-import oop.tp2_2.models.Quociente;
 import java.util.*;
 
 /**
  * Implementa o método D'Hondt para alocação proporcional de assentos parlamentares.
- * Utiliza uma fila de prioridade para gerir de forma eficiente os cálculos de quocientes e alocação de assentos.
+ * O cálculo é delegado no {@link MotorDHondt}, que opera sobre vetores primitivos sem alocações por assento.
+ * Cada distribuição emite um evento JFR ({@link EventosEleicao.Distribuicao}) e atualiza as {@link Metricas}.
  * @author Luis Matos
  */
 public class CalculadoraDHondt
 {
+   // Nome do método nos eventos de distribuição
+   private static final String METODO = "D'Hondt";
+   
    /**
-    * Comparador customizado para a PriorityQueue que implementa as regras D'Hondt com desempate.
-    * Ordenação primária: Quocientes mais altos primeiro (comportamento max-heap).
-    * Desempate: Quando os quocientes são iguais, favorece os partidos com menor número total de votos.
+    * Calcula a distribuição de assentos de acordo com o método D'Hondt.
+    * Adaptador sobre o {@link MotorDHondt}: converte a lista de partidos num vetor de votos, executa o motor
+    * primitivo e constrói o mapa de resultados.
+    * @param partidos Lista dos partidos participantes.
+    * @param assentosTotal Número total de assentos para alocar.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return Retorna o mapa que contém a alocação final de assentos para cada partido.
     */
-   private static final class ComparadorQuociente implements Comparator<Quociente>
+   public static Map<Partido, Integer> calculaDistribuicaoAssentos(List<Partido> partidos,
+           int assentosTotal, int votosMargemMin)
    {
-       @Override
-       public int compare(Quociente qc1, Quociente qc2)
-       {
-           // Comparação primária: quocientes mais altos devem surgir primeiro.
-           int comparaQuociente = Double.compare(qc2.getQuociente(), qc1.getQuociente());
-           if (comparaQuociente != 0)
-           {
-               return comparaQuociente;
-           }
-           // Comparação secundária (desempate): favorece partidos com menos votos
-           // Implementa a regra para desempate pedida no enunciado
-           return Integer.compare(qc1.getVotosPartido(), qc2.getVotosPartido());
-       }
+       int[] assentos = calculaDistribuicaoAssentos(extraiVotos(partidos), assentosTotal, votosMargemMin);
+       return criaMapaAlocacao(partidos, assentos);
    }
    
    /**
-    * Calcula a distribuição de assentos de acordo com o método D'Hondt.
+    * Calcula a distribuição de assentos de acordo com o método D'Hondt, procurando diretamente o divisor.
+    * Indicado para assembleias com um número muito elevado de assentos (p.ex. centenas de milhares),
+    * pois o custo é O(P log P) em vez de uma operação na fila de prioridade por assento.
+    * O resultado é idêntico, assento a assento, ao de {@link #calculaDistribuicaoAssentos(List, int, int)}.
     * @param partidos Lista dos partidos participantes.
     * @param assentosTotal Número total de assentos para alocar.
     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
     * @return Retorna o mapa que contém a alocação final de assentos para cada partido.
     */
-   public static Map<Partido, Integer> calculaDistribuicaoAssentos(List<Partido> partidos,
+   public static Map<Partido, Integer> calculaDistribuicaoAssentosPorDivisor(List<Partido> partidos,
            int assentosTotal, int votosMargemMin)
    {
-       // A fila de prioridade lida automaticamente com a ordenação de quocientes de acordo com o comparador.
-       PriorityQueue<Quociente> filaQuociente = new PriorityQueue<>(new ComparadorQuociente());
-       Map<Partido, Integer> alocacaoAssentos = new HashMap<>();
+       int[] assentos = calculaDistribuicaoAssentosPorDivisor(extraiVotosLong(partidos), assentosTotal,
+               votosMargemMin);
+       return criaMapaAlocacao(partidos, assentos);
+   }
+   
+   /**
+    * Calcula a distribuição de assentos de acordo com o método D'Hondt sobre um vetor primitivo de votos.
+    * Não aloca objetos por assento; apenas o vetor de resultado é criado.
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosTotal Número total de assentos para alocar.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+    */
+   public static int[] calculaDistribuicaoAssentos(int[] votos, int assentosTotal, int votosMargemMin)
+   {
+       EventosEleicao.Distribuicao evento = new EventosEleicao.Distribuicao();
+       evento.begin();
+       long inicio = Metricas.inicio();
+       int[] assentos = MotorDHondt.instanciaLocal().distribui(votos, assentosTotal, votosMargemMin,
+               new int[votos.length]);
+       evento.end();
        
-       // Inicializa a alocação de assentos e filtra os partidos elegíveis com base no limite estabelecido
-       List<Partido> partidosElegiveis = new ArrayList<>();
-       for (Partido partido : partidos)
+       // Os dados da instrumentação só são calculados quando há uma gravação JFR ou métricas ativas
+       if (Metricas.ATIVAS || evento.shouldCommit())
        {
-           alocacaoAssentos.put(partido, 0); // Inicializa todos os partidos sem assentos alocados (0 assentos).
-           if (partido.getVotos() >= votosMargemMin)
+           int elegiveis = 0;
+           for (int votosPartido : votos)
            {
-               partidosElegiveis.add(partido); // Apenas partidos que cumpre com o limite minímo são elegíveis.
+               elegiveis += votosPartido >= votosMargemMin ? 1 : 0;
            }
+           EventosEleicao.registaDistribuicao(evento, inicio, METODO, true, votos.length, elegiveis, assentosTotal,
+                   assentos);
        }
+       return assentos;
+   }
+   
+   /**
+    * Calcula a distribuição de assentos de acordo com o método D'Hondt sobre um vetor primitivo de votos long[].
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosTotal Número total de assentos para alocar.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+    */
+   public static int[] calculaDistribuicaoAssentos(long[] votos, int assentosTotal, long votosMargemMin)
+   {
+       EventosEleicao.Distribuicao evento = new EventosEleicao.Distribuicao();
+       evento.begin();
+       long inicio = Metricas.inicio();
+       int[] assentos = MotorDHondt.instanciaLocal().distribui(votos, votos.length, assentosTotal, votosMargemMin,
+               new int[votos.length]);
+       evento.end();
        
-       // Inicializa a fila de quocientes com os quocientes iniciais
-       // ( # votos / 1) para todos os partidos elegíveis
-       for (Partido partido : partidosElegiveis)
+       if (Metricas.ATIVAS || evento.shouldCommit())
        {
-           double quociente = (double) partido.getVotos() / 1; //
-           filaQuociente.offer(new Quociente(partido, quociente, 1));
+           EventosEleicao.registaDistribuicao(evento, inicio, METODO, true, votos.length,
+                   contaElegiveis(votos, votosMargemMin), assentosTotal, assentos);
        }
+       return assentos;
+   }
+   
+   /**
+    * Calcula a distribuição de assentos D'Hondt por pesquisa direta do divisor sobre um vetor primitivo de votos.
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosTotal Número total de assentos para alocar.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+    */
+   public static int[] calculaDistribuicaoAssentosPorDivisor(long[] votos, int assentosTotal, long votosMargemMin)
+   {
+       EventosEleicao.Distribuicao evento = new EventosEleicao.Distribuicao();
+       evento.begin();
+       long inicio = Metricas.inicio();
+       int[] assentos = MotorDHondt.instanciaLocal().distribuiPorDivisor(votos, votos.length, assentosTotal,
+               votosMargemMin, new int[votos.length]);
+       evento.end();
        
-       // Alocação de assentos de acordo com o método D'Hondt - cada iteração aloca um assento
-       for (int assento = 1; assento <= assentosTotal; assento++)
+       if (Metricas.ATIVAS || evento.shouldCommit())
        {
-           Quociente maior = filaQuociente.poll();
-           if (maior == null)
-           {
-               break; // Verificação de segurança para determinar se não são necessários mais quocientes.
-           }
-           
-           Partido partidoVencedor = maior.getPartido();
-           // Incrementa a contagem do número de assentos para o partido vencedor. 
-           alocacaoAssentos.put(partidoVencedor, alocacaoAssentos.get(partidoVencedor) + 1);
-           
-           // Calcula o próximo quociente para um dado partido com um divisor incrementado.
-           int divisorSeguinte = maior.getDivisor() + 1;
-           double quocienteSeguinte = (double) partidoVencedor.getVotos() / divisorSeguinte;
-           filaQuociente.offer(new Quociente(partidoVencedor, quocienteSeguinte, divisorSeguinte));
+           EventosEleicao.registaDistribuicao(evento, inicio, METODO, false, votos.length,
+                   contaElegiveis(votos, votosMargemMin), assentosTotal, assentos);
+       }
+       return assentos;
+   }
+   
+   /**
+    * Calcula a distribuição de assentos D'Hondt registando a ordem de atribuição de cada assento.
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosTotal Número total de assentos para alocar.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return O traço da atribuição (vencedor e quociente de cada assento, e o primeiro quociente vencido).
+    */
+   public static TracoAtribuicao calculaTraco(long[] votos, int assentosTotal, long votosMargemMin)
+   {
+       TracoAtribuicao traco = new TracoAtribuicao();
+       MotorDHondt.instanciaLocal().distribuiComTraco(votos, votos.length, assentosTotal, votosMargemMin, null,
+               traco, null);
+       return traco;
+   }
+   
+   /**
+    * Calcula numa única execução as distribuições D'Hondt de todas as dimensões do parlamento, de 1 até assentosMax,
+    * numa tabela compacta (O(assentosMax + P) de memória).
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosMax Maior dimensão do parlamento.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return A tabela com os assentos de cada partido para cada dimensão.
+    */
+   public static TabelaDimensoes calculaTabelaDimensoes(long[] votos, int assentosMax, long votosMargemMin)
+   {
+       int[] vencedores = new int[assentosMax];
+       int atribuidos = new MotorDHondt().distribuiPorDimensao(votos, votos.length, assentosMax, votosMargemMin,
+               null, (dimensao, partido, assentos) -> vencedores[dimensao - 1] = partido);
+       return new TabelaDimensoes(votos.length, vencedores, atribuidos);
+   }
+   
+   /**
+    * Percorre as distribuições D'Hondt de todas as dimensões do parlamento, de 1 até assentosMax, numa única
+    * execução, notificando o ouvinte com a distribuição de cada dimensão (sem guardar as distribuições).
+    * O ouvinte pode utilizar os restantes métodos desta classe (a execução usa um motor próprio).
+    * @param votos Votos de cada partido (o índice identifica o partido).
+    * @param assentosMax Maior dimensão do parlamento.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @param ouvinte Ouvinte notificado após cada assento atribuído.
+    * @return Número de assentos atribuídos (menor que assentosMax apenas se nenhum partido é elegível).
+    */
+   public static int percorreDimensoes(long[] votos, int assentosMax, long votosMargemMin,
+           MotorDHondt.OuvinteDimensao ouvinte)
+   {
+       return new MotorDHondt().distribuiPorDimensao(votos, votos.length, assentosMax, votosMargemMin, null,
+               ouvinte);
+   }
+   
+   /**
+    * Conta os partidos que cumprem o limite minímo de votos (apenas para a instrumentação).
+    * @param votos Votos de cada partido.
+    * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+    * @return Número de partidos elegíveis.
+    */
+   private static int contaElegiveis(long[] votos, long votosMargemMin)
+   {
+       int elegiveis = 0;
+       for (long votosPartido : votos)
+       {
+           elegiveis += votosPartido >= votosMargemMin ? 1 : 0;
+       }
+       return elegiveis;
+   }
+   
+   /**
+    * Extrai os votos de uma lista de partidos para um vetor primitivo, pela mesma ordem.
+    * @param partidos Lista dos partidos.
+    * @return Vetor com os votos de cada partido.
+    */
+   static int[] extraiVotos(List<Partido> partidos)
+   {
+       int[] votos = new int[partidos.size()];
+       for (int i = 0; i < votos.length; i++)
+       {
+           votos[i] = partidos.get(i).getVotos();
+       }
+       return votos;
+   }
+   
+   /**
+    * Extrai os votos de uma lista de partidos para um vetor primitivo long[], pela mesma ordem.
+    * @param partidos Lista dos partidos.
+    * @return Vetor com os votos de cada partido.
+    */
+   static long[] extraiVotosLong(List<Partido> partidos)
+   {
+       long[] votos = new long[partidos.size()];
+       for (int i = 0; i < votos.length; i++)
+       {
+           votos[i] = partidos.get(i).getVotos();
+       }
+       return votos;
+   }
+   
+   /**
+    * Constrói o mapa de alocação a partir do vetor de assentos devolvido pelo motor.
+    * @param partidos Lista dos partidos, pela mesma ordem do vetor de assentos.
+    * @param assentos Assentos de cada partido.
+    * @return Mapa com a contagem de assentos de cada partido (0 para os não elegíveis).
+    */
+   static Map<Partido, Integer> criaMapaAlocacao(List<Partido> partidos, int[] assentos)
+   {
+       Map<Partido, Integer> alocacaoAssentos = new HashMap<>();
+       for (int i = 0; i < partidos.size(); i++)
+       {
+           alocacaoAssentos.put(partidos.get(i), assentos[i]);
        }
-       
        return alocacaoAssentos;
    }
    
@@ -0,0 +1,146 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.FotografiaEleicao;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.ResultadoAlocacao;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calcula distribuições de assentos com diferentes métodos proporcionais, para comparação com o método D'Hondt.
+ * O modo em lote calcula vários métodos sobre o mesmo vetor de votos partilhando o trabalho comum (total de votos
+ * elegíveis e quotas exatas), e cada método custa O(P log P), independentemente do número de assentos.
+ * Cada distribuição emite um evento JFR ({@link EventosEleicao.Distribuicao}) e atualiza as {@link Metricas}.
+ * @author Luis Matos
+ */
+public class CalculadoraMetodos
+{
+    // Métodos disponíveis
+    public static final MetodoDivisor D_HONDT = new MetodoDivisor("D'Hondt", 1, 1, 1);
+    public static final MetodoDivisor SAINTE_LAGUE = new MetodoDivisor("Sainte-Laguë", 1, 2, 1);
+    public static final MetodoDivisor SAINTE_LAGUE_MODIFICADO = new MetodoDivisor("S-L Modificado", 7, 10, 5);
+    public static final MetodoRestoMaior HARE_NIEMEYER = new MetodoRestoMaior("Hare-Niemeyer");
+    public static final MetodoDivisor IMPERIALI = new MetodoDivisor("Imperiali", 2, 1, 2);
+    public static final MetodoDivisor DINAMARQUES = new MetodoDivisor("Dinamarquês", 1, 3, 1);
+    
+    public static final List<MetodoDistribuicao> METODOS = List.of(D_HONDT, SAINTE_LAGUE, SAINTE_LAGUE_MODIFICADO,
+            HARE_NIEMEYER, IMPERIALI, DINAMARQUES);
+    
+    /**
+     * Calcula a distribuição de assentos com um único método.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de distribuição.
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    public static int[] calculaDistribuicaoAssentos(long[] votos, int assentosTotal, long votosMargemMin,
+            MetodoDistribuicao metodo)
+    {
+        return distribui(metodo, new DadosDistribuicao(votos, assentosTotal, votosMargemMin));
+    }
+    
+    /**
+     * Calcula a distribuição de assentos com um método de divisores, registando a ordem de atribuição de cada
+     * assento (os assentos são atribuídos um a um).
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores.
+     * @return O traço da atribuição (vencedor e quociente de cada assento, e o primeiro quociente vencido).
+     */
+    public static TracoAtribuicao calculaTraco(long[] votos, int assentosTotal, long votosMargemMin,
+            MetodoDivisor metodo)
+    {
+        TracoAtribuicao traco = new TracoAtribuicao();
+        MotorDHondt.instanciaLocal().distribuiComTraco(votos, votos.length, assentosTotal, votosMargemMin, metodo,
+                traco, null);
+        return traco;
+    }
+    
+    /**
+     * Avalia uma fotografia da eleição com um conjunto de regras.
+     * A fotografia não é alterada nem copiada (apenas os votos dos concorrentes da vista são lidos), pelo que
+     * várias threads podem avaliar regras diferentes sobre a mesma fotografia em simultâneo.
+     * @param fotografia Fotografia da eleição.
+     * @param comColigacoes true para avaliar a vista com as coligações formadas.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de distribuição.
+     * @return O resultado imutável da avaliação.
+     */
+    public static ResultadoAlocacao calculaResultado(FotografiaEleicao fotografia, boolean comColigacoes,
+            int assentosTotal, long votosMargemMin, MetodoDistribuicao metodo)
+    {
+        int[] assentos = calculaDistribuicaoAssentos(fotografia.getVotosConcorrentes(comColigacoes), assentosTotal,
+                votosMargemMin, metodo);
+        return new ResultadoAlocacao(fotografia, comColigacoes, metodo.getNome(), assentosTotal, votosMargemMin,
+                assentos);
+    }
+    
+    /**
+     * Calcula, em lote, a distribuição de assentos com vários métodos para o mesmo vetor de votos.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodos Métodos a calcular.
+     * @return Mapa ordenado do método para o vetor de assentos de cada partido.
+     */
+    public static Map<MetodoDistribuicao, int[]> calculaDistribuicoes(long[] votos, int assentosTotal,
+            long votosMargemMin, List<MetodoDistribuicao> metodos)
+    {
+        DadosDistribuicao dados = new DadosDistribuicao(votos, assentosTotal, votosMargemMin);
+        Map<MetodoDistribuicao, int[]> distribuicoes = new LinkedHashMap<>();
+        for (MetodoDistribuicao metodo : metodos)
+        {
+            distribuicoes.put(metodo, distribui(metodo, dados));
+        }
+        return distribuicoes;
+    }
+    
+    /**
+     * Executa um método de distribuição, emitindo o evento JFR ({@link EventosEleicao.Distribuicao}) e atualizando
+     * as {@link Metricas}.
+     * @param metodo Método de distribuição.
+     * @param dados Dados partilhados da distribuição.
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    private static int[] distribui(MetodoDistribuicao metodo, DadosDistribuicao dados)
+    {
+        EventosEleicao.Distribuicao evento = new EventosEleicao.Distribuicao();
+        evento.begin();
+        long inicio = Metricas.inicio();
+        int[] assentos = metodo.distribui(dados);
+        evento.end();
+        
+        if (Metricas.ATIVAS || evento.shouldCommit())
+        {
+            EventosEleicao.registaDistribuicao(evento, inicio, metodo.getNome(), false, dados.getPartidos(),
+                    dados.getPartidosElegiveis(), dados.getAssentosTotal(), assentos);
+        }
+        return assentos;
+    }
+    
+    /**
+     * Calcula, em lote, a distribuição de assentos com vários métodos para uma lista de partidos.
+     * Os objetos Partido não são alterados.
+     * @param partidos Lista dos partidos participantes.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodos Métodos a calcular.
+     * @return Mapa ordenado do método para o mapa de assentos de cada partido.
+     */
+    public static Map<MetodoDistribuicao, Map<Partido, Integer>> calculaDistribuicoes(List<Partido> partidos,
+            int assentosTotal, int votosMargemMin, List<MetodoDistribuicao> metodos)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        Map<MetodoDistribuicao, Map<Partido, Integer>> distribuicoes = new LinkedHashMap<>();
+        for (Map.Entry<MetodoDistribuicao, int[]> entrada
+                : calculaDistribuicoes(votos, assentosTotal, votosMargemMin, metodos).entrySet())
+        {
+            distribuicoes.put(entrada.getKey(), CalculadoraDHondt.criaMapaAlocacao(partidos, entrada.getValue()));
+        }
+        return distribuicoes;
+    }
+}
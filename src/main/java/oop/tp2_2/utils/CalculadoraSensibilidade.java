@@ -0,0 +1,223 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.MargemAssentos;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.Quociente;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calcula, para cada partido, quantos votos lhe faltam para ganhar mais um assento e quantos pode perder
+ * sem perder nenhum, a partir do estado final dos quocientes D'Hondt (sem refazer a distribuição).
+ * Com os votos dos restantes partidos fixos, um partido com s assentos:
+ * - ganha um assento quando o seu quociente votos / (s + 1) passa à frente do último quociente vencedor
+ *   dos outros partidos (o assento que esse partido perderia);
+ * - perde um assento quando o seu quociente votos / s fica atrás do primeiro quociente vencido dos outros
+ *   partidos, ou quando deixa de cumprir o limite minímo.
+ * Basta conhecer os dois últimos vencedores e os dois primeiros vencidos (para excluir o próprio partido),
+ * pelo que, após a distribuição em O(P log P), as margens de todos os partidos custam O(P).
+ * Os limiares são exatos (aritmética inteira) e respeitam a regra de desempate do enunciado.
+ * @author Luis Matos
+ */
+public class CalculadoraSensibilidade
+{
+    /**
+     * Calcula a distribuição D'Hondt e as margens de todos os partidos. Os objetos Partido não são alterados.
+     * @param partidos Lista dos partidos participantes.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return Lista das margens, pela ordem da lista de partidos.
+     */
+    public static List<MargemAssentos> calculaMargens(List<Partido> partidos, int assentosTotal, int votosMargemMin)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        int[] assentos = CalculadoraDHondt.calculaDistribuicaoAssentosPorDivisor(votos, assentosTotal, votosMargemMin);
+        long[] votosParaGanhar = new long[votos.length];
+        long[] votosParaPerder = new long[votos.length];
+        calculaMargens(votos, assentos, assentosTotal, votosMargemMin, votosParaGanhar, votosParaPerder);
+        
+        List<MargemAssentos> margens = new ArrayList<>();
+        for (int i = 0; i < votos.length; i++)
+        {
+            margens.add(new MargemAssentos(partidos.get(i).getNome(), votos[i], assentos[i], votosParaGanhar[i],
+                    votosParaPerder[i]));
+        }
+        return margens;
+    }
+    
+    /**
+     * Calcula as margens de todos os partidos a partir de uma distribuição D'Hondt já calculada.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentos Assentos de cada partido, resultado do método D'Hondt para estes votos.
+     * @param assentosTotal Número total de assentos da distribuição.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param votosParaGanhar Vetor onde escrever os votos adicionais necessários para ganhar mais um assento
+     *                        (-1 se impossível).
+     * @param votosParaPerder Vetor onde escrever os votos que cada partido pode perder mantendo todos os seus
+     *                        assentos (-1 para os partidos sem assentos).
+     */
+    public static void calculaMargens(long[] votos, int[] assentos, int assentosTotal, long votosMargemMin,
+            long[] votosParaGanhar, long[] votosParaPerder)
+    {
+        // Os dois últimos quocientes vencedores (votos / assentos) e os dois primeiros vencidos (votos / (assentos + 1))
+        int vencedor1 = -1, vencedor2 = -1;
+        int vencido1 = -1, vencido2 = -1;
+        for (int i = 0; i < votos.length; i++)
+        {
+            if (assentos[i] > 0)
+            {
+                if (vencedor1 < 0 || precede(votos[vencedor1], assentos[vencedor1], vencedor1, votos[i], assentos[i], i))
+                {
+                    vencedor2 = vencedor1;
+                    vencedor1 = i;
+                }
+                else if (vencedor2 < 0
+                        || precede(votos[vencedor2], assentos[vencedor2], vencedor2, votos[i], assentos[i], i))
+                {
+                    vencedor2 = i;
+                }
+            }
+            if (votos[i] >= votosMargemMin)
+            {
+                if (vencido1 < 0
+                        || precede(votos[i], assentos[i] + 1L, i, votos[vencido1], assentos[vencido1] + 1L, vencido1))
+                {
+                    vencido2 = vencido1;
+                    vencido1 = i;
+                }
+                else if (vencido2 < 0
+                        || precede(votos[i], assentos[i] + 1L, i, votos[vencido2], assentos[vencido2] + 1L, vencido2))
+                {
+                    vencido2 = i;
+                }
+            }
+        }
+        
+        for (int i = 0; i < votos.length; i++)
+        {
+            int ultimoVencedor = i == vencedor1 ? vencedor2 : vencedor1;
+            int primeiroVencido = i == vencido1 ? vencido2 : vencido1;
+            
+            // Ganhar: o próximo quociente do partido tem de preceder o último quociente vencedor dos outros
+            if (ultimoVencedor >= 0)
+            {
+                long votosNecessarios = votosParaPreceder(i, assentos[i] + 1L, votos[ultimoVencedor],
+                        assentos[ultimoVencedor], ultimoVencedor);
+                votosParaGanhar[i] = votosNecessarios < 0 ? -1 : Math.max(votosNecessarios, votosMargemMin) - votos[i];
+            }
+            else
+            {
+                // Nenhum outro partido tem assentos: só é possível ganhar se ainda não houver assentos atribuídos
+                votosParaGanhar[i] = assentos[i] == 0 && assentosTotal > 0
+                        ? Math.max(0, votosMargemMin - votos[i]) : -1;
+            }
+            
+            // Perder: o último quociente vencedor do partido tem de continuar à frente do primeiro vencido dos outros
+            if (assentos[i] == 0)
+            {
+                votosParaPerder[i] = -1;
+            }
+            else
+            {
+                long votosMinimos = primeiroVencido < 0 ? 0 : votosParaPreceder(i, assentos[i],
+                        votos[primeiroVencido], assentos[primeiroVencido] + 1L, primeiroVencido);
+                votosParaPerder[i] = votos[i] - Math.max(votosMinimos, votosMargemMin);
+            }
+        }
+    }
+    
+    /**
+     * Constrói o último quociente vencedor de uma distribuição D'Hondt (o quociente que atribuiu o último assento).
+     * @param partidos Lista dos partidos.
+     * @param assentos Assentos de cada partido, pela ordem da lista.
+     * @return O último quociente vencedor, ou null se nenhum assento foi atribuído.
+     */
+    public static Quociente ultimoQuocienteVencedor(List<Partido> partidos, int[] assentos)
+    {
+        int ultimo = -1;
+        for (int i = 0; i < assentos.length; i++)
+        {
+            if (assentos[i] > 0 && (ultimo < 0 || precede(partidos.get(ultimo).getVotos(), assentos[ultimo], ultimo,
+                    partidos.get(i).getVotos(), assentos[i], i)))
+            {
+                ultimo = i;
+            }
+        }
+        return ultimo < 0 ? null : criaQuociente(partidos.get(ultimo), assentos[ultimo]);
+    }
+    
+    /**
+     * Constrói o primeiro quociente vencido de uma distribuição D'Hondt (o que receberia o próximo assento).
+     * @param partidos Lista dos partidos.
+     * @param assentos Assentos de cada partido, pela ordem da lista.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return O primeiro quociente vencido, ou null se nenhum partido é elegível.
+     */
+    public static Quociente primeiroQuocienteVencido(List<Partido> partidos, int[] assentos, long votosMargemMin)
+    {
+        int primeiro = -1;
+        for (int i = 0; i < assentos.length; i++)
+        {
+            if (partidos.get(i).getVotos() >= votosMargemMin && (primeiro < 0 || precede(partidos.get(i).getVotos(),
+                    assentos[i] + 1L, i, partidos.get(primeiro).getVotos(), assentos[primeiro] + 1L, primeiro)))
+            {
+                primeiro = i;
+            }
+        }
+        return primeiro < 0 ? null : criaQuociente(partidos.get(primeiro), assentos[primeiro] + 1);
+    }
+    
+    /**
+     * Calcula o menor número de votos com que o quociente votos / divisor de um partido precede um quociente
+     * de referência, pela ordem de atribuição do método D'Hondt.
+     * @param partido Índice do partido (desempate final).
+     * @param divisor Divisor do quociente do partido.
+     * @param votosReferencia Votos do quociente de referência.
+     * @param divisorReferencia Divisor do quociente de referência.
+     * @param referencia Índice do partido de referência.
+     * @return O número mínimo de votos, ou -1 se excede a capacidade de um long.
+     */
+    private static long votosParaPreceder(int partido, long divisor, long votosReferencia, long divisorReferencia,
+            int referencia)
+    {
+        // Menor v com v * divisorReferencia >= votosReferencia * divisor, ou seja ceil(votosReferencia * divisor / dr)
+        long resto = votosReferencia % divisorReferencia * divisor; // < divisorReferencia * divisor, sem overflow
+        long votos;
+        try
+        {
+            votos = Math.addExact(Math.multiplyExact(votosReferencia / divisorReferencia, divisor),
+                    resto / divisorReferencia);
+        }
+        catch (ArithmeticException e)
+        {
+            return -1;
+        }
+        if (resto % divisorReferencia != 0)
+        {
+            return votos + 1; // Quociente estritamente superior
+        }
+        // Quocientes iguais: desempate a favor de menos votos e, depois, do menor índice
+        return votos < votosReferencia || (votos == votosReferencia && partido < referencia) ? votos : votos + 1;
+    }
+    
+    /**
+     * Determina se o quociente votos1 / divisor1 recebe um assento antes do quociente votos2 / divisor2,
+     * com a mesma ordem do {@link MotorDHondt}.
+     */
+    private static boolean precede(long votos1, long divisor1, int indice1, long votos2, long divisor2, int indice2)
+    {
+        int comparacao = MotorDHondt.comparaQuocientes(votos1, divisor1, votos2, divisor2);
+        return comparacao < 0 || (comparacao == 0 && indice1 < indice2);
+    }
+    
+    /**
+     * Cria a entrada de quociente de um partido para um divisor.
+     * @param partido O partido.
+     * @param divisor O divisor.
+     * @return O quociente votos / divisor.
+     */
+    private static Quociente criaQuociente(Partido partido, int divisor)
+    {
+        return new Quociente(partido, (double) partido.getVotos() / divisor, divisor);
+    }
+}
@@ -0,0 +1,163 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.MatrizTransferencias;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula a matriz de variações de assentos para transferências de votos entre todos os pares ordenados de
+ * partidos (origem → destino) e uma grelha de percentagens: em cada célula, uma percentagem dos votos da origem
+ * passa para o destino e a distribuição é recalculada.
+ * Cada célula parte da distribuição original em vez de a refazer: apenas os quocientes da origem e do destino
+ * mudam, pelo que a nova distribuição difere da original em poucos assentos. Enquanto o último quociente vencedor
+ * (o assento mais fraco) for precedido pelo primeiro quociente vencido (o próximo assento), esse assento muda de
+ * partido; quando isso deixa de acontecer, a distribuição é exatamente a do método, com a mesma regra de
+ * desempate do {@link MotorDHondt}. Cada troca custa O(P), e uma célula custa O(P) mais O(P) por assento trocado.
+ * As linhas da matriz (uma por percentagem e origem) são independentes e calculadas em paralelo.
+ * @author Luis Matos
+ */
+public class CalculadoraTransferencias
+{
+    /**
+     * Calcula a matriz de transferências com o método D'Hondt.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param percentagens Percentagens dos votos da origem a transferir (p.ex. 1, 5, 10).
+     * @return A matriz de variações de assentos.
+     */
+    public static MatrizTransferencias calcula(long[] votos, int assentosTotal, long votosMargemMin,
+            double... percentagens)
+    {
+        return calcula(votos, assentosTotal, votosMargemMin, CalculadoraMetodos.D_HONDT, percentagens);
+    }
+    
+    /**
+     * Calcula a matriz de transferências com um método de divisores.
+     * Os votos transferidos são floor(votos da origem * percentagem / 100).
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores.
+     * @param percentagens Percentagens dos votos da origem a transferir, entre 0 e 100.
+     * @return A matriz de variações de assentos.
+     * @throws IllegalArgumentException Se alguma percentagem estiver fora do intervalo [0, 100].
+     */
+    public static MatrizTransferencias calcula(long[] votos, int assentosTotal, long votosMargemMin,
+            MetodoDivisor metodo, double... percentagens)
+    {
+        for (double percentagem : percentagens)
+        {
+            if (!(percentagem >= 0 && percentagem <= 100))
+            {
+                throw new IllegalArgumentException("Percentagem de transferência inválida: " + percentagem);
+            }
+        }
+        int n = votos.length;
+        int[] base = CalculadoraMetodos.calculaDistribuicaoAssentos(votos, assentosTotal, votosMargemMin, metodo);
+        int[][][] variacoesOrigem = new int[percentagens.length][n][n];
+        int[][][] variacoesDestino = new int[percentagens.length][n][n];
+        
+        // Uma tarefa por percentagem e origem, com os seus próprios vetores de trabalho
+        IntStream.range(0, percentagens.length * n).parallel().forEach(linha ->
+        {
+            int indicePercentagem = linha / n;
+            int origem = linha % n;
+            long transferidos = (long) (votos[origem] * percentagens[indicePercentagem] / 100);
+            long[] votosCelula = votos.clone();
+            int[] assentos = new int[n];
+            for (int destino = 0; destino < n; destino++)
+            {
+                if (destino == origem)
+                {
+                    continue;
+                }
+                votosCelula[origem] = votos[origem] - transferidos;
+                votosCelula[destino] = votos[destino] + transferidos;
+                System.arraycopy(base, 0, assentos, 0, n);
+                corrige(votosCelula, assentos, assentosTotal, votosMargemMin, metodo);
+                variacoesOrigem[indicePercentagem][origem][destino] = assentos[origem] - base[origem];
+                variacoesDestino[indicePercentagem][origem][destino] = assentos[destino] - base[destino];
+                votosCelula[destino] = votos[destino];
+            }
+        });
+        return new MatrizTransferencias(percentagens, base, variacoesOrigem, variacoesDestino);
+    }
+    
+    /**
+     * Corrige uma distribuição após a alteração de alguns votos, trocando assentos do último quociente vencedor
+     * para o primeiro quociente vencido até nenhum vencido preceder um vencedor. Os assentos dos partidos que
+     * deixaram de ser elegíveis são os primeiros a sair, e os assentos por atribuir (se antes não havia partidos
+     * elegíveis suficientes) são atribuídos aos primeiros quocientes vencidos.
+     * @param votos Votos de cada partido (já alterados).
+     * @param assentos Distribuição de partida, corrigida no próprio vetor.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores.
+     */
+    static void corrige(long[] votos, int[] assentos, int assentosTotal, long votosMargemMin, MetodoDivisor metodo)
+    {
+        int atribuidos = 0;
+        for (int assentosPartido : assentos)
+        {
+            atribuidos += assentosPartido;
+        }
+        while (true)
+        {
+            // Último quociente vencedor (ou um partido não elegível com assentos)
+            int perdedor = -1;
+            boolean perdedorElegivel = true;
+            for (int i = 0; i < votos.length && perdedorElegivel; i++)
+            {
+                if (assentos[i] == 0)
+                {
+                    continue;
+                }
+                if (votos[i] < votosMargemMin)
+                {
+                    perdedor = i;
+                    perdedorElegivel = false;
+                }
+                else if (perdedor < 0
+                        || precede(votos, perdedor, metodo.divisor(assentos[perdedor] - 1), i,
+                                metodo.divisor(assentos[i] - 1)))
+                {
+                    perdedor = i;
+                }
+            }
+            // Primeiro quociente vencido
+            int vencedor = -1;
+            for (int i = 0; i < votos.length; i++)
+            {
+                if (votos[i] >= votosMargemMin && (vencedor < 0
+                        || precede(votos, i, metodo.divisor(assentos[i]), vencedor,
+                                metodo.divisor(assentos[vencedor]))))
+                {
+                    vencedor = i;
+                }
+            }
+            if (atribuidos < assentosTotal && vencedor >= 0)
+            {
+                assentos[vencedor]++;
+                atribuidos++;
+                continue;
+            }
+            if (perdedor < 0 || (perdedorElegivel && (vencedor < 0 || !precede(votos, vencedor,
+                    metodo.divisor(assentos[vencedor]), perdedor, metodo.divisor(assentos[perdedor] - 1)))))
+            {
+                return;
+            }
+            // O assento sai do perdedor e, na iteração seguinte, é atribuído ao primeiro quociente vencido
+            assentos[perdedor]--;
+            atribuidos--;
+        }
+    }
+    
+    /**
+     * Verifica se o quociente votos[i] / divisorI recebe o assento antes de votos[j] / divisorJ.
+     */
+    private static boolean precede(long[] votos, int i, long divisorI, int j, long divisorJ)
+    {
+        int comparacao = MotorDHondt.comparaQuocientes(votos[i], divisorI, votos[j], divisorJ);
+        return comparacao < 0 || (comparacao == 0 && i < j);
+    }
+}
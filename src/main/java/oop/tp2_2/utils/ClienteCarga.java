@@ -0,0 +1,137 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.HistogramaLatencias;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cliente de teste de carga para o {@link ServidorAlocacao}: envia o mesmo pedido POST um número fixo de vezes,
+ * com um número fixo de pedidos em simultâneo, e mede a latência de cada pedido do lado do cliente.
+ * Cada pedido em simultâneo corresponde a uma thread virtual que envia pedidos sequencialmente até se esgotar
+ * o total; a concorrência é assim constante durante todo o teste (carga em ciclo fechado).
+ * @author Luis Matos
+ */
+public class ClienteCarga
+{
+    /**
+     * Resultado de um teste de carga.
+     */
+    public static final class Resultado
+    {
+        private final long pedidos;
+        private final long erros;
+        private final long duracaoNanos;
+        private final HistogramaLatencias latencias;
+        
+        private Resultado(long pedidos, long erros, long duracaoNanos, HistogramaLatencias latencias)
+        {
+            this.pedidos = pedidos;
+            this.erros = erros;
+            this.duracaoNanos = duracaoNanos;
+            this.latencias = latencias;
+        }
+        
+        // Getters
+        public long getPedidos()
+        {
+            return pedidos;
+        }
+        
+        public long getErros()
+        {
+            return erros;
+        }
+        
+        public HistogramaLatencias getLatencias()
+        {
+            return latencias;
+        }
+        
+        /**
+         * Calcula o débito do teste.
+         * @return Número de pedidos por segundo.
+         */
+        public double getDebito()
+        {
+            return duracaoNanos > 0 ? pedidos * 1e9 / duracaoNanos : 0;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return String.format("%d pedidos (%d erros) em %.3f s: %.1f pedidos/s, latência média %.3f ms, "
+                    + "p50 %.3f ms, p99 %.3f ms, máx. %.3f ms", pedidos, erros, duracaoNanos / 1e9, getDebito(),
+                    latencias.getMediaMs(), latencias.getPercentilMs(0.5), latencias.getPercentilMs(0.99),
+                    latencias.getMaximoMs());
+        }
+    }
+    
+    /**
+     * Executa um teste de carga.
+     * @param endereco Endereço do ponto de acesso (p.ex. http://localhost:8080/distribuicao).
+     * @param corpo Corpo JSON enviado em todos os pedidos.
+     * @param pedidos Número total de pedidos.
+     * @param concorrencia Número de pedidos em simultâneo.
+     * @return O resultado do teste. Contam como erros as respostas com código diferente de 200 e as falhas de
+     *         ligação.
+     */
+    public static Resultado executa(URI endereco, String corpo, int pedidos, int concorrencia)
+    {
+        if (pedidos < 0 || concorrencia <= 0)
+        {
+            throw new IllegalArgumentException("O número de pedidos e a concorrência têm de ser positivos");
+        }
+        
+        HistogramaLatencias latencias = new HistogramaLatencias();
+        LongAdder erros = new LongAdder();
+        AtomicInteger restantes = new AtomicInteger(pedidos);
+        HttpRequest pedido = HttpRequest.newBuilder(endereco)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        
+        long inicio = System.nanoTime();
+        // O executor é fechado primeiro, esperando que todos os pedidos terminem antes de fechar o cliente
+        try (HttpClient cliente = HttpClient.newHttpClient();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int i = 0; i < concorrencia; i++)
+            {
+                executor.execute(() ->
+                {
+                    while (restantes.getAndDecrement() > 0)
+                    {
+                        long inicioPedido = System.nanoTime();
+                        try
+                        {
+                            if (cliente.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                            {
+                                erros.increment();
+                            }
+                        }
+                        catch (IOException e)
+                        {
+                            erros.increment();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencias.regista(System.nanoTime() - inicioPedido);
+                    }
+                });
+            }
+        }
+        return new Resultado(latencias.getContagem(), erros.sum(), System.nanoTime() - inicio, latencias);
+    }
+}
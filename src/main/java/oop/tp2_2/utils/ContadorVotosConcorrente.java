@@ -0,0 +1,314 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Partido;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contador concorrente de votos, alimentado em simultâneo por várias threads de recolha.
+ * Segue a ideia do LongAdder: as escritas são espalhadas por um vetor de células (cada uma um vetor de
+ * contadores, um por partido), escolhidas pelo identificador da thread. O vetor começa com uma célula e duplica
+ * quando há contenção, até à potência de dois igual ou superior ao número de processadores, pelo que a memória
+ * não cresce com o número de threads de recolha. Cada célula é protegida por um "seqlock" (número de versão
+ * par/ímpar) que o escritor reclama com uma operação CAS, o que permite somar atomicamente os votos de uma mesa
+ * inteira e obter fotografias consistentes sem bloquear as escritas.
+ * As fotografias convertem-se em listas de Partido para a {@link CalculadoraDHondt}; os votos das coligações
+ * são derivados, no momento da fotografia, da soma dos contadores dos seus membros.
+ * @author Luis Matos
+ */
+public class ContadorVotosConcorrente
+{
+    private static final VarHandle CONTADORES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VERSAO;
+    
+    static
+    {
+        try
+        {
+            VERSAO = MethodHandles.lookup().findVarHandle(Celula.class, "versao", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    /**
+     * Célula de contadores, partilhada pelas threads cujo identificador lhe corresponde. Os campos de preenchimento afastam a versão das células vizinhas
+     * (evitando partilha falsa de linhas de cache).
+     */
+    private static final class Celula
+    {
+        long p01, p02, p03, p04, p05, p06, p07;
+        volatile long versao; // Ímpar durante uma escrita
+        long p11, p12, p13, p14, p15, p16, p17;
+        private final long[] votos;
+        
+        private Celula(int partidos)
+        {
+            this.votos = new long[partidos];
+        }
+        
+        /**
+         * Tenta reclamar a célula para uma escrita, tornando a versão ímpar.
+         * @return true se a célula foi reclamada; false se outra thread a está a escrever.
+         */
+        private boolean tentaIniciarEscrita()
+        {
+            long versaoAtual = (long) VERSAO.getOpaque(this);
+            return (versaoAtual & 1) == 0 && VERSAO.compareAndSet(this, versaoAtual, versaoAtual + 1);
+        }
+        
+        private void terminaEscrita()
+        {
+            VERSAO.setRelease(this, (long) VERSAO.getOpaque(this) + 1);
+        }
+        
+        private void adiciona(int partido, long quantidade)
+        {
+            CONTADORES.setOpaque(votos, partido, (long) CONTADORES.getOpaque(votos, partido) + quantidade);
+        }
+        
+        /**
+         * Soma os contadores desta célula ao vetor indicado, relendo-os se uma escrita ocorrer durante a leitura.
+         * @param totais Vetor acumulador.
+         * @param leitura Vetor de trabalho com a mesma dimensão.
+         */
+        private void somaA(long[] totais, long[] leitura)
+        {
+            while (true)
+            {
+                long versaoInicial = (long) VERSAO.getAcquire(this);
+                if ((versaoInicial & 1) == 0)
+                {
+                    for (int i = 0; i < leitura.length; i++)
+                    {
+                        leitura[i] = (long) CONTADORES.getOpaque(votos, i);
+                    }
+                    VarHandle.loadLoadFence();
+                    if ((long) VERSAO.getOpaque(this) == versaoInicial)
+                    {
+                        break;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+            for (int i = 0; i < leitura.length; i++)
+            {
+                totais[i] += leitura[i];
+            }
+        }
+    }
+    
+    private final List<String> partidos;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final Map<String, List<String>> coligacoes;
+    private final int maxCelulas;
+    private final AtomicBoolean aCrescer = new AtomicBoolean();
+    private volatile Celula[] celulas;
+    
+    /**
+     * Constructor do contador.
+     * @param partidos Nomes dos partidos individuais cujos votos são contados.
+     * @param coligacoes Coligações a apresentar nas fotografias (nome da coligação para nomes dos membros);
+     *                   os membros deixam de surgir individualmente.
+     */
+    public ContadorVotosConcorrente(List<String> partidos, Map<String, List<String>> coligacoes)
+    {
+        this.partidos = List.copyOf(partidos);
+        for (int i = 0; i < this.partidos.size(); i++)
+        {
+            indices.put(this.partidos.get(i), i);
+        }
+        this.coligacoes = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> coligacao : coligacoes.entrySet())
+        {
+            for (String membro : coligacao.getValue())
+            {
+                indice(membro); // Valida os membros
+            }
+            this.coligacoes.put(coligacao.getKey(), List.copyOf(coligacao.getValue()));
+        }
+        int processadores = Runtime.getRuntime().availableProcessors();
+        this.maxCelulas = processadores <= 1 ? 1 : Integer.highestOneBit(processadores - 1) << 1;
+        this.celulas = new Celula[] { new Celula(this.partidos.size()) };
+    }
+    
+    /**
+     * Adiciona votos a um partido, pelo seu índice na lista de partidos.
+     * @param partido Índice do partido.
+     * @param votos Número de votos a adicionar.
+     */
+    public void adicionaVotos(int partido, long votos)
+    {
+        Celula celula = reclamaCelula();
+        celula.adiciona(partido, votos);
+        celula.terminaEscrita();
+    }
+    
+    /**
+     * Adiciona votos a um partido, pelo seu nome.
+     * @param partido Nome do partido.
+     * @param votos Número de votos a adicionar.
+     */
+    public void adicionaVotos(String partido, long votos)
+    {
+        adicionaVotos(indice(partido), votos);
+    }
+    
+    /**
+     * Adiciona de forma atómica os votos de uma mesa de voto em todos os partidos: uma fotografia inclui
+     * a mesa completa ou não a inclui de todo.
+     * @param votosPorPartido Votos de cada partido, pela ordem da lista de partidos.
+     */
+    public void adicionaMesa(long[] votosPorPartido)
+    {
+        Celula celula = reclamaCelula();
+        for (int i = 0; i < votosPorPartido.length; i++)
+        {
+            if (votosPorPartido[i] != 0)
+            {
+                celula.adiciona(i, votosPorPartido[i]);
+            }
+        }
+        celula.terminaEscrita();
+    }
+    
+    /**
+     * Obtém uma fotografia consistente dos totais de votos de cada partido individual.
+     * @return Vetor com o total de votos de cada partido, pela ordem da lista de partidos.
+     */
+    public long[] fotografia()
+    {
+        long[] totais = new long[partidos.size()];
+        long[] leitura = new long[partidos.size()];
+        for (Celula celula : celulas)
+        {
+            celula.somaA(totais, leitura);
+        }
+        return totais;
+    }
+    
+    /**
+     * Converte uma fotografia dos contadores numa lista de partidos pronta para a {@link CalculadoraDHondt}.
+     * As coligações são construídas a partir dos membros, somando os respetivos contadores.
+     * @return Lista com as coligações seguidas dos partidos que não pertencem a nenhuma coligação.
+     */
+    public List<Partido> criaPartidos()
+    {
+        long[] totais = fotografia();
+        List<Partido> lista = new ArrayList<>();
+        Set<String> membrosColigados = new HashSet<>();
+        for (Map.Entry<String, List<String>> coligacao : coligacoes.entrySet())
+        {
+            List<Partido> membros = new ArrayList<>();
+            for (String membro : coligacao.getValue())
+            {
+                membros.add(new Partido(membro, Math.toIntExact(totais[indice(membro)])));
+                membrosColigados.add(membro);
+            }
+            lista.add(new Partido(coligacao.getKey(), membros));
+        }
+        for (int i = 0; i < partidos.size(); i++)
+        {
+            if (!membrosColigados.contains(partidos.get(i)))
+            {
+                lista.add(new Partido(partidos.get(i), Math.toIntExact(totais[i])));
+            }
+        }
+        return lista;
+    }
+    
+    /**
+     * Retorna o índice de um partido a partir do seu nome.
+     * @param partido Nome do partido.
+     * @return Índice do partido na lista de partidos.
+     */
+    private int indice(String partido)
+    {
+        Integer indice = indices.get(partido);
+        if (indice == null)
+        {
+            throw new IllegalArgumentException("Partido desconhecido: " + partido);
+        }
+        return indice;
+    }
+    
+    /**
+     * Reclama para escrita a célula correspondente à thread atual. Se estiver ocupada, o vetor de células é
+     * duplicado (enquanto não atingir o limite) e é tentada outra célula, escolhida ao acaso.
+     * @return A célula reclamada, com a versão ímpar; a escrita deve terminar com terminaEscrita.
+     */
+    private Celula reclamaCelula()
+    {
+        int hash = espalha(Thread.currentThread().threadId());
+        while (true)
+        {
+            Celula[] atuais = celulas;
+            Celula celula = atuais[hash & (atuais.length - 1)];
+            if (celula.tentaIniciarEscrita())
+            {
+                return celula;
+            }
+            if (atuais.length < maxCelulas)
+            {
+                cresce(atuais);
+            }
+            else
+            {
+                Thread.onSpinWait();
+            }
+            hash = ThreadLocalRandom.current().nextInt();
+        }
+    }
+    
+    /**
+     * Duplica o vetor de células, mantendo as existentes (e os seus contadores) nas mesmas posições iniciais.
+     * Apenas uma thread cresce o vetor de cada vez; as restantes continuam com o vetor atual.
+     * @param atuais Vetor observado pela thread que detetou a contenção.
+     */
+    private void cresce(Celula[] atuais)
+    {
+        if (celulas != atuais || !aCrescer.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            if (celulas == atuais)
+            {
+                Celula[] novas = Arrays.copyOf(atuais, atuais.length << 1);
+                for (int i = atuais.length; i < novas.length; i++)
+                {
+                    novas[i] = new Celula(partidos.size());
+                }
+                celulas = novas;
+            }
+        }
+        finally
+        {
+            aCrescer.set(false);
+        }
+    }
+    
+    /**
+     * Espalha os bits do identificador de uma thread, para que identificadores consecutivos usem células distintas.
+     * @param identificador Identificador da thread.
+     * @return Valor de dispersão.
+     */
+    private static int espalha(long identificador)
+    {
+        long h = identificador * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,102 @@
+package oop.tp2_2.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dados de uma distribuição partilhados entre métodos: os votos, o total de votos elegíveis e as quotas exatas
+ * floor(votos * referencia / totalVotos), calculadas uma única vez por cada referência utilizada.
+ * Os métodos D'Hondt, Imperiali e Hare-Niemeyer partilham a mesma referência (o número de assentos).
+ * @author Luis Matos
+ */
+final class DadosDistribuicao
+{
+    private final long[] votos;
+    private final int assentosTotal;
+    private final long votosMargemMin;
+    private final long totalVotosElegiveis;
+    private final int partidosElegiveis;
+    private final Map<Long, long[]> quotas = new HashMap<>();
+    
+    /**
+     * Constructor dos dados partilhados.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     */
+    DadosDistribuicao(long[] votos, int assentosTotal, long votosMargemMin)
+    {
+        this.votos = votos;
+        this.assentosTotal = assentosTotal;
+        this.votosMargemMin = votosMargemMin;
+        long total = 0;
+        int elegiveis = 0;
+        for (long votosPartido : votos)
+        {
+            if (votosPartido >= votosMargemMin)
+            {
+                total += votosPartido;
+                elegiveis++;
+            }
+        }
+        this.totalVotosElegiveis = total;
+        this.partidosElegiveis = elegiveis;
+    }
+    
+    // Getters
+    long[] getVotos()
+    {
+        return votos;
+    }
+    
+    int getPartidos()
+    {
+        return votos.length;
+    }
+    
+    int getAssentosTotal()
+    {
+        return assentosTotal;
+    }
+    
+    long getVotosMargemMin()
+    {
+        return votosMargemMin;
+    }
+    
+    long getTotalVotosElegiveis()
+    {
+        return totalVotosElegiveis;
+    }
+    
+    int getPartidosElegiveis()
+    {
+        return partidosElegiveis;
+    }
+    
+    boolean isElegivel(int partido)
+    {
+        return votos[partido] >= votosMargemMin;
+    }
+    
+    /**
+     * Retorna as quotas exatas floor(votos * referencia / totalVotosElegiveis) dos partidos elegíveis.
+     * @param referencia Número de assentos de referência (maior que zero).
+     * @return Vetor de quotas (0 para os partidos não elegíveis), calculado uma única vez por referência.
+     */
+    long[] quotas(long referencia)
+    {
+        return quotas.computeIfAbsent(referencia, chave ->
+        {
+            long[] resultado = new long[votos.length];
+            for (int i = 0; i < votos.length; i++)
+            {
+                if (isElegivel(i))
+                {
+                    resultado[i] = MotorDHondt.quotaInferior(votos[i], chave, totalVotosElegiveis);
+                }
+            }
+            return resultado;
+        });
+    }
+}
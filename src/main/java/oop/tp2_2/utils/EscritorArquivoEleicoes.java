@@ -0,0 +1,242 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.EleicaoArquivada;
+import oop.tp2_2.models.FotografiaEleicao;
+import oop.tp2_2.models.ResultadoAlocacao;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escrita de arquivos binários compactos de eleições históricas, lidos pelo {@link LeitorArquivoEleicoes}.
+ * As eleições são escritas em sequência, sem ficarem em memória; no fecho são acrescentados o dicionário de nomes
+ * e o índice, e o cabeçalho é atualizado. Formato (inteiros de tamanho fixo em big-endian):
+ * - cabeçalho de 32 bytes: magia "ELEI", versão, número de eleições, posição do dicionário, posição do índice;
+ * - registos das eleições, um após o outro;
+ * - dicionário: número de nomes e cada nome (comprimento e bytes UTF-8);
+ * - índice: a posição de cada registo no ficheiro (8 bytes por eleição), para acesso direto.
+ * Num registo, os números são varints (7 bits por byte) e os nomes de partidos, coligações e métodos são
+ * identificadores do dicionário. Os votos são codificados pela diferença para o partido anterior (em zigzag),
+ * o que os reduz a 2-3 bytes quando os partidos estão ordenados por votos. Cada registo contém:
+ * - nome da eleição (comprimento e bytes UTF-8);
+ * - número de partidos, os identificadores dos nomes e as diferenças dos votos;
+ * - número de coligações e, para cada uma, o identificador do nome e os índices dos membros;
+ * - número de resultados e, para cada um, a vista (0 sem coligações, 1 com coligações), o identificador do
+ *   método, os assentos, o limite minímo de votos e os assentos de cada concorrente da vista.
+ * Os objetos desta classe não são thread-safe.
+ * @author Luis Matos
+ */
+public class EscritorArquivoEleicoes implements Closeable
+{
+    static final int MAGIA = 0x454C4549; // "ELEI"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 32;
+    
+    // Dimensão do buffer de escrita
+    private static final int TAMANHO_BUFFER = 64 << 10;
+    
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+    private final Map<String, Integer> dicionario = new HashMap<>();
+    private String[] nomes = new String[64];
+    private long[] indice = new long[1024];
+    private int numeroEleicoes;
+    private long posicao = TAMANHO_CABECALHO;
+    private boolean fechado;
+    
+    /**
+     * Cria um arquivo vazio (o ficheiro é criado ou substituído).
+     * @param ficheiro Caminho do arquivo.
+     * @throws IOException Se o ficheiro não puder ser criado.
+     */
+    public EscritorArquivoEleicoes(Path ficheiro) throws IOException
+    {
+        this.canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        // O cabeçalho definitivo é escrito no fecho
+        buffer.put(new byte[TAMANHO_CABECALHO]);
+    }
+    
+    /**
+     * Acrescenta uma eleição ao arquivo.
+     * @param eleicao A eleição, com a fotografia e os resultados.
+     * @throws IOException Se a escrita falhar.
+     */
+    public void escreve(EleicaoArquivada eleicao) throws IOException
+    {
+        if (fechado)
+        {
+            throw new IllegalStateException("O arquivo já foi fechado");
+        }
+        if (numeroEleicoes == indice.length)
+        {
+            indice = Arrays.copyOf(indice, numeroEleicoes * 2);
+        }
+        indice[numeroEleicoes++] = posicao;
+        
+        escreveTexto(eleicao.getNome());
+        
+        FotografiaEleicao fotografia = eleicao.getFotografia();
+        int partidos = fotografia.getNumeroPartidos();
+        escreveVarint(partidos);
+        for (int i = 0; i < partidos; i++)
+        {
+            escreveVarint(idNome(fotografia.getNome(i)));
+        }
+        long anterior = 0;
+        for (int i = 0; i < partidos; i++)
+        {
+            long votos = fotografia.getVotos(i);
+            long diferenca = votos - anterior;
+            escreveVarint((diferenca << 1) ^ (diferenca >> 63)); // zigzag
+            anterior = votos;
+        }
+        
+        escreveVarint(fotografia.getNumeroColigacoes());
+        for (int c = 0; c < fotografia.getNumeroColigacoes(); c++)
+        {
+            int[] membros = fotografia.getMembros(c);
+            escreveVarint(idNome(fotografia.getNomeColigacao(c)));
+            escreveVarint(membros.length);
+            for (int membro : membros)
+            {
+                escreveVarint(membro);
+            }
+        }
+        
+        escreveVarint(eleicao.getResultados().size());
+        for (ResultadoAlocacao resultado : eleicao.getResultados())
+        {
+            escreveByte(resultado.eComColigacoes() ? 1 : 0);
+            escreveVarint(idNome(resultado.getMetodo()));
+            escreveVarint(resultado.getAssentosTotal());
+            escreveVarint(resultado.getVotosMargemMin());
+            for (int i = 0; i < resultado.getNumeroConcorrentes(); i++)
+            {
+                escreveVarint(resultado.getAssentos(i));
+            }
+        }
+    }
+    
+    /**
+     * Escreve o dicionário, o índice e o cabeçalho, e fecha o ficheiro.
+     * @throws IOException Se a escrita falhar.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (fechado)
+        {
+            return;
+        }
+        fechado = true;
+        try
+        {
+            long posicaoDicionario = posicao;
+            escreveVarint(dicionario.size());
+            for (int i = 0; i < dicionario.size(); i++)
+            {
+                escreveTexto(nomes[i]);
+            }
+            long posicaoIndice = posicao;
+            for (int i = 0; i < numeroEleicoes; i++)
+            {
+                garanteEspaco(Long.BYTES);
+                buffer.putLong(indice[i]);
+                posicao += Long.BYTES;
+            }
+            despeja();
+            
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGIA).putInt(VERSAO).putInt(numeroEleicoes).putLong(posicaoDicionario)
+                    .putLong(posicaoIndice).flip();
+            canal.write(cabecalho, 0);
+        }
+        finally
+        {
+            canal.close();
+        }
+    }
+    
+    /**
+     * Retorna o identificador de um nome no dicionário, acrescentando-o se for novo.
+     */
+    private int idNome(String nome)
+    {
+        Integer id = dicionario.get(nome);
+        if (id == null)
+        {
+            id = dicionario.size();
+            if (id == nomes.length)
+            {
+                nomes = Arrays.copyOf(nomes, id * 2);
+            }
+            nomes[id] = nome;
+            dicionario.put(nome, id);
+        }
+        return id;
+    }
+    
+    private void escreveTexto(String texto) throws IOException
+    {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreveVarint(bytes.length);
+        for (int inicio = 0; inicio < bytes.length; )
+        {
+            garanteEspaco(1);
+            int quantidade = Math.min(buffer.remaining(), bytes.length - inicio);
+            buffer.put(bytes, inicio, quantidade);
+            inicio += quantidade;
+            posicao += quantidade;
+        }
+    }
+    
+    /**
+     * Escreve um inteiro não negativo em grupos de 7 bits, do menos significativo para o mais significativo;
+     * o bit mais alto de cada byte indica se há mais bytes.
+     */
+    private void escreveVarint(long valor) throws IOException
+    {
+        garanteEspaco(10);
+        while ((valor & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+            posicao++;
+        }
+        buffer.put((byte) valor);
+        posicao++;
+    }
+    
+    private void escreveByte(int valor) throws IOException
+    {
+        garanteEspaco(1);
+        buffer.put((byte) valor);
+        posicao++;
+    }
+    
+    private void garanteEspaco(int bytes) throws IOException
+    {
+        if (buffer.remaining() < bytes)
+        {
+            despeja();
+        }
+    }
+    
+    private void despeja() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
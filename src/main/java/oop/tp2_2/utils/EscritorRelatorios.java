@@ -0,0 +1,356 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Relatorio;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Escreve relatórios ({@link Relatorio}) em texto, CSV ou JSON, para qualquer Writer ou OutputStream.
+ * Toda a escrita passa por um único buffer, despejado no final de cada relatório, em vez de uma chamada
+ * sincronizada à consola por linha; os trabalhos em lote podem assim escrever diretamente para ficheiros.
+ * Os números são escritos sem separadores de milhares em CSV e JSON, e com separadores no formato de texto.
+ * @author Luis Matos
+ */
+public class EscritorRelatorios
+{
+    // Dimensão do buffer de escrita
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    
+    /**
+     * Formatos de saída suportados.
+     */
+    public enum Formato
+    {
+        TEXTO, CSV, JSON
+    }
+    
+    /**
+     * Escreve um relatório para um fluxo de bytes, em UTF-8. O fluxo não é fechado.
+     * @param relatorio O relatório a escrever.
+     * @param formato Formato de saída.
+     * @param saida Fluxo de destino.
+     * @throws IOException Se a escrita falhar.
+     */
+    public static void escreve(Relatorio relatorio, Formato formato, OutputStream saida) throws IOException
+    {
+        escreve(relatorio, formato, new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Escreve um relatório para um Writer. O Writer não é fechado.
+     * @param relatorio O relatório a escrever.
+     * @param formato Formato de saída.
+     * @param saida Writer de destino.
+     * @throws IOException Se a escrita falhar.
+     */
+    public static void escreve(Relatorio relatorio, Formato formato, Writer saida) throws IOException
+    {
+        BufferedWriter buffer = saida instanceof BufferedWriter escritor ? escritor
+                : new BufferedWriter(saida, TAMANHO_BUFFER);
+        switch (formato)
+        {
+            case TEXTO -> escreveTexto(relatorio, buffer);
+            case CSV -> escreveCsv(relatorio, buffer);
+            case JSON -> escreveJson(relatorio, buffer);
+        }
+        buffer.flush();
+    }
+    
+    /**
+     * Escreve apenas as secções de um relatório em texto (sem o cabeçalho do título), em UTF-8, para um fluxo
+     * de bytes que não é fechado. Permite à consola mostrar secções avulsas no mesmo formato dos relatórios.
+     * @param relatorio O relatório cujas secções são escritas.
+     * @param saida Fluxo de destino.
+     * @throws IOException Se a escrita falhar.
+     */
+    public static void escreveSeccoes(Relatorio relatorio, OutputStream saida) throws IOException
+    {
+        BufferedWriter buffer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8),
+                TAMANHO_BUFFER);
+        escreveSeccoesTexto(relatorio, buffer);
+        buffer.flush();
+    }
+    
+    /**
+     * Escreve um relatório em texto, com as tabelas alinhadas pela largura de cada coluna.
+     */
+    private static void escreveTexto(Relatorio relatorio, Writer saida) throws IOException
+    {
+        saida.write("=".repeat(80));
+        saida.write('\n');
+        saida.write(relatorio.getTitulo());
+        saida.write('\n');
+        saida.write("=".repeat(80));
+        saida.write('\n');
+        escreveSeccoesTexto(relatorio, saida);
+    }
+    
+    /**
+     * Escreve as secções de um relatório em texto: título, valores, tabela alinhada e notas de cada secção.
+     */
+    private static void escreveSeccoesTexto(Relatorio relatorio, Writer saida) throws IOException
+    {
+        for (Relatorio.Seccao seccao : relatorio.getSeccoes())
+        {
+            saida.write("\n=== " + seccao.getTitulo() + " ===\n");
+            for (Map.Entry<String, Object> valor : seccao.getValores().entrySet())
+            {
+                saida.write(valor.getKey() + ": " + formataTexto(valor.getValue()) + "\n");
+            }
+            
+            List<String> colunas = seccao.getColunas();
+            if (!colunas.isEmpty())
+            {
+                // Largura de cada coluna: o maior entre o cabeçalho e as células
+                int[] larguras = new int[colunas.size()];
+                for (int i = 0; i < colunas.size(); i++)
+                {
+                    larguras[i] = colunas.get(i).length();
+                    for (List<Object> linha : seccao.getLinhas())
+                    {
+                        larguras[i] = Math.max(larguras[i], formataTexto(linha.get(i)).length());
+                    }
+                }
+                if (!seccao.getValores().isEmpty())
+                {
+                    saida.write('\n');
+                }
+                escreveLinhaTexto(saida, colunas, larguras, true);
+                for (int i = 0; i < larguras.length; i++)
+                {
+                    saida.write("-".repeat(larguras[i] + 2));
+                    saida.write('|');
+                }
+                saida.write('\n');
+                for (List<Object> linha : seccao.getLinhas())
+                {
+                    escreveLinhaTexto(saida, linha, larguras, false);
+                }
+            }
+            
+            for (String nota : seccao.getNotas())
+            {
+                saida.write("- " + nota + "\n");
+            }
+        }
+    }
+    
+    /**
+     * Escreve uma linha de tabela em texto: texto alinhado à esquerda e números alinhados à direita.
+     */
+    private static void escreveLinhaTexto(Writer saida, List<?> celulas, int[] larguras, boolean cabecalho)
+            throws IOException
+    {
+        for (int i = 0; i < celulas.size(); i++)
+        {
+            Object celula = celulas.get(i);
+            String texto = formataTexto(celula);
+            String espacos = " ".repeat(larguras[i] - texto.length());
+            saida.write(' ');
+            saida.write(!cabecalho && celula instanceof Number ? espacos + texto : texto + espacos);
+            saida.write(" |");
+        }
+        saida.write('\n');
+    }
+    
+    /**
+     * Escreve um relatório em CSV. Cada secção é um bloco separado por uma linha vazia: o título da secção,
+     * os valores (chave,valor), o cabeçalho e as linhas da tabela, e as notas.
+     */
+    private static void escreveCsv(Relatorio relatorio, Writer saida) throws IOException
+    {
+        boolean primeira = true;
+        for (Relatorio.Seccao seccao : relatorio.getSeccoes())
+        {
+            if (!primeira)
+            {
+                saida.write('\n');
+            }
+            primeira = false;
+            saida.write(campoCsv(seccao.getTitulo()));
+            saida.write('\n');
+            for (Map.Entry<String, Object> valor : seccao.getValores().entrySet())
+            {
+                saida.write(campoCsv(valor.getKey()) + "," + campoCsv(valor.getValue()) + "\n");
+            }
+            if (!seccao.getColunas().isEmpty())
+            {
+                escreveLinhaCsv(saida, seccao.getColunas());
+                for (List<Object> linha : seccao.getLinhas())
+                {
+                    escreveLinhaCsv(saida, linha);
+                }
+            }
+            for (String nota : seccao.getNotas())
+            {
+                saida.write(campoCsv(nota));
+                saida.write('\n');
+            }
+        }
+    }
+    
+    private static void escreveLinhaCsv(Writer saida, List<?> celulas) throws IOException
+    {
+        for (int i = 0; i < celulas.size(); i++)
+        {
+            if (i > 0)
+            {
+                saida.write(',');
+            }
+            saida.write(campoCsv(celulas.get(i)));
+        }
+        saida.write('\n');
+    }
+    
+    /**
+     * Escreve um relatório em JSON: {"titulo": ..., "seccoes": [...]}, em que cada secção tem
+     * {"titulo": ..., "valores": {...}, "colunas": [...], "linhas": [[...]], "notas": [...]}.
+     */
+    private static void escreveJson(Relatorio relatorio, Writer saida) throws IOException
+    {
+        saida.write("{\"titulo\":");
+        saida.write(textoJson(relatorio.getTitulo()));
+        saida.write(",\"seccoes\":[");
+        for (int s = 0; s < relatorio.getSeccoes().size(); s++)
+        {
+            Relatorio.Seccao seccao = relatorio.getSeccoes().get(s);
+            saida.write(s > 0 ? ",{" : "{");
+            saida.write("\"titulo\":" + textoJson(seccao.getTitulo()));
+            
+            saida.write(",\"valores\":{");
+            boolean primeiro = true;
+            for (Map.Entry<String, Object> valor : seccao.getValores().entrySet())
+            {
+                saida.write(primeiro ? "" : ",");
+                saida.write(textoJson(valor.getKey()) + ":" + valorJson(valor.getValue()));
+                primeiro = false;
+            }
+            
+            saida.write("},\"colunas\":");
+            escreveListaJson(saida, seccao.getColunas());
+            saida.write(",\"linhas\":[");
+            for (int i = 0; i < seccao.getLinhas().size(); i++)
+            {
+                saida.write(i > 0 ? "," : "");
+                escreveListaJson(saida, seccao.getLinhas().get(i));
+            }
+            saida.write("],\"notas\":");
+            escreveListaJson(saida, seccao.getNotas());
+            saida.write('}');
+        }
+        saida.write("]}\n");
+    }
+    
+    private static void escreveListaJson(Writer saida, List<?> valores) throws IOException
+    {
+        saida.write('[');
+        for (int i = 0; i < valores.size(); i++)
+        {
+            saida.write(i > 0 ? "," : "");
+            saida.write(valorJson(valores.get(i)));
+        }
+        saida.write(']');
+    }
+    
+    /**
+     * Formata um valor para o formato de texto (números inteiros com separadores de milhares,
+     * números decimais com duas casas).
+     */
+    private static String formataTexto(Object valor)
+    {
+        if (valor instanceof Double || valor instanceof Float)
+        {
+            return String.format("%,.2f", ((Number) valor).doubleValue());
+        }
+        if (valor instanceof Number numero)
+        {
+            return String.format("%,d", numero.longValue());
+        }
+        return String.valueOf(valor);
+    }
+    
+    /**
+     * Formata um valor como campo CSV, entre aspas se contiver separadores, aspas ou quebras de linha.
+     */
+    static String campoCsv(Object valor)
+    {
+        String texto = valor instanceof Number numero ? numeroSimples(numero) : String.valueOf(valor);
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0)
+        {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+    
+    /**
+     * Formata um valor JSON: números sem aspas (NaN e infinitos como null) e o restante como texto.
+     */
+    static String valorJson(Object valor)
+    {
+        if (valor == null)
+        {
+            return "null";
+        }
+        if (valor instanceof Number numero)
+        {
+            double decimal = numero.doubleValue();
+            return Double.isNaN(decimal) || Double.isInfinite(decimal) ? "null" : numeroSimples(numero);
+        }
+        if (valor instanceof Boolean)
+        {
+            return valor.toString();
+        }
+        return textoJson(valor.toString());
+    }
+    
+    /**
+     * Escreve um número sem separadores de milhares, com ponto decimal.
+     */
+    private static String numeroSimples(Number numero)
+    {
+        if (numero instanceof Double || numero instanceof Float)
+        {
+            return String.format(Locale.ROOT, "%.4f", numero.doubleValue());
+        }
+        return Long.toString(numero.longValue());
+    }
+    
+    /**
+     * Escreve uma cadeia de caracteres como texto JSON, com os caracteres especiais escapados.
+     */
+    static String textoJson(String texto)
+    {
+        StringBuilder resultado = new StringBuilder(texto.length() + 2).append('"');
+        for (int i = 0; i < texto.length(); i++)
+        {
+            char c = texto.charAt(i);
+            switch (c)
+            {
+                case '"' -> resultado.append("\\\"");
+                case '\\' -> resultado.append("\\\\");
+                case '\n' -> resultado.append("\\n");
+                case '\r' -> resultado.append("\\r");
+                case '\t' -> resultado.append("\\t");
+                default ->
+                {
+                    if (c < 0x20)
+                    {
+                        resultado.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        resultado.append(c);
+                    }
+                }
+            }
+        }
+        return resultado.append('"').toString();
+    }
+}
@@ -0,0 +1,164 @@
+package oop.tp2_2.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos do JDK Flight Recorder (JFR) emitidos pelas etapas do cálculo eleitoral: validação, distribuição de
+ * assentos e secções da análise. Ficam disponíveis em qualquer gravação JFR (p.ex. com -XX:StartFlightRecording)
+ * na categoria "Eleição", e podem ser ativados individualmente pelo nome (oop.tp2_2.*).
+ * Sem uma gravação ativa, begin()/commit() não fazem nada e os objetos dos eventos são eliminados pelo JIT;
+ * os campos dos eventos só são calculados quando shouldCommit() o indica.
+ * @author Luis Matos
+ */
+public class EventosEleicao
+{
+    /**
+     * Validação e aplicação das restrições eleitorais ({@link ValidadorEleicao#validaEAplicaRestricoes}).
+     */
+    @Name("oop.tp2_2.Validacao")
+    @Label("Validação")
+    @Category("Eleição")
+    @Description("Validação e aplicação das restrições eleitorais")
+    @StackTrace(false)
+    public static final class Validacao extends Event
+    {
+        @Label("Partidos")
+        int partidos;
+        
+        @Label("Partidos elegíveis")
+        int partidosElegiveis;
+        
+        @Label("Total de votos")
+        long totalVotos;
+        
+        @Label("Limite minímo de votos")
+        long limiteVotosMin;
+    }
+    
+    /**
+     * Distribuição de assentos ({@link CalculadoraDHondt} e {@link CalculadoraMetodos}).
+     */
+    @Name("oop.tp2_2.Distribuicao")
+    @Label("Distribuição de assentos")
+    @Category("Eleição")
+    @Description("Distribuição de assentos por um método proporcional")
+    @StackTrace(false)
+    public static final class Distribuicao extends Event
+    {
+        @Label("Método")
+        String metodo;
+        
+        @Label("Partidos")
+        int partidos;
+        
+        @Label("Partidos filtrados")
+        @Description("Partidos abaixo do limite minímo de votos")
+        int partidosFiltrados;
+        
+        @Label("Assentos")
+        int assentos;
+        
+        @Label("Assentos atribuídos")
+        int assentosAtribuidos;
+        
+        @Label("Operações na fila")
+        @Description("Operações sift-down na fila de prioridade: construção da fila e uma por assento atribuído"
+                + " (0 nas distribuições por pesquisa do divisor)")
+        long operacoesFila;
+    }
+    
+    /**
+     * Secção da análise eleitoral ({@link AnalisadorEleicao}).
+     */
+    @Name("oop.tp2_2.SeccaoAnalise")
+    @Label("Secção da análise")
+    @Category("Eleição")
+    @Description("Execução de uma secção da análise eleitoral")
+    @StackTrace(false)
+    public static final class SeccaoAnalise extends Event
+    {
+        @Label("Secção")
+        String seccao;
+    }
+    
+    /**
+     * Inicia a medição de uma secção da análise.
+     * @return O evento da secção, já iniciado.
+     */
+    static SeccaoAnalise iniciaSeccao()
+    {
+        SeccaoAnalise evento = new SeccaoAnalise();
+        evento.begin();
+        return evento;
+    }
+    
+    /**
+     * Termina a medição de uma secção da análise, emitindo o evento JFR e registando o tempo nas {@link Metricas}
+     * (como "analise.secção").
+     * @param evento O evento devolvido por {@link #iniciaSeccao()}.
+     * @param seccao Nome da secção.
+     * @param inicio Instante de início devolvido por {@link Metricas#inicio()}.
+     */
+    static void terminaSeccao(SeccaoAnalise evento, String seccao, long inicio)
+    {
+        evento.end();
+        if (evento.shouldCommit())
+        {
+            evento.seccao = seccao;
+            evento.commit();
+        }
+        if (Metricas.ATIVAS)
+        {
+            Metricas.registaTempo("analise." + seccao, inicio);
+        }
+    }
+    
+    /**
+     * Regista uma distribuição de assentos terminada: emite o evento JFR e atualiza as {@link Metricas}.
+     * Só deve ser chamado quando as métricas estão ativas ou o evento deve ser emitido.
+     * @param evento O evento da distribuição, já terminado.
+     * @param inicio Instante de início devolvido por {@link Metricas#inicio()}.
+     * @param metodo Nome do método de distribuição.
+     * @param porFila true se os assentos foram atribuídos um a um com a fila de prioridade.
+     * @param partidos Número de partidos.
+     * @param partidosElegiveis Número de partidos que cumprem o limite minímo.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param assentos Assentos atribuídos a cada partido.
+     */
+    static void registaDistribuicao(Distribuicao evento, long inicio, String metodo, boolean porFila, int partidos,
+            int partidosElegiveis, int assentosTotal, int[] assentos)
+    {
+        int atribuidos = 0;
+        for (int i = 0; i < partidos; i++)
+        {
+            atribuidos += assentos[i];
+        }
+        // Construção da fila (metade dos elegíveis) e um sift-down por assento atribuído
+        long operacoesFila = porFila ? partidosElegiveis / 2 + atribuidos : 0;
+        
+        if (evento.shouldCommit())
+        {
+            evento.metodo = metodo;
+            evento.partidos = partidos;
+            evento.partidosFiltrados = partidos - partidosElegiveis;
+            evento.assentos = assentosTotal;
+            evento.assentosAtribuidos = atribuidos;
+            evento.operacoesFila = operacoesFila;
+            evento.commit();
+        }
+        if (Metricas.ATIVAS)
+        {
+            Metricas.registaTempo("distribuicao.tempo", inicio);
+            Metricas.incrementa("distribuicao.execucoes", 1);
+            Metricas.incrementa("distribuicao.assentos", atribuidos);
+            Metricas.incrementa("distribuicao.partidosFiltrados", partidos - partidosElegiveis);
+            Metricas.incrementa("distribuicao.operacoesFila", operacoesFila);
+            Metricas.registaValor("distribuicao.partidos", partidos);
+        }
+    }
+}
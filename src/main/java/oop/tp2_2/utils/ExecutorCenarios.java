@@ -0,0 +1,307 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Cenario;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.Relatorio;
+import oop.tp2_2.models.ResumoLote;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executa em lote os cenários definidos num ficheiro de texto, cada um numa thread virtual própria.
+ * Cada linha do ficheiro define um cenário (linhas vazias e começadas por '#' são ignoradas):
+ *     nome;assentos;percentagemLimiteMin;PARTIDO=votos,PARTIDO=votos,...[;COLIGACAO=MEMBRO+MEMBRO,...]
+ * p.ex. "Legislativas;230;1.75;PS=1850000,PSD=1820000,CH=850000,CDS=150000;AD=PSD+CDS".
+ * Cada cenário percorre o fluxo validação (com a aplicação das restrições eleitorais), distribuição de assentos
+ * e análise, e o resultado é um {@link Relatorio} escrito no ficheiro de saída pela ordem dos cenários no ficheiro
+ * de entrada.
+ * A concorrência é limitada: no máximo maxConcorrencia cenários estão em execução ou à espera de serem escritos,
+ * pelo que a memória utilizada não depende do número de cenários. No final é escrito um relatório de resumo com
+ * o débito total e os percentis das latências; cada relatório de cenário inclui a sua própria latência.
+ * @author Luis Matos
+ */
+public class ExecutorCenarios
+{
+    /**
+     * Resultado da execução de um cenário.
+     */
+    private static final class Execucao
+    {
+        private final Relatorio relatorio;
+        private final long latenciaNanos;
+        private final boolean erro;
+        
+        private Execucao(Relatorio relatorio, long latenciaNanos, boolean erro)
+        {
+            this.relatorio = relatorio;
+            this.latenciaNanos = latenciaNanos;
+            this.erro = erro;
+        }
+    }
+    
+    /**
+     * Executa todos os cenários de um ficheiro e escreve os relatórios num ficheiro de saída.
+     * @param entrada Ficheiro de definição dos cenários (UTF-8).
+     * @param saida Ficheiro de saída (criado ou substituído).
+     * @param formato Formato dos relatórios (em JSON, um objeto por linha).
+     * @param maxConcorrencia Número máximo de cenários em curso em simultâneo.
+     * @return Resumo da execução.
+     * @throws IOException Se não for possível ler a entrada ou escrever a saída.
+     */
+    public static ResumoLote executa(Path entrada, Path saida, EscritorRelatorios.Formato formato,
+            int maxConcorrencia) throws IOException
+    {
+        if (maxConcorrencia <= 0)
+        {
+            throw new IllegalArgumentException("A concorrência máxima tem de ser positiva");
+        }
+        
+        List<Long> latencias = new ArrayList<>();
+        int erros = 0;
+        long inicio = System.nanoTime();
+        try (BufferedReader leitor = Files.newBufferedReader(entrada, StandardCharsets.UTF_8);
+                Writer escritor = new BufferedWriter(Files.newBufferedWriter(saida, StandardCharsets.UTF_8), 1 << 16);
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            // Resultados pela ordem de entrada; a cabeça da fila é escrita assim que termina
+            ArrayDeque<Future<Execucao>> pendentes = new ArrayDeque<>();
+            String linha;
+            int numeroLinha = 0;
+            while ((linha = leitor.readLine()) != null)
+            {
+                numeroLinha++;
+                String definicao = linha.strip();
+                if (definicao.isEmpty() || definicao.startsWith("#"))
+                {
+                    continue;
+                }
+                
+                // Limita os cenários em curso: espera pelo mais antigo antes de submeter um novo
+                if (pendentes.size() >= maxConcorrencia)
+                {
+                    erros += escreve(pendentes.poll(), escritor, formato, latencias);
+                }
+                int linhaCenario = numeroLinha;
+                pendentes.add(executor.submit(() -> executaCenario(definicao, linhaCenario)));
+                while (!pendentes.isEmpty() && pendentes.peek().isDone())
+                {
+                    erros += escreve(pendentes.poll(), escritor, formato, latencias);
+                }
+            }
+            while (!pendentes.isEmpty())
+            {
+                erros += escreve(pendentes.poll(), escritor, formato, latencias);
+            }
+            
+            ResumoLote resumo = new ResumoLote(latencias.size(), erros, System.nanoTime() - inicio,
+                    latencias.stream().mapToLong(Long::longValue).toArray());
+            EscritorRelatorios.escreve(criaRelatorioResumo(resumo), formato, escritor);
+            return resumo;
+        }
+    }
+    
+    /**
+     * Executa um único cenário: validação, distribuição de assentos e análise.
+     * Os erros de definição ou de cálculo são reportados no relatório do cenário, sem interromper o lote.
+     * @param definicao Linha de definição do cenário.
+     * @param numeroLinha Número da linha no ficheiro de entrada.
+     * @return O resultado da execução.
+     */
+    private static Execucao executaCenario(String definicao, int numeroLinha)
+    {
+        long inicio = System.nanoTime();
+        Relatorio relatorio;
+        boolean erro = false;
+        try
+        {
+            Cenario cenario = interpretaCenario(definicao);
+            relatorio = analisaCenario(cenario);
+        }
+        catch (RuntimeException e)
+        {
+            relatorio = new Relatorio("ERRO NA LINHA " + numeroLinha);
+            relatorio.adicionaSeccao("ERRO").adicionaValor("Linha", numeroLinha)
+                    .adicionaValor("Mensagem", String.valueOf(e.getMessage()));
+            erro = true;
+        }
+        long latencia = System.nanoTime() - inicio;
+        relatorio.getSeccoes().get(0).adicionaValor("Latência (ms)", latencia / 1e6);
+        return new Execucao(relatorio, latencia, erro);
+    }
+    
+    /**
+     * Executa o fluxo de um cenário: valida e aplica as restrições eleitorais
+     * ({@link ValidadorEleicao#aplicaRestricoes}, com redistribuição proporcional), distribui os assentos (com e sem
+     * coligações) e constrói o relatório.
+     * @param cenario O cenário a executar.
+     * @return O relatório do cenário.
+     */
+    static Relatorio analisaCenario(Cenario cenario)
+    {
+        int totalVotos = cenario.getTotalVotos();
+        int limiteVotosMin = cenario.getLimiteVotosMin();
+        
+        // Validação: restrições eleitorais e partidos elegíveis com o limite do cenário
+        List<Partido> semColigacao = cenario.criaPartidosSemColigacao();
+        long cortadosSemColigacao = ValidadorEleicao.aplicaRestricoes(semColigacao, totalVotos, limiteVotosMin,
+                AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL).getVotosCortados();
+        int elegiveis = ValidadorEleicao.getPartidosElegiveis(semColigacao, limiteVotosMin).size();
+        
+        // Distribuição de assentos em ambos os cenários
+        CalculadoraDHondt.aplicaAlocacaoAssentos(CalculadoraDHondt.calculaDistribuicaoAssentos(semColigacao,
+                cenario.getAssentos(), limiteVotosMin));
+        List<Partido> comColigacao = semColigacao;
+        long cortadosComColigacao = cortadosSemColigacao;
+        if (cenario.temColigacoes())
+        {
+            comColigacao = cenario.criaPartidosComColigacao();
+            cortadosComColigacao = ValidadorEleicao.aplicaRestricoes(comColigacao, totalVotos, limiteVotosMin,
+                    AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL).getVotosCortados();
+            CalculadoraDHondt.aplicaAlocacaoAssentos(CalculadoraDHondt.calculaDistribuicaoAssentos(comColigacao,
+                    cenario.getAssentos(), limiteVotosMin));
+        }
+        
+        // Análise
+        Relatorio relatorio = new Relatorio(cenario.getNome());
+        relatorio.adicionaSeccao("CENÁRIO")
+                .adicionaValor("Assentos", cenario.getAssentos())
+                .adicionaValor("Votos", totalVotos)
+                .adicionaValor("Limite minímo (%)", cenario.getPercentagemLimiteMin())
+                .adicionaValor("Limite minímo (votos)", limiteVotosMin)
+                .adicionaValor("Partidos elegíveis", elegiveis)
+                .adicionaValor("Votos cortados (sem coligação)", cortadosSemColigacao)
+                .adicionaValor("Votos cortados (com coligação)", cortadosComColigacao);
+        if (cenario.temColigacoes())
+        {
+            GeradorRelatorios.adicionaResultados(relatorio, "RESULTADOS COM COLIGAÇÃO", comColigacao,
+                    cenario.getAssentos(), totalVotos);
+            GeradorRelatorios.adicionaResultados(relatorio, "RESULTADOS SEM COLIGAÇÃO", semColigacao,
+                    cenario.getAssentos(), totalVotos);
+            GeradorRelatorios.adicionaComparacao(relatorio, comColigacao, semColigacao, cenario.getAssentos(),
+                    totalVotos);
+        }
+        else
+        {
+            GeradorRelatorios.adicionaResultados(relatorio, "RESULTADOS", semColigacao, cenario.getAssentos(),
+                    totalVotos);
+        }
+        GeradorRelatorios.adicionaAfirmacoes(relatorio, comColigacao, cenario.getAssentos(), totalVotos,
+                limiteVotosMin);
+        return relatorio;
+    }
+    
+    /**
+     * Interpreta a linha de definição de um cenário.
+     * @param definicao Linha no formato nome;assentos;percentagem;PARTIDO=votos,...[;COLIGACAO=MEMBRO+MEMBRO,...]
+     * @return O cenário.
+     * @throws IllegalArgumentException Se a linha não respeitar o formato.
+     */
+    static Cenario interpretaCenario(String definicao)
+    {
+        String[] campos = definicao.split(";", -1);
+        if (campos.length < 4 || campos.length > 5)
+        {
+            throw new IllegalArgumentException("Esperados 4 ou 5 campos separados por ';', encontrados "
+                    + campos.length);
+        }
+        
+        String nome = campos[0].strip();
+        int assentos = Integer.parseInt(campos[1].strip());
+        double percentagemLimiteMin = Double.parseDouble(campos[2].strip());
+        
+        Map<String, Integer> votos = new LinkedHashMap<>();
+        for (String entrada : campos[3].split(","))
+        {
+            String[] partido = entrada.split("=");
+            if (partido.length != 2 || partido[0].isBlank())
+            {
+                throw new IllegalArgumentException("Partido inválido: '" + entrada.strip() + "'");
+            }
+            if (votos.put(partido[0].strip(), Integer.parseInt(partido[1].strip())) != null)
+            {
+                throw new IllegalArgumentException("Partido repetido: " + partido[0].strip());
+            }
+        }
+        
+        Map<String, List<String>> coligacoes = new LinkedHashMap<>();
+        if (campos.length == 5 && !campos[4].isBlank())
+        {
+            for (String entrada : campos[4].split(","))
+            {
+                String[] coligacao = entrada.split("=");
+                if (coligacao.length != 2 || coligacao[0].isBlank())
+                {
+                    throw new IllegalArgumentException("Coligação inválida: '" + entrada.strip() + "'");
+                }
+                coligacoes.put(coligacao[0].strip(),
+                        Arrays.stream(coligacao[1].split("\\+")).map(String::strip).toList());
+            }
+        }
+        return new Cenario(nome, assentos, percentagemLimiteMin, votos, coligacoes);
+    }
+    
+    /**
+     * Escreve o resultado de um cenário terminado (ou espera que termine).
+     * @return 1 se o cenário terminou com erro, 0 caso contrário.
+     */
+    private static int escreve(Future<Execucao> pendente, Writer escritor, EscritorRelatorios.Formato formato,
+            List<Long> latencias) throws IOException
+    {
+        Execucao execucao;
+        try
+        {
+            execucao = pendente.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Execução em lote interrompida", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Falha inesperada na execução de um cenário", e.getCause());
+        }
+        EscritorRelatorios.escreve(execucao.relatorio, formato, escritor);
+        if (formato != EscritorRelatorios.Formato.JSON)
+        {
+            escritor.write('\n'); // Separa os relatórios (em JSON, cada relatório ocupa uma linha)
+        }
+        latencias.add(execucao.latenciaNanos);
+        return execucao.erro ? 1 : 0;
+    }
+    
+    /**
+     * Cria o relatório de resumo da execução em lote.
+     * @param resumo O resumo da execução.
+     * @return O relatório de resumo.
+     */
+    private static Relatorio criaRelatorioResumo(ResumoLote resumo)
+    {
+        Relatorio relatorio = new Relatorio("RESUMO DA EXECUÇÃO EM LOTE");
+        relatorio.adicionaSeccao("DESEMPENHO")
+                .adicionaValor("Cenários", resumo.getCenarios())
+                .adicionaValor("Erros", resumo.getErros())
+                .adicionaValor("Duração (s)", resumo.getDuracaoSegundos())
+                .adicionaValor("Débito (cenários/s)", resumo.getDebito())
+                .adicionaValor("Latência p50 (ms)", resumo.getLatenciaPercentilMs(0.5))
+                .adicionaValor("Latência p95 (ms)", resumo.getLatenciaPercentilMs(0.95))
+                .adicionaValor("Latência p99 (ms)", resumo.getLatenciaPercentilMs(0.99))
+                .adicionaValor("Latência máxima (ms)", resumo.getLatenciaPercentilMs(1));
+        return relatorio;
+    }
+}
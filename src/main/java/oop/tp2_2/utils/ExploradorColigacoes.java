@@ -0,0 +1,293 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.ExploracaoColigacoes;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.ResultadoColigacao;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Explora exaustivamente todas as coligações possíveis entre os partidos de um cenário.
+ * Para cada subconjunto de dois ou mais partidos, os seus votos são somados numa única lista e a distribuição
+ * D'Hondt é refeita com o motor real; as coligações são ordenadas pelo ganho de assentos face à soma dos assentos
+ * dos membros a concorrer em separado (a alocação base, calculada uma única vez).
+ * Para acelerar a pesquisa sobre 2^P subconjuntos:
+ * - a alocação base e o último quociente vencedor são reutilizados por todas as coligações;
+ * - um majorante exato do ganho (votos da coligação / último quociente vencedor) permite descartar
+ *   coligações que não podem entrar no topo dos resultados, sem executar o método D'Hondt;
+ * - os subconjuntos são avaliados em paralelo (ForkJoin), cada tarefa com o seu próprio topo de resultados.
+ * @author Luis Matos
+ */
+public class ExploradorColigacoes
+{
+    // Número máximo de partidos suportado (2^30 subconjuntos)
+    private static final int MAX_PARTIDOS = 30;
+    // Número de subconjuntos avaliados sequencialmente por uma única tarefa
+    private static final int SUBCONJUNTOS_POR_TAREFA = 4096;
+    
+    /**
+     * Ordenação das coligações: maior ganho primeiro; desempate por mais assentos, menos membros e nome.
+     */
+    private static final Comparator<ResultadoColigacao> COMPARADOR_RESULTADOS =
+            Comparator.comparingInt(ResultadoColigacao::getGanho).reversed()
+                    .thenComparing(Comparator.comparingInt(ResultadoColigacao::getAssentosColigacao).reversed())
+                    .thenComparingInt(resultado -> resultado.getMembros().size())
+                    .thenComparing(resultado -> String.join("+", resultado.getMembros()));
+    
+    /**
+     * Dados da alocação base (todos os partidos em separado), partilhados apenas para leitura pelas tarefas.
+     */
+    private static final class AlocacaoBase
+    {
+        private final List<Partido> partidos;
+        private final long[] votos;
+        private final int[] assentos;
+        private final int assentosTotal;
+        private final long votosMargemMin;
+        private final long votosUltimoVencedor; // Último quociente vencedor = votosUltimoVencedor / divisorUltimoVencedor
+        private final long divisorUltimoVencedor;
+        private final int maxResultados;
+        
+        private AlocacaoBase(List<Partido> partidos, int assentosTotal, long votosMargemMin, int maxResultados)
+        {
+            this.partidos = partidos;
+            this.assentosTotal = assentosTotal;
+            this.votosMargemMin = votosMargemMin;
+            this.maxResultados = maxResultados;
+            this.votos = CalculadoraDHondt.extraiVotosLong(partidos);
+            this.assentos = CalculadoraDHondt.calculaDistribuicaoAssentosPorDivisor(votos, assentosTotal,
+                    votosMargemMin);
+            
+            // O último assento atribuído corresponde ao menor quociente votos / assentos entre os partidos com assentos
+            int ultimo = -1;
+            for (int i = 0; i < votos.length; i++)
+            {
+                if (assentos[i] > 0 && (ultimo < 0
+                        || MotorDHondt.comparaQuocientes(votos[i], assentos[i], votos[ultimo], assentos[ultimo]) > 0))
+                {
+                    ultimo = i;
+                }
+            }
+            this.votosUltimoVencedor = ultimo >= 0 ? votos[ultimo] : 0;
+            this.divisorUltimoVencedor = ultimo >= 0 ? assentos[ultimo] : 1;
+        }
+    }
+    
+    /**
+     * Resultado parcial de uma tarefa: os melhores resultados e as contagens dos subconjuntos percorridos.
+     */
+    private static final class Parcial
+    {
+        private final PriorityQueue<ResultadoColigacao> topo = new PriorityQueue<>(COMPARADOR_RESULTADOS.reversed());
+        private long avaliadas;
+        private long descartadas;
+    }
+    
+    /**
+     * Tarefa ForkJoin que avalia um intervalo de subconjuntos (representados por máscaras de bits).
+     */
+    private static final class TarefaExploracao extends RecursiveTask<Parcial>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient AlocacaoBase base;
+        private final long inicio;
+        private final long fim;
+        
+        private TarefaExploracao(AlocacaoBase base, long inicio, long fim)
+        {
+            this.base = base;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+        
+        @Override
+        protected Parcial compute()
+        {
+            if (fim - inicio <= SUBCONJUNTOS_POR_TAREFA)
+            {
+                return avaliaSubconjuntos();
+            }
+            long meio = (inicio + fim) >>> 1;
+            TarefaExploracao esquerda = new TarefaExploracao(base, inicio, meio);
+            esquerda.fork();
+            Parcial parcial = new TarefaExploracao(base, meio, fim).compute();
+            Parcial parcialEsquerda = esquerda.join();
+            for (ResultadoColigacao resultado : parcialEsquerda.topo)
+            {
+                adicionaAoTopo(parcial.topo, resultado, base.maxResultados);
+            }
+            parcial.avaliadas += parcialEsquerda.avaliadas;
+            parcial.descartadas += parcialEsquerda.descartadas;
+            return parcial;
+        }
+        
+        /**
+         * Avalia sequencialmente os subconjuntos desta tarefa, mantendo apenas os melhores resultados.
+         * @return Resultado parcial, com os melhores resultados numa fila (o pior no topo da fila).
+         */
+        private Parcial avaliaSubconjuntos()
+        {
+            Parcial parcial = new Parcial();
+            PriorityQueue<ResultadoColigacao> topo = parcial.topo;
+            int n = base.votos.length;
+            long[] votosReduzidos = new long[n];
+            int[] assentosReduzidos = new int[n];
+            MotorDHondt motor = MotorDHondt.instanciaLocal();
+            
+            for (long mascara = inicio; mascara < fim; mascara++)
+            {
+                if (Long.bitCount(mascara) < 2)
+                {
+                    continue; // Uma coligação tem pelo menos dois membros
+                }
+                
+                long votosColigacao = 0;
+                int assentosSeparados = 0;
+                for (int i = 0; i < n; i++)
+                {
+                    if ((mascara & (1L << i)) != 0)
+                    {
+                        votosColigacao += base.votos[i];
+                        assentosSeparados += base.assentos[i];
+                    }
+                }
+                
+                // Majorante exato do ganho: a coligação nunca obtém mais do que votos / último quociente vencedor
+                if (topo.size() >= base.maxResultados
+                        && majoranteGanho(votosColigacao, assentosSeparados) < topo.peek().getGanho())
+                {
+                    parcial.descartadas++;
+                    continue;
+                }
+                
+                parcial.avaliadas++;
+                int assentosColigacao = 0;
+                if (votosColigacao >= base.votosMargemMin)
+                {
+                    // A coligação ocupa a posição 0; os restantes partidos mantêm os seus votos
+                    int partidos = 1;
+                    votosReduzidos[0] = votosColigacao;
+                    for (int i = 0; i < n; i++)
+                    {
+                        if ((mascara & (1L << i)) == 0)
+                        {
+                            votosReduzidos[partidos++] = base.votos[i];
+                        }
+                    }
+                    motor.distribuiPorDivisor(votosReduzidos, partidos, base.assentosTotal, base.votosMargemMin,
+                            assentosReduzidos);
+                    assentosColigacao = assentosReduzidos[0];
+                }
+                
+                if (topo.size() < base.maxResultados
+                        || assentosColigacao - assentosSeparados >= topo.peek().getGanho())
+                {
+                    adicionaAoTopo(topo, new ResultadoColigacao(nomesMembros(mascara), votosColigacao,
+                            assentosColigacao, assentosSeparados), base.maxResultados);
+                }
+            }
+            return parcial;
+        }
+        
+        /**
+         * Calcula um majorante do ganho de uma coligação a partir do último quociente vencedor da alocação base.
+         * Se a coligação ganha assentos, algum partido perde um assento que tinha quociente >= ao último vencedor,
+         * logo todos os quocientes da coligação são >= a esse valor: assentos <= votos * divisor / votosVencedor.
+         * @param votosColigacao Total de votos da coligação.
+         * @param assentosSeparados Soma dos assentos dos membros na alocação base.
+         * @return O ganho máximo possível da coligação.
+         */
+        private long majoranteGanho(long votosColigacao, int assentosSeparados)
+        {
+            if (base.votosUltimoVencedor <= 0
+                    || Math.multiplyHigh(votosColigacao, base.divisorUltimoVencedor) != 0
+                    || votosColigacao * base.divisorUltimoVencedor < 0)
+            {
+                return Long.MAX_VALUE; // Sem majorante útil (nenhum assento atribuído ou valores demasiado grandes)
+            }
+            return votosColigacao * base.divisorUltimoVencedor / base.votosUltimoVencedor - assentosSeparados;
+        }
+        
+        /**
+         * Constrói a lista dos nomes dos membros de um subconjunto.
+         * @param mascara Máscara de bits do subconjunto.
+         * @return Lista dos nomes dos partidos do subconjunto.
+         */
+        private List<String> nomesMembros(long mascara)
+        {
+            List<String> membros = new ArrayList<>();
+            for (int i = 0; i < base.partidos.size(); i++)
+            {
+                if ((mascara & (1L << i)) != 0)
+                {
+                    membros.add(base.partidos.get(i).getNome());
+                }
+            }
+            return membros;
+        }
+    }
+    
+    /**
+     * Enumera todas as coligações possíveis entre os partidos e devolve as melhores, ordenadas pelo ganho de assentos.
+     * @param partidos Lista dos partidos participantes (a concorrer em separado).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param maxResultados Número máximo de coligações a devolver.
+     * @return Lista das melhores coligações, da mais vantajosa para a menos vantajosa.
+     */
+    public static List<ResultadoColigacao> exploraColigacoes(List<Partido> partidos, int assentosTotal,
+            int votosMargemMin, int maxResultados)
+    {
+        return explora(partidos, assentosTotal, votosMargemMin, maxResultados).getResultados();
+    }
+    
+    /**
+     * Enumera todas as coligações possíveis entre os partidos, devolvendo as melhores e as contagens da pesquisa.
+     * @param partidos Lista dos partidos participantes (a concorrer em separado).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param maxResultados Número máximo de coligações a devolver.
+     * @return As melhores coligações (da mais vantajosa para a menos vantajosa), o número de coligações avaliadas
+     *         e o número de coligações descartadas pelo majorante do ganho.
+     */
+    public static ExploracaoColigacoes explora(List<Partido> partidos, int assentosTotal, int votosMargemMin,
+            int maxResultados)
+    {
+        if (partidos.size() > MAX_PARTIDOS)
+        {
+            throw new IllegalArgumentException("Número máximo de partidos para exploração: " + MAX_PARTIDOS);
+        }
+        if (partidos.size() < 2 || maxResultados <= 0)
+        {
+            return new ExploracaoColigacoes(new ArrayList<>(), 0, 0);
+        }
+        
+        AlocacaoBase base = new AlocacaoBase(List.copyOf(partidos), assentosTotal, votosMargemMin, maxResultados);
+        Parcial parcial = ForkJoinPool.commonPool().invoke(new TarefaExploracao(base, 1, 1L << partidos.size()));
+        
+        List<ResultadoColigacao> resultados = new ArrayList<>(parcial.topo);
+        resultados.sort(COMPARADOR_RESULTADOS);
+        return new ExploracaoColigacoes(resultados, parcial.avaliadas, parcial.descartadas);
+    }
+    
+    /**
+     * Adiciona um resultado ao topo limitado, descartando o pior resultado se a capacidade for excedida.
+     * @param topo Fila com o pior resultado no topo.
+     * @param resultado O resultado a adicionar.
+     * @param maxResultados Capacidade máxima do topo.
+     */
+    private static void adicionaAoTopo(PriorityQueue<ResultadoColigacao> topo, ResultadoColigacao resultado,
+            int maxResultados)
+    {
+        topo.offer(resultado);
+        if (topo.size() > maxResultados)
+        {
+            topo.poll();
+        }
+    }
+}
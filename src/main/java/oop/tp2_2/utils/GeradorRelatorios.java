@@ -0,0 +1,451 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.ExploracaoColigacoes;
+import oop.tp2_2.models.FaixaLimite;
+import oop.tp2_2.models.MargemAssentos;
+import oop.tp2_2.models.MatrizTransferencias;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.Relatorio;
+import oop.tp2_2.models.ResultadoColigacao;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Constrói relatórios ({@link Relatorio}) com os mesmos conteúdos que o {@link AnalisadorEleicao} e o
+ * {@link ValidadorEleicao} mostram na consola: restrições eleitorais, resultados, comparação entre cenários
+ * e análise das afirmações-chave, bem como as análises complementares (exploração de coligações, comparação
+ * de métodos, margens, ordem de atribuição, varrimento de limites, dimensões do parlamento e transferências de
+ * votos). Os relatórios são apenas dados; a escrita é feita pelo {@link EscritorRelatorios}.
+ * Os métodos assumem que a alocação de assentos já foi aplicada aos partidos.
+ * @author Luis Matos
+ */
+public class GeradorRelatorios
+{
+    /**
+     * Cria o relatório completo da análise comparativa entre os cenários com e sem coligação.
+     * @param comPartidosColigados Lista dos partidos no cenário com coligação.
+     * @param semPartidosColigados Lista dos partidos no cenário sem coligação.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     * @return O relatório.
+     */
+    public static Relatorio criaRelatorioAnalise(List<Partido> comPartidosColigados,
+            List<Partido> semPartidosColigados, int totalAssentos, int totalVotos)
+    {
+        Relatorio relatorio = new Relatorio("ANÁLISE COMPARATIVA: CENÁRIO COM COLIGAÇÃO VS. SEM COLIGAÇÃO");
+        adicionaRestricoes(relatorio, comPartidosColigados, totalVotos);
+        adicionaResultados(relatorio, "RESULTADOS COM COLIGAÇÃO", comPartidosColigados, totalAssentos, totalVotos);
+        adicionaResultados(relatorio, "RESULTADOS SEM COLIGAÇÃO", semPartidosColigados, totalAssentos, totalVotos);
+        adicionaComparacao(relatorio, comPartidosColigados, semPartidosColigados, totalAssentos, totalVotos);
+        adicionaAfirmacoes(relatorio, comPartidosColigados, totalAssentos, totalVotos);
+        return relatorio;
+    }
+    
+    /**
+     * Adiciona a secção das restrições eleitorais: limites e os dois partidos mais votados.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos participantes.
+     * @param totalVotos Número total de votos lançados.
+     */
+    public static void adicionaRestricoes(Relatorio relatorio, List<Partido> partidos, int totalVotos)
+    {
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("RESTRIÇÕES ELEITORAIS")
+                .adicionaValor("Limite minímo (%)", ValidadorEleicao.PERCENTAGEM_LIMITE_MIN)
+                .adicionaValor("Limite minímo (votos)", ValidadorEleicao.calculaLimiteVotosMin(totalVotos))
+                .adicionaValor("Limite máximo (%)", ValidadorEleicao.PERCENTAGEM_LIMITE_MAX)
+                .adicionaValor("Limite máximo (votos)", ValidadorEleicao.calculaLimiteVotosMax(totalVotos))
+                .adicionaValor("Diferença máxima (%)", ValidadorEleicao.PERCENTAGEM_DIFERENCA_MAX)
+                .adicionaValor("Diferença máxima (votos)", ValidadorEleicao.calculaDiferencaMaxVotos(totalVotos));
+        
+        List<Partido> ordenaPorVotos = partidos.stream()
+                .sorted((p1, p2) -> Integer.compare(p2.getVotos(), p1.getVotos())).limit(2).toList();
+        seccao.defineColunas("Posição", "Partido", "Votos");
+        for (int i = 0; i < ordenaPorVotos.size(); i++)
+        {
+            seccao.adicionaLinha(i + 1, ordenaPorVotos.get(i).getNome(), ordenaPorVotos.get(i).getVotos());
+        }
+    }
+    
+    /**
+     * Adiciona a tabela de resultados de um cenário, com todos os partidos ordenados por assentos.
+     * @param relatorio O relatório a preencher.
+     * @param titulo Título da secção.
+     * @param partidos Lista dos partidos do cenário.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     */
+    public static void adicionaResultados(Relatorio relatorio, String titulo, List<Partido> partidos,
+            int totalAssentos, int totalVotos)
+    {
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao(titulo)
+                .adicionaValor("Assentos", totalAssentos)
+                .adicionaValor("Votos", totalVotos)
+                .defineColunas("Partido", "Votos", "% Votos", "Assentos", "% Assentos", "Votos/Assento");
+        
+        List<Partido> ordenaPorAssentos = partidos.stream()
+                .sorted((p1, p2) -> Integer.compare(p2.getAssentos(), p1.getAssentos())).toList();
+        for (Partido partido : ordenaPorAssentos)
+        {
+            seccao.adicionaLinha(partido.getNome(), partido.getVotos(), partido.getVotos() * 100.0 / totalVotos,
+                    partido.getAssentos(), partido.getAssentos() * 100.0 / totalAssentos,
+                    partido.getAssentos() > 0 ? (double) partido.getVotos() / partido.getAssentos() : 0.0);
+        }
+    }
+    
+    /**
+     * Adiciona a tabela comparativa entre os cenários com e sem coligação e o respetivo resumo.
+     * @param relatorio O relatório a preencher.
+     * @param comPartidosColigados Lista dos partidos no cenário com coligação.
+     * @param semPartidosColigados Lista dos partidos no cenário sem coligação.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     */
+    public static void adicionaComparacao(Relatorio relatorio, List<Partido> comPartidosColigados,
+            List<Partido> semPartidosColigados, int totalAssentos, int totalVotos)
+    {
+        Map<String, Integer> assentosColigacao = AnalisadorEleicao.criaMapaAssentos(comPartidosColigados);
+        Map<String, Integer> semAssentosColigacao = AnalisadorEleicao.criaMapaAssentos(semPartidosColigados);
+        Set<String> todosNomesPartidos = new TreeSet<>();
+        todosNomesPartidos.addAll(assentosColigacao.keySet());
+        todosNomesPartidos.addAll(semAssentosColigacao.keySet());
+        
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("COMPARAÇÃO DE RESULTADOS")
+                .defineColunas("Partido", "Com Coligação", "Sem Coligação", "Diferença");
+        int totalAssentosColigacao = 0;
+        int totalAssentosSemColigacao = 0;
+        for (String nomePartido : todosNomesPartidos)
+        {
+            int contagemAssentosColigacao = assentosColigacao.getOrDefault(nomePartido, 0);
+            int contagemAssentosSemColigacao = semAssentosColigacao.getOrDefault(nomePartido, 0);
+            totalAssentosColigacao += contagemAssentosColigacao;
+            totalAssentosSemColigacao += contagemAssentosSemColigacao;
+            seccao.adicionaLinha(nomePartido, contagemAssentosColigacao, contagemAssentosSemColigacao,
+                    contagemAssentosColigacao - contagemAssentosSemColigacao);
+        }
+        seccao.adicionaLinha("TOTAL", totalAssentosColigacao, totalAssentosSemColigacao,
+                totalAssentosColigacao - totalAssentosSemColigacao);
+        
+        seccao.adicionaValor("Número de partidos (com coligação)", comPartidosColigados.size())
+                .adicionaValor("Número de partidos (sem coligação)", semPartidosColigados.size())
+                .adicionaValor("Eficiência média (com coligação)",
+                        AnalisadorEleicao.calculaMediaEficiencia(comPartidosColigados, totalAssentos, totalVotos))
+                .adicionaValor("Eficiência média (sem coligação)",
+                        AnalisadorEleicao.calculaMediaEficiencia(semPartidosColigados, totalAssentos, totalVotos));
+        
+        // Vantagem real da coligação, a partir das contagens de assentos de ambos os cenários
+        String nomeColigacao = AnalisadorEleicao.encontraNomeColigacao(assentosColigacao, semAssentosColigacao);
+        if (nomeColigacao != null)
+        {
+            List<String> membrosColigacao = AnalisadorEleicao.obterMembrosColigacao(nomeColigacao,
+                    comPartidosColigados);
+            int contagemAssentosColigacao = assentosColigacao.getOrDefault(nomeColigacao, 0);
+            int totalAssentosIndividuais = membrosColigacao.stream()
+                    .mapToInt(membro -> semAssentosColigacao.getOrDefault(membro, 0)).sum();
+            seccao.adicionaValor("Coligação", nomeColigacao)
+                    .adicionaValor("Membros", String.join(" + ", membrosColigacao))
+                    .adicionaValor("Assentos da coligação", contagemAssentosColigacao)
+                    .adicionaValor("Assentos dos membros separados", totalAssentosIndividuais)
+                    .adicionaValor("Vantagem líquida da coligação",
+                            contagemAssentosColigacao - totalAssentosIndividuais);
+        }
+    }
+    
+    /**
+     * Adiciona a análise das afirmações-chave: vantagem da coligação (afirmação #1) e eficiência dos votos
+     * por partido (afirmação #2).
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos do cenário, inclusive coligações.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     */
+    public static void adicionaAfirmacoes(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int totalVotos)
+    {
+        adicionaAfirmacoes(relatorio, partidos, totalAssentos, totalVotos,
+                ValidadorEleicao.calculaLimiteVotosMin(totalVotos));
+    }
+    
+    /**
+     * Adiciona a análise das afirmações-chave com um limite minímo de votos explícito.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos do cenário, inclusive coligações.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     */
+    public static void adicionaAfirmacoes(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int totalVotos, int votosMargemMin)
+    {
+        Relatorio.Seccao coligacoes = relatorio.adicionaSeccao(
+                "AFIRMAÇÃO #1: 'É mais vantajoso para 2 partidos concorrerem coligados do que separados.'")
+                .defineColunas("Coligação", "Membros", "Votos", "Assentos", "Assentos Separados", "Vantagem");
+        for (Partido partido : partidos)
+        {
+            if (partido.eColigacao())
+            {
+                int assentosIndividual = AnalisadorEleicao.estimativaAssentosIndividual(partido, partidos,
+                        totalAssentos, votosMargemMin);
+                coligacoes.adicionaLinha(partido.getNome(), String.join(" + ", partido.getMembrosColigacao()),
+                        partido.getVotos(), partido.getAssentos(), assentosIndividual,
+                        partido.getAssentos() - assentosIndividual);
+            }
+        }
+        
+        Relatorio.Seccao eficiencia = relatorio.adicionaSeccao(
+                "AFIRMAÇÃO #2: 'O método D'Hondt favorece os partidos maiores'")
+                .defineColunas("Partido", "Votos", "Votos/Assento", "Taxa de Eficiência");
+        List<Partido> ordenaPorVotos = partidos.stream()
+                .sorted((p1, p2) -> Integer.compare(p2.getVotos(), p1.getVotos())).toList();
+        for (Partido partido : ordenaPorVotos)
+        {
+            if (partido.getAssentos() > 0)
+            {
+                eficiencia.adicionaLinha(partido.getNome(), partido.getVotos(),
+                        (double) partido.getVotos() / partido.getAssentos(),
+                        AnalisadorEleicao.calculaEficiencia(partido, totalAssentos, totalVotos));
+            }
+        }
+        eficiencia.adicionaNota("Menos votos/assento = maior eficiência de representação.")
+                .adicionaNota("Taxa de eficiência > 1.0 = Tratamento mais favorável.");
+    }
+    
+    /**
+     * Adiciona a exploração exaustiva de coligações: contagens de coligações possíveis, avaliadas e descartadas,
+     * e as coligações com maior ganho de assentos face aos membros separados.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista de todos os partidos, a concorrer em separado.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     * @param maxResultados Número máximo de coligações a incluir.
+     */
+    public static void adicionaExploracaoColigacoes(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin, int maxResultados)
+    {
+        ExploracaoColigacoes exploracao = ExploradorColigacoes.explora(partidos, totalAssentos, votosMargemMin,
+                maxResultados);
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("EXPLORAÇÃO EXAUSTIVA DE COLIGAÇÕES")
+                .adicionaValor("Coligações possíveis", exploracao.getPossiveis())
+                .adicionaValor("Coligações avaliadas", exploracao.getAvaliadas())
+                .adicionaValor("Coligações descartadas pelo majorante do ganho", exploracao.getDescartadas())
+                .defineColunas("Coligação", "Assentos", "Separados", "Ganho");
+        for (ResultadoColigacao resultado : exploracao.getResultados())
+        {
+            seccao.adicionaLinha(String.join("+", resultado.getMembros()), resultado.getAssentosColigacao(),
+                    resultado.getAssentosSeparados(), resultado.getGanho());
+        }
+    }
+    
+    /**
+     * Adiciona a distribuição de assentos de cada partido segundo cada método proporcional, uma coluna por método.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista de todos os partidos participantes.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     */
+    public static void adicionaComparacaoMetodos(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin)
+    {
+        Map<MetodoDistribuicao, Map<Partido, Integer>> distribuicoes = CalculadoraMetodos.calculaDistribuicoes(
+                partidos, totalAssentos, votosMargemMin, CalculadoraMetodos.METODOS);
+        
+        List<String> colunas = new ArrayList<>();
+        colunas.add("Partido");
+        for (MetodoDistribuicao metodo : distribuicoes.keySet())
+        {
+            colunas.add(metodo.getNome());
+        }
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("COMPARAÇÃO DE MÉTODOS DE DISTRIBUIÇÃO")
+                .defineColunas(colunas.toArray(new String[0]));
+        for (Partido partido : partidos)
+        {
+            List<Object> linha = new ArrayList<>();
+            linha.add(partido.getNome());
+            for (Map<Partido, Integer> distribuicao : distribuicoes.values())
+            {
+                linha.add(distribuicao.get(partido));
+            }
+            seccao.adicionaLinha(linha.toArray());
+        }
+    }
+    
+    /**
+     * Adiciona as margens de assentos D'Hondt: para cada partido, os votos que lhe faltam para ganhar mais um
+     * assento e os votos que pode perder sem perder nenhum assento ("-" quando não se aplica).
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista de todos os partidos participantes.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     */
+    public static void adicionaMargensAssentos(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin)
+    {
+        List<MargemAssentos> margens = CalculadoraSensibilidade.calculaMargens(partidos, totalAssentos,
+                votosMargemMin);
+        int[] assentos = margens.stream().mapToInt(MargemAssentos::getAssentos).toArray();
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("MARGENS DE ASSENTOS (SENSIBILIDADE AOS VOTOS)")
+                .adicionaValor("Último quociente vencedor",
+                        CalculadoraSensibilidade.ultimoQuocienteVencedor(partidos, assentos))
+                .adicionaValor("Primeiro quociente vencido",
+                        CalculadoraSensibilidade.primeiroQuocienteVencido(partidos, assentos, votosMargemMin))
+                .defineColunas("Partido", "Assentos", "Votos para +1 assento", "Votos que pode perder");
+        for (MargemAssentos margem : margens)
+        {
+            seccao.adicionaLinha(margem.getNome(), margem.getAssentos(),
+                    margem.isPodeGanhar() ? margem.getVotosParaGanhar() : "-",
+                    margem.getAssentos() > 0 ? margem.getVotosParaPerder() : "-");
+        }
+    }
+    
+    /**
+     * Adiciona a ordem de atribuição dos últimos assentos D'Hondt e, em nota, o primeiro quociente vencido.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     * @param ultimos Número de assentos finais a incluir.
+     */
+    public static void adicionaOrdemAssentos(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin, int ultimos)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        TracoAtribuicao traco = CalculadoraDHondt.calculaTraco(votos, totalAssentos, votosMargemMin);
+        
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao("ORDEM DE ATRIBUIÇÃO DOS ÚLTIMOS ASSENTOS")
+                .defineColunas("Assento", "Partido", "Assento do partido", "Quociente");
+        for (int assento = Math.max(1, traco.getUltimoAssento() - ultimos + 1); assento <= traco.getUltimoAssento();
+                assento++)
+        {
+            seccao.adicionaLinha(assento, partidos.get(traco.getVencedor(assento)).getNome(),
+                    traco.getDivisor(assento), traco.getQuociente(assento));
+        }
+        if (traco.getVencedorSeguinte() >= 0)
+        {
+            seccao.adicionaNota(String.format("Primeiro quociente vencido: %s (%dº assento) com %,.2f",
+                    partidos.get(traco.getVencedorSeguinte()).getNome(), traco.getDivisorSeguinte(),
+                    traco.getQuocienteSeguinte()));
+        }
+    }
+    
+    /**
+     * Adiciona a distribuição de assentos D'Hondt para todos os limites minímos entre 0% e uma percentagem máxima,
+     * uma linha por faixa de limites com a mesma distribuição. Os limites de votos de cada faixa são inclusivos
+     * e a percentagem é mostrada como "> x a <= y", já que um limite igual aos votos de um partido ainda o admite.
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param totalVotos Número total de votos lançados (base das percentagens).
+     * @param percentagemMax Maior percentagem de limite minímo a considerar.
+     */
+    public static void adicionaVarrimentoLimites(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int totalVotos, double percentagemMax)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        List<FaixaLimite> faixas = VarrimentoLimites.calcula(votos, totalAssentos, totalVotos, percentagemMax);
+        
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao(
+                String.format("ASSENTOS POR LIMITE MINÍMO (0%% A %.2f%%)", percentagemMax))
+                .defineColunas(colunasPartidos(partidos, "Limite (%)", "Votos de", "Votos até"));
+        for (FaixaLimite faixa : faixas)
+        {
+            // Limites de votos inclusivos: a faixa começa logo acima dos votos do partido excluído anteriormente
+            long votosInicio = faixa.getLimiteInicio();
+            long votosFim = faixa.getLimiteFim() - 1;
+            Object[] linha = new Object[partidos.size() + 3];
+            linha[0] = String.format("%s %.2f a <= %.2f", votosInicio == 0 ? ">=" : ">",
+                    votosInicio == 0 ? 0 : (votosInicio - 1) * 100.0 / totalVotos, votosFim * 100.0 / totalVotos);
+            linha[1] = votosInicio;
+            linha[2] = votosFim;
+            for (int i = 0; i < partidos.size(); i++)
+            {
+                linha[i + 3] = faixa.getAssentos(i);
+            }
+            seccao.adicionaLinha(linha);
+        }
+    }
+    
+    /**
+     * Adiciona a distribuição de assentos D'Hondt para várias dimensões do parlamento, calculadas numa única
+     * execução do método (ver {@link CalculadoraDHondt#calculaTabelaDimensoes}).
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos.
+     * @param dimensaoMin Menor dimensão a incluir.
+     * @param dimensaoMax Maior dimensão a incluir.
+     * @param passo Intervalo entre as dimensões incluídas.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     */
+    public static void adicionaDimensoesParlamento(Relatorio relatorio, List<Partido> partidos, int dimensaoMin,
+            int dimensaoMax, int passo, int votosMargemMin)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        TabelaDimensoes tabela = CalculadoraDHondt.calculaTabelaDimensoes(votos, dimensaoMax, votosMargemMin);
+        
+        Relatorio.Seccao seccao = relatorio.adicionaSeccao(String.format(
+                "ASSENTOS POR DIMENSÃO DO PARLAMENTO (%d A %d ASSENTOS)", dimensaoMin, dimensaoMax))
+                .defineColunas(colunasPartidos(partidos, "Assentos"));
+        for (int dimensao = dimensaoMin; dimensao <= tabela.getDimensaoMax(); dimensao += passo)
+        {
+            Object[] linha = new Object[partidos.size() + 1];
+            linha[0] = dimensao;
+            for (int i = 0; i < partidos.size(); i++)
+            {
+                linha[i + 1] = tabela.getAssentos(dimensao, i);
+            }
+            seccao.adicionaLinha(linha);
+        }
+    }
+    
+    /**
+     * Adiciona, para cada percentagem, uma secção com a matriz de variações de assentos quando essa percentagem
+     * dos votos de um partido (linha) passa para outro (coluna). Cada célula mostra a variação da origem e do
+     * destino, no formato "origem/destino".
+     * @param relatorio O relatório a preencher.
+     * @param partidos Lista dos partidos.
+     * @param totalAssentos Número total de assentos parlamentares.
+     * @param votosMargemMin Limite minímo de votos utilizado na distribuição de assentos.
+     * @param percentagens Percentagens dos votos da origem a transferir.
+     */
+    public static void adicionaTransferenciasVotos(Relatorio relatorio, List<Partido> partidos, int totalAssentos,
+            int votosMargemMin, double... percentagens)
+    {
+        long[] votos = CalculadoraDHondt.extraiVotosLong(partidos);
+        MatrizTransferencias matriz = CalculadoraTransferencias.calcula(votos, totalAssentos, votosMargemMin,
+                percentagens);
+        
+        String[] colunas = colunasPartidos(partidos, "Origem");
+        for (int p = 0; p < matriz.getNumeroPercentagens(); p++)
+        {
+            Relatorio.Seccao seccao = relatorio.adicionaSeccao(String.format(
+                    "TRANSFERÊNCIA DE %.1f%% DOS VOTOS (VARIAÇÃO DE ASSENTOS ORIGEM/DESTINO)",
+                    matriz.getPercentagem(p))).defineColunas(colunas);
+            for (int origem = 0; origem < partidos.size(); origem++)
+            {
+                Object[] linha = new Object[partidos.size() + 1];
+                linha[0] = partidos.get(origem).getNome();
+                for (int destino = 0; destino < partidos.size(); destino++)
+                {
+                    linha[destino + 1] = origem == destino ? "-" : String.format("%+d/%+d",
+                            matriz.getVariacaoOrigem(p, origem, destino),
+                            matriz.getVariacaoDestino(p, origem, destino));
+                }
+                seccao.adicionaLinha(linha);
+            }
+        }
+    }
+    
+    /**
+     * Cria os nomes das colunas de uma tabela com uma coluna por partido, precedidas das colunas indicadas.
+     */
+    private static String[] colunasPartidos(List<Partido> partidos, String... primeiras)
+    {
+        String[] colunas = Arrays.copyOf(primeiras, primeiras.length + partidos.size());
+        for (int i = 0; i < partidos.size(); i++)
+        {
+            colunas[primeiras.length + i] = partidos.get(i).getNome();
+        }
+        return colunas;
+    }
+}
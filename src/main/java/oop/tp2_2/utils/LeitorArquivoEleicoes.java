@@ -0,0 +1,307 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.EleicaoArquivada;
+import oop.tp2_2.models.FotografiaEleicao;
+import oop.tp2_2.models.ResultadoAlocacao;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Leitura de arquivos de eleições históricas escritos pelo {@link EscritorArquivoEleicoes} (ver o formato aí).
+ * O arquivo é mapeado em memória: só o dicionário de nomes é carregado na abertura, e cada eleição é
+ * descodificada diretamente dos bytes mapeados quando é pedida, pelo que é possível percorrer ou aceder
+ * diretamente a milhões de eleições sem as manter na heap. Os registos são mapeados em regiões de até 1 GB
+ * (um mapeamento está limitado a 2 GB), sem que nenhum registo fique dividido entre regiões.
+ * Os objetos desta classe podem ser partilhados por várias threads: a leitura usa apenas posições absolutas.
+ * @author Luis Matos
+ */
+public class LeitorArquivoEleicoes implements Closeable, Iterable<EleicaoArquivada>
+{
+    // Dimensão máxima de cada região mapeada
+    private static final long TAMANHO_REGIAO = 1L << 30;
+    
+    private final FileChannel canal;
+    private final int numeroEleicoes;
+    private final long posicaoDicionario;
+    private final MappedByteBuffer indice;
+    private final String[] nomes;
+    // Regiões mapeadas: primeiro registo e posição no ficheiro de cada região
+    private final int[] primeiroRegisto;
+    private final long[] inicioRegiao;
+    private final MappedByteBuffer[] regioes;
+    
+    /**
+     * Abre um arquivo para leitura.
+     * @param ficheiro Caminho do arquivo.
+     * @throws IOException Se o ficheiro não puder ser lido ou não for um arquivo de eleições válido.
+     */
+    public LeitorArquivoEleicoes(Path ficheiro) throws IOException
+    {
+        this.canal = FileChannel.open(ficheiro, StandardOpenOption.READ);
+        try
+        {
+            long tamanho = canal.size();
+            if (tamanho < EscritorArquivoEleicoes.TAMANHO_CABECALHO)
+            {
+                throw new IOException("Arquivo de eleições inválido: " + ficheiro);
+            }
+            MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+                    EscritorArquivoEleicoes.TAMANHO_CABECALHO);
+            int numero = cabecalho.getInt(8);
+            long dicionario = cabecalho.getLong(12);
+            long posicaoIndice = cabecalho.getLong(20);
+            if (cabecalho.getInt(0) != EscritorArquivoEleicoes.MAGIA
+                    || cabecalho.getInt(4) != EscritorArquivoEleicoes.VERSAO
+                    || numero < 0 || numero > Integer.MAX_VALUE / Long.BYTES
+                    || dicionario < EscritorArquivoEleicoes.TAMANHO_CABECALHO || posicaoIndice < dicionario
+                    || posicaoIndice + (long) numero * Long.BYTES != tamanho
+                    || posicaoIndice - dicionario > Integer.MAX_VALUE)
+            {
+                throw new IOException("Arquivo de eleições inválido ou incompleto: " + ficheiro);
+            }
+            this.numeroEleicoes = numero;
+            this.posicaoDicionario = dicionario;
+            this.indice = canal.map(FileChannel.MapMode.READ_ONLY, posicaoIndice, (long) numero * Long.BYTES);
+            
+            Cursor cursor = new Cursor(canal.map(FileChannel.MapMode.READ_ONLY, dicionario,
+                    posicaoIndice - dicionario), 0);
+            this.nomes = new String[(int) cursor.leVarint()];
+            for (int i = 0; i < nomes.length; i++)
+            {
+                nomes[i] = cursor.leTexto();
+            }
+            
+            // Divide os registos em regiões, sem dividir nenhum registo
+            List<MappedByteBuffer> mapas = new ArrayList<>();
+            int[] primeiros = new int[16];
+            long[] inicios = new long[16];
+            for (int i = 0; i < numero; )
+            {
+                long inicio = posicaoRegisto(i);
+                int j = i;
+                while (j < numero && posicaoRegisto(j + 1) - inicio <= TAMANHO_REGIAO)
+                {
+                    j++;
+                }
+                if (j == i)
+                {
+                    throw new IOException("Registo demasiado grande no arquivo: " + ficheiro);
+                }
+                if (mapas.size() == primeiros.length)
+                {
+                    primeiros = Arrays.copyOf(primeiros, mapas.size() * 2);
+                    inicios = Arrays.copyOf(inicios, mapas.size() * 2);
+                }
+                primeiros[mapas.size()] = i;
+                inicios[mapas.size()] = inicio;
+                mapas.add(canal.map(FileChannel.MapMode.READ_ONLY, inicio, posicaoRegisto(j) - inicio));
+                i = j;
+            }
+            this.primeiroRegisto = Arrays.copyOf(primeiros, mapas.size());
+            this.inicioRegiao = Arrays.copyOf(inicios, mapas.size());
+            this.regioes = mapas.toArray(new MappedByteBuffer[0]);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            canal.close();
+            throw e;
+        }
+    }
+    
+    // Getters
+    public int getNumeroEleicoes()
+    {
+        return numeroEleicoes;
+    }
+    
+    /**
+     * Lê apenas o nome de uma eleição, sem descodificar o resto do registo.
+     * @param eleicao Índice da eleição, entre 0 e getNumeroEleicoes() - 1.
+     * @return O nome da eleição.
+     */
+    public String getNome(int eleicao)
+    {
+        return cursor(eleicao).leTexto();
+    }
+    
+    /**
+     * Lê uma eleição (acesso direto).
+     * @param eleicao Índice da eleição, entre 0 e getNumeroEleicoes() - 1.
+     * @return A eleição, com a fotografia e os resultados.
+     */
+    public EleicaoArquivada le(int eleicao)
+    {
+        Cursor cursor = cursor(eleicao);
+        String nome = cursor.leTexto();
+        
+        int partidos = (int) cursor.leVarint();
+        List<String> nomesPartidos = new ArrayList<>(partidos);
+        for (int i = 0; i < partidos; i++)
+        {
+            nomesPartidos.add(nomes[(int) cursor.leVarint()]);
+        }
+        long[] votos = new long[partidos];
+        long anterior = 0;
+        for (int i = 0; i < partidos; i++)
+        {
+            long zigzag = cursor.leVarint();
+            anterior += (zigzag >>> 1) ^ -(zigzag & 1);
+            votos[i] = anterior;
+        }
+        
+        int numeroColigacoes = (int) cursor.leVarint();
+        Map<String, List<String>> coligacoes = new LinkedHashMap<>();
+        for (int c = 0; c < numeroColigacoes; c++)
+        {
+            String nomeColigacao = nomes[(int) cursor.leVarint()];
+            int numeroMembros = (int) cursor.leVarint();
+            List<String> membros = new ArrayList<>(numeroMembros);
+            for (int m = 0; m < numeroMembros; m++)
+            {
+                membros.add(nomesPartidos.get((int) cursor.leVarint()));
+            }
+            coligacoes.put(nomeColigacao, membros);
+        }
+        FotografiaEleicao fotografia = new FotografiaEleicao(nomesPartidos, votos, coligacoes);
+        
+        int numeroResultados = (int) cursor.leVarint();
+        List<ResultadoAlocacao> resultados = new ArrayList<>(numeroResultados);
+        for (int r = 0; r < numeroResultados; r++)
+        {
+            boolean comColigacoes = cursor.leByte() != 0;
+            String metodo = nomes[(int) cursor.leVarint()];
+            int assentosTotal = (int) cursor.leVarint();
+            long votosMargemMin = cursor.leVarint();
+            int[] assentos = new int[fotografia.getNumeroConcorrentes(comColigacoes)];
+            for (int i = 0; i < assentos.length; i++)
+            {
+                assentos[i] = (int) cursor.leVarint();
+            }
+            resultados.add(new ResultadoAlocacao(fotografia, comColigacoes, metodo, assentosTotal, votosMargemMin,
+                    assentos));
+        }
+        return new EleicaoArquivada(nome, fotografia, resultados);
+    }
+    
+    /**
+     * Percorre as eleições pela ordem do arquivo, descodificando uma de cada vez.
+     * @return Iterador das eleições.
+     */
+    @Override
+    public Iterator<EleicaoArquivada> iterator()
+    {
+        return new Iterator<>()
+        {
+            private int proxima;
+            
+            @Override
+            public boolean hasNext()
+            {
+                return proxima < numeroEleicoes;
+            }
+            
+            @Override
+            public EleicaoArquivada next()
+            {
+                if (proxima >= numeroEleicoes)
+                {
+                    throw new NoSuchElementException();
+                }
+                return le(proxima++);
+            }
+        };
+    }
+    
+    /**
+     * Fecha o ficheiro. As regiões mapeadas são libertadas quando deixarem de ser referenciadas.
+     * @throws IOException Se o fecho falhar.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        canal.close();
+    }
+    
+    /**
+     * Retorna a posição no ficheiro do registo de uma eleição; a posição do registo seguinte à última eleição
+     * é o início do dicionário.
+     */
+    private long posicaoRegisto(int eleicao)
+    {
+        return eleicao == numeroEleicoes ? posicaoDicionario : indice.getLong(eleicao * Long.BYTES);
+    }
+    
+    /**
+     * Cria um cursor posicionado no início do registo de uma eleição.
+     */
+    private Cursor cursor(int eleicao)
+    {
+        if (eleicao < 0 || eleicao >= numeroEleicoes)
+        {
+            throw new IndexOutOfBoundsException("Eleição inexistente: " + eleicao);
+        }
+        int regiao = Arrays.binarySearch(primeiroRegisto, eleicao);
+        if (regiao < 0)
+        {
+            regiao = -regiao - 2;
+        }
+        return new Cursor(regioes[regiao], (int) (posicaoRegisto(eleicao) - inicioRegiao[regiao]));
+    }
+    
+    /**
+     * Posição de leitura sobre uma região mapeada; usa apenas leituras absolutas, pelo que vários cursores podem
+     * ler a mesma região em simultâneo.
+     */
+    private static final class Cursor
+    {
+        private final MappedByteBuffer buffer;
+        private int posicao;
+        
+        private Cursor(MappedByteBuffer buffer, int posicao)
+        {
+            this.buffer = buffer;
+            this.posicao = posicao;
+        }
+        
+        private int leByte()
+        {
+            return buffer.get(posicao++);
+        }
+        
+        private long leVarint()
+        {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < 64; deslocamento += 7)
+            {
+                byte b = buffer.get(posicao++);
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if (b >= 0)
+                {
+                    return valor;
+                }
+            }
+            throw new IllegalStateException("Arquivo de eleições corrompido na posição " + posicao);
+        }
+        
+        private String leTexto()
+        {
+            int comprimento = (int) leVarint();
+            byte[] bytes = new byte[comprimento];
+            buffer.get(posicao, bytes);
+            posicao += comprimento;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
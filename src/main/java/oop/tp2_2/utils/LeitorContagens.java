@@ -0,0 +1,531 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.ContagemVotos;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Leitura de ficheiros de contagens de votos (uma linha por mesa de voto e por partido), de qualquer dimensão.
+ * O ficheiro é mapeado em memória por blocos e os campos são lidos diretamente dos bytes, sem criar uma String
+ * por campo: os nomes dos círculos e partidos são resolvidos por dicionários de bytes (apenas os nomes novos
+ * são convertidos em String) e os votos são somados em contadores primitivos.
+ * Os blocos são processados em paralelo (ForkJoin) e os resultados parciais somados no fim. A memória ocupada
+ * depende apenas do número de círculos e partidos, não da dimensão do ficheiro.
+ * São suportados ficheiros delimitados (CSV sem aspas) e ficheiros de largura fixa, codificados em UTF-8.
+ * @author Luis Matos
+ */
+public class LeitorContagens
+{
+    // Dimensão de cada bloco processado por uma tarefa
+    private static final long TAMANHO_BLOCO = 32L << 20;
+    // Margem mapeada para lá do fim do bloco, para concluir a última linha que nele começa
+    private static final int MARGEM_LINHA = 64 << 10;
+    // Nome do círculo utilizado quando o ficheiro não tem coluna de círculo
+    private static final String CIRCULO_UNICO = "Nacional";
+    
+    /**
+     * Descrição imutável do formato das linhas do ficheiro.
+     */
+    public static final class Formato
+    {
+        private final boolean larguraFixa;
+        private final byte separador;
+        private final boolean cabecalho;
+        // Delimitado: índices das colunas; largura fixa: posição inicial e comprimento de cada campo
+        private final int[] circulo;
+        private final int[] partido;
+        private final int[] votos;
+        
+        private Formato(boolean larguraFixa, byte separador, boolean cabecalho, int[] circulo, int[] partido,
+                int[] votos)
+        {
+            this.larguraFixa = larguraFixa;
+            this.separador = separador;
+            this.cabecalho = cabecalho;
+            this.circulo = circulo;
+            this.partido = partido;
+            this.votos = votos;
+        }
+        
+        /**
+         * Cria o formato de um ficheiro delimitado (p.ex. CSV).
+         * @param separador Carácter separador dos campos (p.ex. ',' ou ';').
+         * @param colunaCirculo Índice da coluna do círculo eleitoral, ou -1 se não existir.
+         * @param colunaPartido Índice da coluna do partido.
+         * @param colunaVotos Índice da coluna dos votos.
+         * @param cabecalho Indica se a primeira linha é um cabeçalho a ignorar.
+         * @return O formato descrito.
+         */
+        public static Formato delimitado(char separador, int colunaCirculo, int colunaPartido, int colunaVotos,
+                boolean cabecalho)
+        {
+            return new Formato(false, (byte) separador, cabecalho, new int[] {colunaCirculo},
+                    new int[] {colunaPartido}, new int[] {colunaVotos});
+        }
+        
+        /**
+         * Cria o formato de um ficheiro de largura fixa (os campos são aparados de espaços).
+         * @param inicioCirculo Posição inicial do campo do círculo eleitoral.
+         * @param comprimentoCirculo Comprimento do campo do círculo, ou 0 se não existir.
+         * @param inicioPartido Posição inicial do campo do partido.
+         * @param comprimentoPartido Comprimento do campo do partido.
+         * @param inicioVotos Posição inicial do campo dos votos.
+         * @param comprimentoVotos Comprimento do campo dos votos.
+         * @return O formato descrito.
+         */
+        public static Formato larguraFixa(int inicioCirculo, int comprimentoCirculo, int inicioPartido,
+                int comprimentoPartido, int inicioVotos, int comprimentoVotos)
+        {
+            return new Formato(true, (byte) 0, false, new int[] {inicioCirculo, comprimentoCirculo},
+                    new int[] {inicioPartido, comprimentoPartido}, new int[] {inicioVotos, comprimentoVotos});
+        }
+        
+        private boolean temCirculo()
+        {
+            return larguraFixa ? circulo[1] > 0 : circulo[0] >= 0;
+        }
+    }
+    
+    /**
+     * Dicionário de nomes indexado diretamente por sequências de bytes (tabela de dispersão com endereçamento
+     * aberto). Apenas cria um objeto quando encontra um nome novo.
+     */
+    private static final class Dicionario
+    {
+        private int[] tabela = new int[64]; // id + 1, ou 0 se vazio
+        private byte[][] chaves = new byte[16][];
+        private int[] dispersoes = new int[16];
+        private int tamanho;
+        
+        /**
+         * Procura (ou insere) o nome contido nos bytes [inicio, fim) do buffer.
+         * @return O identificador do nome.
+         */
+        private int procura(MappedByteBuffer buffer, int inicio, int fim)
+        {
+            int dispersao = 1;
+            for (int i = inicio; i < fim; i++)
+            {
+                dispersao = 31 * dispersao + buffer.get(i);
+            }
+            int mascara = tabela.length - 1;
+            for (int posicao = mistura(dispersao) & mascara; ; posicao = (posicao + 1) & mascara)
+            {
+                int entrada = tabela[posicao];
+                if (entrada == 0)
+                {
+                    byte[] chave = new byte[fim - inicio];
+                    buffer.get(inicio, chave);
+                    return insere(chave, dispersao, posicao);
+                }
+                if (dispersoes[entrada - 1] == dispersao && iguais(chaves[entrada - 1], buffer, inicio, fim))
+                {
+                    return entrada - 1;
+                }
+            }
+        }
+        
+        /**
+         * Procura (ou insere) um nome já convertido em bytes, utilizado na junção de resultados parciais.
+         * @return O identificador do nome.
+         */
+        private int procura(byte[] chave)
+        {
+            int dispersao = 1;
+            for (byte b : chave)
+            {
+                dispersao = 31 * dispersao + b;
+            }
+            int mascara = tabela.length - 1;
+            for (int posicao = mistura(dispersao) & mascara; ; posicao = (posicao + 1) & mascara)
+            {
+                int entrada = tabela[posicao];
+                if (entrada == 0)
+                {
+                    return insere(chave, dispersao, posicao);
+                }
+                if (dispersoes[entrada - 1] == dispersao && Arrays.equals(chaves[entrada - 1], chave))
+                {
+                    return entrada - 1;
+                }
+            }
+        }
+        
+        private int insere(byte[] chave, int dispersao, int posicao)
+        {
+            if (tamanho == chaves.length)
+            {
+                chaves = Arrays.copyOf(chaves, tamanho * 2);
+                dispersoes = Arrays.copyOf(dispersoes, tamanho * 2);
+            }
+            chaves[tamanho] = chave;
+            dispersoes[tamanho] = dispersao;
+            tabela[posicao] = ++tamanho;
+            if (tamanho * 2 > tabela.length)
+            {
+                redimensiona();
+            }
+            return tamanho - 1;
+        }
+        
+        private void redimensiona()
+        {
+            tabela = new int[tabela.length * 2];
+            int mascara = tabela.length - 1;
+            for (int id = 0; id < tamanho; id++)
+            {
+                int posicao = mistura(dispersoes[id]) & mascara;
+                while (tabela[posicao] != 0)
+                {
+                    posicao = (posicao + 1) & mascara;
+                }
+                tabela[posicao] = id + 1;
+            }
+        }
+        
+        private static int mistura(int dispersao)
+        {
+            return dispersao ^ (dispersao >>> 16);
+        }
+        
+        private static boolean iguais(byte[] chave, MappedByteBuffer buffer, int inicio, int fim)
+        {
+            if (chave.length != fim - inicio)
+            {
+                return false;
+            }
+            for (int i = 0; i < chave.length; i++)
+            {
+                if (chave[i] != buffer.get(inicio + i))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Resultado parcial de um ou mais blocos: dicionários e contadores de votos por círculo e partido.
+     */
+    private static final class Parcial
+    {
+        private final Dicionario circulos = new Dicionario();
+        private final Dicionario partidos = new Dicionario();
+        private long[][] votos = new long[4][]; // [circulo][partido]
+        private long linhas;
+        
+        private Parcial(boolean temCirculo)
+        {
+            if (!temCirculo)
+            {
+                circulos.procura(new byte[0]); // Círculo único, com identificador 0
+            }
+        }
+        
+        private void adiciona(int circulo, int partido, long quantidade)
+        {
+            if (circulo >= votos.length)
+            {
+                votos = Arrays.copyOf(votos, Math.max(circulo + 1, votos.length * 2));
+            }
+            if (votos[circulo] == null)
+            {
+                votos[circulo] = new long[Math.max(8, partido + 1)];
+            }
+            else if (partido >= votos[circulo].length)
+            {
+                votos[circulo] = Arrays.copyOf(votos[circulo], Math.max(partido + 1, votos[circulo].length * 2));
+            }
+            votos[circulo][partido] += quantidade;
+        }
+        
+        /**
+         * Soma outro resultado parcial a este, resolvendo os nomes pelos dicionários.
+         * @param outro Resultado parcial de blocos posteriores do ficheiro.
+         */
+        private void adiciona(Parcial outro)
+        {
+            int[] mapaPartidos = new int[outro.partidos.tamanho];
+            for (int id = 0; id < mapaPartidos.length; id++)
+            {
+                mapaPartidos[id] = partidos.procura(outro.partidos.chaves[id]);
+            }
+            for (int circuloOutro = 0; circuloOutro < outro.circulos.tamanho; circuloOutro++)
+            {
+                int circulo = circulos.procura(outro.circulos.chaves[circuloOutro]);
+                long[] votosOutro = circuloOutro < outro.votos.length ? outro.votos[circuloOutro] : null;
+                for (int partido = 0; votosOutro != null && partido < votosOutro.length; partido++)
+                {
+                    if (partido < mapaPartidos.length)
+                    {
+                        adiciona(circulo, mapaPartidos[partido], votosOutro[partido]);
+                    }
+                }
+            }
+            linhas += outro.linhas;
+        }
+    }
+    
+    /**
+     * Tarefa ForkJoin que processa um intervalo de blocos do ficheiro.
+     */
+    private static final class TarefaLeitura extends RecursiveTask<Parcial>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient FileChannel canal;
+        private final long tamanhoFicheiro;
+        private final transient Formato formato;
+        private final long primeiroBloco;
+        private final long ultimoBloco; // exclusivo
+        
+        private TarefaLeitura(FileChannel canal, long tamanhoFicheiro, Formato formato, long primeiroBloco,
+                long ultimoBloco)
+        {
+            this.canal = canal;
+            this.tamanhoFicheiro = tamanhoFicheiro;
+            this.formato = formato;
+            this.primeiroBloco = primeiroBloco;
+            this.ultimoBloco = ultimoBloco;
+        }
+        
+        @Override
+        protected Parcial compute()
+        {
+            if (ultimoBloco - primeiroBloco == 1)
+            {
+                try
+                {
+                    return leBloco(primeiroBloco * TAMANHO_BLOCO,
+                            Math.min(tamanhoFicheiro, (primeiroBloco + 1) * TAMANHO_BLOCO));
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            long meio = (primeiroBloco + ultimoBloco) >>> 1;
+            TarefaLeitura esquerda = new TarefaLeitura(canal, tamanhoFicheiro, formato, primeiroBloco, meio);
+            TarefaLeitura direita = new TarefaLeitura(canal, tamanhoFicheiro, formato, meio, ultimoBloco);
+            direita.fork();
+            Parcial resultado = esquerda.compute();
+            resultado.adiciona(direita.join()); // Mantém a ordem de aparecimento dos nomes no ficheiro
+            return resultado;
+        }
+        
+        /**
+         * Processa as linhas que começam no intervalo [inicio, fim) do ficheiro.
+         */
+        private Parcial leBloco(long inicio, long fim) throws IOException
+        {
+            long baseMapa = Math.max(0, inicio - 1);
+            long fimMapa = Math.min(tamanhoFicheiro, fim + MARGEM_LINHA);
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, baseMapa, fimMapa - baseMapa);
+            int limite = (int) (fimMapa - baseMapa);
+            int fimBloco = (int) (fim - baseMapa);
+            Parcial parcial = new Parcial(formato.temCirculo());
+            
+            // Uma linha pertence ao bloco onde começa
+            int posicao = (int) (inicio - baseMapa);
+            if (inicio > 0 && buffer.get(posicao - 1) != '\n')
+            {
+                posicao = procuraFimLinha(buffer, posicao, limite) + 1;
+            }
+            boolean ignoraLinha = inicio == 0 && formato.cabecalho;
+            
+            int[] campos = new int[6];
+            while (posicao < fimBloco)
+            {
+                int fimLinha = procuraFimLinha(buffer, posicao, limite);
+                if (fimLinha == limite && fimMapa < tamanhoFicheiro)
+                {
+                    throw new IllegalStateException("Linha demasiado longa na posição " + (baseMapa + posicao));
+                }
+                int fimConteudo = fimLinha > posicao && buffer.get(fimLinha - 1) == '\r' ? fimLinha - 1 : fimLinha;
+                if (!ignoraLinha && fimConteudo > posicao)
+                {
+                    localizaCampos(buffer, posicao, fimConteudo, campos);
+                    int circulo = formato.temCirculo() ? parcial.circulos.procura(buffer, campos[0], campos[1])
+                            : 0;
+                    int partido = parcial.partidos.procura(buffer, campos[2], campos[3]);
+                    parcial.adiciona(circulo, partido, leNumero(buffer, campos[4], campos[5], baseMapa));
+                    parcial.linhas++;
+                }
+                ignoraLinha = false;
+                posicao = fimLinha + 1;
+            }
+            return parcial;
+        }
+        
+        /**
+         * Localiza os campos do círculo, partido e votos numa linha, já aparados de espaços.
+         * @param campos Vetor onde escrever os pares [inicio, fim) de cada campo.
+         */
+        private void localizaCampos(MappedByteBuffer buffer, int inicio, int fim, int[] campos)
+        {
+            Arrays.fill(campos, inicio);
+            if (formato.larguraFixa)
+            {
+                delimitaFixo(formato.circulo, inicio, fim, campos, 0);
+                delimitaFixo(formato.partido, inicio, fim, campos, 2);
+                delimitaFixo(formato.votos, inicio, fim, campos, 4);
+            }
+            else
+            {
+                int coluna = 0;
+                int inicioCampo = inicio;
+                for (int i = inicio; i <= fim; i++)
+                {
+                    if (i == fim || buffer.get(i) == formato.separador)
+                    {
+                        if (coluna == formato.circulo[0])
+                        {
+                            campos[0] = inicioCampo;
+                            campos[1] = i;
+                        }
+                        if (coluna == formato.partido[0])
+                        {
+                            campos[2] = inicioCampo;
+                            campos[3] = i;
+                        }
+                        if (coluna == formato.votos[0])
+                        {
+                            campos[4] = inicioCampo;
+                            campos[5] = i;
+                        }
+                        coluna++;
+                        inicioCampo = i + 1;
+                    }
+                }
+            }
+            for (int campo = 0; campo < campos.length; campo += 2)
+            {
+                while (campos[campo] < campos[campo + 1] && buffer.get(campos[campo]) == ' ')
+                {
+                    campos[campo]++;
+                }
+                while (campos[campo + 1] > campos[campo] && buffer.get(campos[campo + 1] - 1) == ' ')
+                {
+                    campos[campo + 1]--;
+                }
+            }
+        }
+        
+        private static void delimitaFixo(int[] posicaoCampo, int inicio, int fim, int[] campos, int indice)
+        {
+            campos[indice] = Math.min(fim, inicio + posicaoCampo[0]);
+            campos[indice + 1] = Math.min(fim, inicio + posicaoCampo[0] + posicaoCampo[1]);
+        }
+        
+        private static int procuraFimLinha(MappedByteBuffer buffer, int posicao, int limite)
+        {
+            while (posicao < limite && buffer.get(posicao) != '\n')
+            {
+                posicao++;
+            }
+            return posicao;
+        }
+        
+        /**
+         * Converte os dígitos ASCII [inicio, fim) num número, sem criar objetos.
+         */
+        private static long leNumero(MappedByteBuffer buffer, int inicio, int fim, long baseMapa)
+        {
+            if (inicio == fim)
+            {
+                throw new IllegalArgumentException("Campo de votos vazio na posição " + (baseMapa + inicio));
+            }
+            long valor = 0;
+            for (int i = inicio; i < fim; i++)
+            {
+                int digito = buffer.get(i) - '0';
+                if (digito < 0 || digito > 9)
+                {
+                    throw new IllegalArgumentException("Número de votos inválido na posição " + (baseMapa + i));
+                }
+                valor = valor * 10 + digito;
+            }
+            return valor;
+        }
+    }
+    
+    /**
+     * Lê e agrega um ficheiro de contagens por círculo eleitoral e por partido.
+     * @param ficheiro Caminho do ficheiro.
+     * @param formato Formato das linhas do ficheiro.
+     * @return Os totais de votos por círculo e partido.
+     * @throws IOException Se o ficheiro não puder ser lido.
+     */
+    public static ContagemVotos le(Path ficheiro, Formato formato) throws IOException
+    {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ))
+        {
+            long tamanho = canal.size();
+            Parcial parcial;
+            if (tamanho == 0)
+            {
+                parcial = new Parcial(formato.temCirculo());
+            }
+            else
+            {
+                long blocos = (tamanho + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+                try
+                {
+                    parcial = ForkJoinPool.commonPool().invoke(new TarefaLeitura(canal, tamanho, formato, 0, blocos));
+                }
+                catch (UncheckedIOException e)
+                {
+                    throw e.getCause();
+                }
+            }
+            return criaContagem(parcial, formato);
+        }
+    }
+    
+    /**
+     * Converte o resultado parcial final no modelo de contagem de votos.
+     */
+    private static ContagemVotos criaContagem(Parcial parcial, Formato formato)
+    {
+        List<String> circulos = new ArrayList<>();
+        if (formato.temCirculo())
+        {
+            for (int id = 0; id < parcial.circulos.tamanho; id++)
+            {
+                circulos.add(new String(parcial.circulos.chaves[id], StandardCharsets.UTF_8));
+            }
+        }
+        else
+        {
+            circulos.add(CIRCULO_UNICO);
+        }
+        List<String> partidos = new ArrayList<>();
+        for (int id = 0; id < parcial.partidos.tamanho; id++)
+        {
+            partidos.add(new String(parcial.partidos.chaves[id], StandardCharsets.UTF_8));
+        }
+        
+        long[] votos = new long[circulos.size() * partidos.size()];
+        for (int circulo = 0; circulo < circulos.size() && circulo < parcial.votos.length; circulo++)
+        {
+            long[] votosCirculo = parcial.votos[circulo];
+            for (int partido = 0; votosCirculo != null && partido < votosCirculo.length
+                    && partido < partidos.size(); partido++)
+            {
+                votos[circulo * partidos.size() + partido] = votosCirculo[partido];
+            }
+        }
+        return new ContagemVotos(circulos, partidos, votos, parcial.linhas);
+    }
+}
@@ -0,0 +1,299 @@
+package oop.tp2_2.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interpretador minímo de JSON (RFC 8259), para os pedidos do {@link ServidorAlocacao}.
+ * Os valores são convertidos para tipos Java simples:
+ * - objetos em Map (LinkedHashMap, mantendo a ordem das chaves);
+ * - vetores em List;
+ * - números inteiros em Long e os restantes números em Double;
+ * - texto em String, true/false em Boolean e null em null.
+ * Qualquer erro de sintaxe é reportado com uma IllegalArgumentException que indica a posição do erro.
+ * O aninhamento de objetos e vetores é limitado a 64 níveis, para que um documento
+ * malicioso não esgote a pilha da thread.
+ * @author Luis Matos
+ */
+public class LeitorJson
+{
+    // Número máximo de objetos e vetores aninhados
+    private static final int MAX_PROFUNDIDADE = 64;
+    
+    private final String texto;
+    private int posicao;
+    private int profundidade;
+    
+    private LeitorJson(String texto)
+    {
+        this.texto = texto;
+    }
+    
+    /**
+     * Interpreta um documento JSON completo.
+     * @param texto O documento JSON.
+     * @return O valor do documento (Map, List, Long, Double, String, Boolean ou null).
+     * @throws IllegalArgumentException Se o documento não for JSON válido.
+     */
+    public static Object interpreta(String texto)
+    {
+        LeitorJson leitor = new LeitorJson(texto);
+        Object valor = leitor.leValor();
+        leitor.saltaEspacos();
+        if (leitor.posicao < texto.length())
+        {
+            throw leitor.erro("Conteúdo inesperado após o valor");
+        }
+        return valor;
+    }
+    
+    /**
+     * Interpreta um documento JSON cujo valor tem de ser um objeto.
+     * @param texto O documento JSON.
+     * @return O objeto, como mapa das chaves para os valores.
+     * @throws IllegalArgumentException Se o documento não for JSON válido ou não for um objeto.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> interpretaObjeto(String texto)
+    {
+        Object valor = interpreta(texto);
+        if (!(valor instanceof Map))
+        {
+            throw new IllegalArgumentException("Esperado um objeto JSON");
+        }
+        return (Map<String, Object>) valor;
+    }
+    
+    private Object leValor()
+    {
+        saltaEspacos();
+        if (posicao >= texto.length())
+        {
+            throw erro("Fim inesperado do documento");
+        }
+        char c = texto.charAt(posicao);
+        switch (c)
+        {
+            case '{':
+                entraNivel();
+                Map<String, Object> objeto = leObjeto();
+                profundidade--;
+                return objeto;
+            case '[':
+                entraNivel();
+                List<Object> vetor = leVetor();
+                profundidade--;
+                return vetor;
+            case '"':
+                return leTexto();
+            case 't':
+                leLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                leLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                leLiteral("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9'))
+                {
+                    return leNumero();
+                }
+                throw erro("Carácter inesperado '" + c + "'");
+        }
+    }
+    
+    private void entraNivel()
+    {
+        if (++profundidade > MAX_PROFUNDIDADE)
+        {
+            throw erro("Aninhamento excede " + MAX_PROFUNDIDADE + " níveis");
+        }
+    }
+    
+    private Map<String, Object> leObjeto()
+    {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicao++; // '{'
+        saltaEspacos();
+        if (consome('}'))
+        {
+            return objeto;
+        }
+        do
+        {
+            saltaEspacos();
+            if (posicao >= texto.length() || texto.charAt(posicao) != '"')
+            {
+                throw erro("Esperada uma chave entre aspas");
+            }
+            String chave = leTexto();
+            saltaEspacos();
+            if (!consome(':'))
+            {
+                throw erro("Esperado ':'");
+            }
+            objeto.put(chave, leValor());
+            saltaEspacos();
+        }
+        while (consome(','));
+        if (!consome('}'))
+        {
+            throw erro("Esperado ',' ou '}'");
+        }
+        return objeto;
+    }
+    
+    private List<Object> leVetor()
+    {
+        List<Object> vetor = new ArrayList<>();
+        posicao++; // '['
+        saltaEspacos();
+        if (consome(']'))
+        {
+            return vetor;
+        }
+        do
+        {
+            vetor.add(leValor());
+            saltaEspacos();
+        }
+        while (consome(','));
+        if (!consome(']'))
+        {
+            throw erro("Esperado ',' ou ']'");
+        }
+        return vetor;
+    }
+    
+    private String leTexto()
+    {
+        StringBuilder resultado = new StringBuilder();
+        posicao++; // '"'
+        while (true)
+        {
+            if (posicao >= texto.length())
+            {
+                throw erro("Texto sem aspas de fecho");
+            }
+            char c = texto.charAt(posicao++);
+            if (c == '"')
+            {
+                return resultado.toString();
+            }
+            if (c < 0x20)
+            {
+                throw erro("Carácter de controlo no texto");
+            }
+            if (c != '\\')
+            {
+                resultado.append(c);
+                continue;
+            }
+            if (posicao >= texto.length())
+            {
+                throw erro("Sequência de escape incompleta");
+            }
+            char escape = texto.charAt(posicao++);
+            switch (escape)
+            {
+                case '"', '\\', '/' -> resultado.append(escape);
+                case 'b' -> resultado.append('\b');
+                case 'f' -> resultado.append('\f');
+                case 'n' -> resultado.append('\n');
+                case 'r' -> resultado.append('\r');
+                case 't' -> resultado.append('\t');
+                case 'u' ->
+                {
+                    if (posicao + 4 > texto.length())
+                    {
+                        throw erro("Sequência \\u incompleta");
+                    }
+                    try
+                    {
+                        resultado.append((char) Integer.parseInt(texto.substring(posicao, posicao + 4), 16));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        throw erro("Sequência \\u inválida");
+                    }
+                    posicao += 4;
+                }
+                default -> throw erro("Sequência de escape inválida '\\" + escape + "'");
+            }
+        }
+    }
+    
+    private Object leNumero()
+    {
+        int inicio = posicao;
+        boolean decimal = false;
+        consome('-');
+        while (posicao < texto.length())
+        {
+            char c = texto.charAt(posicao);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')
+            {
+                decimal = true;
+            }
+            else if (c < '0' || c > '9')
+            {
+                break;
+            }
+            posicao++;
+        }
+        String numero = texto.substring(inicio, posicao);
+        try
+        {
+            if (!decimal)
+            {
+                return Long.parseLong(numero);
+            }
+            return Double.parseDouble(numero);
+        }
+        catch (NumberFormatException e)
+        {
+            throw erro("Número inválido '" + numero + "'");
+        }
+    }
+    
+    private void leLiteral(String literal)
+    {
+        if (!texto.startsWith(literal, posicao))
+        {
+            throw erro("Esperado '" + literal + "'");
+        }
+        posicao += literal.length();
+    }
+    
+    private boolean consome(char c)
+    {
+        if (posicao < texto.length() && texto.charAt(posicao) == c)
+        {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+    
+    private void saltaEspacos()
+    {
+        while (posicao < texto.length())
+        {
+            char c = texto.charAt(posicao);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+            {
+                return;
+            }
+            posicao++;
+        }
+    }
+    
+    private IllegalArgumentException erro(String mensagem)
+    {
+        return new IllegalArgumentException("JSON inválido na posição " + posicao + ": " + mensagem);
+    }
+}
@@ -0,0 +1,41 @@
+package oop.tp2_2.utils;
+
+/**
+ * Método de distribuição proporcional de assentos (método de divisores ou de quota).
+ * As implementações recebem os dados partilhados de uma distribuição ({@link DadosDistribuicao}), o que permite
+ * calcular vários métodos sobre o mesmo vetor de votos reutilizando o trabalho comum
+ * (ver {@link CalculadoraMetodos#calculaDistribuicoes(long[], int, long, java.util.List)}).
+ * @author Luis Matos
+ */
+public abstract class MetodoDistribuicao
+{
+    private final String nome;
+    
+    /**
+     * Constructor do método.
+     * @param nome Nome do método, utilizado na apresentação dos resultados.
+     */
+    protected MetodoDistribuicao(String nome)
+    {
+        this.nome = nome;
+    }
+    
+    // Getter
+    public String getNome()
+    {
+        return nome;
+    }
+    
+    /**
+     * Calcula a distribuição de assentos a partir dos dados partilhados.
+     * @param dados Votos, assentos, limite de elegibilidade e quotas partilhadas entre métodos.
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    abstract int[] distribui(DadosDistribuicao dados);
+    
+    @Override
+    public String toString()
+    {
+        return nome;
+    }
+}
@@ -0,0 +1,130 @@
+package oop.tp2_2.utils;
+
+/**
+ * Método de divisores: cada assento é atribuído ao maior quociente votos / divisor, em que o divisor de um partido
+ * depende dos assentos que já obteve.
+ * A sequência de divisores é descrita por números inteiros (a escala é irrelevante para a comparação de
+ * quocientes): o primeiro divisor e, a partir do segundo assento, passo * assentos + deslocamento.
+ * - D'Hondt: 1, 2, 3, ... (passo 1, deslocamento 1);
+ * - Sainte-Laguë: 1, 3, 5, ... (passo 2, deslocamento 1);
+ * - Sainte-Laguë modificado: 1.4, 3, 5, ... (escala 5: 7, 15, 25, ...);
+ * - Imperiali: 2, 3, 4, ... (passo 1, deslocamento 2);
+ * - Dinamarquês: 1, 4, 7, ... (passo 3, deslocamento 1).
+ * Em vez de atribuir os assentos um a um, a distribuição parte de um divisor comum que garantidamente não excede
+ * o número de assentos (calculado com as quotas exatas partilhadas) e refina os restantes com o {@link MotorDHondt}.
+ * Os quocientes iguais seguem a regra de desempate do enunciado (favorece o partido com menos votos).
+ * @author Luis Matos
+ */
+public class MetodoDivisor extends MetodoDistribuicao
+{
+    private final long primeiroDivisor;
+    private final long passo;
+    private final long deslocamento;
+    
+    /**
+     * Constructor do método de divisores.
+     * @param nome Nome do método.
+     * @param primeiroDivisor Divisor do primeiro assento de cada partido.
+     * @param passo Incremento do divisor por cada assento obtido.
+     * @param deslocamento Termo constante dos divisores a partir do segundo assento.
+     */
+    public MetodoDivisor(String nome, long primeiroDivisor, long passo, long deslocamento)
+    {
+        super(nome);
+        if (passo <= 0 || deslocamento <= 0 || primeiroDivisor < deslocamento
+                || primeiroDivisor >= passo + deslocamento)
+        {
+            throw new IllegalArgumentException("Sequência de divisores inválida para o método " + nome);
+        }
+        this.primeiroDivisor = primeiroDivisor;
+        this.passo = passo;
+        this.deslocamento = deslocamento;
+    }
+    
+    /**
+     * Retorna o divisor do quociente que atribui ao partido o seu próximo assento.
+     * @param assentos Assentos já obtidos pelo partido.
+     * @return O divisor (inteiro, na escala do método).
+     */
+    public long divisor(int assentos)
+    {
+        return assentos == 0 ? primeiroDivisor : passo * assentos + deslocamento;
+    }
+    
+    @Override
+    int[] distribui(DadosDistribuicao dados)
+    {
+        int[] assentos = new int[dados.getPartidos()];
+        int atribuidos = 0;
+        
+        // Divisor comum T / (passo * M): os quocientes que o igualam ou superam são exatamente os divisores
+        // d <= floor(votos * passo * M / T). Como d(k) >= passo * k + deslocamento, cada partido recebe no máximo
+        // votos * M / T + (passo - deslocamento) / passo assentos, pelo que M é reduzido dessa folga.
+        long folga = passo > deslocamento
+                ? ((long) dados.getPartidosElegiveis() * (passo - deslocamento) + passo - 1) / passo : 0;
+        long assentosReferencia = dados.getAssentosTotal() - folga;
+        if (assentosReferencia > 0 && dados.getTotalVotosElegiveis() > 0)
+        {
+            long[] quotas = dados.quotas(passo * assentosReferencia);
+            for (int i = 0; i < assentos.length; i++)
+            {
+                if (dados.isElegivel(i))
+                {
+                    assentos[i] = contaDivisores(quotas[i]);
+                    atribuidos += assentos[i];
+                }
+            }
+        }
+        
+        MotorDHondt.instanciaLocal().completaDistribuicao(dados.getVotos(), assentos.length, assentos, atribuidos,
+                dados.getAssentosTotal(), dados.getVotosMargemMin(), this);
+        return assentos;
+    }
+    
+    /**
+     * Retorna o incremento do divisor por cada assento, ou seja, a escala do método relativamente a divisores
+     * com passo unitário (p.ex. 2 no Sainte-Laguë, cujos divisores 1, 3, 5 equivalem a 0.5, 1.5, 2.5).
+     * @return O passo da sequência de divisores.
+     */
+    long getPasso()
+    {
+        return passo;
+    }
+    
+    /**
+     * Conta os divisores da sequência que não excedem um quociente real (arredondamento do método), usado quando
+     * os votos são ponderados por multiplicadores (ver {@link CalculadoraBiproporcional}).
+     * @param limite Valor máximo dos divisores, na escala do método.
+     * @return Número de assentos cujo divisor é menor ou igual ao limite.
+     */
+    int contaDivisores(double limite)
+    {
+        if (limite < primeiroDivisor)
+        {
+            return 0;
+        }
+        if (limite < passo + deslocamento)
+        {
+            return 1;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 1 + Math.floor((limite - deslocamento) / passo));
+    }
+    
+    /**
+     * Conta os divisores da sequência que não excedem um valor.
+     * @param limite Valor máximo dos divisores.
+     * @return Número de assentos cujo divisor é menor ou igual ao limite.
+     */
+    private int contaDivisores(long limite)
+    {
+        if (limite < primeiroDivisor)
+        {
+            return 0;
+        }
+        if (limite < passo + deslocamento)
+        {
+            return 1;
+        }
+        return (int) (1 + (limite - deslocamento) / passo);
+    }
+}
@@ -0,0 +1,68 @@
+package oop.tp2_2.utils;
+
+import java.util.Arrays;
+
+/**
+ * Método de Hare-Niemeyer (maiores restos com a quota de Hare).
+ * Cada partido elegível recebe a parte inteira de votos * assentos / totalVotos; os assentos em falta são
+ * atribuídos aos partidos com os maiores restos. Os restos são calculados de forma exata, e em caso de restos
+ * iguais é favorecido o partido com menos votos (regra do enunciado) e, depois, o menor índice.
+ * @author Luis Matos
+ */
+public class MetodoRestoMaior extends MetodoDistribuicao
+{
+    /**
+     * Constructor do método.
+     * @param nome Nome do método.
+     */
+    public MetodoRestoMaior(String nome)
+    {
+        super(nome);
+    }
+    
+    @Override
+    int[] distribui(DadosDistribuicao dados)
+    {
+        int[] assentos = new int[dados.getPartidos()];
+        long totalVotos = dados.getTotalVotosElegiveis();
+        int assentosTotal = dados.getAssentosTotal();
+        if (totalVotos == 0 || assentosTotal <= 0)
+        {
+            return assentos;
+        }
+        
+        // Quotas inferiores partilhadas com os métodos de divisores (a mesma referência do D'Hondt)
+        long[] quotas = dados.quotas(assentosTotal);
+        long[] votos = dados.getVotos();
+        long[] restos = new long[assentos.length];
+        Integer[] ordem = new Integer[dados.getPartidosElegiveis()];
+        int atribuidos = 0;
+        int elegiveis = 0;
+        for (int i = 0; i < assentos.length; i++)
+        {
+            if (dados.isElegivel(i))
+            {
+                assentos[i] = (int) quotas[i];
+                atribuidos += assentos[i];
+                // votos * assentos - quota * totalVotos está em [0, totalVotos[, logo é exato mesmo com overflow
+                restos[i] = votos[i] * assentosTotal - quotas[i] * totalVotos;
+                ordem[elegiveis++] = i;
+            }
+        }
+        
+        Arrays.sort(ordem, (i, j) ->
+        {
+            int comparacao = Long.compare(restos[j], restos[i]);
+            if (comparacao == 0)
+            {
+                comparacao = Long.compare(votos[i], votos[j]);
+            }
+            return comparacao != 0 ? comparacao : Integer.compare(i, j);
+        });
+        for (int k = 0; k < assentosTotal - atribuidos && k < ordem.length; k++)
+        {
+            assentos[ordem[k]]++;
+        }
+        return assentos;
+    }
+}
@@ -0,0 +1,185 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.HistogramaLatencias;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registo global de métricas do cálculo eleitoral: contadores, temporizadores e histogramas de valores,
+ * identificados por nome (p.ex. "distribuicao.tempo").
+ * As métricas só são recolhidas com -Dmetricas.ativas=true. A constante {@link #ATIVAS} é final, pelo que com as
+ * métricas desativadas o JIT elimina as verificações e cada ponto de medição não tem custo; os pontos de medição
+ * que calculam valores próprios devem ser protegidos com "if (Metricas.ATIVAS)".
+ * Com -Dmetricas.ficheiro=caminho, uma fotografia das métricas é gravada em JSON no final da execução.
+ * Os contadores usam LongAdder e os temporizadores e histogramas usam {@link HistogramaLatencias}, pelo que
+ * o registo não tem bloqueios e pode ser feito por várias threads em simultâneo.
+ * @author Luis Matos
+ */
+public class Metricas
+{
+    /**
+     * Indica se as métricas estão ativas (propriedade de sistema metricas.ativas).
+     */
+    public static final boolean ATIVAS = Boolean.getBoolean("metricas.ativas");
+    
+    private static final ConcurrentMap<String, LongAdder> CONTADORES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, HistogramaLatencias> TEMPORIZADORES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, HistogramaLatencias> HISTOGRAMAS = new ConcurrentHashMap<>();
+    
+    static
+    {
+        String ficheiro = System.getProperty("metricas.ficheiro");
+        if (ATIVAS && ficheiro != null)
+        {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> gravaJson(Paths.get(ficheiro))));
+        }
+    }
+    
+    /**
+     * Retorna o instante de início de uma medição.
+     * @return System.nanoTime() com as métricas ativas, 0 caso contrário.
+     */
+    public static long inicio()
+    {
+        return ATIVAS ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Incrementa um contador.
+     * @param nome Nome do contador.
+     * @param quantidade Valor a adicionar.
+     */
+    public static void incrementa(String nome, long quantidade)
+    {
+        if (ATIVAS)
+        {
+            CONTADORES.computeIfAbsent(nome, chave -> new LongAdder()).add(quantidade);
+        }
+    }
+    
+    /**
+     * Regista a duração de uma operação num temporizador.
+     * @param nome Nome do temporizador.
+     * @param inicio Instante de início devolvido por {@link #inicio()}.
+     */
+    public static void registaTempo(String nome, long inicio)
+    {
+        if (ATIVAS)
+        {
+            TEMPORIZADORES.computeIfAbsent(nome, chave -> new HistogramaLatencias())
+                    .regista(System.nanoTime() - inicio);
+        }
+    }
+    
+    /**
+     * Regista um valor num histograma (p.ex. número de partidos de uma distribuição).
+     * @param nome Nome do histograma.
+     * @param valor Valor a registar (não negativo).
+     */
+    public static void registaValor(String nome, long valor)
+    {
+        if (ATIVAS)
+        {
+            HISTOGRAMAS.computeIfAbsent(nome, chave -> new HistogramaLatencias()).regista(valor);
+        }
+    }
+    
+    /**
+     * Apaga todas as métricas registadas.
+     */
+    public static void limpa()
+    {
+        CONTADORES.clear();
+        TEMPORIZADORES.clear();
+        HISTOGRAMAS.clear();
+    }
+    
+    /**
+     * Cria uma fotografia das métricas em JSON, com as métricas de cada tipo ordenadas pelo nome:
+     * {"contadores": {nome: n}, "temporizadores": {nome: {"contagem", "mediaMs", "p50Ms", "p90Ms", "p99Ms",
+     * "maximoMs"}}, "histogramas": {nome: {"contagem", "media", "p50", "p90", "p99", "maximo"}}}.
+     * @return O documento JSON, numa única linha.
+     */
+    public static String criaJson()
+    {
+        StringBuilder json = new StringBuilder("{\"contadores\":{");
+        boolean primeiro = true;
+        for (Map.Entry<String, LongAdder> contador : new TreeMap<>(CONTADORES).entrySet())
+        {
+            json.append(primeiro ? "" : ",").append(EscritorRelatorios.textoJson(contador.getKey())).append(':')
+                    .append(contador.getValue().sum());
+            primeiro = false;
+        }
+        
+        json.append("},\"temporizadores\":{");
+        primeiro = true;
+        for (Map.Entry<String, HistogramaLatencias> temporizador : new TreeMap<>(TEMPORIZADORES).entrySet())
+        {
+            HistogramaLatencias tempos = temporizador.getValue();
+            json.append(primeiro ? "" : ",").append(EscritorRelatorios.textoJson(temporizador.getKey()))
+                    .append(":{\"contagem\":").append(tempos.getContagem())
+                    .append(",\"mediaMs\":").append(EscritorRelatorios.valorJson(tempos.getMediaMs()))
+                    .append(",\"p50Ms\":").append(EscritorRelatorios.valorJson(tempos.getPercentilMs(0.5)))
+                    .append(",\"p90Ms\":").append(EscritorRelatorios.valorJson(tempos.getPercentilMs(0.9)))
+                    .append(",\"p99Ms\":").append(EscritorRelatorios.valorJson(tempos.getPercentilMs(0.99)))
+                    .append(",\"maximoMs\":").append(EscritorRelatorios.valorJson(tempos.getMaximoMs())).append('}');
+            primeiro = false;
+        }
+        
+        json.append("},\"histogramas\":{");
+        primeiro = true;
+        for (Map.Entry<String, HistogramaLatencias> histograma : new TreeMap<>(HISTOGRAMAS).entrySet())
+        {
+            HistogramaLatencias valores = histograma.getValue();
+            json.append(primeiro ? "" : ",").append(EscritorRelatorios.textoJson(histograma.getKey()))
+                    .append(":{\"contagem\":").append(valores.getContagem())
+                    .append(",\"media\":").append(EscritorRelatorios.valorJson(valores.getMedia()))
+                    .append(",\"p50\":").append(valores.getPercentil(0.5))
+                    .append(",\"p90\":").append(valores.getPercentil(0.9))
+                    .append(",\"p99\":").append(valores.getPercentil(0.99))
+                    .append(",\"maximo\":").append(valores.getMaximo()).append('}');
+            primeiro = false;
+        }
+        return json.append("}}").toString();
+    }
+    
+    /**
+     * Escreve uma fotografia das métricas em JSON (ver {@link #criaJson()}), seguida de uma quebra de linha.
+     * O Writer não é fechado.
+     * @param saida Writer de destino.
+     * @throws IOException Se a escrita falhar.
+     */
+    public static void escreveJson(Writer saida) throws IOException
+    {
+        saida.write(criaJson());
+        saida.write('\n');
+        saida.flush();
+    }
+    
+    /**
+     * Grava uma fotografia das métricas em JSON num ficheiro (criado ou substituído).
+     * @param ficheiro Caminho do ficheiro.
+     */
+    public static void gravaJson(Path ficheiro)
+    {
+        try (BufferedWriter escritor = Files.newBufferedWriter(ficheiro, StandardCharsets.UTF_8))
+        {
+            escreveJson(escritor);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Não foi possível gravar as métricas em " + ficheiro, e);
+        }
+    }
+}
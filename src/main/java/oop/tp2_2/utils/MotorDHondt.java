@@ -0,0 +1,412 @@
+package oop.tp2_2.utils;
+
+/**
+ * Motor primitivo do método D'Hondt, sem alocação de objetos por assento.
+ * Trabalha diretamente sobre vetores de votos (int[]/long[]) e devolve um vetor primitivo de assentos.
+ * Os quocientes são comparados de forma exata por multiplicação cruzada de inteiros
+ * (votos1 * divisor2 contra votos2 * divisor1), mantendo a regra de desempate do enunciado:
+ * em caso de quocientes iguais é favorecido o partido com menos votos.
+ * Cada instância reutiliza os seus vetores internos entre execuções, pelo que não é thread-safe;
+ * utilize uma instância por thread (ver {@link #instanciaLocal()}).
+ * @author Luis Matos
+ */
+public final class MotorDHondt
+{
+    /**
+     * Ouvinte notificado a cada assento atribuído por {@link #distribuiPorDimensao}, ou seja, com a distribuição
+     * de cada dimensão do parlamento, de 1 assento até à dimensão máxima.
+     */
+    @FunctionalInterface
+    public interface OuvinteDimensao
+    {
+        /**
+         * Invocado após a atribuição de cada assento.
+         * @param dimensao Número de assentos atribuídos até agora (dimensão do parlamento).
+         * @param partido Índice do partido que recebeu o assento.
+         * @param assentos Assentos de cada partido para esta dimensão; o vetor pertence ao motor, não pode ser
+         *                 alterado e só é válido durante a invocação.
+         */
+        void assentoAtribuido(int dimensao, int partido, int[] assentos);
+    }
+    
+    // Instância reutilizável por thread para os métodos estáticos de CalculadoraDHondt
+    private static final ThreadLocal<MotorDHondt> INSTANCIA_LOCAL = ThreadLocal.withInitial(MotorDHondt::new);
+    
+    private int[] fila; // Fila de prioridade indexada (max-heap) com os índices dos partidos elegíveis
+    private long[] votosConvertidos; // Vetor reutilizado para converter votos int[] em long[]
+    
+    // Estado da execução corrente (referências para os vetores do chamador)
+    private long[] votos;
+    private int[] assentos;
+    private int tamanhoFila;
+    private MetodoDivisor metodo; // Método de divisores da execução corrente (null para o método D'Hondt)
+    
+    /**
+     * Constructor do motor, com vetores internos de capacidade inicial reduzida.
+     */
+    public MotorDHondt()
+    {
+        this.fila = new int[16];
+        this.votosConvertidos = new long[16];
+    }
+    
+    /**
+     * Retorna a instância do motor associada à thread atual.
+     * @return Motor reutilizável exclusivo da thread que o invoca.
+     */
+    static MotorDHondt instanciaLocal()
+    {
+        return INSTANCIA_LOCAL.get();
+    }
+    
+    /**
+     * Calcula a distribuição de assentos para um vetor de votos int[].
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param resultado Vetor onde escrever os assentos (reutilizado se tiver capacidade, pode ser null).
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    public int[] distribui(int[] votos, int assentosTotal, long votosMargemMin, int[] resultado)
+    {
+        int n = votos.length;
+        if (votosConvertidos.length < n)
+        {
+            votosConvertidos = new long[Math.max(n, votosConvertidos.length * 2)];
+        }
+        for (int i = 0; i < n; i++)
+        {
+            votosConvertidos[i] = votos[i];
+        }
+        return distribui(votosConvertidos, n, assentosTotal, votosMargemMin, resultado);
+    }
+    
+    /**
+     * Calcula a distribuição de assentos para os primeiros n partidos de um vetor de votos long[].
+     * Cada assento custa uma única operação de "sift-down" na fila indexada, sem criar objetos.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param n Número de partidos a considerar (prefixo do vetor de votos).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param resultado Vetor onde escrever os assentos (reutilizado se tiver capacidade, pode ser null).
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    public int[] distribui(long[] votos, int n, int assentosTotal, long votosMargemMin, int[] resultado)
+    {
+        int[] assentos = preparaResultado(n, resultado);
+        iniciaFila(votos, n, assentos, votosMargemMin);
+        
+        // Alocação de assentos de acordo com o método D'Hondt - cada iteração aloca um assento
+        for (int assento = 1; assento <= assentosTotal && tamanhoFila > 0; assento++)
+        {
+            // O partido no topo da fila ganha o assento e o seu divisor passa a ser (assentos + 1)
+            assentos[fila[0]]++;
+            desceNaFila(0);
+        }
+        
+        libertaEstado();
+        return assentos;
+    }
+    
+    /**
+     * Calcula a distribuição de assentos atribuindo-os um a um e registando a ordem de atribuição num traço.
+     * O resultado é idêntico ao de {@link #distribui(long[], int, int, long, int[])} (ou ao do método de divisores
+     * indicado); o registo custa duas escritas em vetores primitivos por assento.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param n Número de partidos a considerar (prefixo do vetor de votos).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores a aplicar (null para o método D'Hondt).
+     * @param traco Traço onde registar a ordem de atribuição (reiniciado pela distribuição).
+     * @param resultado Vetor onde escrever os assentos (reutilizado se tiver capacidade, pode ser null).
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    public int[] distribuiComTraco(long[] votos, int n, int assentosTotal, long votosMargemMin, MetodoDivisor metodo,
+            TracoAtribuicao traco, int[] resultado)
+    {
+        int[] assentos = preparaResultado(n, resultado);
+        this.metodo = metodo;
+        iniciaFila(votos, n, assentos, votosMargemMin);
+        traco.inicia(votos, n, assentosTotal);
+        for (int assento = 1; assento <= assentosTotal && tamanhoFila > 0; assento++)
+        {
+            int vencedor = fila[0];
+            traco.regista(vencedor, divisorSeguinte(vencedor));
+            assentos[vencedor]++;
+            desceNaFila(0);
+        }
+        if (tamanhoFila > 0)
+        {
+            traco.registaSeguinte(fila[0], divisorSeguinte(fila[0]));
+        }
+        libertaEstado();
+        return assentos;
+    }
+    
+    /**
+     * Calcula numa única execução as distribuições de todas as dimensões do parlamento, de 1 até assentosMax.
+     * Nos métodos de divisores a distribuição com A + 1 assentos é a distribuição com A assentos mais um assento,
+     * pelo que basta atribuir os assentos um a um e notificar o ouvinte após cada um, sem guardar uma matriz
+     * dimensões x partidos. O ouvinte não pode utilizar este motor (p.ex. através da instância da thread).
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param n Número de partidos a considerar (prefixo do vetor de votos).
+     * @param assentosMax Maior dimensão do parlamento.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores a aplicar (null para o método D'Hondt).
+     * @param ouvinte Ouvinte notificado com a distribuição de cada dimensão.
+     * @return Número de assentos atribuídos (menor que assentosMax apenas se nenhum partido é elegível).
+     */
+    public int distribuiPorDimensao(long[] votos, int n, int assentosMax, long votosMargemMin, MetodoDivisor metodo,
+            OuvinteDimensao ouvinte)
+    {
+        int[] assentos = new int[n];
+        this.metodo = metodo;
+        iniciaFila(votos, n, assentos, votosMargemMin);
+        int assento = 0;
+        while (assento < assentosMax && tamanhoFila > 0)
+        {
+            int vencedor = fila[0];
+            assentos[vencedor]++;
+            desceNaFila(0);
+            ouvinte.assentoAtribuido(++assento, vencedor, assentos);
+        }
+        libertaEstado();
+        return assento;
+    }
+    
+    /**
+     * Calcula a mesma distribuição que {@link #distribui(long[], int, int, long, int[])}, mas procurando
+     * diretamente o divisor D'Hondt em vez de atribuir os assentos um a um.
+     * Parte do divisor estimado (votos elegíveis / assentos): cada partido recebe logo a sua quota inferior
+     * floor(votos * assentos / totalVotos), que o método D'Hondt garante sempre. Os assentos em falta
+     * (menos do que o número de partidos) são refinados pela fila de prioridade, a partir desse estado.
+     * O custo é O(P log P), independentemente do número de assentos, e o resultado é idêntico assento a assento,
+     * incluindo a regra de desempate.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param n Número de partidos a considerar (prefixo do vetor de votos).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param resultado Vetor onde escrever os assentos (reutilizado se tiver capacidade, pode ser null).
+     * @return Vetor com os assentos de cada partido, pela mesma ordem dos votos.
+     */
+    public int[] distribuiPorDivisor(long[] votos, int n, int assentosTotal, long votosMargemMin, int[] resultado)
+    {
+        int[] assentos = preparaResultado(n, resultado);
+        
+        long totalVotosElegiveis = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (votos[i] >= votosMargemMin)
+            {
+                totalVotosElegiveis += votos[i];
+            }
+        }
+        
+        // Atribuição direta das quotas inferiores com o divisor estimado (totalVotos / assentos)
+        int atribuidos = 0;
+        if (totalVotosElegiveis > 0 && assentosTotal > 0)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                if (votos[i] >= votosMargemMin)
+                {
+                    assentos[i] = (int) quotaInferior(votos[i], assentosTotal, totalVotosElegiveis);
+                    atribuidos += assentos[i];
+                }
+            }
+        }
+        
+        // Refinamento: os restantes assentos (menos do que P) são atribuídos pela ordem dos quocientes seguintes
+        completaDistribuicao(votos, n, assentos, atribuidos, assentosTotal, votosMargemMin, null);
+        return assentos;
+    }
+    
+    /**
+     * Completa uma distribuição parcial, atribuindo os assentos em falta um a um pela ordem dos quocientes seguintes.
+     * A distribuição parcial tem de ser um prefixo da ordem de atribuição do método (p.ex. todos os quocientes
+     * acima de um dado divisor), para que o resultado seja idêntico ao da atribuição desde o início.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param n Número de partidos a considerar (prefixo do vetor de votos).
+     * @param assentos Assentos já atribuídos a cada partido (atualizado com o resultado final).
+     * @param atribuidos Soma dos assentos já atribuídos.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param metodo Método de divisores a aplicar (null para o método D'Hondt).
+     */
+    void completaDistribuicao(long[] votos, int n, int[] assentos, int atribuidos, int assentosTotal,
+            long votosMargemMin, MetodoDivisor metodo)
+    {
+        this.metodo = metodo;
+        iniciaFila(votos, n, assentos, votosMargemMin);
+        for (int assento = atribuidos + 1; assento <= assentosTotal && tamanhoFila > 0; assento++)
+        {
+            assentos[fila[0]]++;
+            desceNaFila(0);
+        }
+        libertaEstado();
+    }
+    
+    /**
+     * Calcula de forma exata floor(votos * assentos / totalVotos), sem overflow.
+     * A estimativa em vírgula flutuante é corrigida com comparações de produtos de 128 bits.
+     * @param votos Votos do partido.
+     * @param assentosTotal Número total de assentos.
+     * @param totalVotos Total de votos elegíveis (maior que zero).
+     * @return A quota inferior do partido.
+     */
+    static long quotaInferior(long votos, long assentosTotal, long totalVotos)
+    {
+        long quota = (long) Math.floor((double) votos * assentosTotal / totalVotos);
+        quota = Math.max(0, Math.min(quota, assentosTotal));
+        // Corrige a estimativa: quota * totalVotos <= votos * assentos < (quota + 1) * totalVotos
+        while (quota > 0 && comparaProdutos(quota, totalVotos, votos, assentosTotal) > 0)
+        {
+            quota--;
+        }
+        while (quota < assentosTotal && comparaProdutos(quota + 1, totalVotos, votos, assentosTotal) <= 0)
+        {
+            quota++;
+        }
+        return quota;
+    }
+    
+    /**
+     * Compara de forma exata dois quocientes D'Hondt (votos / divisor) pela ordem de atribuição de assentos.
+     * Ordenação primária: quocientes mais altos primeiro.
+     * Desempate: quando os quocientes são iguais, favorece os partidos com menor número total de votos.
+     * @param votos1 Votos do primeiro partido.
+     * @param divisor1 Divisor do primeiro quociente.
+     * @param votos2 Votos do segundo partido.
+     * @param divisor2 Divisor do segundo quociente.
+     * @return Valor negativo se o primeiro quociente recebe o assento antes, positivo se depois, 0 se equivalentes.
+     */
+    public static int comparaQuocientes(long votos1, long divisor1, long votos2, long divisor2)
+    {
+        // votos1 / divisor1 > votos2 / divisor2  <=>  votos1 * divisor2 > votos2 * divisor1
+        int comparaQuociente = comparaProdutos(votos2, divisor1, votos1, divisor2);
+        if (comparaQuociente != 0)
+        {
+            return comparaQuociente;
+        }
+        return Long.compare(votos1, votos2);
+    }
+    
+    /**
+     * Compara os produtos a * b e c * d (valores não negativos) sem perda de precisão,
+     * recorrendo à parte alta da multiplicação de 128 bits.
+     * @return Valor negativo, zero ou positivo conforme a * b seja menor, igual ou maior que c * d.
+     */
+    static int comparaProdutos(long a, long b, long c, long d)
+    {
+        long alto1 = Math.multiplyHigh(a, b);
+        long alto2 = Math.multiplyHigh(c, d);
+        if (alto1 != alto2)
+        {
+            return Long.compare(alto1, alto2);
+        }
+        return Long.compareUnsigned(a * b, c * d);
+    }
+    
+    /**
+     * Prepara o vetor de resultado, reutilizando o vetor do chamador sempre que possível.
+     * @param n Número de partidos.
+     * @param resultado Vetor sugerido pelo chamador (pode ser null).
+     * @return Vetor com pelo menos n posições, com as primeiras n a zero.
+     */
+    static int[] preparaResultado(int n, int[] resultado)
+    {
+        if (resultado == null || resultado.length < n)
+        {
+            return new int[n];
+        }
+        for (int i = 0; i < n; i++)
+        {
+            resultado[i] = 0;
+        }
+        return resultado;
+    }
+    
+    /**
+     * Inicializa a fila de prioridade com todos os partidos elegíveis, a partir dos assentos já atribuídos.
+     * A construção é feita em O(P) (heapify de baixo para cima).
+     */
+    private void iniciaFila(long[] votos, int n, int[] assentos, long votosMargemMin)
+    {
+        if (fila.length < n)
+        {
+            fila = new int[Math.max(n, fila.length * 2)];
+        }
+        this.votos = votos;
+        this.assentos = assentos;
+        this.tamanhoFila = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (votos[i] >= votosMargemMin)
+            {
+                fila[tamanhoFila++] = i; // Apenas partidos que cumprem com o limite minímo são elegíveis.
+            }
+        }
+        for (int posicao = (tamanhoFila >>> 1) - 1; posicao >= 0; posicao--)
+        {
+            desceNaFila(posicao);
+        }
+    }
+    
+    /**
+     * Liberta as referências para os vetores do chamador no final de uma execução.
+     */
+    private void libertaEstado()
+    {
+        this.votos = null;
+        this.assentos = null;
+        this.tamanhoFila = 0;
+        this.metodo = null;
+    }
+    
+    /**
+     * Restaura a propriedade da fila a partir de uma posição, descendo o partido nela colocado.
+     * @param posicao Posição inicial na fila.
+     */
+    private void desceNaFila(int posicao)
+    {
+        int partido = fila[posicao];
+        int metade = tamanhoFila >>> 1;
+        while (posicao < metade)
+        {
+            int filho = 2 * posicao + 1;
+            int direito = filho + 1;
+            if (direito < tamanhoFila && precede(fila[direito], fila[filho]))
+            {
+                filho = direito;
+            }
+            if (!precede(fila[filho], partido))
+            {
+                break;
+            }
+            fila[posicao] = fila[filho];
+            posicao = filho;
+        }
+        fila[posicao] = partido;
+    }
+    
+    /**
+     * Determina se o próximo quociente do partido i recebe um assento antes do próximo quociente do partido j.
+     * Em caso de empate total (mesmo quociente e mesmos votos) favorece o menor índice, para um resultado
+     * determinístico.
+     */
+    private boolean precede(int i, int j)
+    {
+        int comparacao = comparaQuocientes(votos[i], divisorSeguinte(i), votos[j], divisorSeguinte(j));
+        return comparacao < 0 || (comparacao == 0 && i < j);
+    }
+    
+    /**
+     * Retorna o divisor do próximo quociente de um partido, de acordo com o método da execução corrente.
+     * @param partido Índice do partido.
+     * @return Divisor do quociente que atribuiria ao partido o seu próximo assento.
+     */
+    private long divisorSeguinte(int partido)
+    {
+        return metodo == null ? assentos[partido] + 1L : metodo.divisor(assentos[partido]);
+    }
+}
@@ -0,0 +1,391 @@
+package oop.tp2_2.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import oop.tp2_2.models.Cenario;
+import oop.tp2_2.models.HistogramaLatencias;
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.ResultadoValidacao;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP embutido (com.sun.net.httpserver) que disponibiliza a calculadora eleitoral a outras aplicações
+ * sem arrancar uma JVM por pedido. Cada pedido é tratado numa thread virtual própria.
+ * Todos os pedidos POST recebem um cenário em JSON:
+ *     {"nome": "...", "assentos": 230, "percentagemLimiteMin": 1.75,
+ *      "partidos": [{"nome": "PS", "votos": 1850000}, ...], "coligacoes": {"AD": ["PSD", "CDS"]}}
+ * (nome, percentagemLimiteMin e coligacoes são opcionais; por defeito é usado o limite do {@link ValidadorEleicao}).
+ * Pontos de acesso:
+ * - POST /distribuicao: distribuição D'Hondt dos assentos (com as coligações formadas e as restrições eleitorais
+ *   aplicadas), através de uma {@link CacheDistribuicoes} partilhada;
+ * - POST /validacao: limites eleitorais, votos após as restrições e elegibilidade de cada partido;
+ * - POST /analise: análise comparativa com e sem coligações, como relatório JSON ({@link EscritorRelatorios});
+ * - GET /metricas: histogramas das latências de cada ponto de acesso e estatísticas da cache (e, com as
+ *   {@link Metricas} ativas, a fotografia do registo de métricas).
+ * Os erros de pedido são respondidos com o código 400 e {"erro": "..."}.
+ * @author Luis Matos
+ */
+public class ServidorAlocacao
+{
+    // Dimensão máxima do corpo de um pedido (1 MB)
+    private static final int MAX_CORPO = 1 << 20;
+    // Capacidade da cache de distribuições partilhada pelos pedidos
+    private static final int MAX_ENTRADAS_CACHE = 10000;
+    private static final long MAX_PARTIDOS_CACHE = 1000000;
+    
+    /**
+     * Operação de um ponto de acesso: recebe o corpo do pedido e devolve o corpo JSON da resposta.
+     */
+    @FunctionalInterface
+    private interface Operacao
+    {
+        String executa(String corpo) throws IOException;
+    }
+    
+    /**
+     * Ponto de acesso com as respetivas métricas.
+     */
+    private static final class PontoAcesso implements HttpHandler
+    {
+        private final String metodo;
+        private final Operacao operacao;
+        private final HistogramaLatencias latencias = new HistogramaLatencias();
+        private final LongAdder erros = new LongAdder();
+        
+        private PontoAcesso(String metodo, Operacao operacao)
+        {
+            this.metodo = metodo;
+            this.operacao = operacao;
+        }
+        
+        @Override
+        public void handle(HttpExchange troca) throws IOException
+        {
+            long inicio = System.nanoTime();
+            int codigo = 200;
+            String resposta;
+            try
+            {
+                if (!troca.getRequestMethod().equals(metodo))
+                {
+                    codigo = 405;
+                    troca.getResponseHeaders().set("Allow", metodo);
+                    resposta = respostaErro("Método não suportado: " + troca.getRequestMethod());
+                }
+                else
+                {
+                    resposta = operacao.executa(leCorpo(troca.getRequestBody()));
+                }
+            }
+            catch (IllegalArgumentException | ArithmeticException e)
+            {
+                codigo = e instanceof TamanhoExcedido ? 413 : 400;
+                resposta = respostaErro(String.valueOf(e.getMessage()));
+            }
+            catch (IOException e)
+            {
+                // Corpo interrompido: a resposta pode já não chegar, mas o erro e a latência são registados
+                codigo = 400;
+                resposta = respostaErro("Erro ao ler o corpo do pedido: " + e.getMessage());
+            }
+            catch (ClassCastException e)
+            {
+                codigo = 400;
+                resposta = respostaErro("Tipo de valor inválido num campo do pedido");
+            }
+            catch (RuntimeException e)
+            {
+                codigo = 500;
+                resposta = respostaErro("Erro interno: " + e);
+            }
+            
+            try (troca)
+            {
+                byte[] bytes = resposta.getBytes(StandardCharsets.UTF_8);
+                troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                troca.sendResponseHeaders(codigo, bytes.length);
+                try (OutputStream saida = troca.getResponseBody())
+                {
+                    saida.write(bytes);
+                }
+            }
+            finally
+            {
+                if (codigo != 200)
+                {
+                    erros.increment();
+                }
+                latencias.regista(System.nanoTime() - inicio);
+            }
+        }
+    }
+    
+    /**
+     * Erro de pedido com corpo demasiado grande (respondido com o código 413).
+     */
+    private static final class TamanhoExcedido extends IllegalArgumentException
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private TamanhoExcedido()
+        {
+            super("O corpo do pedido excede " + MAX_CORPO + " bytes");
+        }
+    }
+    
+    private final HttpServer servidor;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CacheDistribuicoes cache = new CacheDistribuicoes(MAX_ENTRADAS_CACHE, MAX_PARTIDOS_CACHE);
+    private final Map<String, PontoAcesso> pontosAcesso = new LinkedHashMap<>();
+    
+    /**
+     * Constructor do servidor (o servidor só aceita pedidos após {@link #inicia()}).
+     * @param porta Porta TCP onde escutar (0 para uma porta livre qualquer).
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public ServidorAlocacao(int porta) throws IOException
+    {
+        // As respostas pequenas não devem esperar pelo algoritmo de Nagle (lido na criação do primeiro servidor)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+        {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.servidor = HttpServer.create(new InetSocketAddress(porta), 0);
+        this.servidor.setExecutor(executor);
+        registaPontoAcesso("/distribuicao", "POST", this::distribuicao);
+        registaPontoAcesso("/validacao", "POST", ServidorAlocacao::validacao);
+        registaPontoAcesso("/analise", "POST", ServidorAlocacao::analise);
+        registaPontoAcesso("/metricas", "GET", corpo -> metricas());
+    }
+    
+    /**
+     * Começa a aceitar pedidos.
+     */
+    public void inicia()
+    {
+        servidor.start();
+    }
+    
+    /**
+     * Pára o servidor, esperando até um segundo pelos pedidos em curso.
+     */
+    public void para()
+    {
+        servidor.stop(1);
+        executor.close();
+    }
+    
+    public int getPorta()
+    {
+        return servidor.getAddress().getPort();
+    }
+    
+    private void registaPontoAcesso(String caminho, String metodo, Operacao operacao)
+    {
+        PontoAcesso pontoAcesso = new PontoAcesso(metodo, operacao);
+        pontosAcesso.put(caminho, pontoAcesso);
+        servidor.createContext(caminho, pontoAcesso);
+    }
+    
+    /**
+     * POST /distribuicao: aplica as restrições eleitorais (com redistribuição proporcional dos votos cortados) e
+     * distribui os assentos pelos partidos (com as coligações formadas).
+     * Resposta: {"assentos": n, "limiteVotosMin": n, "votosCortados": n,
+     * "partidos": [{"nome", "votos", "assentos"}, ...]}, com os votos após as restrições.
+     */
+    private String distribuicao(String corpo)
+    {
+        Cenario cenario = interpretaCenario(corpo);
+        List<Partido> partidos = cenario.criaPartidosComColigacao();
+        int limiteVotosMin = cenario.getLimiteVotosMin();
+        long votosCortados = ValidadorEleicao.aplicaRestricoes(partidos, cenario.getTotalVotos(), limiteVotosMin,
+                AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL).getVotosCortados();
+        CalculadoraDHondt.aplicaAlocacaoAssentos(cache.calculaDistribuicaoAssentos(partidos, cenario.getAssentos(),
+                limiteVotosMin));
+        
+        StringBuilder resposta = new StringBuilder("{\"assentos\":").append(cenario.getAssentos())
+                .append(",\"limiteVotosMin\":").append(limiteVotosMin)
+                .append(",\"votosCortados\":").append(votosCortados)
+                .append(",\"partidos\":[");
+        for (int i = 0; i < partidos.size(); i++)
+        {
+            Partido partido = partidos.get(i);
+            resposta.append(i > 0 ? ",{" : "{")
+                    .append("\"nome\":").append(EscritorRelatorios.textoJson(partido.getNome()))
+                    .append(",\"votos\":").append(partido.getVotos())
+                    .append(",\"assentos\":").append(partido.getAssentos()).append('}');
+        }
+        return resposta.append("]}").toString();
+    }
+    
+    /**
+     * POST /validacao: calcula os limites eleitorais, aplica as restrições
+     * ({@link ValidadorEleicao#aplicaRestricoes}) e verifica cada partido (com as coligações formadas); os votos
+     * cortados são redistribuídos proporcionalmente.
+     * Resposta: {"totalVotos", "limiteVotosMin", "limiteVotosMax", "diferencaMaxVotos", "diferencaDoisPrimeiros",
+     * "excedeDiferencaMax", "votosCortados", "rondas",
+     * "partidos": [{"nome", "votos", "votosAjustados", "elegivel", "excedeLimiteMax"}, ...]}.
+     * A diferença entre os dois primeiros e as violações referem-se aos votos antes das restrições, e a
+     * elegibilidade aos votos ajustados.
+     */
+    private static String validacao(String corpo)
+    {
+        Cenario cenario = interpretaCenario(corpo);
+        List<Partido> partidos = cenario.criaPartidosComColigacao();
+        ResultadoValidacao resultado = ValidadorEleicao.aplicaRestricoes(partidos, cenario.getTotalVotos(),
+                cenario.getLimiteVotosMin(), AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+        
+        StringBuilder resposta = new StringBuilder("{\"totalVotos\":").append(resultado.getTotalVotos())
+                .append(",\"limiteVotosMin\":").append(resultado.getLimiteVotosMin())
+                .append(",\"limiteVotosMax\":").append(resultado.getLimiteVotosMax())
+                .append(",\"diferencaMaxVotos\":").append(resultado.getDiferencaMaxVotos())
+                .append(",\"diferencaDoisPrimeiros\":").append(resultado.getDiferencaDoisPrimeiros())
+                .append(",\"excedeDiferencaMax\":").append(resultado.excedeDiferencaMax())
+                .append(",\"votosCortados\":").append(resultado.getVotosCortados())
+                .append(",\"rondas\":").append(resultado.getRondas())
+                .append(",\"partidos\":[");
+        for (int i = 0; i < partidos.size(); i++)
+        {
+            resposta.append(i > 0 ? ",{" : "{")
+                    .append("\"nome\":").append(EscritorRelatorios.textoJson(partidos.get(i).getNome()))
+                    .append(",\"votos\":").append(resultado.getVotosOriginais(i))
+                    .append(",\"votosAjustados\":").append(resultado.getVotosAjustados(i))
+                    .append(",\"elegivel\":").append(resultado.eElegivel(i))
+                    .append(",\"excedeLimiteMax\":").append(resultado.excedeLimiteMax(i)).append('}');
+        }
+        return resposta.append("]}").toString();
+    }
+    
+    /**
+     * POST /analise: análise comparativa dos cenários com e sem coligações, com os mesmos conteúdos que o
+     * {@link AnalisadorEleicao#realizaAnaliseComparativa} mostra na consola, como relatório JSON.
+     */
+    private static String analise(String corpo) throws IOException
+    {
+        StringWriter resposta = new StringWriter();
+        EscritorRelatorios.escreve(ExecutorCenarios.analisaCenario(interpretaCenario(corpo)),
+                EscritorRelatorios.Formato.JSON, resposta);
+        return resposta.toString().strip();
+    }
+    
+    /**
+     * GET /metricas: latências de cada ponto de acesso (média, percentis e baldes não vazios do histograma)
+     * e estatísticas da cache de distribuições.
+     */
+    private String metricas()
+    {
+        StringBuilder resposta = new StringBuilder("{\"pontosAcesso\":{");
+        boolean primeiro = true;
+        for (Map.Entry<String, PontoAcesso> entrada : pontosAcesso.entrySet())
+        {
+            HistogramaLatencias latencias = entrada.getValue().latencias;
+            resposta.append(primeiro ? "" : ",").append(EscritorRelatorios.textoJson(entrada.getKey()))
+                    .append(":{\"pedidos\":").append(latencias.getContagem())
+                    .append(",\"erros\":").append(entrada.getValue().erros.sum())
+                    .append(",\"mediaMs\":").append(EscritorRelatorios.valorJson(latencias.getMediaMs()))
+                    .append(",\"p50Ms\":").append(EscritorRelatorios.valorJson(latencias.getPercentilMs(0.5)))
+                    .append(",\"p90Ms\":").append(EscritorRelatorios.valorJson(latencias.getPercentilMs(0.9)))
+                    .append(",\"p99Ms\":").append(EscritorRelatorios.valorJson(latencias.getPercentilMs(0.99)))
+                    .append(",\"maximoMs\":").append(EscritorRelatorios.valorJson(latencias.getMaximoMs()))
+                    .append(",\"histograma\":[");
+            boolean primeiroBalde = true;
+            for (int balde = 0; balde < latencias.getNumeroBaldes(); balde++)
+            {
+                long contagem = latencias.getContagemBalde(balde);
+                if (contagem > 0)
+                {
+                    resposta.append(primeiroBalde ? "{" : ",{").append("\"ateMs\":")
+                            .append(EscritorRelatorios.valorJson(latencias.getLimiteSuperiorMs(balde)))
+                            .append(",\"contagem\":").append(contagem).append('}');
+                    primeiroBalde = false;
+                }
+            }
+            resposta.append("]}");
+            primeiro = false;
+        }
+        return resposta.append("},\"cache\":{\"entradas\":").append(cache.getTamanho())
+                .append(",\"acertos\":").append(cache.getAcertos())
+                .append(",\"falhas\":").append(cache.getFalhas())
+                .append(",\"taxaAcertos\":").append(EscritorRelatorios.valorJson(cache.getTaxaAcertos()))
+                .append('}').append(Metricas.ATIVAS ? ",\"registo\":" + Metricas.criaJson() : "")
+                .append('}').toString();
+    }
+    
+    /**
+     * Interpreta o cenário JSON do corpo de um pedido.
+     * @param corpo Corpo do pedido.
+     * @return O cenário.
+     * @throws IllegalArgumentException Se o corpo não for um cenário válido.
+     */
+    @SuppressWarnings("unchecked")
+    static Cenario interpretaCenario(String corpo)
+    {
+        Map<String, Object> pedido = LeitorJson.interpretaObjeto(corpo);
+        String nome = pedido.getOrDefault("nome", "Cenário").toString();
+        int assentos = Math.toIntExact((Long) obrigatorio(pedido, "assentos"));
+        Object percentagem = pedido.getOrDefault("percentagemLimiteMin", ValidadorEleicao.PERCENTAGEM_LIMITE_MIN);
+        
+        Map<String, Integer> votos = new LinkedHashMap<>();
+        for (Object entrada : (List<Object>) obrigatorio(pedido, "partidos"))
+        {
+            Map<String, Object> partido = (Map<String, Object>) entrada;
+            String nomePartido = (String) obrigatorio(partido, "nome");
+            int votosPartido = Math.toIntExact((Long) obrigatorio(partido, "votos"));
+            if (votos.put(nomePartido, votosPartido) != null)
+            {
+                throw new IllegalArgumentException("Partido repetido: " + nomePartido);
+            }
+        }
+        if (votos.isEmpty())
+        {
+            throw new IllegalArgumentException("O cenário não tem partidos");
+        }
+        
+        Map<String, List<String>> coligacoes = new LinkedHashMap<>();
+        Map<String, Object> definicaoColigacoes = (Map<String, Object>) pedido.getOrDefault("coligacoes", Map.of());
+        for (Map.Entry<String, Object> coligacao : definicaoColigacoes.entrySet())
+        {
+            List<String> membros = ((List<Object>) coligacao.getValue()).stream().map(membro -> (String) membro)
+                    .toList();
+            coligacoes.put(coligacao.getKey(), membros);
+        }
+        return new Cenario(nome, assentos, ((Number) percentagem).doubleValue(), votos, coligacoes);
+    }
+    
+    private static Object obrigatorio(Map<String, Object> objeto, String campo)
+    {
+        Object valor = objeto.get(campo);
+        if (valor == null)
+        {
+            throw new IllegalArgumentException("Campo obrigatório em falta: " + campo);
+        }
+        return valor;
+    }
+    
+    private static String leCorpo(InputStream entrada) throws IOException
+    {
+        byte[] corpo = entrada.readNBytes(MAX_CORPO + 1);
+        if (corpo.length > MAX_CORPO)
+        {
+            throw new TamanhoExcedido();
+        }
+        return new String(corpo, StandardCharsets.UTF_8);
+    }
+    
+    private static String respostaErro(String mensagem)
+    {
+        return "{\"erro\":" + EscritorRelatorios.textoJson(mensagem) + "}";
+    }
+}
@@ -0,0 +1,297 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.ResultadoSimulacao;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulação Monte Carlo da distribuição de assentos sob incerteza nas intenções de voto.
+ * Em cada iteração os votos de cada partido são perturbados com ruído de Dirichlet em torno de uma sondagem,
+ * são aplicadas as restrições eleitorais ({@link ValidadorEleicao#aplicaRestricoes}), é refeita a alocação D'Hondt
+ * e são acumulados os histogramas de assentos por partido.
+ * As iterações são repartidas por tarefas ForkJoin, cada uma com o seu próprio gerador (SplittableRandom),
+ * os seus próprios vetores (reutilizados entre iterações) e o seu próprio histograma; os histogramas parciais
+ * são somados na junção das tarefas, sem locks nem estado partilhado.
+ * @author Luis Matos
+ */
+public class SimuladorMonteCarlo
+{
+    // Número máximo de iterações executadas sequencialmente por uma única tarefa
+    private static final long ITERACOES_POR_TAREFA = 50000;
+    
+    /**
+     * Parâmetros imutáveis da simulação, partilhados (apenas para leitura) por todas as tarefas.
+     */
+    private static final class Parametros
+    {
+        private final double[] alfas; // Parâmetros da distribuição de Dirichlet (concentração * proporção)
+        private final int[][] blocos; // Índices dos partidos de cada bloco
+        private final long totalVotos;
+        private final int assentosTotal;
+        private final long votosMargemMin;
+        private final AplicadorRestricoes.RegraRedistribuicao regra;
+        
+        private Parametros(double[] alfas, int[][] blocos, long totalVotos, int assentosTotal, long votosMargemMin,
+                AplicadorRestricoes.RegraRedistribuicao regra)
+        {
+            this.alfas = alfas;
+            this.blocos = blocos;
+            this.totalVotos = totalVotos;
+            this.assentosTotal = assentosTotal;
+            this.votosMargemMin = votosMargemMin;
+            this.regra = regra;
+        }
+    }
+    
+    /**
+     * Acumulador privado de cada tarefa: histograma de assentos e contagem de maiorias por bloco.
+     */
+    private static final class Acumulador
+    {
+        private final long[][] histograma;
+        private final long[] maioriasBlocos;
+        
+        private Acumulador(int partidos, int assentosTotal, int blocos)
+        {
+            this.histograma = new long[partidos][assentosTotal + 1];
+            this.maioriasBlocos = new long[blocos];
+        }
+        
+        /**
+         * Soma os resultados de outro acumulador a este.
+         * @param outro O acumulador de outra tarefa, já concluída.
+         */
+        private void adiciona(Acumulador outro)
+        {
+            for (int i = 0; i < histograma.length; i++)
+            {
+                for (int assentos = 0; assentos < histograma[i].length; assentos++)
+                {
+                    histograma[i][assentos] += outro.histograma[i][assentos];
+                }
+            }
+            for (int bloco = 0; bloco < maioriasBlocos.length; bloco++)
+            {
+                maioriasBlocos[bloco] += outro.maioriasBlocos[bloco];
+            }
+        }
+    }
+    
+    /**
+     * Tarefa ForkJoin que executa um intervalo de iterações, dividindo-o recursivamente.
+     */
+    private static final class TarefaSimulacao extends RecursiveTask<Acumulador>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient Parametros parametros;
+        private final transient SplittableRandom gerador;
+        private final long iteracoes;
+        
+        private TarefaSimulacao(Parametros parametros, SplittableRandom gerador, long iteracoes)
+        {
+            this.parametros = parametros;
+            this.gerador = gerador;
+            this.iteracoes = iteracoes;
+        }
+        
+        @Override
+        protected Acumulador compute()
+        {
+            if (iteracoes <= ITERACOES_POR_TAREFA)
+            {
+                return executaIteracoes();
+            }
+            // Cada metade recebe o seu próprio gerador, derivado deste de forma determinística
+            long metade = iteracoes / 2;
+            TarefaSimulacao esquerda = new TarefaSimulacao(parametros, gerador.split(), metade);
+            TarefaSimulacao direita = new TarefaSimulacao(parametros, gerador.split(), iteracoes - metade);
+            esquerda.fork();
+            Acumulador resultado = direita.compute();
+            resultado.adiciona(esquerda.join());
+            return resultado;
+        }
+        
+        /**
+         * Executa sequencialmente as iterações desta tarefa, reutilizando os mesmos vetores em todas elas.
+         * @return O acumulador com os resultados das iterações.
+         */
+        private Acumulador executaIteracoes()
+        {
+            int partidos = parametros.alfas.length;
+            Acumulador acumulador = new Acumulador(partidos, parametros.assentosTotal, parametros.blocos.length);
+            double[] amostras = new double[partidos];
+            long[] votos = new long[partidos];
+            int[] assentos = new int[partidos];
+            MotorDHondt motor = new MotorDHondt();
+            
+            for (long iteracao = 0; iteracao < iteracoes; iteracao++)
+            {
+                amostraVotos(gerador, parametros, amostras, votos);
+                ValidadorEleicao.aplicaRestricoes(votos, partidos, parametros.totalVotos, parametros.regra);
+                motor.distribuiPorDivisor(votos, partidos, parametros.assentosTotal, parametros.votosMargemMin,
+                        assentos);
+                
+                for (int i = 0; i < partidos; i++)
+                {
+                    acumulador.histograma[i][assentos[i]]++;
+                }
+                for (int bloco = 0; bloco < parametros.blocos.length; bloco++)
+                {
+                    int assentosBloco = 0;
+                    for (int membro : parametros.blocos[bloco])
+                    {
+                        assentosBloco += assentos[membro];
+                    }
+                    if (assentosBloco > parametros.assentosTotal / 2)
+                    {
+                        acumulador.maioriasBlocos[bloco]++;
+                    }
+                }
+            }
+            return acumulador;
+        }
+    }
+    
+    /**
+     * Executa a simulação Monte Carlo no ForkJoinPool comum, redistribuindo proporcionalmente os votos cortados
+     * pelas restrições eleitorais.
+     * @param sondagem Lista dos partidos com os votos previstos pela sondagem (define as proporções esperadas).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param totalVotos Número total de votos válidos em cada iteração.
+     * @param percentagemLimiteMin Percentagem mínima de votos para elegibilidade de alocação de assentos.
+     * @param concentracao Concentração da distribuição de Dirichlet (maior = menos incerteza; p.ex. 2000).
+     * @param blocos Blocos de partidos (listas de nomes) cuja probabilidade de maioria se pretende conhecer.
+     * @param iteracoes Número de iterações a executar.
+     * @param semente Semente do gerador, para resultados reprodutíveis.
+     * @return O resultado da simulação com os histogramas e as probabilidades de maioria.
+     */
+    public static ResultadoSimulacao simula(List<Partido> sondagem, int assentosTotal, long totalVotos,
+            double percentagemLimiteMin, double concentracao, List<List<String>> blocos, long iteracoes,
+            long semente)
+    {
+        return simula(sondagem, assentosTotal, totalVotos, percentagemLimiteMin, concentracao, blocos, iteracoes,
+                semente, AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+    }
+    
+    /**
+     * Executa a simulação Monte Carlo no ForkJoinPool comum, com uma regra de redistribuição dos votos cortados.
+     * @param sondagem Lista dos partidos com os votos previstos pela sondagem (define as proporções esperadas).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param totalVotos Número total de votos válidos em cada iteração.
+     * @param percentagemLimiteMin Percentagem mínima de votos para elegibilidade de alocação de assentos.
+     * @param concentracao Concentração da distribuição de Dirichlet (maior = menos incerteza; p.ex. 2000).
+     * @param blocos Blocos de partidos (listas de nomes) cuja probabilidade de maioria se pretende conhecer.
+     * @param iteracoes Número de iterações a executar.
+     * @param semente Semente do gerador, para resultados reprodutíveis.
+     * @param regra Regra de redistribuição dos votos cortados pelas restrições eleitorais em cada iteração.
+     * @return O resultado da simulação com os histogramas e as probabilidades de maioria.
+     */
+    public static ResultadoSimulacao simula(List<Partido> sondagem, int assentosTotal, long totalVotos,
+            double percentagemLimiteMin, double concentracao, List<List<String>> blocos, long iteracoes,
+            long semente, AplicadorRestricoes.RegraRedistribuicao regra)
+    {
+        List<String> nomesPartidos = new ArrayList<>();
+        long votosSondagem = 0;
+        for (Partido partido : sondagem)
+        {
+            nomesPartidos.add(partido.getNome());
+            votosSondagem += partido.getVotos();
+        }
+        if (votosSondagem <= 0 || iteracoes <= 0)
+        {
+            throw new IllegalArgumentException("A sondagem deve ter votos e a simulação pelo menos uma iteração");
+        }
+        
+        double[] alfas = new double[sondagem.size()];
+        for (int i = 0; i < alfas.length; i++)
+        {
+            alfas[i] = concentracao * sondagem.get(i).getVotos() / votosSondagem;
+        }
+        
+        List<String> nomesBlocos = new ArrayList<>();
+        int[][] indicesBlocos = new int[blocos.size()][];
+        for (int bloco = 0; bloco < blocos.size(); bloco++)
+        {
+            List<String> membros = blocos.get(bloco);
+            nomesBlocos.add(String.join("+", membros));
+            indicesBlocos[bloco] = new int[membros.size()];
+            for (int j = 0; j < membros.size(); j++)
+            {
+                indicesBlocos[bloco][j] = nomesPartidos.indexOf(membros.get(j));
+                if (indicesBlocos[bloco][j] < 0)
+                {
+                    throw new IllegalArgumentException("Partido desconhecido no bloco: " + membros.get(j));
+                }
+            }
+        }
+        
+        long votosMargemMin = (long) (totalVotos * percentagemLimiteMin / 100);
+        Parametros parametros = new Parametros(alfas, indicesBlocos, totalVotos, assentosTotal, votosMargemMin,
+                regra);
+        Acumulador acumulador = ForkJoinPool.commonPool()
+                .invoke(new TarefaSimulacao(parametros, new SplittableRandom(semente), iteracoes));
+        
+        return new ResultadoSimulacao(nomesPartidos, nomesBlocos, assentosTotal, iteracoes,
+                acumulador.histograma, acumulador.maioriasBlocos);
+    }
+    
+    /**
+     * Gera uma amostra dos votos de cada partido: proporções de Dirichlet multiplicadas pelo total de votos.
+     * @param gerador Gerador de números aleatórios da tarefa.
+     * @param parametros Parâmetros da simulação.
+     * @param amostras Vetor de trabalho para as amostras Gama (reutilizado).
+     * @param votos Vetor onde escrever os votos amostrados (reutilizado).
+     */
+    private static void amostraVotos(SplittableRandom gerador, Parametros parametros, double[] amostras,
+            long[] votos)
+    {
+        // Uma amostra de Dirichlet obtém-se normalizando amostras Gama(alfa_i, 1) independentes
+        double soma = 0;
+        for (int i = 0; i < amostras.length; i++)
+        {
+            amostras[i] = parametros.alfas[i] > 0 ? amostraGama(gerador, parametros.alfas[i]) : 0;
+            soma += amostras[i];
+        }
+        for (int i = 0; i < votos.length; i++)
+        {
+            votos[i] = soma > 0 ? Math.round(parametros.totalVotos * amostras[i] / soma) : 0;
+        }
+    }
+    
+    /**
+     * Gera uma amostra da distribuição Gama(forma, 1) pelo método de Marsaglia-Tsang.
+     * @param gerador Gerador de números aleatórios.
+     * @param forma Parâmetro de forma (maior que zero).
+     * @return A amostra gerada.
+     */
+    static double amostraGama(SplittableRandom gerador, double forma)
+    {
+        if (forma < 1)
+        {
+            // Gama(a) = Gama(a + 1) * U^(1/a), para a < 1
+            return amostraGama(gerador, forma + 1) * Math.pow(gerador.nextDouble(), 1 / forma);
+        }
+        double d = forma - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true)
+        {
+            double x = gerador.nextGaussian();
+            double v = 1 + c * x;
+            if (v <= 0)
+            {
+                continue;
+            }
+            v = v * v * v;
+            double u = gerador.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v)))
+            {
+                return d * v;
+            }
+        }
+    }
+}
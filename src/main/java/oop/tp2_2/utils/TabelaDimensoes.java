@@ -0,0 +1,111 @@
+package oop.tp2_2.utils;
+
+import java.util.Arrays;
+
+/**
+ * Tabela compacta das distribuições de assentos de todas as dimensões do parlamento, de 1 até uma dimensão máxima N,
+ * obtida numa única execução do método (ver {@link MotorDHondt#distribuiPorDimensao}).
+ * Como a distribuição com A + 1 assentos é a de A assentos mais um assento, basta guardar, para cada partido, os
+ * números dos assentos que obteve por ordem crescente: os assentos de um partido numa dimensão A são o número
+ * desses assentos que não excedem A (pesquisa binária). A memória é O(N + P), em vez de uma matriz N x P.
+ * @author Luis Matos
+ */
+public final class TabelaDimensoes
+{
+    private final int dimensaoMax;
+    private final int[] vencedores; // Partido que recebe cada assento (o assento k está na posição k - 1)
+    private final int[] inicioPartido; // Posição dos assentos de cada partido em assentosPorPartido
+    private final int[] assentosPorPartido; // Números dos assentos de cada partido, por ordem crescente
+    
+    /**
+     * Constructor da tabela, a partir da ordem de atribuição dos assentos.
+     * @param numeroPartidos Número de partidos.
+     * @param vencedores Partido que recebeu cada assento, pela ordem de atribuição (o vetor não é copiado).
+     * @param dimensaoMax Número de assentos atribuídos.
+     */
+    TabelaDimensoes(int numeroPartidos, int[] vencedores, int dimensaoMax)
+    {
+        this.dimensaoMax = dimensaoMax;
+        this.vencedores = vencedores;
+        this.inicioPartido = new int[numeroPartidos + 1];
+        for (int k = 0; k < dimensaoMax; k++)
+        {
+            inicioPartido[vencedores[k] + 1]++;
+        }
+        for (int i = 0; i < numeroPartidos; i++)
+        {
+            inicioPartido[i + 1] += inicioPartido[i];
+        }
+        this.assentosPorPartido = new int[dimensaoMax];
+        int[] proximo = Arrays.copyOf(inicioPartido, numeroPartidos);
+        for (int k = 0; k < dimensaoMax; k++)
+        {
+            assentosPorPartido[proximo[vencedores[k]]++] = k + 1;
+        }
+    }
+    
+    // Getters
+    public int getDimensaoMax()
+    {
+        return dimensaoMax;
+    }
+    
+    public int getNumeroPartidos()
+    {
+        return inicioPartido.length - 1;
+    }
+    
+    /**
+     * Retorna o partido que recebe o assento adicional quando o parlamento passa de dimensao - 1 para dimensao.
+     * @param dimensao Dimensão do parlamento, entre 1 e getDimensaoMax().
+     * @return Índice do partido.
+     */
+    public int getVencedor(int dimensao)
+    {
+        if (dimensao < 1)
+        {
+            throw new IndexOutOfBoundsException("Dimensão fora da tabela: " + dimensao);
+        }
+        verificaDimensao(dimensao);
+        return vencedores[dimensao - 1];
+    }
+    
+    /**
+     * Retorna os assentos de um partido num parlamento com uma dada dimensão.
+     * @param dimensao Dimensão do parlamento, entre 0 e getDimensaoMax().
+     * @param partido Índice do partido.
+     * @return Assentos do partido.
+     */
+    public int getAssentos(int dimensao, int partido)
+    {
+        verificaDimensao(dimensao);
+        int inicio = inicioPartido[partido];
+        int fim = inicioPartido[partido + 1];
+        // Número de assentos do partido com número <= dimensao
+        int posicao = Arrays.binarySearch(assentosPorPartido, inicio, fim, dimensao);
+        return (posicao >= 0 ? posicao + 1 : -posicao - 1) - inicio;
+    }
+    
+    /**
+     * Retorna a distribuição de assentos de um parlamento com uma dada dimensão.
+     * @param dimensao Dimensão do parlamento, entre 0 e getDimensaoMax().
+     * @return Vetor com os assentos de cada partido.
+     */
+    public int[] getAssentos(int dimensao)
+    {
+        int[] assentos = new int[getNumeroPartidos()];
+        for (int i = 0; i < assentos.length; i++)
+        {
+            assentos[i] = getAssentos(dimensao, i);
+        }
+        return assentos;
+    }
+    
+    private void verificaDimensao(int dimensao)
+    {
+        if (dimensao < 0 || dimensao > dimensaoMax)
+        {
+            throw new IndexOutOfBoundsException("Dimensão fora da tabela: " + dimensao);
+        }
+    }
+}
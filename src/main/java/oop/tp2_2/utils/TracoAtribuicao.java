@@ -0,0 +1,219 @@
+package oop.tp2_2.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registo da ordem de atribuição dos assentos de uma distribuição por um método de divisores: para cada assento,
+ * o partido vencedor e o divisor do quociente vencedor, e no fim o primeiro quociente vencido (o que receberia
+ * o assento seguinte).
+ * O registo é preenchido pelo {@link MotorDHondt#distribuiComTraco} em vetores primitivos (dois valores por assento,
+ * sem criar objetos) e pode ser reutilizado entre distribuições; a distribuição sem traço não é afetada.
+ * Os quocientes são votos / divisor, com o divisor na escala do método (ver {@link MetodoDivisor}); no método
+ * D'Hondt coincidem com os quocientes habituais.
+ * Os objetos desta classe não são thread-safe.
+ * @author Luis Matos
+ */
+public final class TracoAtribuicao
+{
+    private long[] votos = new long[16];
+    private int[] assentosPartido = new int[16];
+    private int[] vencedores = new int[256];
+    private long[] divisores = new long[256];
+    private int partidos;
+    private int assentos;
+    private int vencedorSeguinte = -1;
+    private long divisorSeguinte;
+    
+    /**
+     * Prepara o registo para uma nova distribuição, copiando os votos dos partidos.
+     */
+    void inicia(long[] votos, int n, int assentosTotal)
+    {
+        if (this.votos.length < n)
+        {
+            this.votos = new long[Math.max(n, this.votos.length * 2)];
+            this.assentosPartido = new int[this.votos.length];
+        }
+        System.arraycopy(votos, 0, this.votos, 0, n);
+        Arrays.fill(assentosPartido, 0, n, 0);
+        if (vencedores.length < assentosTotal)
+        {
+            vencedores = new int[Math.max(assentosTotal, vencedores.length * 2)];
+            divisores = new long[vencedores.length];
+        }
+        this.partidos = n;
+        this.assentos = 0;
+        this.vencedorSeguinte = -1;
+        this.divisorSeguinte = 0;
+    }
+    
+    /**
+     * Regista a atribuição do assento seguinte.
+     */
+    void regista(int partido, long divisor)
+    {
+        vencedores[assentos] = partido;
+        divisores[assentos++] = divisor;
+        assentosPartido[partido]++;
+    }
+    
+    /**
+     * Regista o primeiro quociente vencido no fim da distribuição.
+     */
+    void registaSeguinte(int partido, long divisor)
+    {
+        vencedorSeguinte = partido;
+        divisorSeguinte = divisor;
+    }
+    
+    // Getters
+    public int getNumeroPartidos()
+    {
+        return partidos;
+    }
+    
+    public int getNumeroAssentos()
+    {
+        return assentos;
+    }
+    
+    public long getVotos(int partido)
+    {
+        return votos[partido];
+    }
+    
+    public int getAssentos(int partido)
+    {
+        return assentosPartido[partido];
+    }
+    
+    /**
+     * Retorna o partido que recebeu um assento.
+     * @param assento Número do assento, entre 1 e getNumeroAssentos().
+     * @return Índice do partido vencedor.
+     */
+    public int getVencedor(int assento)
+    {
+        return vencedores[verificaAssento(assento)];
+    }
+    
+    /**
+     * Retorna o divisor do quociente que recebeu um assento.
+     * @param assento Número do assento, entre 1 e getNumeroAssentos().
+     * @return O divisor, na escala do método.
+     */
+    public long getDivisor(int assento)
+    {
+        return divisores[verificaAssento(assento)];
+    }
+    
+    /**
+     * Retorna o quociente que recebeu um assento.
+     * @param assento Número do assento, entre 1 e getNumeroAssentos().
+     * @return O quociente votos / divisor.
+     */
+    public double getQuociente(int assento)
+    {
+        int indice = verificaAssento(assento);
+        return (double) votos[vencedores[indice]] / divisores[indice];
+    }
+    
+    /**
+     * Procura o k-ésimo assento obtido por um partido.
+     * @param partido Índice do partido.
+     * @param k Ordem do assento do partido (1 para o primeiro).
+     * @return Número do assento, ou -1 se o partido obteve menos de k assentos.
+     */
+    public int getAssentoDoPartido(int partido, int k)
+    {
+        if (k < 1 || k > assentosPartido[partido])
+        {
+            return -1;
+        }
+        for (int i = 0, contagem = 0; i < assentos; i++)
+        {
+            if (vencedores[i] == partido && ++contagem == k)
+            {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Retorna o número do último assento atribuído.
+     * @return O último assento, ou 0 se nenhum assento foi atribuído.
+     */
+    public int getUltimoAssento()
+    {
+        return assentos;
+    }
+    
+    /**
+     * Retorna o partido do primeiro quociente vencido (o que receberia o assento seguinte).
+     * @return Índice do partido, ou -1 se nenhum partido é elegível.
+     */
+    public int getVencedorSeguinte()
+    {
+        return vencedorSeguinte;
+    }
+    
+    /**
+     * Retorna o divisor do primeiro quociente vencido.
+     * @return O divisor, na escala do método (0 se nenhum partido é elegível).
+     */
+    public long getDivisorSeguinte()
+    {
+        return divisorSeguinte;
+    }
+    
+    /**
+     * Retorna o primeiro quociente vencido (o que receberia o assento seguinte).
+     * @return O quociente votos / divisor, ou NaN se nenhum partido é elegível.
+     */
+    public double getQuocienteSeguinte()
+    {
+        return vencedorSeguinte < 0 ? Double.NaN : (double) votos[vencedorSeguinte] / divisorSeguinte;
+    }
+    
+    /**
+     * Exporta o registo em CSV: uma linha por assento (assento, partido, votos, divisor, quociente) e uma linha
+     * final com o assento seguinte ao último, para o primeiro quociente vencido. O Writer não é fechado.
+     * @param saida Writer de destino.
+     * @param nomes Nomes dos partidos, pela ordem dos votos (ou null para usar os índices).
+     * @throws IOException Se a escrita falhar.
+     */
+    public void escreveCsv(Writer saida, List<String> nomes) throws IOException
+    {
+        saida.write("assento,partido,votos,divisor,quociente\n");
+        for (int i = 0; i < assentos; i++)
+        {
+            escreveLinhaCsv(saida, nomes, i + 1, vencedores[i], divisores[i]);
+        }
+        if (vencedorSeguinte >= 0)
+        {
+            escreveLinhaCsv(saida, nomes, assentos + 1, vencedorSeguinte, divisorSeguinte);
+        }
+        saida.flush();
+    }
+    
+    private void escreveLinhaCsv(Writer saida, List<String> nomes, int assento, int partido, long divisor)
+            throws IOException
+    {
+        String nome = nomes == null ? String.valueOf(partido) : nomes.get(partido);
+        saida.write(assento + "," + EscritorRelatorios.campoCsv(nome) + "," + votos[partido] + "," + divisor + ","
+                + EscritorRelatorios.campoCsv((double) votos[partido] / divisor) + "\n");
+    }
+    
+    private int verificaAssento(int assento)
+    {
+        if (assento < 1 || assento > assentos)
+        {
+            throw new IndexOutOfBoundsException("Assento inexistente: " + assento);
+        }
+        return assento - 1;
+    }
+}
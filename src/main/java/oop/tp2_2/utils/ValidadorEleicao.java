@@ -1,6 +1,7 @@
 package oop.tp2_2.utils;
 
 import oop.tp2_2.models.Partido;
+import oop.tp2_2.models.ResultadoValidacao;
 import java.util.List;
 
 /**
@@ -11,31 +12,60 @@ import java.util.List;
 public class ValidadorEleicao
 {
     // Constantes para limites eleitorais (em percentagens)
-    private static final double PERCENTAGEM_LIMITE_MIN = 1.75;
-    private static final double PERCENTAGEM_LIMITE_MAX = 36.25;
-    private static final double PERCENTAGEM_DIFERENCA_MAX = 1.75;
+    static final double PERCENTAGEM_LIMITE_MIN = 1.75;
+    static final double PERCENTAGEM_LIMITE_MAX = 36.25;
+    static final double PERCENTAGEM_DIFERENCA_MAX = 1.75;
     
     /**
      * Método para validar e aplicar restrições eleitorais à lista de partidos.
-     * Mostra a informação sobre as restrições e aplica o limite máximo de votos.
-     * @param partidos Lista de todos os partidos participantes.
+     * Mostra a informação sobre as restrições e aplica o limite máximo de votos, redistribuindo os votos cortados
+     * na proporção dos votos dos restantes partidos.
+     * @param partidos Lista de todos os partidos participantes (os votos são ajustados).
      * @param totalVotos Número total de votos válidos lançados na eleição.
      */
-    
     public static void validaEAplicaRestricoes(List<Partido> partidos, int totalVotos)
     {
+        validaEAplicaRestricoes(partidos, totalVotos, AplicadorRestricoes.RegraRedistribuicao.PROPORCIONAL);
+    }
+    
+    /**
+     * Método para validar e aplicar restrições eleitorais à lista de partidos, com uma regra de redistribuição
+     * dos votos cortados.
+     * @param partidos Lista de todos os partidos participantes (os votos são ajustados).
+     * @param totalVotos Número total de votos válidos lançados na eleição.
+     * @param regra Regra de redistribuição dos votos cortados pelo limite máximo e pela diferença máxima.
+     */
+    public static void validaEAplicaRestricoes(List<Partido> partidos, int totalVotos,
+            AplicadorRestricoes.RegraRedistribuicao regra)
+    {
+        EventosEleicao.Validacao evento = new EventosEleicao.Validacao();
+        evento.begin();
+        long inicio = Metricas.inicio();
         System.out.println("=== A APLICAR RESTRIÇÕES ELEITORAIS ===");
         
-        // Calcula o valor absoluto de votos a partir das percentagens.
+        // Aplica o limite máximo de votos e a diferença máxima aos partidos no topo.
         int limiteVotosMin = calculaLimiteVotosMin(totalVotos);
-        int limiteVotosMax = calculaLimiteVotosMax(totalVotos);
-        int diferencaMaxVotos = calculaDiferencaMaxVotos(totalVotos);
+        ResultadoValidacao resultado = aplicaRestricoes(partidos, totalVotos, limiteVotosMin, regra);
         
-        // Mostra a informação sobre as restrições ao utilizador.
-        mostraInfoRestricoes(limiteVotosMin, limiteVotosMax, diferencaMaxVotos, totalVotos);
+        // Mostra a informação sobre as restrições e a sua aplicação ao utilizador.
+        mostraInfoRestricoes(limiteVotosMin, resultado.getLimiteVotosMax(), resultado.getDiferencaMaxVotos(),
+                totalVotos);
+        mostraAplicacaoRestricoes(partidos, resultado, regra);
         
-        // Aplica o limite máximo de votos aos partidos no topo.
-        aplicaLimiteVotosMax(partidos, limiteVotosMax, diferencaMaxVotos);
+        // Instrumentação: evento JFR e métricas (os dados só são calculados se forem registados)
+        evento.end();
+        if (Metricas.ATIVAS || evento.shouldCommit())
+        {
+            int elegiveis = getPartidosElegiveis(partidos, limiteVotosMin).size();
+            evento.partidos = partidos.size();
+            evento.partidosElegiveis = elegiveis;
+            evento.totalVotos = totalVotos;
+            evento.limiteVotosMin = limiteVotosMin;
+            evento.commit();
+            Metricas.registaTempo("validacao.tempo", inicio);
+            Metricas.incrementa("validacao.execucoes", 1);
+            Metricas.incrementa("validacao.partidosFiltrados", partidos.size() - elegiveis);
+        }
     }
     
     /**
@@ -48,6 +78,17 @@ public class ValidadorEleicao
         return (int) (totalVotos * PERCENTAGEM_LIMITE_MIN / 100);
     }
     
+    /**
+     * Calcula o valor minímo de votos necessários para a alocação de assentos parlamentares,
+     * para totais de votos que podem exceder o intervalo de um int (p.ex. contagens acumuladas).
+     * @param totalVotos Número total de votos válidos lançados na eleição.
+     * @return Limite minímo de votos em números absolutos a partir das percentagens.
+     */
+    public static long calculaLimiteVotosMin(long totalVotos)
+    {
+        return (long) (totalVotos * PERCENTAGEM_LIMITE_MIN / 100);
+    }
+    
     /**
      * Aplica um filtro à lista de partidos e retorna aqueles que cumprem com o limite minímo para alocação
      * de assentos parlamentares.
@@ -65,7 +106,7 @@ public class ValidadorEleicao
      * @param totalVotos Número total de votos lançados na eleição
      * @return Retorna o valor máximo de votos em números absolutos a partir das percentagens.
      */
-    private static int calculaLimiteVotosMax(int totalVotos)
+    static int calculaLimiteVotosMax(int totalVotos)
     {
         return (int) (totalVotos * PERCENTAGEM_LIMITE_MAX / 100);
     }
@@ -75,11 +116,80 @@ public class ValidadorEleicao
      * @param totalVotos Número total de votos lançados na eleição
      * @return Retorna o valor da diferença máxima de votos em números absolutos a partir das percentagens. 
      */
-    private static int calculaDiferencaMaxVotos(int totalVotos)
+    static int calculaDiferencaMaxVotos(int totalVotos)
     {
         return (int) (totalVotos * PERCENTAGEM_DIFERENCA_MAX / 100);
     }
     
+    /**
+     * Valida e aplica as restrições eleitorais à lista de partidos, sem mostrar nada na consola: calcula os limites,
+     * identifica os dois primeiros partidos e corta e redistribui os votos que excedem o limite máximo e a diferença
+     * máxima (ver {@link AplicadorRestricoes}). Os dois primeiros são obtidos por seleção parcial, sem ordenar a
+     * lista.
+     * @param partidos Lista de todos os partidos participantes (os votos são ajustados).
+     * @param totalVotos Número total de votos válidos lançados na eleição.
+     * @param limiteVotosMin Limite minímo de votos para elegibilidade.
+     * @param regra Regra de redistribuição dos votos cortados.
+     * @return O resultado com os limites e os votos de cada partido antes e depois das restrições.
+     */
+    public static ResultadoValidacao aplicaRestricoes(List<Partido> partidos, int totalVotos, int limiteVotosMin,
+            AplicadorRestricoes.RegraRedistribuicao regra)
+    {
+        int limiteVotosMax = calculaLimiteVotosMax(totalVotos);
+        int diferencaMaxVotos = calculaDiferencaMaxVotos(totalVotos);
+        int[] votosOriginais = new int[partidos.size()];
+        long[] votos = new long[partidos.size()];
+        int primeiro = -1;
+        int segundo = -1;
+        for (int i = 0; i < votos.length; i++)
+        {
+            votosOriginais[i] = partidos.get(i).getVotos();
+            votos[i] = votosOriginais[i];
+            if (primeiro < 0 || votosOriginais[i] > votosOriginais[primeiro])
+            {
+                segundo = primeiro;
+                primeiro = i;
+            }
+            else if (segundo < 0 || votosOriginais[i] > votosOriginais[segundo])
+            {
+                segundo = i;
+            }
+        }
+        
+        // Corta e redistribui os votos até todas as restrições serem cumpridas
+        AplicadorRestricoes aplicador = AplicadorRestricoes.instanciaLocal();
+        long cortados = aplicador.aplica(votos, votos.length, limiteVotosMax, diferencaMaxVotos, regra);
+        int[] votosAjustados = new int[votos.length];
+        for (int i = 0; i < votos.length; i++)
+        {
+            votosAjustados[i] = (int) votos[i];
+            if (votosAjustados[i] != votosOriginais[i])
+            {
+                partidos.get(i).setVotos(votosAjustados[i]);
+            }
+        }
+        return new ResultadoValidacao(totalVotos, limiteVotosMin, limiteVotosMax, diferencaMaxVotos, votosOriginais,
+                votosAjustados, primeiro, segundo, cortados, aplicador.getRondas());
+    }
+    
+    /**
+     * Aplica o limite máximo de votos e a diferença máxima entre os dois primeiros a um vetor de votos, sem alocar
+     * objetos, para uso em ciclos de lotes e simulações (ver {@link AplicadorRestricoes}).
+     * Os limites são calculados sobre o total de votos indicado, tal como em {@link #validaEAplicaRestricoes}.
+     * @param votos Votos de cada partido (o índice identifica o partido); são alterados.
+     * @param n Número de partidos a considerar (prefixo do vetor).
+     * @param totalVotos Número total de votos válidos lançados na eleição.
+     * @param regra Regra de redistribuição dos votos cortados.
+     * @return Total de votos cortados.
+     */
+    public static long aplicaRestricoes(long[] votos, int n, long totalVotos,
+            AplicadorRestricoes.RegraRedistribuicao regra)
+    {
+        long limiteVotosMax = (long) (totalVotos * PERCENTAGEM_LIMITE_MAX / 100);
+        long diferencaMaxVotos = (long) (totalVotos * PERCENTAGEM_DIFERENCA_MAX / 100);
+        return AplicadorRestricoes.instanciaLocal().aplica(votos, n, limiteVotosMax, diferencaMaxVotos, regra);
+    }
+    
     /**
      * Mostra a informação sobre as restrições e limites a aplicar na eleição.
      * @param limiteVotosMin Limite minímo de votos para elegibilidade.
@@ -96,43 +206,74 @@ public class ValidadorEleicao
     }
     
     /**
-     * Aplica os limites máximos de votos e restrições de diferenças de votos entre os dois primeiros partidos.
-     * Numa implementação real, aqui iriam ser ajustadas as contagens de votos para cada partido.
-     * @param partidos Lista de todos os partidos participantes.
-     * @param limiteVotosMax Número máximo de votos permitido para cada partido.
-     * @param diferencaMaxVotos Diferença máxima de votos permitida aos dois primeiros partidos.
+     * Mostra a aplicação dos limites máximos de votos e das restrições de diferenças de votos entre os dois
+     * primeiros partidos: os dois primeiros antes das restrições, as violações e, se houve votos cortados, os dois
+     * primeiros após a redistribuição.
+     * @param partidos Lista de todos os partidos participantes (com os votos já ajustados).
+     * @param resultado Resultado da aplicação das restrições.
+     * @param regra Regra de redistribuição dos votos cortados.
      */
-    private static void aplicaLimiteVotosMax(List<Partido> partidos, int limiteVotosMax, int diferencaMaxVotos)
+    private static void mostraAplicacaoRestricoes(List<Partido> partidos, ResultadoValidacao resultado,
+            AplicadorRestricoes.RegraRedistribuicao regra)
     {
-        //
-        List<Partido> ordenaPorVotos = partidos.stream()
-                .sorted((p1,p2) -> Integer.compare(p2.getVotos(), p1.getVotos())).toList();
+        // Verifica a existência de pelo menos dois partidos para aplicar as restrições
+        if (resultado.getSegundo() < 0)
+        {
+            return;
+        }
+        
+        int votosPrimeiro = resultado.getVotosOriginais(resultado.getPrimeiro());
+        int votosSegundo = resultado.getVotosOriginais(resultado.getSegundo());
+        System.out.printf("\nDois primeiros partidos antes de restrições:%n");
+        System.out.printf("1. %s: %,d votos%n", partidos.get(resultado.getPrimeiro()).getNome(), votosPrimeiro);
+        System.out.printf("2. %s: %,d votos%n", partidos.get(resultado.getSegundo()).getNome(), votosSegundo);
+        
+        // Verifica e mostra as violações de limites máximos de votos, se existirem
+        if (resultado.excedeLimiteMax(resultado.getPrimeiro()) || resultado.excedeLimiteMax(resultado.getSegundo()))
+        {
+            System.out.println("Limite máximo a ser aplicado aos 2 primeiros partidos");
+        }
+        
+        // Verifica e mostra as violações na diferença máxima de votos, se existirem
+        if (resultado.excedeDiferencaMax())
+        {
+            System.out.printf("Restrição de diferença máxima de votos a ser aplicada (atual: %,d, máxima: %,d)%n",
+                    resultado.getDiferencaDoisPrimeiros(), resultado.getDiferencaMaxVotos());
+        }
         
-        // Ordena os partidos por número de votos em ordem descendente
-        // de forma a identificar os dois maiores partidos 
-        if (ordenaPorVotos.size() >= 2)
+        if (resultado.getVotosCortados() == 0)
+        {
+            return;
+        }
+        Partido[] primeiros = doisPrimeiros(partidos);
+        System.out.printf("Votos cortados: %,d (redistribuição: %s, %d ronda(s))%n", resultado.getVotosCortados(),
+                regra.name().toLowerCase(), resultado.getRondas());
+        System.out.printf("Dois primeiros partidos após restrições:%n");
+        System.out.printf("1. %s: %,d votos%n", primeiros[0].getNome(), primeiros[0].getVotos());
+        System.out.printf("2. %s: %,d votos%n", primeiros[1].getNome(), primeiros[1].getVotos());
+    }
+    
+    /**
+     * Seleciona os dois partidos mais votados numa única passagem (em empate precede o primeiro da lista).
+     * @param partidos Lista com pelo menos dois partidos.
+     * @return Vetor com o primeiro e o segundo partidos mais votados.
+     */
+    private static Partido[] doisPrimeiros(List<Partido> partidos)
+    {
+        Partido primeiro = null;
+        Partido segundo = null;
+        for (Partido partido : partidos)
         {
-            Partido primeiro = ordenaPorVotos.get(0);
-            Partido segundo = ordenaPorVotos.get(1);
-            
-            // Verifica a existência de pelo menos dois partidos para aplicar as restrições
-            System.out.printf("\nDois primeiros partidos antes de restrições:%n");
-            System.out.printf("1. %s: %,d votos%n", primeiro.getNome(), primeiro.getVotos());
-            System.out.printf("2. %s: %,d votos%n", segundo.getNome(), segundo.getVotos());
-            
-            // Verifica e mostra as violações de limites máximos de votos, se existirem
-            if (primeiro.getVotos() > limiteVotosMax || segundo.getVotos() > limiteVotosMax)
+            if (primeiro == null || partido.getVotos() > primeiro.getVotos())
             {
-                System.out.println("Limite máximo a ser aplicado aos 2 primeiros partidos");
+                segundo = primeiro;
+                primeiro = partido;
             }
-            
-            // Verifica e mostra as violações na diferença máxima de votos, se existirem
-            int diferencaVotos = Math.abs(primeiro.getVotos() - segundo.getVotos());
-            if (diferencaVotos > diferencaMaxVotos)
+            else if (segundo == null || partido.getVotos() > segundo.getVotos())
             {
-                System.out.printf("Restrição de diferença máxima de votos a ser aplicada (atual: %,d, máxima: %,d)%n",
-                        diferencaVotos, diferencaMaxVotos);
+                segundo = partido;
             }
         }
+        return new Partido[] {primeiro, segundo};
     }
 }
@@ -0,0 +1,202 @@
+package oop.tp2_2.utils;
+
+import oop.tp2_2.models.FaixaLimite;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula a distribuição de assentos para todos os limites minímos de votos entre 0% e uma percentagem máxima,
+ * numa única passagem, para estudos de reforma do limite (ver {@link ValidadorEleicao}).
+ * A distribuição só muda quando o limite ultrapassa os votos de algum partido, pelo que os partidos são ordenados
+ * uma vez por votos e os limites percorridos por ordem crescente. Num método de divisores a ordem relativa dos
+ * quocientes de dois partidos não depende dos restantes, logo a distribuição dos partidos que continuam elegíveis
+ * é um prefixo da nova distribuição: quando um partido deixa de ser elegível apenas os seus assentos são
+ * redistribuídos. Uma única fila de prioridade indexada com o próximo quociente de cada partido elegível é mantida
+ * ao longo de todo o varrimento: cada partido é retirado uma vez e cada assento redistribuído custa uma operação
+ * na fila, pelo que o custo total é O((P + R) log P) (R assentos redistribuídos), próximo do de algumas
+ * distribuições isoladas, e o resultado é idêntico ao de uma distribuição por limite.
+ * Os métodos de quota (Hare-Niemeyer) não têm esta propriedade e não são suportados.
+ * @author Luis Matos
+ */
+public class VarrimentoLimites
+{
+    /**
+     * Calcula a tabela limite -> assentos com o método D'Hondt.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param totalVotos Total de votos sobre o qual as percentagens são calculadas.
+     * @param percentagemMax Maior percentagem de limite minímo a considerar (p.ex. 10).
+     * @return Faixas de limites com a mesma distribuição, por ordem crescente de limite (ver {@link #calcula(long[],
+     *         int, long, double, MetodoDivisor)}).
+     */
+    public static List<FaixaLimite> calcula(long[] votos, int assentosTotal, long totalVotos, double percentagemMax)
+    {
+        return calcula(votos, assentosTotal, totalVotos, percentagemMax, CalculadoraMetodos.D_HONDT);
+    }
+    
+    /**
+     * Calcula a tabela limite -> assentos com um método de divisores.
+     * O limite minímo de votos de uma percentagem p é floor(totalVotos * p / 100), tal como no
+     * {@link ValidadorEleicao}; as faixas cobrem todos os limites entre 0 e o da percentagem máxima, e faixas
+     * consecutivas têm distribuições diferentes.
+     * @param votos Votos de cada partido (o índice identifica o partido).
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param totalVotos Total de votos sobre o qual as percentagens são calculadas.
+     * @param percentagemMax Maior percentagem de limite minímo a considerar (p.ex. 10).
+     * @param metodo Método de divisores.
+     * @return Faixas de limites com a mesma distribuição, por ordem crescente de limite.
+     */
+    public static List<FaixaLimite> calcula(long[] votos, int assentosTotal, long totalVotos, double percentagemMax,
+            MetodoDivisor metodo)
+    {
+        int n = votos.length;
+        long limiteMax = (long) (totalVotos * percentagemMax / 100);
+        
+        // Partidos por ordem crescente de votos: é por esta ordem que deixam de ser elegíveis
+        Integer[] ordem = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Arrays.sort(ordem, Comparator.comparingLong(i -> votos[i]));
+        
+        int[] assentos = CalculadoraMetodos.calculaDistribuicaoAssentos(votos, assentosTotal, 0, metodo);
+        FilaCandidatos candidatos = new FilaCandidatos(votos, assentos, metodo);
+        
+        List<FaixaLimite> faixas = new ArrayList<>();
+        long inicioFaixa = 0;
+        for (int k = 0; k < n; )
+        {
+            // Limite a partir do qual o partido (e os que têm os mesmos votos) deixa de ser elegível
+            long limite = votos[ordem[k]] + 1;
+            if (limite > limiteMax)
+            {
+                break;
+            }
+            int primeiro = k;
+            int libertados = 0;
+            for (; k < n && votos[ordem[k]] < limite; k++)
+            {
+                libertados += assentos[ordem[k]];
+                candidatos.remove(ordem[k]);
+            }
+            if (libertados == 0)
+            {
+                continue; // A distribuição não se altera
+            }
+            
+            // Fecha a faixa corrente e redistribui apenas os assentos dos partidos que deixaram de ser elegíveis
+            faixas.add(new FaixaLimite(inicioFaixa, limite, totalVotos, assentos));
+            inicioFaixa = limite;
+            for (int i = primeiro; i < k; i++)
+            {
+                assentos[ordem[i]] = 0;
+            }
+            for (int assento = 0; assento < libertados && candidatos.tamanho > 0; assento++)
+            {
+                assentos[candidatos.fila[0]]++;
+                candidatos.desce(0);
+            }
+        }
+        faixas.add(new FaixaLimite(inicioFaixa, limiteMax + 1, totalVotos, assentos));
+        return faixas;
+    }
+    
+    /**
+     * Fila de prioridade indexada (max-heap) com o próximo quociente de cada partido elegível, pela ordem de
+     * atribuição do método (com a mesma regra de desempate do {@link MotorDHondt}).
+     */
+    private static final class FilaCandidatos
+    {
+        private final long[] votos;
+        private final int[] assentos;
+        private final MetodoDivisor metodo;
+        private final int[] fila;
+        private final int[] posicoes; // Posição de cada partido na fila, ou -1 se ausente
+        private int tamanho;
+        
+        private FilaCandidatos(long[] votos, int[] assentos, MetodoDivisor metodo)
+        {
+            this.votos = votos;
+            this.assentos = assentos;
+            this.metodo = metodo;
+            this.fila = new int[votos.length];
+            this.posicoes = new int[votos.length];
+            for (int i = 0; i < votos.length; i++)
+            {
+                fila[i] = i;
+                posicoes[i] = i;
+            }
+            this.tamanho = votos.length;
+            for (int posicao = (tamanho >>> 1) - 1; posicao >= 0; posicao--)
+            {
+                desce(posicao);
+            }
+        }
+        
+        private void remove(int partido)
+        {
+            int posicao = posicoes[partido];
+            if (posicao < 0)
+            {
+                return;
+            }
+            int ultimo = fila[--tamanho];
+            posicoes[partido] = -1;
+            if (posicao < tamanho)
+            {
+                coloca(ultimo, posicao);
+                desce(sobe(posicao));
+            }
+        }
+        
+        private int sobe(int posicao)
+        {
+            int partido = fila[posicao];
+            while (posicao > 0)
+            {
+                int pai = (posicao - 1) >>> 1;
+                if (!precede(partido, fila[pai]))
+                {
+                    break;
+                }
+                coloca(fila[pai], posicao);
+                posicao = pai;
+            }
+            coloca(partido, posicao);
+            return posicao;
+        }
+        
+        private void desce(int posicao)
+        {
+            int partido = fila[posicao];
+            while (2 * posicao + 1 < tamanho)
+            {
+                int filho = 2 * posicao + 1;
+                if (filho + 1 < tamanho && precede(fila[filho + 1], fila[filho]))
+                {
+                    filho++;
+                }
+                if (!precede(fila[filho], partido))
+                {
+                    break;
+                }
+                coloca(fila[filho], posicao);
+                posicao = filho;
+            }
+            coloca(partido, posicao);
+        }
+        
+        private void coloca(int partido, int posicao)
+        {
+            fila[posicao] = partido;
+            posicoes[partido] = posicao;
+        }
+        
+        private boolean precede(int i, int j)
+        {
+            int comparacao = MotorDHondt.comparaQuocientes(votos[i], metodo.divisor(assentos[i]), votos[j],
+                    metodo.divisor(assentos[j]));
+            return comparacao < 0 || (comparacao == 0 && i < j);
+        }
+    }
+}
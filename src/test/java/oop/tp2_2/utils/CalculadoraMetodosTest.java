@@ -0,0 +1,59 @@
+package oop.tp2_2.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de equivalência da {@link CalculadoraMetodos}: cada método de divisores é comparado com a atribuição
+ * direta, assento a assento, e o Hare-Niemeyer com os maiores restos exatos; o cálculo em lote tem de coincidir
+ * com o cálculo isolado de cada método.
+ * @author Luis Matos
+ */
+class CalculadoraMetodosTest
+{
+    private static final int EXECUCOES = 1000;
+    
+    @Test
+    void metodosIguaisAReferencia()
+    {
+        Random gerador = new Random(10);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(12));
+            int assentos = gerador.nextInt(120);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            
+            for (MetodoDistribuicao metodo : CalculadoraMetodos.METODOS)
+            {
+                int[] esperado = metodo instanceof MetodoDivisor divisor
+                        ? ReferenciaIngenua.divisores(votos, assentos, limite, divisor::divisor)
+                        : ReferenciaIngenua.hare(votos, assentos, limite);
+                assertArrayEquals(esperado, CalculadoraMetodos.calculaDistribuicaoAssentos(votos, assentos, limite,
+                        metodo), metodo.getNome() + ", execução " + execucao);
+            }
+        }
+    }
+    
+    @Test
+    void loteIgualAoCalculoIsolado()
+    {
+        Random gerador = new Random(11);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(12));
+            int assentos = gerador.nextInt(120);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            
+            Map<MetodoDistribuicao, int[]> lote = CalculadoraMetodos.calculaDistribuicoes(votos, assentos, limite,
+                    CalculadoraMetodos.METODOS);
+            for (MetodoDistribuicao metodo : CalculadoraMetodos.METODOS)
+            {
+                assertArrayEquals(CalculadoraMetodos.calculaDistribuicaoAssentos(votos, assentos, limite, metodo),
+                        lote.get(metodo), metodo.getNome() + ", execução " + execucao);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package oop.tp2_2.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import oop.tp2_2.models.MatrizTransferencias;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de equivalência da {@link CalculadoraTransferencias} (correção local por trocas de assentos) com uma
+ * distribuição direta, assento a assento, dos votos de cada célula da matriz.
+ * @author Luis Matos
+ */
+class CalculadoraTransferenciasTest
+{
+    private static final int EXECUCOES = 200;
+    
+    @Test
+    void matrizIgualARedistribuicaoPorCelula()
+    {
+        Random gerador = new Random(25);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(8));
+            int assentos = gerador.nextInt(60);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            double[] percentagens = { 0, 1, 5 + gerador.nextInt(20), 50, 100 };
+            MetodoDivisor metodo = gerador.nextBoolean() ? CalculadoraMetodos.D_HONDT
+                    : CalculadoraMetodos.SAINTE_LAGUE;
+            String mensagem = metodo.getNome() + ", execução " + execucao;
+            
+            MatrizTransferencias matriz = CalculadoraTransferencias.calcula(votos, assentos, limite, metodo,
+                    percentagens);
+            
+            int[] base = ReferenciaIngenua.divisores(votos, assentos, limite, metodo::divisor);
+            int[] assentosBase = new int[votos.length];
+            for (int i = 0; i < votos.length; i++)
+            {
+                assentosBase[i] = matriz.getAssentosBase(i);
+            }
+            assertArrayEquals(base, assentosBase, mensagem);
+            
+            for (int p = 0; p < percentagens.length; p++)
+            {
+                for (int origem = 0; origem < votos.length; origem++)
+                {
+                    for (int destino = 0; destino < votos.length; destino++)
+                    {
+                        String celula = mensagem + ", " + percentagens[p] + "% de " + origem + " para " + destino;
+                        if (origem == destino)
+                        {
+                            assertEquals(0, matriz.getVariacaoOrigem(p, origem, destino), celula);
+                            assertEquals(0, matriz.getVariacaoDestino(p, origem, destino), celula);
+                            continue;
+                        }
+                        long transferidos = (long) (votos[origem] * percentagens[p] / 100);
+                        long[] votosCelula = votos.clone();
+                        votosCelula[origem] -= transferidos;
+                        votosCelula[destino] += transferidos;
+                        int[] esperado = ReferenciaIngenua.divisores(votosCelula, assentos, limite, metodo::divisor);
+                        
+                        assertEquals(esperado[origem] - base[origem], matriz.getVariacaoOrigem(p, origem, destino),
+                                celula);
+                        assertEquals(esperado[destino] - base[destino],
+                                matriz.getVariacaoDestino(p, origem, destino), celula);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package oop.tp2_2.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import oop.tp2_2.models.Partido;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de equivalência do {@link MotorDHondt} com a atribuição direta, assento a assento, sobre vetores de
+ * votos aleatórios (com empates e partidos sem votos).
+ * @author Luis Matos
+ */
+class MotorDHondtTest
+{
+    private static final int EXECUCOES = 2000;
+    
+    @Test
+    void filaIgualAReferencia()
+    {
+        Random gerador = new Random(1);
+        MotorDHondt motor = new MotorDHondt();
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(12));
+            int assentos = gerador.nextInt(80);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            
+            assertArrayEquals(ReferenciaIngenua.dHondt(votos, assentos, limite),
+                    motor.distribui(votos, votos.length, assentos, limite, null), "execução " + execucao);
+        }
+    }
+    
+    @Test
+    void divisorIgualAReferencia()
+    {
+        Random gerador = new Random(4);
+        MotorDHondt motor = new MotorDHondt();
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(12));
+            int assentos = gerador.nextInt(3) == 0 ? gerador.nextInt(5000) : gerador.nextInt(80);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            
+            assertArrayEquals(ReferenciaIngenua.dHondt(votos, assentos, limite),
+                    motor.distribuiPorDivisor(votos, votos.length, assentos, limite, null), "execução " + execucao);
+        }
+    }
+    
+    @Test
+    void divisorDesempataComoAFila()
+    {
+        // Empates entre partidos com votos diferentes (600/2 = 300/1, 600/3 = 200/1) e com votos iguais (200)
+        long[] votos = { 600, 300, 200, 200, 0 };
+        MotorDHondt motor = new MotorDHondt();
+        for (int assentos = 0; assentos <= 40; assentos++)
+        {
+            assertArrayEquals(motor.distribui(votos, votos.length, assentos, 0, null),
+                    motor.distribuiPorDivisor(votos, votos.length, assentos, 0, null), assentos + " assentos");
+        }
+    }
+    
+    @Test
+    void votosIntIguaisAVotosLong()
+    {
+        Random gerador = new Random(2);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            int[] votos = new int[1 + gerador.nextInt(12)];
+            long[] votosLong = new long[votos.length];
+            for (int i = 0; i < votos.length; i++)
+            {
+                votos[i] = gerador.nextInt(4) == 0 ? 0 : 100 * (1 + gerador.nextInt(20));
+                votosLong[i] = votos[i];
+            }
+            int assentos = gerador.nextInt(80);
+            int limite = gerador.nextInt(3) * 500;
+            
+            assertArrayEquals(ReferenciaIngenua.dHondt(votosLong, assentos, limite),
+                    CalculadoraDHondt.calculaDistribuicaoAssentos(votos, assentos, limite), "execução " + execucao);
+        }
+    }
+    
+    @Test
+    void mapaDePartidosIgualAoVetor()
+    {
+        Random gerador = new Random(3);
+        for (int execucao = 0; execucao < 200; execucao++)
+        {
+            List<Partido> partidos = new ArrayList<>();
+            long[] votos = new long[1 + gerador.nextInt(12)];
+            for (int i = 0; i < votos.length; i++)
+            {
+                votos[i] = gerador.nextInt(4) == 0 ? 0 : 1000 * (1 + gerador.nextInt(50));
+                partidos.add(new Partido("P" + i, (int) votos[i]));
+            }
+            int[] esperado = ReferenciaIngenua.dHondt(votos, 230, 2000);
+            
+            Map<Partido, Integer> mapa = CalculadoraDHondt.calculaDistribuicaoAssentos(partidos, 230, 2000);
+            for (int i = 0; i < partidos.size(); i++)
+            {
+                assertEquals(esperado[i], mapa.get(partidos.get(i)), "execução " + execucao + ", partido " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package oop.tp2_2.utils;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Implementações de referência, diretas e sem otimizações, dos métodos de distribuição de assentos, e gerador de
+ * vetores de votos aleatórios para os testes de equivalência dos caminhos rápidos.
+ * Cada assento é atribuído percorrendo todos os partidos; os quocientes são comparados com BigInteger.
+ * @author Luis Matos
+ */
+final class ReferenciaIngenua
+{
+    private ReferenciaIngenua()
+    {
+    }
+    
+    /**
+     * Distribui os assentos um a um pelo método D'Hondt.
+     * @param votos Votos de cada partido.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return Vetor com os assentos de cada partido.
+     */
+    static int[] dHondt(long[] votos, int assentosTotal, long votosMargemMin)
+    {
+        return divisores(votos, assentosTotal, votosMargemMin, assentos -> assentos + 1L);
+    }
+    
+    /**
+     * Distribui os assentos um a um por um método de divisores: cada assento vai para o maior quociente
+     * votos / divisor; em caso de empate é favorecido o partido com menos votos e, depois, o menor índice.
+     * @param votos Votos de cada partido.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @param divisor Divisor do próximo assento, em função dos assentos já obtidos.
+     * @return Vetor com os assentos de cada partido.
+     */
+    static int[] divisores(long[] votos, int assentosTotal, long votosMargemMin, IntToLongFunction divisor)
+    {
+        int[] assentos = new int[votos.length];
+        for (int assento = 0; assento < assentosTotal; assento++)
+        {
+            int melhor = -1;
+            for (int i = 0; i < votos.length; i++)
+            {
+                if (votos[i] >= votosMargemMin
+                        && (melhor < 0 || precede(votos[i], divisor.applyAsLong(assentos[i]), votos[melhor],
+                                divisor.applyAsLong(assentos[melhor]))))
+                {
+                    melhor = i;
+                }
+            }
+            if (melhor < 0)
+            {
+                break;
+            }
+            assentos[melhor]++;
+        }
+        return assentos;
+    }
+    
+    /**
+     * Distribui os assentos pelo método de Hare-Niemeyer: quota inferior e maiores restos (empates para o partido
+     * com menos votos e, depois, para o menor índice).
+     * @param votos Votos de cada partido.
+     * @param assentosTotal Número total de assentos para alocar.
+     * @param votosMargemMin Limite minímo de votos para elegibilidade de alocação de assentos.
+     * @return Vetor com os assentos de cada partido.
+     */
+    static int[] hare(long[] votos, int assentosTotal, long votosMargemMin)
+    {
+        int[] assentos = new int[votos.length];
+        BigInteger total = BigInteger.ZERO;
+        for (long votosPartido : votos)
+        {
+            if (votosPartido >= votosMargemMin)
+            {
+                total = total.add(BigInteger.valueOf(votosPartido));
+            }
+        }
+        if (total.signum() == 0 || assentosTotal <= 0)
+        {
+            return assentos;
+        }
+        BigInteger[] restos = new BigInteger[votos.length];
+        int atribuidos = 0;
+        for (int i = 0; i < votos.length; i++)
+        {
+            if (votos[i] >= votosMargemMin)
+            {
+                BigInteger[] divisao = BigInteger.valueOf(votos[i]).multiply(BigInteger.valueOf(assentosTotal))
+                        .divideAndRemainder(total);
+                assentos[i] = divisao[0].intValueExact();
+                restos[i] = divisao[1];
+                atribuidos += assentos[i];
+            }
+        }
+        boolean[] usado = new boolean[votos.length];
+        for (; atribuidos < assentosTotal; atribuidos++)
+        {
+            int melhor = -1;
+            for (int i = 0; i < votos.length; i++)
+            {
+                if (restos[i] == null || usado[i])
+                {
+                    continue;
+                }
+                if (melhor < 0)
+                {
+                    melhor = i;
+                    continue;
+                }
+                int comparacao = restos[i].compareTo(restos[melhor]);
+                if (comparacao > 0 || (comparacao == 0 && votos[i] < votos[melhor]))
+                {
+                    melhor = i;
+                }
+            }
+            usado[melhor] = true;
+            assentos[melhor]++;
+        }
+        return assentos;
+    }
+    
+    /**
+     * Verifica se o quociente votos1 / divisor1 recebe o assento antes de votos2 / divisor2 (o partido com menos
+     * votos em caso de empate; com votos iguais não precede, para que o menor índice ganhe).
+     */
+    private static boolean precede(long votos1, long divisor1, long votos2, long divisor2)
+    {
+        int comparacao = BigInteger.valueOf(votos1).multiply(BigInteger.valueOf(divisor2))
+                .compareTo(BigInteger.valueOf(votos2).multiply(BigInteger.valueOf(divisor1)));
+        return comparacao > 0 || (comparacao == 0 && votos1 < votos2);
+    }
+    
+    /**
+     * Gera um vetor de votos aleatório com empates frequentes: partidos sem votos, partidos com os mesmos votos e
+     * partidos com votos múltiplos uns dos outros (quocientes iguais com divisores diferentes).
+     * @param gerador Gerador aleatório.
+     * @param partidos Número de partidos.
+     * @return Vetor de votos.
+     */
+    static long[] votosAleatorios(Random gerador, int partidos)
+    {
+        long[] votos = new long[partidos];
+        long base = 1 + gerador.nextInt(1000);
+        for (int i = 0; i < partidos; i++)
+        {
+            switch (gerador.nextInt(5))
+            {
+                case 0 -> votos[i] = 0;
+                case 1 -> votos[i] = base * (1 + gerador.nextInt(6));
+                case 2 -> votos[i] = i > 0 ? votos[gerador.nextInt(i)] : base;
+                case 3 -> votos[i] = 1 + gerador.nextInt(2_000_000);
+                default -> votos[i] = 1 + (gerador.nextLong() >>> 24); // Até 2^40, para os produtos de 128 bits
+            }
+        }
+        return votos;
+    }
+    
+    /**
+     * Escolhe um limite minímo de votos aleatório: 0, os votos exatos de um partido ou um valor intermédio.
+     * @param gerador Gerador aleatório.
+     * @param votos Votos de cada partido.
+     * @return Limite minímo de votos.
+     */
+    static long limiteAleatorio(Random gerador, long[] votos)
+    {
+        switch (gerador.nextInt(3))
+        {
+            case 0:
+                return 0;
+            case 1:
+                return votos[gerador.nextInt(votos.length)];
+            default:
+                return 1 + gerador.nextInt(1000);
+        }
+    }
+}
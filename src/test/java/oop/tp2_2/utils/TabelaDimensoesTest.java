@@ -0,0 +1,66 @@
+package oop.tp2_2.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de equivalência da {@link TabelaDimensoes} e do percurso por dimensões com uma distribuição direta,
+ * assento a assento, para cada dimensão do parlamento.
+ * @author Luis Matos
+ */
+class TabelaDimensoesTest
+{
+    private static final int EXECUCOES = 300;
+    
+    @Test
+    void tabelaIgualADistribuicaoPorDimensao()
+    {
+        Random gerador = new Random(21);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(10));
+            int assentosMax = gerador.nextInt(150);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            boolean haElegiveis = false;
+            for (long votosPartido : votos)
+            {
+                haElegiveis |= votosPartido >= limite;
+            }
+            
+            TabelaDimensoes tabela = CalculadoraDHondt.calculaTabelaDimensoes(votos, assentosMax, limite);
+            
+            assertEquals(haElegiveis ? assentosMax : 0, tabela.getDimensaoMax(), "execução " + execucao);
+            for (int dimensao = 0; dimensao <= tabela.getDimensaoMax(); dimensao++)
+            {
+                assertArrayEquals(ReferenciaIngenua.dHondt(votos, dimensao, limite), tabela.getAssentos(dimensao),
+                        "execução " + execucao + ", dimensão " + dimensao);
+            }
+        }
+    }
+    
+    @Test
+    void percursoIgualADistribuicaoPorDimensao()
+    {
+        Random gerador = new Random(22);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = ReferenciaIngenua.votosAleatorios(gerador, 1 + gerador.nextInt(10));
+            int assentosMax = gerador.nextInt(150);
+            long limite = ReferenciaIngenua.limiteAleatorio(gerador, votos);
+            String mensagem = "execução " + execucao;
+            
+            int[] dimensoesVistas = new int[1];
+            int atribuidos = CalculadoraDHondt.percorreDimensoes(votos, assentosMax, limite,
+                    (dimensao, partido, assentos) ->
+                    {
+                        assertEquals(++dimensoesVistas[0], dimensao, mensagem);
+                        assertArrayEquals(ReferenciaIngenua.dHondt(votos, dimensao, limite), assentos,
+                                mensagem + ", dimensão " + dimensao);
+                    });
+            assertEquals(atribuidos, dimensoesVistas[0], mensagem);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package oop.tp2_2.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import oop.tp2_2.models.FaixaLimite;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes de equivalência do {@link VarrimentoLimites} com uma distribuição direta, assento a assento, para cada
+ * limite minímo de votos.
+ * @author Luis Matos
+ */
+class VarrimentoLimitesTest
+{
+    private static final int EXECUCOES = 500;
+    
+    @Test
+    void faixasIguaisADistribuicaoPorLimite()
+    {
+        Random gerador = new Random(20);
+        for (int execucao = 0; execucao < EXECUCOES; execucao++)
+        {
+            long[] votos = votosPequenos(gerador, 1 + gerador.nextInt(10));
+            int assentos = gerador.nextInt(60);
+            long totalVotos = Arrays.stream(votos).sum();
+            double percentagemMax = 5 + gerador.nextInt(46);
+            MetodoDivisor metodo = gerador.nextBoolean() ? CalculadoraMetodos.D_HONDT
+                    : CalculadoraMetodos.SAINTE_LAGUE;
+            String mensagem = metodo.getNome() + ", execução " + execucao;
+            
+            List<FaixaLimite> faixas = VarrimentoLimites.calcula(votos, assentos, totalVotos, percentagemMax, metodo);
+            
+            // As faixas cobrem todos os limites de 0 ao limite da percentagem máxima, sem repetir distribuições
+            long limiteMax = (long) (totalVotos * percentagemMax / 100);
+            assertEquals(0, faixas.get(0).getLimiteInicio(), mensagem);
+            assertEquals(limiteMax + 1, faixas.get(faixas.size() - 1).getLimiteFim(), mensagem);
+            for (int i = 1; i < faixas.size(); i++)
+            {
+                assertEquals(faixas.get(i - 1).getLimiteFim(), faixas.get(i).getLimiteInicio(), mensagem);
+                assertFalse(Arrays.equals(faixas.get(i - 1).getAssentos(), faixas.get(i).getAssentos()), mensagem);
+            }
+            
+            for (long limite = 0; limite <= limiteMax; limite++)
+            {
+                FaixaLimite faixa = faixaDe(faixas, limite);
+                assertArrayEquals(ReferenciaIngenua.divisores(votos, assentos, limite, metodo::divisor),
+                        faixa.getAssentos(), mensagem + ", limite " + limite);
+            }
+        }
+    }
+    
+    /**
+     * Procura a faixa que contém um limite.
+     */
+    private static FaixaLimite faixaDe(List<FaixaLimite> faixas, long limite)
+    {
+        for (FaixaLimite faixa : faixas)
+        {
+            if (faixa.contem(limite))
+            {
+                return faixa;
+            }
+        }
+        throw new AssertionError("Nenhuma faixa contém o limite " + limite);
+    }
+    
+    /**
+     * Gera votos pequenos (para percorrer todos os limites), com partidos sem votos e votos repetidos.
+     */
+    private static long[] votosPequenos(Random gerador, int partidos)
+    {
+        long[] votos = new long[partidos];
+        for (int i = 0; i < partidos; i++)
+        {
+            switch (gerador.nextInt(4))
+            {
+                case 0 -> votos[i] = 0;
+                case 1 -> votos[i] = i > 0 ? votos[gerador.nextInt(i)] : 50;
+                default -> votos[i] = 1 + gerador.nextInt(400);
+            }
+        }
+        return votos;
+    }
+}